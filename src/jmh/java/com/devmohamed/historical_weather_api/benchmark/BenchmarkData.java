@@ -0,0 +1,70 @@
+package com.devmohamed.historical_weather_api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Synthetic Open-Meteo payloads and a mapper configured like the one Spring Boot builds.
+ */
+final class BenchmarkData {
+
+    static final LocalDateTime START = LocalDateTime.parse("2014-01-01T00:00");
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @return A mapper from the same builder Spring Boot uses, so with the JavaTimeModule,
+     * ISO date-times and unknown properties ignored.
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    /**
+     * Builds the body of an hourly temperature response as Open-Meteo sends it.
+     *
+     * @param days      Number of days, 24 hourly values each.
+     * @param nullRatio Share of the hours sent as null.
+     */
+    static byte[] hourlyPayload(int days, double nullRatio) {
+        double[] values = hourlyValues(days, nullRatio);
+        StringBuilder json = new StringBuilder(values.length * 30 + 512);
+        json.append("{\"latitude\":52.52,\"longitude\":13.419998,\"generationtime_ms\":0.05,")
+                .append("\"utc_offset_seconds\":0,\"timezone\":\"GMT\",\"timezone_abbreviation\":\"GMT\",")
+                .append("\"elevation\":38.0,\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\"},")
+                .append("\"hourly\":{\"time\":[");
+        for (int i = 0; i < values.length; i++) {
+            json.append(i == 0 ? "\"" : ",\"").append(TIME_FORMAT.format(START.plusHours(i))).append('"');
+        }
+        json.append("],\"temperature_2m\":[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(Double.isNaN(values[i]) ? "null" : Double.toString(values[i]));
+        }
+        return json.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Plausible temperatures with one decimal and NaN for missing hours, from a fixed seed.
+     */
+    static double[] hourlyValues(int days, double nullRatio) {
+        Random random = new Random(42);
+        double[] values = new double[days * 24];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() < nullRatio
+                    ? Double.NaN
+                    : Math.round((10 + 8 * Math.sin(i * Math.PI / 12) + random.nextGaussian() * 3) * 10) / 10.0;
+        }
+        return values;
+    }
+}
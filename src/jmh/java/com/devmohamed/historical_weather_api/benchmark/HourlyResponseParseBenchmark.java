@@ -0,0 +1,98 @@
+package com.devmohamed.historical_weather_api.benchmark;
+
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Jackson deserialization of an Open-Meteo hourly response at 1 day, 1 month, 1 year
+ * and 10 years of hourly data, as the RestTemplate message converter does it, both from the
+ * plain body and inflated while parsing from the gzipped body Open-Meteo sends by default.
+ * {@code parseBoxed} binds the same body the way the hourly block was bound before the
+ * streaming deserializer; the gc profiler's {@code gc.alloc.rate.norm} compares the bytes
+ * allocated per parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HourlyResponseParseBenchmark {
+
+    @Param({"1", "31", "365", "3650"})
+    private int days;
+
+    @Param({"0.0", "0.05"})
+    private double nullRatio;
+
+    private ObjectReader reader;
+    private ObjectReader boxedReader;
+    private byte[] payload;
+    private byte[] gzipped;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = BenchmarkData.objectMapper();
+        reader = mapper.readerFor(HourlyForecastResponse.class);
+        boxedReader = mapper.readerFor(BoxedForecast.class);
+        payload = BenchmarkData.hourlyPayload(days, nullRatio);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(payload);
+        }
+        gzipped = compressed.toByteArray();
+        System.out.printf("%n%d days: %d bytes as JSON, %d bytes gzipped%n", days, payload.length, gzipped.length);
+    }
+
+    @Benchmark
+    public HourlyForecastResponse parse() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    @Benchmark
+    public HourlyForecastResponse parseGzipped() throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return reader.readValue(in);
+        }
+    }
+
+    @Benchmark
+    public BoxedForecast parseBoxed() throws IOException {
+        return boxedReader.readValue(payload);
+    }
+
+    /**
+     * The previous data binding of the hourly block, kept here as the allocation baseline.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BoxedForecast {
+
+        public BoxedHourly hourly;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BoxedHourly {
+
+        public List<String> time;
+
+        @JsonProperty("temperature_2m")
+        public List<Double> temperature2m;
+    }
+}
@@ -0,0 +1,112 @@
+package com.devmohamed.historical_weather_api.benchmark;
+
+import com.devmohamed.historical_weather_api.model.BatchStatsItem;
+import com.devmohamed.historical_weather_api.model.BatchStatsResponse;
+import com.devmohamed.historical_weather_api.model.BatchStatsResult;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.RangePlan;
+import com.devmohamed.historical_weather_api.model.RangeSummary;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import com.devmohamed.historical_weather_api.model.WeatherStatResponse;
+import com.devmohamed.historical_weather_api.model.WeatherSummaryResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding of the stats response bodies in each format a client can ask for: JSON as is,
+ * JSON gzipped as the server compression does it, CBOR and Smile. The time per operation is
+ * the CPU cost per response; the setup prints the bytes each body takes on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "json-gzip", "cbor", "smile"})
+    private String format;
+
+    private ObjectWriter writer;
+    private boolean gzip;
+    private WeatherStatResponse statResponse;
+    private WeatherSummaryResponse summaryResponse;
+    private BatchStatsResponse batchResponse;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> BenchmarkData.objectMapper();
+        };
+        writer = mapper.writer();
+        gzip = format.equals("json-gzip");
+
+        statResponse = new WeatherStatResponse(52.52, 13.41, "2024-01-01", "2024-12-31", "max", 34.7);
+        SeriesAggregate aggregate = SeriesAggregate.of(
+                new HourlySeries(BenchmarkData.START.toLocalDate(), BenchmarkData.hourlyValues(366, 0.01)));
+        summaryResponse = new WeatherSummaryResponse(52.52, 13.41, "2024-01-01", "2024-12-31",
+                new RangeSummary(aggregate, new RangePlan(RangePlan.Unit.WHOLE, List.of(), 1)));
+        batchResponse = batch(aggregate, 100);
+
+        System.out.printf("%n%s: statistic %d bytes, summary %d bytes, batch of 100 %d bytes%n", format,
+                statistic().length, summary().length, batch().length);
+    }
+
+    @Benchmark
+    public byte[] statistic() throws IOException {
+        return encode(statResponse);
+    }
+
+    @Benchmark
+    public byte[] summary() throws IOException {
+        return encode(summaryResponse);
+    }
+
+    @Benchmark
+    public byte[] batch() throws IOException {
+        return encode(batchResponse);
+    }
+
+    private byte[] encode(Object body) throws IOException {
+        if (!gzip) {
+            return writer.writeValueAsBytes(body);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            writer.writeValue(out, body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static BatchStatsResponse batch(SeriesAggregate aggregate, int items) {
+        List<BatchStatsResult> results = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            BatchStatsItem item = new BatchStatsItem(40 + i * 0.25, -3 + i * 0.5, "2024-01-01", "2024-12-31",
+                    List.of("max", "min", "avg"));
+            Map<String, Double> statistics = new LinkedHashMap<>();
+            statistics.put("max", aggregate.getMax() + i * 0.1);
+            statistics.put("min", aggregate.getMin() - i * 0.1);
+            statistics.put("avg", aggregate.getMean() + i * 0.01);
+            results.add(BatchStatsResult.success(i, item, statistics));
+        }
+        return new BatchStatsResponse(results, items / 10);
+    }
+}
@@ -0,0 +1,54 @@
+package com.devmohamed.historical_weather_api.benchmark;
+
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.RangePlan;
+import com.devmohamed.historical_weather_api.model.RangeSummary;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import com.devmohamed.historical_weather_api.model.WeatherStatResponse;
+import com.devmohamed.historical_weather_api.model.WeatherSummaryResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response bodies written by WeatherStatsController.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponseSerializationBenchmark {
+
+    private ObjectWriter writer;
+    private WeatherStatResponse statResponse;
+    private WeatherSummaryResponse summaryResponse;
+
+    @Setup
+    public void setUp() {
+        writer = BenchmarkData.objectMapper().writer();
+        statResponse = new WeatherStatResponse(52.52, 13.41, "2024-01-01", "2024-12-31", "max", 34.7);
+        SeriesAggregate aggregate = SeriesAggregate.of(
+                new HourlySeries(BenchmarkData.START.toLocalDate(), BenchmarkData.hourlyValues(366, 0.01)));
+        RangePlan plan = new RangePlan(RangePlan.Unit.WHOLE, List.of(), 1);
+        summaryResponse = new WeatherSummaryResponse(52.52, 13.41, "2024-01-01", "2024-12-31",
+                new RangeSummary(aggregate, plan));
+    }
+
+    @Benchmark
+    public byte[] statistic() throws JsonProcessingException {
+        return writer.writeValueAsBytes(statResponse);
+    }
+
+    @Benchmark
+    public byte[] summary() throws JsonProcessingException {
+        return writer.writeValueAsBytes(summaryResponse);
+    }
+}
@@ -0,0 +1,123 @@
+package com.devmohamed.historical_weather_api.benchmark;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HourlyData;
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import com.devmohamed.historical_weather_api.provider.HotLocationTracker;
+import com.devmohamed.historical_weather_api.provider.HourlyDayCache;
+import com.devmohamed.historical_weather_api.provider.HourlyRollupIndex;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesService;
+import com.devmohamed.historical_weather_api.provider.HourlyTemperatureStore;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoGateway;
+import com.devmohamed.historical_weather_api.provider.RangePlanner;
+import com.devmohamed.historical_weather_api.provider.WeatherStatService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The max, min and average statistics of WeatherStatService over an already parsed response,
+ * with and without missing hours, and the bucketing pass of the series endpoint. The upstream
+ * is a stub answering with the same response, and the cache, the rollup index and range
+ * chunking are off, so every call runs the whole pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WeatherStatBenchmark {
+
+    @Param({"31", "365", "3650"})
+    private int days;
+
+    @Param({"0.0", "0.05"})
+    private double nullRatio;
+
+    private WeatherStatService weatherStatService;
+    private HourlySeries series;
+    private String startDate;
+    private String endDate;
+
+    @Setup
+    public void setUp() {
+        double[] values = BenchmarkData.hourlyValues(days, nullRatio);
+        HourlyData hourly = new HourlyData();
+        hourly.setStartTime(BenchmarkData.START);
+        hourly.setTimeCount(values.length);
+        hourly.setTemperature2m(values);
+        HourlyForecastResponse response = new HourlyForecastResponse();
+        response.setHourly(hourly);
+
+        OpenMeteoProperties properties = new OpenMeteoProperties();
+        properties.getCache().setEnabled(false);
+        properties.getRollup().setEnabled(false);
+        properties.getChunking().setEnabled(false);
+        OpenMeteoClientService stub = new OpenMeteoClientService(null) {
+            @Override
+            public HourlyForecastResponse getHourly(double latitude, double longitude, String startDate,
+                                                        String endDate, Set<HourlyVariable> variables) {
+                return response;
+            }
+        };
+        HourlySeriesService seriesService = new HourlySeriesService(new OpenMeteoGateway(stub, properties),
+                new HourlyDayCache(properties), new HourlyTemperatureStore(properties), properties);
+        weatherStatService = new WeatherStatService(seriesService, new HourlyRollupIndex(properties),
+                new RangePlanner(properties), new HotLocationTracker(properties));
+
+        series = new HourlySeries(BenchmarkData.START.toLocalDate(), values);
+        startDate = BenchmarkData.START.toLocalDate().toString();
+        endDate = BenchmarkData.START.toLocalDate().plusDays(days - 1).toString();
+    }
+
+    @Benchmark
+    public OptionalDouble maximum() {
+        return weatherStatService.getMaximumTemperature(52.52, 13.41, startDate, endDate);
+    }
+
+    @Benchmark
+    public OptionalDouble minimum() {
+        return weatherStatService.getMinimumTemperature(52.52, 13.41, startDate, endDate);
+    }
+
+    @Benchmark
+    public OptionalDouble average() {
+        return weatherStatService.getAverageTemperature(52.52, 13.41, startDate, endDate);
+    }
+
+    /**
+     * The single pass alone, without the service and gateway around it.
+     */
+    @Benchmark
+    public SeriesAggregate aggregate() {
+        return SeriesAggregate.of(series);
+    }
+
+    /**
+     * The single pass of the series endpoint into day buckets.
+     */
+    @Benchmark
+    public SeriesBuckets dailyBuckets() {
+        return SeriesBuckets.of(series, SeriesBuckets.Unit.DAY);
+    }
+
+    /**
+     * The single pass of the series endpoint into month buckets.
+     */
+    @Benchmark
+    public SeriesBuckets monthlyBuckets() {
+        return SeriesBuckets.of(series, SeriesBuckets.Unit.MONTH);
+    }
+}
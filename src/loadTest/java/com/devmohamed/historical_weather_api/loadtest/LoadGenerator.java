@@ -0,0 +1,332 @@
+package com.devmohamed.historical_weather_api.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are started at a constant arrival rate whether or not
+ * earlier ones have finished, each on its own virtual thread. Latency is measured from the
+ * moment a request was scheduled to start, not from when it was sent, so a stalled server
+ * shows up in the percentiles instead of silently lowering the offered load.
+ *
+ * <p>While a phase runs, the requests in flight, used heap, live threads and process CPU time
+ * are sampled, so the servlet and reactive stacks can be compared by concurrency per core and
+ * memory per in-flight request. The stand-in and the generator share the JVM with the
+ * application, so the absolute numbers include them; compare runs, not single values.
+ */
+public class LoadGenerator {
+
+    private static final String[] ENDPOINTS = {"max", "min", "avg", "summary"};
+
+    // Range lengths in days, picked uniformly
+    private static final int[] RANGE_DAYS = {1, 7, 31, 92, 365};
+
+    private static final long SAMPLE_INTERVAL_MS = 50;
+
+    private final Settings settings;
+    private final String baseUrl;
+    private final HttpClient client;
+
+    public LoadGenerator(Settings settings, String baseUrl) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Runs the warm-up and then the measured phase.
+     *
+     * @return The report of the measured phase only.
+     */
+    public Report run() {
+        if (settings.warmupSeconds > 0) {
+            runPhase(settings.warmupSeconds, new Random(1));
+        }
+        return runPhase(settings.durationSeconds, new Random(2));
+    }
+
+    private Report runPhase(int seconds, Random random) {
+        int total = (int) Math.round(settings.rate * seconds);
+        long interval = Math.round(1e9 / settings.rate);
+        long[] latencies = new long[total];
+        int[] statuses = new int[total];
+        int[] bodyBytes = new int[total];
+        double[][] locations = locations(random);
+
+        // 1. Build every request up front, so the scheduling loop does nothing but wait and submit
+        HttpRequest[] requests = new HttpRequest[total];
+        for (int i = 0; i < total; i++) {
+            requests[i] = request(random, locations);
+        }
+
+        // 2. Sample resources from a settled baseline until the stragglers are done
+        AtomicInteger inFlight = new AtomicInteger();
+        ResourceSampler sampler = new ResourceSampler(inFlight);
+        Thread samplerThread = Thread.ofPlatform().daemon().name("load-sampler").start(sampler);
+
+        // 3. Start each request at its slot; a late slot starts at once and keeps its intended start
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < total; i++) {
+                long intended = start + i * interval;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int slot = i;
+                executor.execute(() -> {
+                    inFlight.incrementAndGet();
+                    try {
+                        // The JDK client does not decompress, so the body length is what came over the wire
+                        HttpResponse<byte[]> response = client.send(requests[slot], HttpResponse.BodyHandlers.ofByteArray());
+                        statuses[slot] = response.statusCode();
+                        bodyBytes[slot] = response.body().length;
+                    } catch (Exception e) {
+                        statuses[slot] = -1;
+                    }
+                    latencies[slot] = System.nanoTime() - intended;
+                    inFlight.decrementAndGet();
+                });
+            }
+            // Closing the executor waits for the stragglers
+        }
+        long elapsed = System.nanoTime() - start;
+        samplerThread.interrupt();
+        try {
+            samplerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Report(total, elapsed, latencies, statuses, bodyBytes, sampler);
+    }
+
+    private HttpRequest request(Random random, double[][] locations) {
+        double[] location = locations[random.nextInt(locations.length)];
+        int days = RANGE_DAYS[random.nextInt(RANGE_DAYS.length)];
+        LocalDate end = settings.lastDay.minusDays(random.nextInt(settings.historyDays));
+        LocalDate start = end.minusDays(days - 1);
+        String url = String.format(Locale.ROOT, "%s/api/v1/stats/%s?latitude=%.2f&longitude=%.2f&startDate=%s&endDate=%s",
+                baseUrl, ENDPOINTS[random.nextInt(ENDPOINTS.length)], location[0], location[1], start, end);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(settings.timeoutSeconds))
+                .header("Accept", settings.accept);
+        if (settings.gzip) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        return builder.GET().build();
+    }
+
+    private double[][] locations(Random random) {
+        double[][] locations = new double[settings.locations][];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = new double[]{random.nextDouble() * 140 - 70, random.nextDouble() * 360 - 180};
+        }
+        return locations;
+    }
+
+    /**
+     * Samples the requests in flight, used heap, live threads and process CPU time of one phase.
+     */
+    static final class ResourceSampler implements Runnable {
+
+        private final AtomicInteger inFlight;
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        private final long baselineHeap;
+        private final long startCpuNanos;
+        private long endCpuNanos;
+        private int peakInFlight;
+        private long inFlightSum;
+        private int samples;
+        private long peakHeap;
+        private int peakThreads;
+
+        ResourceSampler(AtomicInteger inFlight) {
+            this.inFlight = inFlight;
+            // Collect first, so the baseline is live data rather than leftover garbage of the warm-up
+            System.gc();
+            this.baselineHeap = memory.getHeapMemoryUsage().getUsed();
+            this.startCpuNanos = processCpuNanos();
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                sample();
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            sample();
+            endCpuNanos = processCpuNanos();
+        }
+
+        private void sample() {
+            int current = inFlight.get();
+            peakInFlight = Math.max(peakInFlight, current);
+            inFlightSum += current;
+            samples++;
+            peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+            peakThreads = Math.max(peakThreads, threads.getThreadCount());
+        }
+
+        private static long processCpuNanos() {
+            return ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os
+                    ? os.getProcessCpuTime() : -1;
+        }
+
+        double meanInFlight() {
+            return samples == 0 ? 0 : (double) inFlightSum / samples;
+        }
+
+        double cpuSeconds() {
+            return startCpuNanos < 0 ? Double.NaN : (endCpuNanos - startCpuNanos) / 1e9;
+        }
+
+        /**
+         * @return The peak heap growth over the baseline divided by the peak requests in flight, in KB.
+         */
+        double heapPerInFlightKb() {
+            return peakInFlight == 0 ? 0 : Math.max(0, peakHeap - baselineHeap) / 1024.0 / peakInFlight;
+        }
+    }
+
+    /**
+     * Load settings, read from {@code --load.<name>=<value>} arguments.
+     */
+    public static class Settings {
+
+        // Requests started per second
+        double rate = 50;
+
+        int durationSeconds = 30;
+        int warmupSeconds = 10;
+        int timeoutSeconds = 30;
+
+        // Distinct coordinates requested, fewer means more cache hits
+        int locations = 200;
+
+        // Ranges end on a random day among this many days before lastDay
+        int historyDays = 3650;
+        LocalDate lastDay = LocalDate.now().minusDays(10);
+
+        // Response format asked for, e.g. application/cbor or application/x-jackson-smile
+        String accept = "application/json";
+        boolean gzip = false;
+
+        static Settings from(Map<String, String> args, String prefix) {
+            Settings settings = new Settings();
+            settings.rate = LoadTestMain.number(args, prefix + "rate", settings.rate);
+            settings.durationSeconds = (int) LoadTestMain.number(args, prefix + "duration", settings.durationSeconds);
+            settings.warmupSeconds = (int) LoadTestMain.number(args, prefix + "warmup", settings.warmupSeconds);
+            settings.timeoutSeconds = (int) LoadTestMain.number(args, prefix + "timeout", settings.timeoutSeconds);
+            settings.locations = (int) LoadTestMain.number(args, prefix + "locations", settings.locations);
+            settings.historyDays = (int) LoadTestMain.number(args, prefix + "history-days", settings.historyDays);
+            settings.accept = args.getOrDefault(prefix + "accept", settings.accept);
+            settings.gzip = Boolean.parseBoolean(args.getOrDefault(prefix + "gzip", "false"));
+            return settings;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s for %d s after %d s warm-up, %d locations, %d days of history, %s%s",
+                    rate, durationSeconds, warmupSeconds, locations, historyDays, accept, gzip ? " gzipped" : "");
+        }
+    }
+
+    /**
+     * Outcome of one measured phase.
+     */
+    public static class Report {
+
+        private final int sent;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+        private final Map<Integer, Integer> statusCounts = new TreeMap<>();
+        private final ResourceSampler resources;
+        private long successfulBodyBytes;
+
+        Report(int sent, long elapsedNanos, long[] latencies, int[] statuses, int[] bodyBytes, ResourceSampler resources) {
+            this.sent = sent;
+            this.resources = resources;
+            for (int i = 0; i < statuses.length; i++) {
+                if (statuses[i] == 200) {
+                    successfulBodyBytes += bodyBytes[i];
+                }
+            }
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+            for (int status : statuses) {
+                statusCounts.merge(status, 1, Integer::sum);
+            }
+        }
+
+        /**
+         * @return Successful responses per second over the whole phase, stragglers included.
+         */
+        public double getThroughput() {
+            return getSuccessful() / (elapsedNanos / 1e9);
+        }
+
+        public int getSuccessful() {
+            return statusCounts.getOrDefault(200, 0);
+        }
+
+        /**
+         * @return The latency at the given percentile (0-100), in milliseconds.
+         */
+        public double percentileMs(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e6;
+        }
+
+        public String format() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("requests    %d in %.1f s, throughput %.1f successful req/s%n",
+                    sent, elapsedNanos / 1e9, getThroughput()));
+            text.append("statuses   ");
+            statusCounts.forEach((status, count) ->
+                    text.append(' ').append(status == -1 ? "IO_ERROR" : status).append('=').append(count));
+            text.append(String.format("%nlatency ms  p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+                    percentileMs(50), percentileMs(90), percentileMs(99), percentileMs(99.9), percentileMs(100)));
+            int cores = Runtime.getRuntime().availableProcessors();
+            double cpuSeconds = resources.cpuSeconds();
+            text.append(String.format("in flight   peak %d, mean %.1f, %.1f per core at peak (%d cores)%n",
+                    resources.peakInFlight, resources.meanInFlight(), resources.peakInFlight / (double) cores, cores));
+            text.append(String.format("memory      peak heap %.1f MB over a %.1f MB baseline, %.1f KB per in-flight request%n",
+                    Math.max(0, resources.peakHeap - resources.baselineHeap) / 1048576.0,
+                    resources.baselineHeap / 1048576.0, resources.heapPerInFlightKb()));
+            text.append(String.format("cpu         %.1f s of process CPU, %.1f successful req per CPU-second, peak %d threads%n",
+                    cpuSeconds, getSuccessful() / cpuSeconds, resources.peakThreads));
+            text.append(String.format("body        %.0f bytes per successful response on the wire%n",
+                    successfulBodyBytes / (double) Math.max(1, getSuccessful())));
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.devmohamed.historical_weather_api.loadtest;
+
+import com.devmohamed.historical_weather_api.HistoricalWeatherApiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test that runs fully offline: starts the Open-Meteo stand-in, starts the
+ * application on a free port pointed at it, drives WeatherStatsController at a constant
+ * arrival rate and prints throughput and latency percentiles.
+ *
+ * <p>Arguments starting with {@code --load.} configure the load generator, {@code --standin.}
+ * the stand-in; every other argument is handed to the application, e.g.
+ * {@code --spring.profiles.active=virtual}.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        OpenMeteoStandIn.Settings standInSettings = OpenMeteoStandIn.Settings.from(options, "standin.");
+        LoadGenerator.Settings loadSettings = LoadGenerator.Settings.from(options, "load.");
+        Path storeDirectory = Files.createTempDirectory("hourly-store");
+
+        // 1. Start the stand-in, then the application against it
+        try (OpenMeteoStandIn standIn = new OpenMeteoStandIn(standInSettings).start()) {
+            List<String> appArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--client.open-meteo.base-url=" + standIn.getBaseUrl(),
+                    "--client.open-meteo.store.directory=" + storeDirectory,
+                    // Upstream failures are counted in the report, one log line each would bury it
+                    "--logging.level.com.devmohamed=OFF",
+                    "--logging.level.reactor.netty=ERROR"));
+            for (String arg : args) {
+                if (!arg.startsWith("--load.") && !arg.startsWith("--standin.")) {
+                    appArgs.add(arg);
+                }
+            }
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HistoricalWeatherApiApplication.class)
+                    .run(appArgs.toArray(String[]::new))) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+                // 2. Run the load and report
+                System.out.println("Stand-in: " + standInSettings);
+                System.out.println("Load:     " + loadSettings);
+                LoadGenerator.Report report = new LoadGenerator(loadSettings, "http://127.0.0.1:" + port).run();
+                System.out.print(report.format());
+                System.out.printf("upstream    %d requests, %d failed on purpose, %.1f KB sent per request%n",
+                        standIn.getRequests(), standIn.getFailures(),
+                        standIn.getBytesSent() / 1024.0 / Math.max(1, standIn.getRequests()));
+            }
+        }
+    }
+
+    /**
+     * Reads {@code --name=value} arguments; anything else is ignored.
+     */
+    static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    static double number(Map<String, String> options, String name, double fallback) {
+        String value = options.get(name);
+        return value == null ? fallback : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,311 @@
+package com.devmohamed.historical_weather_api.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the Open-Meteo {@code /forecast} endpoint. Answers any coordinates
+ * (comma-separated lists included) and any date range with a synthetic hourly
+ * {@code temperature_2m} series. Every value depends only on the coordinates and the hour,
+ * so overlapping ranges and chunked requests agree with each other, as the real API does.
+ *
+ * <p>Latency is drawn from a log-normal distribution given by its median and p99, a share
+ * of requests fails with 503, and extra hourly variables can be added to grow the payload.
+ * Bodies are gzipped for clients that accept it, as Open-Meteo does.
+ */
+public class OpenMeteoStandIn implements AutoCloseable {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    private final Settings settings;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+
+    public OpenMeteoStandIn(Settings settings) throws IOException {
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", settings.port), 1024);
+        server.createContext("/forecast", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public OpenMeteoStandIn start() {
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * @return Body bytes written, after compression.
+     */
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try (exchange) {
+            // 1. Simulate the network and upstream processing time
+            sleepMillis(sampleLatencyMs());
+
+            // 2. Fail a share of the requests as an overloaded upstream would
+            if (ThreadLocalRandom.current().nextDouble() < settings.errorRate) {
+                failures.increment();
+                send(exchange, 503, "{\"error\":true,\"reason\":\"Synthetic upstream failure\"}");
+                return;
+            }
+
+            // 3. Validate the query like Open-Meteo does
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String[] latitudes = query.getOrDefault("latitude", "").split(",");
+            String[] longitudes = query.getOrDefault("longitude", "").split(",");
+            LocalDate start;
+            LocalDate end;
+            double[] lat = new double[latitudes.length];
+            double[] lon = new double[longitudes.length];
+            try {
+                start = LocalDate.parse(query.getOrDefault("start_date", ""));
+                end = LocalDate.parse(query.getOrDefault("end_date", ""));
+                for (int i = 0; i < lat.length; i++) {
+                    lat[i] = Double.parseDouble(latitudes[i]);
+                    lon[i] = Double.parseDouble(longitudes[i]);
+                }
+            } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                send(exchange, 400, "{\"error\":true,\"reason\":\"Invalid query: " + e.getMessage() + "\"}");
+                return;
+            }
+            if (lat.length != lon.length || end.isBefore(start)) {
+                send(exchange, 400, "{\"error\":true,\"reason\":\"Parameter mismatch\"}");
+                return;
+            }
+
+            // 4. A single location is answered with an object, several with an array
+            StringBuilder json = new StringBuilder();
+            if (lat.length > 1) {
+                json.append('[');
+            }
+            for (int i = 0; i < lat.length; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendLocation(json, lat[i], lon[i], start, end);
+            }
+            if (lat.length > 1) {
+                json.append(']');
+            }
+            send(exchange, 200, json.toString());
+        }
+    }
+
+    private void appendLocation(StringBuilder json, double lat, double lon, LocalDate start, LocalDate end) {
+        long firstHour = start.atStartOfDay().toEpochSecond(ZoneOffset.UTC) / 3600;
+        int hours = (int) (end.toEpochDay() - start.toEpochDay() + 1) * 24;
+
+        json.append("{\"latitude\":").append(lat).append(",\"longitude\":").append(lon)
+                .append(",\"generationtime_ms\":0.1,\"utc_offset_seconds\":0,\"timezone\":\"GMT\",")
+                .append("\"timezone_abbreviation\":\"GMT\",\"elevation\":38.0,")
+                .append("\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\"");
+        for (int v = 0; v < settings.extraVariables; v++) {
+            json.append(",\"extra_").append(v).append("\":\"%\"");
+        }
+        json.append("},\"hourly\":{\"time\":[");
+        LocalDateTime time = start.atStartOfDay();
+        for (int h = 0; h < hours; h++, time = time.plusHours(1)) {
+            json.append(h == 0 ? "\"" : ",\"").append(TIME_FORMAT.format(time)).append('"');
+        }
+        json.append("],\"temperature_2m\":[");
+        for (int h = 0; h < hours; h++) {
+            if (h > 0) {
+                json.append(',');
+            }
+            double value = temperature(lat, lon, firstHour + h);
+            json.append(Double.isNaN(value) ? "null" : Double.toString(value));
+        }
+        json.append(']');
+        for (int v = 0; v < settings.extraVariables; v++) {
+            json.append(",\"extra_").append(v).append("\":[");
+            for (int h = 0; h < hours; h++) {
+                json.append(h == 0 ? "" : ",").append((firstHour + h + v) % 100);
+            }
+            json.append(']');
+        }
+        json.append("}}");
+    }
+
+    /**
+     * Deterministic temperature of one location and hour: a latitude-dependent mean,
+     * a seasonal and a daily cycle, and hashed noise, rounded to one decimal.
+     */
+    double temperature(double lat, double lon, long epochHour) {
+        long hash = mix(Double.doubleToLongBits(lat) * 31 + Double.doubleToLongBits(lon) * 17 + epochHour);
+        if ((hash >>> 11) * 0x1.0p-53 < settings.nullRate) {
+            return Double.NaN;
+        }
+        double dayOfYear = (epochHour / 24) % 365.25;
+        double hourOfDay = epochHour % 24;
+        double mean = 27 - 0.4 * Math.abs(lat);
+        double seasonal = 10 * Math.signum(lat) * Math.sin(2 * Math.PI * (dayOfYear - 105) / 365.25);
+        double daily = 4 * Math.sin(2 * Math.PI * (hourOfDay - 9) / 24);
+        double noise = ((hash & 0xFFFF) / 65535.0 - 0.5) * 3;
+        return Math.round((mean + seasonal + daily + noise) * 10) / 10.0;
+    }
+
+    private long sampleLatencyMs() {
+        if (settings.latencyMedianMs <= 0) {
+            return 0;
+        }
+        double sigma = Math.log(Math.max(settings.latencyP99Ms, settings.latencyMedianMs) / settings.latencyMedianMs) / Z_99;
+        return Math.round(settings.latencyMedianMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    private static void sleepMillis(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (settings.compression && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        bytesSent.add(bytes.length);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads neighbouring inputs over the whole range.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Runs the stand-in on its own, e.g. to point a locally started app at it.
+     */
+    public static void main(String[] args) throws IOException {
+        Settings settings = Settings.from(LoadTestMain.parseArgs(args), "standin.");
+        if (settings.port == 0) {
+            settings.port = 8090;
+        }
+        OpenMeteoStandIn standIn = new OpenMeteoStandIn(settings).start();
+        System.out.println("Open-Meteo stand-in listening on " + standIn.getBaseUrl());
+    }
+
+    /**
+     * Stand-in settings, read from {@code --standin.<name>=<value>} arguments.
+     */
+    public static class Settings {
+
+        // 0 picks a free port
+        int port = 0;
+
+        // Log-normal response time, given by its median and 99th percentile
+        double latencyMedianMs = 40;
+        double latencyP99Ms = 250;
+
+        // Share of requests answered with 503
+        double errorRate = 0.0;
+
+        // Share of hours sent as null
+        double nullRate = 0.01;
+
+        // Additional hourly arrays per location, to grow the payload
+        int extraVariables = 0;
+
+        // Gzip bodies for requests that accept it
+        boolean compression = true;
+
+        static Settings from(Map<String, String> args, String prefix) {
+            Settings settings = new Settings();
+            settings.port = (int) LoadTestMain.number(args, prefix + "port", settings.port);
+            settings.latencyMedianMs = LoadTestMain.number(args, prefix + "latency-median-ms", settings.latencyMedianMs);
+            settings.latencyP99Ms = LoadTestMain.number(args, prefix + "latency-p99-ms", settings.latencyP99Ms);
+            settings.errorRate = LoadTestMain.number(args, prefix + "error-rate", settings.errorRate);
+            settings.nullRate = LoadTestMain.number(args, prefix + "null-rate", settings.nullRate);
+            settings.extraVariables = (int) LoadTestMain.number(args, prefix + "extra-variables", settings.extraVariables);
+            settings.compression = Boolean.parseBoolean(args.getOrDefault(prefix + "compression", "true"));
+            return settings;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("latency median %.0f ms, p99 %.0f ms, error rate %.3f, null rate %.3f, extra variables %d, gzip %s",
+                    latencyMedianMs, latencyP99Ms, errorRate, nullRate, extraVariables, compression ? "on" : "off");
+        }
+    }
+}
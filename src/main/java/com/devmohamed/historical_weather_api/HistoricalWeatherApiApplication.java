@@ -2,8 +2,10 @@ package com.devmohamed.historical_weather_api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // Runs the off-peak prefetch of hot locations
 public class HistoricalWeatherApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,125 @@
+package com.devmohamed.historical_weather_api.config;
+
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter for the Open-Meteo RestTemplate that records, for every body it reads,
+ * the bytes read, the time spent reading and parsing them and the hourly values found.
+ * The body is streamed, so the timing also includes waiting for its bytes on the socket.
+ */
+class MeteredJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+    private final OpenMeteoMetrics metrics;
+
+    MeteredJacksonConverter(ObjectMapper objectMapper, OpenMeteoMetrics metrics) {
+        super(objectMapper);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        CountingMessage counted = new CountingMessage(inputMessage);
+        long start = System.nanoTime();
+        Object result = super.read(type, contextClass, counted);
+        metrics.recordResponse(counted.bytes(), System.nanoTime() - start, hourlyPoints(result));
+        return result;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        CountingMessage counted = new CountingMessage(inputMessage);
+        long start = System.nanoTime();
+        Object result = super.readInternal(clazz, counted);
+        metrics.recordResponse(counted.bytes(), System.nanoTime() - start, hourlyPoints(result));
+        return result;
+    }
+
+    /**
+     * @return The hourly values in a single or batched response, or -1 for any other body.
+     */
+    private static long hourlyPoints(Object body) {
+        if (body instanceof HourlyForecastResponse response) {
+            return points(response);
+        }
+        if (body instanceof HourlyForecastResponse[] responses) {
+            long total = 0;
+            for (HourlyForecastResponse response : responses) {
+                total += points(response);
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    private static long points(HourlyForecastResponse response) {
+        return response == null || response.getHourly() == null ? 0 : response.getHourly().getTimeCount();
+    }
+
+    /**
+     * Passes the message through, counting the bytes read from its body.
+     */
+    private static final class CountingMessage extends FilterInputStream implements HttpInputMessage {
+
+        private final HttpInputMessage delegate;
+        private long bytes;
+
+        CountingMessage(HttpInputMessage delegate) {
+            super(null);
+            this.delegate = delegate;
+        }
+
+        long bytes() {
+            return bytes;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (in == null) {
+                in = delegate.getBody();
+            }
+            return this;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = in.read(buffer, offset, length);
+            if (n > 0) {
+                bytes += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            bytes += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.devmohamed.historical_weather_api.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Meters for the calls to Open-Meteo. Every meter is registered up front, or on the first
+ * response with an unusual status, so recording on the request path is an array lookup and
+ * a histogram update, without building tags or looking meters up by name.
+ */
+public class OpenMeteoMetrics {
+
+    public static final String UPSTREAM_LATENCY = "openmeteo.upstream.latency";
+    public static final String PAYLOAD_SIZE = "openmeteo.response.payload";
+    public static final String WIRE_SIZE = "openmeteo.response.wire";
+    public static final String HOURLY_POINTS = "openmeteo.response.hourly.points";
+    public static final String DESERIALIZATION = "openmeteo.response.deserialization";
+
+    // Statuses registered at startup, so they show up in Prometheus before the first call
+    private static final int[] KNOWN_STATUSES = {200, 400, 404, 429, 500, 502, 503, 504};
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+    private final AtomicReferenceArray<Timer> latencyByStatus = new AtomicReferenceArray<>(600);
+    private final Timer ioErrorLatency;
+    private final DistributionSummary payloadSize;
+    private final DistributionSummary wireSize;
+    private final DistributionSummary hourlyPoints;
+    private final Timer deserialization;
+
+    public OpenMeteoMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (int status : KNOWN_STATUSES) {
+            latencyByStatus.set(status, latencyTimer(outcome(status), Integer.toString(status)));
+        }
+        this.ioErrorLatency = latencyTimer("UNKNOWN", "IO_ERROR");
+        this.payloadSize = DistributionSummary.builder(PAYLOAD_SIZE)
+                .description("Size of the response bodies read from Open-Meteo")
+                .baseUnit("bytes")
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+        this.wireSize = DistributionSummary.builder(WIRE_SIZE)
+                .description("Bytes of the response bodies received from Open-Meteo, before decompression")
+                .baseUnit("bytes")
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+        this.hourlyPoints = DistributionSummary.builder(HOURLY_POINTS)
+                .description("Hourly values in one Open-Meteo response, summed over batched locations")
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+        this.deserialization = Timer.builder(DESERIALIZATION)
+                .description("Time to read and parse an Open-Meteo response body")
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Records one upstream exchange that ended with an HTTP status.
+     */
+    public void recordUpstream(int status, long nanos) {
+        int index = status >= 100 && status < 600 ? status : 0;
+        Timer timer = latencyByStatus.get(index);
+        if (timer == null) {
+            // The registry hands back the same timer if two threads get here at once
+            timer = latencyTimer(outcome(status), index == 0 ? "UNKNOWN" : Integer.toString(status));
+            latencyByStatus.set(index, timer);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records one upstream exchange that failed without a status (connect, timeout, reset).
+     */
+    public void recordUpstreamError(long nanos) {
+        ioErrorLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records one response body read by the metered Jackson converter.
+     *
+     * @param points Hourly values found in the body, or a negative number if it held none.
+     */
+    public void recordResponse(long bytes, long nanos, long points) {
+        payloadSize.record(bytes);
+        deserialization.record(nanos, TimeUnit.NANOSECONDS);
+        if (points >= 0) {
+            hourlyPoints.record(points);
+        }
+    }
+
+    /**
+     * Records the bytes of one response body as received, i.e. still compressed if it was.
+     */
+    public void recordWireBytes(long bytes) {
+        wireSize.record(bytes);
+    }
+
+    private Timer latencyTimer(String outcome, String status) {
+        return Timer.builder(UPSTREAM_LATENCY)
+                .description("Time from sending a request to Open-Meteo until its response headers arrive")
+                .tag("outcome", outcome)
+                .tag("status", status)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Same outcome names as the Spring HTTP client and server metrics.
+     */
+    private static String outcome(int status) {
+        if (status >= 100 && status < 200) {
+            return "INFORMATIONAL";
+        } else if (status >= 200 && status < 300) {
+            return "SUCCESS";
+        } else if (status >= 300 && status < 400) {
+            return "REDIRECTION";
+        } else if (status >= 400 && status < 500) {
+            return "CLIENT_ERROR";
+        } else if (status >= 500 && status < 600) {
+            return "SERVER_ERROR";
+        }
+        return "UNKNOWN";
+    }
+}
@@ -0,0 +1,1136 @@
+package com.devmohamed.historical_weather_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Typed view of the {@code client.open-meteo} tree in application.yaml.
+ */
+@ConfigurationProperties(prefix = "client.open-meteo")
+public class OpenMeteoProperties {
+
+    private String baseUrl = "https://api.open-meteo.com/v1";
+
+    // How long to wait to establish a TCP connection
+    private long connectTimeoutMs = 5000;
+
+    // How long to wait for a response after sending the request
+    private long responseTimeoutMs = 2000;
+
+    // Ask for gzip/deflate bodies and decompress them while they are parsed
+    private boolean compression = true;
+
+    private final Pool pool = new Pool();
+    private final Retry retry = new Retry();
+    private final Cache cache = new Cache();
+    private final Store store = new Store();
+    private final Bulkhead bulkhead = new Bulkhead();
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+    private final Quota quota = new Quota();
+    private final Batch batch = new Batch();
+    private final Chunking chunking = new Chunking();
+    private final Rollup rollup = new Rollup();
+    private final Hedge hedge = new Hedge();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final HttpCache httpCache = new HttpCache();
+    private final Prefetch prefetch = new Prefetch();
+    private final Series series = new Series();
+    private final SharedCache sharedCache = new SharedCache();
+
+    // Getters and Setters
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(long connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public long getResponseTimeoutMs() {
+        return responseTimeoutMs;
+    }
+
+    public void setResponseTimeoutMs(long responseTimeoutMs) {
+        this.responseTimeoutMs = responseTimeoutMs;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public Quota getQuota() {
+        return quota;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Chunking getChunking() {
+        return chunking;
+    }
+
+    public Rollup getRollup() {
+        return rollup;
+    }
+
+    public Hedge getHedge() {
+        return hedge;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public HttpCache getHttpCache() {
+        return httpCache;
+    }
+
+    public Prefetch getPrefetch() {
+        return prefetch;
+    }
+
+    public Series getSeries() {
+        return series;
+    }
+
+    public SharedCache getSharedCache() {
+        return sharedCache;
+    }
+
+    /**
+     * Connection pool settings for the pooled Apache HttpClient.
+     */
+    public static class Pool {
+
+        // Max total connections in the pool
+        private int maxTotal = 200;
+
+        // Max connections allowed for a single route (e.g., to api.open-meteo.com)
+        private int defaultMaxPerRoute = 100;
+
+        // How long to wait for a connection from the pool before timing out
+        private long acquireTimeoutMs = 5000;
+
+        // Idle connections older than this are closed by the pool
+        private long idleEvictMs = 30000;
+
+        // Connections are re-validated after being idle for this long
+        private long validateAfterInactivityMs = 2000;
+
+        public int getMaxTotal() {
+            return maxTotal;
+        }
+
+        public void setMaxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+        }
+
+        public int getDefaultMaxPerRoute() {
+            return defaultMaxPerRoute;
+        }
+
+        public void setDefaultMaxPerRoute(int defaultMaxPerRoute) {
+            this.defaultMaxPerRoute = defaultMaxPerRoute;
+        }
+
+        public long getAcquireTimeoutMs() {
+            return acquireTimeoutMs;
+        }
+
+        public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+            this.acquireTimeoutMs = acquireTimeoutMs;
+        }
+
+        public long getIdleEvictMs() {
+            return idleEvictMs;
+        }
+
+        public void setIdleEvictMs(long idleEvictMs) {
+            this.idleEvictMs = idleEvictMs;
+        }
+
+        public long getValidateAfterInactivityMs() {
+            return validateAfterInactivityMs;
+        }
+
+        public void setValidateAfterInactivityMs(long validateAfterInactivityMs) {
+            this.validateAfterInactivityMs = validateAfterInactivityMs;
+        }
+    }
+
+    /**
+     * Retry settings for upstream calls.
+     */
+    public static class Retry {
+
+        // Attempts per upstream call, the first one included
+        private int maxAttempts = 3;
+
+        // How long to wait before the first retry
+        private long minBackoffMs = 100;
+
+        // Cap of the exponentially growing wait between attempts
+        private long maxBackoffMs = 1000;
+
+        // Time budget of one upstream call, all attempts and waits included
+        private long deadlineMs = 8000;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getMinBackoffMs() {
+            return minBackoffMs;
+        }
+
+        public void setMinBackoffMs(long minBackoffMs) {
+            this.minBackoffMs = minBackoffMs;
+        }
+
+        public long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+
+        public long getDeadlineMs() {
+            return deadlineMs;
+        }
+
+        public void setDeadlineMs(long deadlineMs) {
+            this.deadlineMs = deadlineMs;
+        }
+    }
+
+    /**
+     * Settings for the in-process, day-granular cache of upstream responses.
+     */
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        // Max number of (location, day) entries kept in memory
+        private int maxDays = 200_000;
+
+        // Days older than this many days are treated as immutable history
+        private int recentWindowDays = 5;
+
+        // Time to live for immutable past days
+        private long historicalTtlMs = 86_400_000;
+
+        // Time to live for recent or future days, which can still change upstream
+        private long recentTtlMs = 600_000;
+
+        // Missing runs separated by at most this many cached days are fetched in one call
+        private int maxGapDays = 3;
+
+        // How long past its TTL a day may still be served, marked stale, while Open-Meteo is down or slow
+        private long staleIfErrorMs = 86_400_000;
+
+        // How long to wait for Open-Meteo before answering from a stale copy instead
+        private long staleLatencyBudgetMs = 1500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxDays() {
+            return maxDays;
+        }
+
+        public void setMaxDays(int maxDays) {
+            this.maxDays = maxDays;
+        }
+
+        public int getRecentWindowDays() {
+            return recentWindowDays;
+        }
+
+        public void setRecentWindowDays(int recentWindowDays) {
+            this.recentWindowDays = recentWindowDays;
+        }
+
+        public long getHistoricalTtlMs() {
+            return historicalTtlMs;
+        }
+
+        public void setHistoricalTtlMs(long historicalTtlMs) {
+            this.historicalTtlMs = historicalTtlMs;
+        }
+
+        public long getRecentTtlMs() {
+            return recentTtlMs;
+        }
+
+        public void setRecentTtlMs(long recentTtlMs) {
+            this.recentTtlMs = recentTtlMs;
+        }
+
+        public int getMaxGapDays() {
+            return maxGapDays;
+        }
+
+        public void setMaxGapDays(int maxGapDays) {
+            this.maxGapDays = maxGapDays;
+        }
+
+        public long getStaleIfErrorMs() {
+            return staleIfErrorMs;
+        }
+
+        public void setStaleIfErrorMs(long staleIfErrorMs) {
+            this.staleIfErrorMs = staleIfErrorMs;
+        }
+
+        public long getStaleLatencyBudgetMs() {
+            return staleLatencyBudgetMs;
+        }
+
+        public void setStaleLatencyBudgetMs(long staleLatencyBudgetMs) {
+            this.staleLatencyBudgetMs = staleLatencyBudgetMs;
+        }
+    }
+
+    /**
+     * Settings for the persistent, memory-mapped store of immutable hourly history.
+     */
+    public static class Store {
+
+        private boolean enabled = false;
+
+        // Root directory holding one sub-directory per grid cell
+        private String directory = "data/hourly-store";
+
+        // Max number of year files kept mapped at the same time
+        private int maxOpenFiles = 256;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getMaxOpenFiles() {
+            return maxOpenFiles;
+        }
+
+        public void setMaxOpenFiles(int maxOpenFiles) {
+            this.maxOpenFiles = maxOpenFiles;
+        }
+    }
+
+    /**
+     * Limits how many upstream calls may be in flight at once, whatever the number of
+     * request threads. With virtual threads there is no thread pool left to do that.
+     */
+    public static class Bulkhead {
+
+        // Max concurrent calls to Open-Meteo, keep it at or below pool.default-max-per-route.
+        // With concurrency-limit enabled, the ceiling of the adaptive limit
+        private int maxConcurrent = 100;
+
+        // How long a caller may wait for a free slot before it is rejected
+        private long acquireTimeoutMs = 1000;
+
+        // Max interactive callers waiting for a slot; any more are rejected at once
+        private int maxQueued = 200;
+
+        // Max prefetch and batch callers waiting for a slot, they only get one no user request wants
+        private int backgroundMaxQueued = 8;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public long getAcquireTimeoutMs() {
+            return acquireTimeoutMs;
+        }
+
+        public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+            this.acquireTimeoutMs = acquireTimeoutMs;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        public int getBackgroundMaxQueued() {
+            return backgroundMaxQueued;
+        }
+
+        public void setBackgroundMaxQueued(int backgroundMaxQueued) {
+            this.backgroundMaxQueued = backgroundMaxQueued;
+        }
+    }
+
+    /**
+     * Adapts the number of upstream calls allowed in flight to Open-Meteo's latency, between
+     * {@code min-limit} and bulkhead.max-concurrent: it grows while calls are as fast as the
+     * fastest seen and shrinks once they queue up.
+     */
+    public static class ConcurrencyLimit {
+
+        private boolean enabled = true;
+
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        // Calls up to this many times the shortest round trip count as not queueing
+        private double rttTolerance = 1.5;
+
+        // Share of the way each window of calls moves the limit toward its estimate
+        private double smoothing = 0.2;
+
+        // Factor applied to the limit on a window with a failed or timed-out call
+        private double backoffRatio = 0.9;
+
+        // The shortest round trip is learned again every this many times the limit in calls
+        private int probeMultiplier = 30;
+
+        // A user request over the limit waits at most this many shortest round trips for a
+        // slot, and never longer than the bulkhead's acquire timeout; 0 turns it away at once
+        private double maxWaitRtts = 2.0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public double getRttTolerance() {
+            return rttTolerance;
+        }
+
+        public void setRttTolerance(double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public int getProbeMultiplier() {
+            return probeMultiplier;
+        }
+
+        public void setProbeMultiplier(int probeMultiplier) {
+            this.probeMultiplier = probeMultiplier;
+        }
+
+        public double getMaxWaitRtts() {
+            return maxWaitRtts;
+        }
+
+        public void setMaxWaitRtts(double maxWaitRtts) {
+            this.maxWaitRtts = maxWaitRtts;
+        }
+    }
+
+    /**
+     * Open-Meteo's request quotas, tracked locally so calls that would exceed them are
+     * refused here, with a Retry-After, instead of being sent and rejected upstream.
+     */
+    public static class Quota {
+
+        private boolean enabled = true;
+
+        // Open-Meteo's free tier allows 600 calls per minute, 5,000 per hour and 10,000 per day
+        private int perMinute = 600;
+
+        private int perHour = 5_000;
+
+        private int perDay = 10_000;
+
+        // Open-Meteo counts a request for more days than this as several calls, pro rata
+        private int daysPerCall = 14;
+
+        // Share of every window kept for interactive requests; prefetch and batch work stop short of it
+        private int backgroundReservePercent = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPerMinute() {
+            return perMinute;
+        }
+
+        public void setPerMinute(int perMinute) {
+            this.perMinute = perMinute;
+        }
+
+        public int getPerHour() {
+            return perHour;
+        }
+
+        public void setPerHour(int perHour) {
+            this.perHour = perHour;
+        }
+
+        public int getPerDay() {
+            return perDay;
+        }
+
+        public void setPerDay(int perDay) {
+            this.perDay = perDay;
+        }
+
+        public int getDaysPerCall() {
+            return daysPerCall;
+        }
+
+        public void setDaysPerCall(int daysPerCall) {
+            this.daysPerCall = daysPerCall;
+        }
+
+        public int getBackgroundReservePercent() {
+            return backgroundReservePercent;
+        }
+
+        public void setBackgroundReservePercent(int backgroundReservePercent) {
+            this.backgroundReservePercent = backgroundReservePercent;
+        }
+    }
+
+    /**
+     * Settings for the batch endpoint, which sends many locations per upstream request.
+     */
+    public static class Batch {
+
+        // Max number of items accepted in one batch request
+        private int maxItems = 1000;
+
+        // Max number of coordinates joined into one upstream request (keeps the URL short)
+        private int maxLocationsPerRequest = 50;
+
+        // Max number of upstream requests one batch runs at the same time
+        private int maxParallelRequests = 4;
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        public int getMaxLocationsPerRequest() {
+            return maxLocationsPerRequest;
+        }
+
+        public void setMaxLocationsPerRequest(int maxLocationsPerRequest) {
+            this.maxLocationsPerRequest = maxLocationsPerRequest;
+        }
+
+        public int getMaxParallelRequests() {
+            return maxParallelRequests;
+        }
+
+        public void setMaxParallelRequests(int maxParallelRequests) {
+            this.maxParallelRequests = maxParallelRequests;
+        }
+    }
+
+    /**
+     * Settings for splitting long ranges into calendar chunks that are fetched in parallel.
+     */
+    public static class Chunking {
+
+        private boolean enabled = true;
+
+        // Ranges longer than this many days are split by calendar month
+        private int monthChunksAboveDays = 92;
+
+        // Ranges longer than this many days are split by calendar year instead
+        private int yearChunksAboveDays = 1096;
+
+        // Max number of chunks of one range fetched at the same time
+        private int maxParallel = 4;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMonthChunksAboveDays() {
+            return monthChunksAboveDays;
+        }
+
+        public void setMonthChunksAboveDays(int monthChunksAboveDays) {
+            this.monthChunksAboveDays = monthChunksAboveDays;
+        }
+
+        public int getYearChunksAboveDays() {
+            return yearChunksAboveDays;
+        }
+
+        public void setYearChunksAboveDays(int yearChunksAboveDays) {
+            this.yearChunksAboveDays = yearChunksAboveDays;
+        }
+
+        public int getMaxParallel() {
+            return maxParallel;
+        }
+
+        public void setMaxParallel(int maxParallel) {
+            this.maxParallel = maxParallel;
+        }
+    }
+
+    /**
+     * Settings for the in-memory rollup index that answers range statistics without scanning hours.
+     */
+    public static class Rollup {
+
+        private boolean enabled = true;
+
+        // Max number of (location, year) trees kept in memory, about 52 KB each
+        private int maxLocationYears = 2000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxLocationYears() {
+            return maxLocationYears;
+        }
+
+        public void setMaxLocationYears(int maxLocationYears) {
+            this.maxLocationYears = maxLocationYears;
+        }
+    }
+
+    /**
+     * Settings for hedged upstream requests: when an attempt is slower than the observed
+     * p95 latency, a duplicate is sent and whichever answers first is used.
+     */
+    public static class Hedge {
+
+        private boolean enabled = true;
+
+        // Hedges allowed per 100 upstream calls, so duplicates add at most this much load
+        private int budgetPercent = 5;
+
+        // Never hedge earlier than this, whatever the observed p95
+        private long minDelayMs = 50;
+
+        // Latencies observed before the p95 is trusted and hedging starts
+        private int minSamples = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(int budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public long getMinDelayMs() {
+            return minDelayMs;
+        }
+
+        public void setMinDelayMs(long minDelayMs) {
+            this.minDelayMs = minDelayMs;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+    }
+
+    /**
+     * Settings for the circuit breaker in front of Open-Meteo. It opens when too many of the
+     * recent calls failed or were slow, and then fails calls at once instead of queueing them.
+     */
+    public static class CircuitBreaker {
+
+        private boolean enabled = true;
+
+        // Number of recent upstream calls the rates are computed over
+        private int windowSize = 50;
+
+        // Calls needed in the window before the breaker may open
+        private int minCalls = 20;
+
+        // Open when at least this share of the recent calls failed
+        private int failureRatePercent = 50;
+
+        // A call taking longer than this counts as slow
+        private long slowCallMs = 3000;
+
+        // Open when at least this share of the recent calls was slow
+        private int slowCallRatePercent = 80;
+
+        // How long to stay open before letting trial calls through
+        private long openMs = 10_000;
+
+        // Trial calls let through while half-open; all must succeed to close again
+        private int halfOpenCalls = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinCalls() {
+            return minCalls;
+        }
+
+        public void setMinCalls(int minCalls) {
+            this.minCalls = minCalls;
+        }
+
+        public int getFailureRatePercent() {
+            return failureRatePercent;
+        }
+
+        public void setFailureRatePercent(int failureRatePercent) {
+            this.failureRatePercent = failureRatePercent;
+        }
+
+        public long getSlowCallMs() {
+            return slowCallMs;
+        }
+
+        public void setSlowCallMs(long slowCallMs) {
+            this.slowCallMs = slowCallMs;
+        }
+
+        public int getSlowCallRatePercent() {
+            return slowCallRatePercent;
+        }
+
+        public void setSlowCallRatePercent(int slowCallRatePercent) {
+            this.slowCallRatePercent = slowCallRatePercent;
+        }
+
+        public long getOpenMs() {
+            return openMs;
+        }
+
+        public void setOpenMs(long openMs) {
+            this.openMs = openMs;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
+
+    /**
+     * Settings for the ETag and Cache-Control headers of the stats endpoints. Ranges ending
+     * before the recent window of the cache are immutable and may be cached for a long time.
+     */
+    public static class HttpCache {
+
+        private boolean enabled = true;
+
+        // max-age for ranges that ended before the recent window, sent with "immutable"
+        private long historicalMaxAgeSeconds = 31_536_000;
+
+        // max-age for ranges that include recent or future days, which can still change upstream
+        private long recentMaxAgeSeconds = 300;
+
+        // Part of every ETag; change it when a release changes the results for the same request
+        private String dataVersion = "1";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getHistoricalMaxAgeSeconds() {
+            return historicalMaxAgeSeconds;
+        }
+
+        public void setHistoricalMaxAgeSeconds(long historicalMaxAgeSeconds) {
+            this.historicalMaxAgeSeconds = historicalMaxAgeSeconds;
+        }
+
+        public long getRecentMaxAgeSeconds() {
+            return recentMaxAgeSeconds;
+        }
+
+        public void setRecentMaxAgeSeconds(long recentMaxAgeSeconds) {
+            this.recentMaxAgeSeconds = recentMaxAgeSeconds;
+        }
+
+        public String getDataVersion() {
+            return dataVersion;
+        }
+
+        public void setDataVersion(String dataVersion) {
+            this.dataVersion = dataVersion;
+        }
+    }
+
+    /**
+     * Settings for tracking the most requested locations and fetching their newest days
+     * ahead of demand during an off-peak window.
+     */
+    public static class Prefetch {
+
+        private boolean enabled = true;
+
+        // Counters kept by the heavy-hitter sketch; counts are exact for locations that stay in it
+        private int trackedLocations = 2000;
+
+        // Locations prefetched per run, the most requested first
+        private int topK = 200;
+
+        // The newest complete days to prefetch, ending yesterday
+        private int days = 2;
+
+        // Max locations fetched from Open-Meteo per off-peak window; each is usually a single call
+        private int budgetPerWindow = 100;
+
+        // How long (ms) prefetched days stay cached, so recent days last into the daytime peak
+        private long keepWarmMs = 43_200_000;
+
+        // How often (ms) the scheduler checks whether to run
+        private long intervalMs = 300_000;
+
+        // Off-peak window in UTC hours, [start, end); may wrap past midnight
+        private int offPeakStartHour = 2;
+        private int offPeakEndHour = 6;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTrackedLocations() {
+            return trackedLocations;
+        }
+
+        public void setTrackedLocations(int trackedLocations) {
+            this.trackedLocations = trackedLocations;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public void setDays(int days) {
+            this.days = days;
+        }
+
+        public int getBudgetPerWindow() {
+            return budgetPerWindow;
+        }
+
+        public void setBudgetPerWindow(int budgetPerWindow) {
+            this.budgetPerWindow = budgetPerWindow;
+        }
+
+        public long getKeepWarmMs() {
+            return keepWarmMs;
+        }
+
+        public void setKeepWarmMs(long keepWarmMs) {
+            this.keepWarmMs = keepWarmMs;
+        }
+
+        public long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public void setIntervalMs(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        public int getOffPeakStartHour() {
+            return offPeakStartHour;
+        }
+
+        public void setOffPeakStartHour(int offPeakStartHour) {
+            this.offPeakStartHour = offPeakStartHour;
+        }
+
+        public int getOffPeakEndHour() {
+            return offPeakEndHour;
+        }
+
+        public void setOffPeakEndHour(int offPeakEndHour) {
+            this.offPeakEndHour = offPeakEndHour;
+        }
+    }
+
+    /**
+     * Settings for the bucketed series endpoint.
+     */
+    public static class Series {
+
+        // Max number of buckets in one response; one leap year of hourly buckets by default
+        private int maxBuckets = 8784;
+
+        public int getMaxBuckets() {
+            return maxBuckets;
+        }
+
+        public void setMaxBuckets(int maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+    }
+
+    /**
+     * Settings for the cache tier shared by all replicas, a Redis-protocol server behind the
+     * in-process day cache.
+     */
+    public static class SharedCache {
+
+        private boolean enabled = false;
+
+        private String host = "localhost";
+
+        private int port = 6379;
+
+        // Sent with AUTH when not empty
+        private String password = "";
+
+        // Logical database selected on every connection
+        private int database = 0;
+
+        // Prefix of every key and of the invalidation channel, so replicas of other services can share the server
+        private String keyPrefix = "hw:";
+
+        // How long to wait to establish a connection
+        private long connectTimeoutMs = 250;
+
+        // How long to wait for the reply to a command; a slower tier is treated as a miss
+        private long commandTimeoutMs = 100;
+
+        // Max number of pooled connections
+        private int maxConnections = 16;
+
+        // How long the tier is skipped after an error, so a down server does not add a timeout to every request
+        private long retryAfterMs = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getDatabase() {
+            return database;
+        }
+
+        public void setDatabase(int database) {
+            this.database = database;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public long getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(long connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public long getCommandTimeoutMs() {
+            return commandTimeoutMs;
+        }
+
+        public void setCommandTimeoutMs(long commandTimeoutMs) {
+            this.commandTimeoutMs = commandTimeoutMs;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public long getRetryAfterMs() {
+            return retryAfterMs;
+        }
+
+        public void setRetryAfterMs(long retryAfterMs) {
+            this.retryAfterMs = retryAfterMs;
+        }
+    }
+}
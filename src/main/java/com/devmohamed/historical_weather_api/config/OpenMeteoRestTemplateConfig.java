@@ -1,19 +1,111 @@
 package com.devmohamed.historical_weather_api.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@EnableConfigurationProperties(OpenMeteoProperties.class)
 public class OpenMeteoRestTemplateConfig {
 
-    @Value("${client.open-meteo.base-url}")
-    private String openMeteoBaseUrl;
+    /**
+     * One shared, keep-alive connection pool for every call to Open-Meteo.
+     * Exposed as a bean so the pool statistics can be read at runtime.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager openMeteoConnectionManager(OpenMeteoProperties properties) {
+        OpenMeteoProperties.Pool pool = properties.getPool();
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxTotal())
+                .setMaxConnPerRoute(pool.getDefaultMaxPerRoute())
+                // LIFO keeps a small set of warm connections busy instead of spreading over all of them
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeoutMs()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(properties.getResponseTimeoutMs()))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(pool.getValidateAfterInactivityMs()))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    public OpenMeteoMetrics openMeteoMetrics(MeterRegistry meterRegistry) {
+        return new OpenMeteoMetrics(meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient openMeteoHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                   OpenMeteoProperties properties,
+                                                   OpenMeteoMetrics metrics) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getPool().getAcquireTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(properties.getResponseTimeoutMs()))
+                .build();
+
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getPool().getIdleEvictMs()))
+                // Retrying is a decision for the caller, the client should not do it silently
+                .disableAutomaticRetries()
+                // Times every exchange, including the wait for a pooled connection
+                .addExecInterceptorFirst(UpstreamTimingHandler.NAME, new UpstreamTimingHandler(metrics))
+                // Below decompression, so it counts the bytes actually received
+                .addExecInterceptorBefore(ChainElement.PROTOCOL.name(), WireBytesHandler.NAME, new WireBytesHandler(metrics));
+        if (!properties.isCompression()) {
+            // Otherwise every request carries Accept-Encoding: gzip, x-gzip, deflate
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
 
     @Bean(name = "OpenMeteoRestTemplate")
-    public RestTemplate openMeteoRestTemplateConfig(RestTemplateBuilder builder) {
-        return builder.rootUri(openMeteoBaseUrl).build();
+    public RestTemplate openMeteoRestTemplateConfig(RestTemplateBuilder builder,
+                                                    CloseableHttpClient openMeteoHttpClient,
+                                                    OpenMeteoProperties properties,
+                                                    OpenMeteoMetrics metrics) {
+        RestTemplate restTemplate = builder
+                .rootUri(properties.getBaseUrl())
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(openMeteoHttpClient))
+                .build();
+
+        // Upstream calls are timed by OpenMeteoMetrics; the generic client observation would tag
+        // each one with its full URL, coordinates included, and so never stop adding meters
+        restTemplate.setObservationRegistry(ObservationRegistry.NOOP);
+
+        // Open-Meteo answers in JSON; without the binary Jackson converters the Accept header says so
+        restTemplate.getMessageConverters().removeIf(converter ->
+                converter instanceof AbstractJackson2HttpMessageConverter
+                        && !(converter instanceof MappingJackson2HttpMessageConverter));
+
+        // Parse upstream bodies with a converter that records their size, parse time and hourly points
+        restTemplate.getMessageConverters().replaceAll(converter ->
+                converter instanceof MappingJackson2HttpMessageConverter jackson
+                        ? new MeteredJacksonConverter(jackson.getObjectMapper(), metrics)
+                        : converter);
+        return restTemplate;
     }
 }
@@ -0,0 +1,73 @@
+package com.devmohamed.historical_weather_api.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * The non-blocking counterpart of {@link OpenMeteoRestTemplateConfig}, only created when the
+ * application runs as a reactive web application (the "reactive" profile). Uses the same
+ * timeout, bulkhead and base URL settings.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class OpenMeteoWebClientConfig {
+
+    // Ten years of hourly values are a few MB of JSON, well above the 256 KB default
+    private static final int MAX_RESPONSE_BYTES = 32 * 1024 * 1024;
+
+    /**
+     * Spring Boot only auto-configures a RestTemplateBuilder for servlet applications, but the
+     * blocking client still serves the batch endpoint and background refreshes here.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RestTemplateBuilder restTemplateBuilder() {
+        return new RestTemplateBuilder();
+    }
+
+    /**
+     * There is no separate bulkhead on the reactive path: the pool itself allows as many
+     * connections as the bulkhead has slots, and a request waits for one no longer than a
+     * caller would wait for a slot.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openMeteoConnectionProvider(OpenMeteoProperties properties) {
+        OpenMeteoProperties.Bulkhead bulkhead = properties.getBulkhead();
+        return ConnectionProvider.builder("open-meteo")
+                .maxConnections(Math.min(bulkhead.getMaxConcurrent(), properties.getPool().getMaxTotal()))
+                .pendingAcquireTimeout(Duration.ofMillis(bulkhead.getAcquireTimeoutMs()))
+                // Waiters are bounded by the timeout alone, like callers of the bulkhead semaphore
+                .pendingAcquireMaxCount(-1)
+                .maxIdleTime(Duration.ofMillis(properties.getPool().getIdleEvictMs()))
+                // LIFO keeps a small set of warm connections busy, as in the blocking pool
+                .lifo()
+                .build();
+    }
+
+    @Bean(name = "OpenMeteoWebClient")
+    public WebClient openMeteoWebClient(WebClient.Builder builder,
+                                        ConnectionProvider openMeteoConnectionProvider,
+                                        OpenMeteoProperties properties) {
+        HttpClient httpClient = HttpClient.create(openMeteoConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(properties.getResponseTimeoutMs()))
+                // Sends Accept-Encoding: gzip and inflates the body as it arrives
+                .compress(properties.isCompression());
+
+        return builder
+                .baseUrl(properties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_RESPONSE_BYTES))
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.devmohamed.historical_weather_api.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the reactive profile on Reactor Netty. Spring Boot prefers Tomcat for reactive
+ * applications whenever it is on the classpath, which it always is here for the servlet stack.
+ * The server.* properties are still applied to this factory by Boot's customizers.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,23 @@
+package com.devmohamed.historical_weather_api.config;
+
+import com.devmohamed.historical_weather_api.provider.RespSharedDayCache;
+import com.devmohamed.historical_weather_api.provider.SharedDayCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SharedCacheConfig {
+
+    /**
+     * The cache tier shared by all replicas: a Redis-protocol server when
+     * {@code shared-cache.enabled} is set, otherwise a tier that holds nothing.
+     * Declaring another SharedDayCache bean replaces it.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean(SharedDayCache.class)
+    public SharedDayCache sharedDayCache(OpenMeteoProperties properties) {
+        OpenMeteoProperties.SharedCache settings = properties.getSharedCache();
+        return settings.isEnabled() ? new RespSharedDayCache(settings) : SharedDayCache.NONE;
+    }
+}
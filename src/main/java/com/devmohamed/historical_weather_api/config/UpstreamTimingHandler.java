@@ -0,0 +1,40 @@
+package com.devmohamed.historical_weather_api.config;
+
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpException;
+
+import java.io.IOException;
+
+/**
+ * First link of the HttpClient exec chain, so the recorded latency covers waiting for a pooled
+ * connection, connecting and the exchange itself, up to the response headers. The body is read
+ * later by the message converter and timed there.
+ */
+class UpstreamTimingHandler implements ExecChainHandler {
+
+    static final String NAME = "open-meteo-metrics";
+
+    private final OpenMeteoMetrics metrics;
+
+    UpstreamTimingHandler(OpenMeteoMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        long start = System.nanoTime();
+        ClassicHttpResponse response;
+        try {
+            response = chain.proceed(request, scope);
+        } catch (IOException | HttpException | RuntimeException e) {
+            metrics.recordUpstreamError(System.nanoTime() - start);
+            throw e;
+        }
+        metrics.recordUpstream(response.getCode(), System.nanoTime() - start);
+        return response;
+    }
+}
@@ -0,0 +1,107 @@
+package com.devmohamed.historical_weather_api.config;
+
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Sits below the decompression link of the HttpClient exec chain, so it sees response bodies
+ * exactly as they came off the socket, and records their size once they have been read.
+ * Together with the payload size recorded by the converter this gives the compression ratio.
+ */
+class WireBytesHandler implements ExecChainHandler {
+
+    static final String NAME = "open-meteo-wire-bytes";
+
+    private final OpenMeteoMetrics metrics;
+
+    WireBytesHandler(OpenMeteoMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        ClassicHttpResponse response = chain.proceed(request, scope);
+        HttpEntity entity = response.getEntity();
+        if (entity != null) {
+            response.setEntity(new CountingEntity(entity));
+        }
+        return response;
+    }
+
+    private final class CountingEntity extends HttpEntityWrapper {
+
+        CountingEntity(HttpEntity entity) {
+            super(entity);
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new CountingStream(super.getContent());
+        }
+    }
+
+    /**
+     * Counts the bytes read and records them on the first of end of stream or close.
+     */
+    private final class CountingStream extends FilterInputStream {
+
+        private long bytes;
+        private boolean recorded;
+
+        CountingStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                bytes++;
+            } else {
+                record();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = in.read(buffer, offset, length);
+            if (n > 0) {
+                bytes += n;
+            } else if (n < 0) {
+                record();
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            bytes += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            record();
+            super.close();
+        }
+
+        private void record() {
+            if (!recorded) {
+                recorded = true;
+                metrics.recordWireBytes(bytes);
+            }
+        }
+    }
+}
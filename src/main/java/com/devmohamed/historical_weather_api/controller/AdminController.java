@@ -0,0 +1,148 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.model.CacheStats;
+import com.devmohamed.historical_weather_api.model.ApiErrorResponse;
+import com.devmohamed.historical_weather_api.model.ConnectionPoolStats;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.PrefetchStats;
+import com.devmohamed.historical_weather_api.model.RollupStats;
+import com.devmohamed.historical_weather_api.model.StoreStats;
+import com.devmohamed.historical_weather_api.model.StoreVerificationReport;
+import com.devmohamed.historical_weather_api.model.UpstreamStats;
+import com.devmohamed.historical_weather_api.provider.HotLocationPrefetcher;
+import com.devmohamed.historical_weather_api.provider.HourlyDayCache;
+import com.devmohamed.historical_weather_api.provider.HourlyRollupIndex;
+import com.devmohamed.historical_weather_api.provider.HourlyTemperatureStore;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoGateway;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoPoolMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Operational endpoints used to size and inspect the service at runtime.
+ */
+@RestController
+@RequestMapping("/api/v1/admin")
+public class AdminController {
+
+    private final OpenMeteoPoolMonitor poolMonitor;
+    private final HourlyDayCache dayCache;
+    private final HourlyTemperatureStore temperatureStore;
+    private final OpenMeteoGateway openMeteoGateway;
+    private final HourlyRollupIndex rollupIndex;
+    private final HotLocationPrefetcher prefetcher;
+
+    @Autowired
+    public AdminController(OpenMeteoPoolMonitor poolMonitor,
+                           HourlyDayCache dayCache,
+                           HourlyTemperatureStore temperatureStore,
+                           OpenMeteoGateway openMeteoGateway,
+                           HourlyRollupIndex rollupIndex,
+                           HotLocationPrefetcher prefetcher) {
+        this.poolMonitor = poolMonitor;
+        this.dayCache = dayCache;
+        this.temperatureStore = temperatureStore;
+        this.openMeteoGateway = openMeteoGateway;
+        this.rollupIndex = rollupIndex;
+        this.prefetcher = prefetcher;
+    }
+
+    /**
+     * Endpoint to get the Open-Meteo connection pool statistics.
+     */
+    @GetMapping("/pool")
+    public ResponseEntity<ConnectionPoolStats> getPoolStats() {
+        return ResponseEntity.ok(poolMonitor.getStats());
+    }
+
+    /**
+     * Endpoint to get the upstream call and coalescing counters.
+     */
+    @GetMapping("/upstream")
+    public ResponseEntity<UpstreamStats> getUpstreamStats() {
+        return ResponseEntity.ok(openMeteoGateway.getStats());
+    }
+
+    /**
+     * Endpoint to get the hit/miss/eviction counters and lookup latencies of both day cache tiers.
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        return ResponseEntity.ok(dayCache.getStats());
+    }
+
+    /**
+     * Endpoint to drop the cached days of a location and range from both cache tiers,
+     * on every replica. The persistent store is not touched.
+     */
+    @PostMapping("/cache/invalidate")
+    public ResponseEntity<?> invalidateCache(@RequestParam double latitude,
+                                             @RequestParam double longitude,
+                                             @RequestParam String startDate,
+                                             @RequestParam String endDate) {
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = LocalDate.parse(startDate);
+            end = LocalDate.parse(endDate);
+        } catch (DateTimeParseException e) {
+            return new ResponseEntity<>(new ApiErrorResponse("Bad Request", "Invalid date: " + e.getParsedString()),
+                    HttpStatus.BAD_REQUEST);
+        }
+        if (end.isBefore(start)) {
+            return new ResponseEntity<>(new ApiErrorResponse("Bad Request", "endDate must not be before startDate."),
+                    HttpStatus.BAD_REQUEST);
+        }
+        dayCache.invalidate(Location.of(latitude, longitude), start, end);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Endpoint to get the size and hit/miss counters of the rollup index.
+     */
+    @GetMapping("/rollup")
+    public ResponseEntity<RollupStats> getRollupStats() {
+        return ResponseEntity.ok(rollupIndex.getStats());
+    }
+
+    /**
+     * Endpoint to get the most requested locations and how well prefetching them works.
+     */
+    @GetMapping("/prefetch")
+    public ResponseEntity<PrefetchStats> getPrefetchStats(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(prefetcher.getStats(Math.max(0, limit)));
+    }
+
+    /**
+     * Endpoint to get the read/write counters of the persistent store.
+     */
+    @GetMapping("/store")
+    public ResponseEntity<StoreStats> getStoreStats() {
+        return ResponseEntity.ok(temperatureStore.getStats());
+    }
+
+    /**
+     * Endpoint to verify the persistent store files.
+     */
+    @GetMapping("/store/verify")
+    public ResponseEntity<StoreVerificationReport> verifyStore() {
+        return ResponseEntity.ok(temperatureStore.verify());
+    }
+
+    /**
+     * Endpoint to remove corrupt and empty files from the persistent store.
+     */
+    @PostMapping("/store/compact")
+    public ResponseEntity<StoreVerificationReport> compactStore() {
+        return ResponseEntity.ok(temperatureStore.compact());
+    }
+}
@@ -0,0 +1,53 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.exception.UpstreamBusyException;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.exception.UpstreamUnavailableException;
+import com.devmohamed.historical_weather_api.model.ApiErrorResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps exceptions thrown below the controllers to ApiErrorResponse bodies.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    /**
+     * The upstream bulkhead is full. The client may retry shortly.
+     */
+    @ExceptionHandler(UpstreamBusyException.class)
+    public ResponseEntity<ApiErrorResponse> handleUpstreamBusy(UpstreamBusyException e) {
+        ApiErrorResponse error = new ApiErrorResponse("Service Unavailable", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
+    /**
+     * The upstream circuit breaker is open and no stale copy could be served.
+     * The client may retry once the breaker lets trial calls through again.
+     */
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    public ResponseEntity<ApiErrorResponse> handleUpstreamUnavailable(UpstreamUnavailableException e) {
+        ApiErrorResponse error = new ApiErrorResponse("Service Unavailable", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    /**
+     * Open-Meteo's request quota is used up and no copy of the data is held locally.
+     * The client may retry once the quota window has room again.
+     */
+    @ExceptionHandler(UpstreamQuotaExceededException.class)
+    public ResponseEntity<ApiErrorResponse> handleUpstreamQuotaExceeded(UpstreamQuotaExceededException e) {
+        ApiErrorResponse error = new ApiErrorResponse("Too Many Requests", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(error);
+    }
+}
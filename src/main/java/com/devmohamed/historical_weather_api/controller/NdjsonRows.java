@@ -0,0 +1,140 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import com.devmohamed.historical_weather_api.model.WeatherSeriesResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Writes the rows of the streaming endpoints as newline-delimited JSON, one chunk of the
+ * range at a time, straight from the primitive values: no row objects are built, and the
+ * time of an hourly row is written from a reused char buffer.
+ *
+ * <p>Row shapes:
+ * <pre>
+ * {"time":"2024-01-01T00:00","temperature_2m":1.5}
+ * {"time":"2024-01-01","min":-2.1,"max":4.0,"avg":1.2,"count":24}
+ * {"error":"Service Unavailable","message":"..."}
+ * </pre>
+ * Missing values are null; {@code "stale":true} is added to rows computed from stale data.
+ */
+final class NdjsonRows {
+
+    /**
+     * Writes the rows of one chunk of the range.
+     */
+    @FunctionalInterface
+    interface ChunkWriter {
+        void write(NdjsonRows rows, DateRange range, HourlySeries series) throws IOException;
+    }
+
+    private final JsonGenerator generator;
+    private final char[] time = new char[16];
+
+    NdjsonRows(JsonFactory factory, OutputStream out) throws IOException {
+        this.generator = factory.createGenerator(out);
+        // The stream belongs to the caller, and rows are separated by newlines, not spaces
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * One row per hour of the chunk; values outside the chunk's range are skipped.
+     */
+    void writeHourly(DateRange range, HourlySeries series) throws IOException {
+        double[] values = series.getValues();
+        int hours = Math.min(values.length, range.days() * HourlySeries.HOURS_PER_DAY);
+        LocalDate day = series.getStartDate();
+        for (int i = 0; i < hours; i++) {
+            int hour = i % HourlySeries.HOURS_PER_DAY;
+            if (hour == 0) {
+                setDay(day.plusDays(i / HourlySeries.HOURS_PER_DAY));
+            }
+            time[11] = (char) ('0' + hour / 10);
+            time[12] = (char) ('0' + hour % 10);
+            generator.writeStartObject();
+            generator.writeFieldName("time");
+            generator.writeString(time, 0, 16);
+            writeNumberOrNull("temperature_2m", values[i]);
+            if (series.isStale()) {
+                generator.writeBooleanField("stale", true);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+
+    /**
+     * One row per bucket of the chunk, with the requested statistics.
+     */
+    void writeBuckets(DateRange range, HourlySeries series, SeriesBuckets.Unit unit,
+                      Set<WeatherSeriesResponse.Statistic> statistics) throws IOException {
+        SeriesBuckets buckets = new SeriesBuckets(unit, range.start(), range.end());
+        buckets.accept(series);
+        boolean hourly = unit == SeriesBuckets.Unit.HOUR;
+        for (int i = 0; i < buckets.size(); i++) {
+            generator.writeStartObject();
+            generator.writeStringField("time",
+                    hourly ? buckets.startOf(i).toString() : buckets.startOf(i).toLocalDate().toString());
+            if (statistics.contains(WeatherSeriesResponse.Statistic.MIN)) {
+                writeNumberOrNull("min", buckets.minOf(i));
+            }
+            if (statistics.contains(WeatherSeriesResponse.Statistic.MAX)) {
+                writeNumberOrNull("max", buckets.maxOf(i));
+            }
+            if (statistics.contains(WeatherSeriesResponse.Statistic.AVG)) {
+                writeNumberOrNull("avg", buckets.meanOf(i));
+            }
+            if (statistics.contains(WeatherSeriesResponse.Statistic.COUNT)) {
+                generator.writeNumberField("count", buckets.countOf(i));
+            }
+            if (buckets.isStale()) {
+                generator.writeBooleanField("stale", true);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+
+    /**
+     * Ends a stream that already sent rows, so its status can no longer say what went wrong.
+     */
+    void writeError(String error, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("error", error);
+        generator.writeStringField("message", message);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Hands the rows written so far to the stream.
+     */
+    void flush() throws IOException {
+        generator.flush();
+    }
+
+    private void writeNumberOrNull(String field, double value) throws IOException {
+        if (Double.isNaN(value)) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private void setDay(LocalDate day) {
+        // yyyy-MM-ddTHH:00; the years Open-Meteo covers all have four digits
+        day.toString().getChars(0, 10, time, 0);
+        time[10] = 'T';
+        time[13] = ':';
+        time[14] = '0';
+        time[15] = '0';
+    }
+}
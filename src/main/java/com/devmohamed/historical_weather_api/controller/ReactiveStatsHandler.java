@@ -0,0 +1,493 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamBusyException;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.exception.UpstreamUnavailableException;
+import com.devmohamed.historical_weather_api.model.ApiErrorResponse;
+import com.devmohamed.historical_weather_api.model.BatchStatsRequest;
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import com.devmohamed.historical_weather_api.model.WeatherMetricsResponse;
+import com.devmohamed.historical_weather_api.model.WeatherSeriesResponse;
+import com.devmohamed.historical_weather_api.model.WeatherStatResponse;
+import com.devmohamed.historical_weather_api.model.WeatherSummaryResponse;
+import com.devmohamed.historical_weather_api.provider.BatchStatService;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesStream;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
+import com.devmohamed.historical_weather_api.provider.ReactiveWeatherStatService;
+import com.devmohamed.historical_weather_api.provider.WeatherStatService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Pattern;
+
+/**
+ * WebFlux handlers for the /api/v1/stats/* endpoints in the reactive profile. They accept the
+ * same parameters and answer with the same bodies, status codes and caching headers as
+ * {@link WeatherStatsController}, without blocking the event loop while data is fetched.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveStatsHandler {
+
+    private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    private static final Pattern BUCKET = Pattern.compile("hour|day|week|month");
+    private static final Pattern STATS = Pattern.compile("(min|max|avg|count)(,(min|max|avg|count))*");
+    private static final Pattern METRICS = Pattern.compile(HourlyVariable.LIST_PATTERN);
+
+    private final ReactiveWeatherStatService weatherStatService;
+    private final WeatherStatService blockingStatService;
+    private final BatchStatService batchStatService;
+    private final StatsHttpCache httpCache;
+    private final Validator validator;
+    private final int maxSeriesBuckets;
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public ReactiveStatsHandler(ReactiveWeatherStatService weatherStatService, WeatherStatService blockingStatService,
+                                BatchStatService batchStatService, StatsHttpCache httpCache, Validator validator,
+                                OpenMeteoProperties properties, ObjectMapper objectMapper) {
+        this.weatherStatService = weatherStatService;
+        this.blockingStatService = blockingStatService;
+        this.batchStatService = batchStatService;
+        this.httpCache = httpCache;
+        this.validator = validator;
+        this.maxSeriesBuckets = properties.getSeries().getMaxBuckets();
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * GET /api/v1/stats/max
+     */
+    public Mono<ServerResponse> getMaxTemperature(ServerRequest request) {
+        return statistic(request, "max", SeriesAggregate::getMax);
+    }
+
+    /**
+     * GET /api/v1/stats/min
+     */
+    public Mono<ServerResponse> getMinTemperature(ServerRequest request) {
+        return statistic(request, "min", SeriesAggregate::getMin);
+    }
+
+    /**
+     * GET /api/v1/stats/avg
+     */
+    public Mono<ServerResponse> getAverageTemperature(ServerRequest request) {
+        return statistic(request, "avg", SeriesAggregate::getMean);
+    }
+
+    /**
+     * GET /api/v1/stats/summary
+     */
+    public Mono<ServerResponse> getTemperatureSummary(ServerRequest request) {
+        StatsQuery query;
+        try {
+            query = StatsQuery.from(request);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", e.getMessage());
+        }
+        StatsHttpCache.Validator cacheValidator = httpCache.validator("summary",
+                request.headers().asHttpHeaders(), query.latitude, query.longitude, query.startDate, query.endDate);
+        if (cacheValidator.matches(request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED).headers(h -> h.addAll(cacheValidator.headers(false))).build();
+        }
+
+        return weatherStatService.getRangeSummary(query.latitude, query.longitude, query.startDate, query.endDate)
+                .map(summary -> new WeatherSummaryResponse(query.latitude, query.longitude,
+                        query.startDate, query.endDate, summary))
+                .flatMap(response -> ok(cacheValidator, response, response.isStale()))
+                .switchIfEmpty(Mono.defer(ReactiveStatsHandler::notFound))
+                .onErrorResume(ReactiveStatsHandler::upstreamError);
+    }
+
+    /**
+     * GET /api/v1/stats/metrics. Only the blocking gateway fetches several variables with one
+     * call, so this runs on the bounded elastic scheduler like the batch endpoint.
+     */
+    public Mono<ServerResponse> getMetricsSummary(ServerRequest request) {
+        StatsQuery query;
+        LocalDate start;
+        LocalDate end;
+        Set<HourlyVariable> variables;
+        try {
+            query = StatsQuery.from(request);
+            start = LocalDate.parse(query.startDate);
+            end = LocalDate.parse(query.endDate);
+            String metrics = request.queryParam("metrics").orElse("temperature_2m");
+            if (!METRICS.matcher(metrics).matches()) {
+                throw new IllegalArgumentException("metrics: Metrics must be a list of temperature_2m, "
+                        + "precipitation, wind_speed_10m, relative_humidity_2m");
+            }
+            variables = HourlyVariable.parseAll(metrics);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", e.getMessage());
+        } catch (DateTimeParseException e) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", "Invalid date: " + e.getParsedString());
+        }
+        if (end.isBefore(start)) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", "endDate must not be before startDate.");
+        }
+        StatsHttpCache.Validator cacheValidator = httpCache.validator("metrics|" + variables,
+                request.headers().asHttpHeaders(), query.latitude, query.longitude, query.startDate, query.endDate);
+        if (cacheValidator.matches(request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED).headers(h -> h.addAll(cacheValidator.headers(false))).build();
+        }
+
+        return Mono.fromCallable(() -> blockingStatService.getMetricsSummary(query.latitude, query.longitude, start, end, variables))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty)
+                .map(summary -> new WeatherMetricsResponse(query.latitude, query.longitude,
+                        query.startDate, query.endDate, summary))
+                .flatMap(response -> ok(cacheValidator, response, response.isStale()))
+                .switchIfEmpty(Mono.defer(() -> error(HttpStatus.NOT_FOUND, "Not Found",
+                        "No data found for the specified metrics and range.")))
+                .onErrorResume(ReactiveStatsHandler::upstreamError);
+    }
+
+    /**
+     * GET /api/v1/stats/series. Bucketing needs the hourly values, which only the blocking
+     * service keeps, so it runs on the bounded elastic scheduler like the batch endpoint.
+     */
+    public Mono<ServerResponse> getTemperatureSeries(ServerRequest request) {
+        StatsQuery query;
+        LocalDate start;
+        LocalDate end;
+        SeriesBuckets.Unit unit;
+        Set<WeatherSeriesResponse.Statistic> statistics;
+        try {
+            query = StatsQuery.from(request);
+            start = LocalDate.parse(query.startDate);
+            end = LocalDate.parse(query.endDate);
+            String bucket = request.queryParam("bucket").orElse("day");
+            if (!BUCKET.matcher(bucket).matches()) {
+                throw new IllegalArgumentException("bucket: Bucket must be one of hour, day, week, month");
+            }
+            String stats = request.queryParam("stats").orElse("min,max,avg");
+            if (!STATS.matcher(stats).matches()) {
+                throw new IllegalArgumentException("stats: Stats must be a list of min, max, avg, count");
+            }
+            unit = SeriesBuckets.Unit.valueOf(bucket.toUpperCase(Locale.ROOT));
+            statistics = WeatherSeriesResponse.Statistic.parseAll(stats);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", e.getMessage());
+        } catch (DateTimeParseException e) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", "Invalid date: " + e.getParsedString());
+        }
+        if (end.isBefore(start)) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", "endDate must not be before startDate.");
+        }
+        if (SeriesBuckets.count(unit, start, end) > maxSeriesBuckets) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request",
+                    "A series may hold at most " + maxSeriesBuckets + " buckets; use a larger bucket.");
+        }
+        StatsHttpCache.Validator cacheValidator = httpCache.validator("series|" + unit + "|" + statistics,
+                request.headers().asHttpHeaders(), query.latitude, query.longitude, query.startDate, query.endDate);
+        if (cacheValidator.matches(request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED).headers(h -> h.addAll(cacheValidator.headers(false))).build();
+        }
+
+        return Mono.fromCallable(() -> blockingStatService.getBucketedSeries(query.latitude, query.longitude, start, end, unit))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty)
+                .map(buckets -> new WeatherSeriesResponse(query.latitude, query.longitude, query.startDate,
+                        query.endDate, OpenMeteoClientService.TIMEZONE, buckets, statistics))
+                .flatMap(response -> ok(cacheValidator, response, response.isStale()))
+                .switchIfEmpty(Mono.defer(ReactiveStatsHandler::notFound))
+                .onErrorResume(ReactiveStatsHandler::upstreamError);
+    }
+
+    /**
+     * GET /api/v1/stats/series with {@code Accept: application/x-ndjson}: one row per bucket,
+     * emitted chunk by chunk. Without a bucket limit, as memory stays constant.
+     */
+    public Mono<ServerResponse> streamTemperatureSeries(ServerRequest request) {
+        StatsQuery query;
+        LocalDate start;
+        LocalDate end;
+        SeriesBuckets.Unit unit;
+        Set<WeatherSeriesResponse.Statistic> statistics;
+        try {
+            query = StatsQuery.from(request);
+            start = LocalDate.parse(query.startDate);
+            end = LocalDate.parse(query.endDate);
+            String bucket = request.queryParam("bucket").orElse("day");
+            if (!BUCKET.matcher(bucket).matches()) {
+                throw new IllegalArgumentException("bucket: Bucket must be one of hour, day, week, month");
+            }
+            String stats = request.queryParam("stats").orElse("min,max,avg");
+            if (!STATS.matcher(stats).matches()) {
+                throw new IllegalArgumentException("stats: Stats must be a list of min, max, avg, count");
+            }
+            unit = SeriesBuckets.Unit.valueOf(bucket.toUpperCase(Locale.ROOT));
+            statistics = WeatherSeriesResponse.Statistic.parseAll(stats);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", e.getMessage());
+        } catch (DateTimeParseException e) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", "Invalid date: " + e.getParsedString());
+        }
+        return stream(request, query, start, end, unit,
+                (rows, range, series) -> rows.writeBuckets(range, series, unit, statistics));
+    }
+
+    /**
+     * GET /api/v1/stats/hourly
+     */
+    public Mono<ServerResponse> exportHourlyTemperatures(ServerRequest request) {
+        StatsQuery query;
+        LocalDate start;
+        LocalDate end;
+        try {
+            query = StatsQuery.from(request);
+            start = LocalDate.parse(query.startDate);
+            end = LocalDate.parse(query.endDate);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", e.getMessage());
+        } catch (DateTimeParseException e) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", "Invalid date: " + e.getParsedString());
+        }
+        return stream(request, query, start, end, SeriesBuckets.Unit.HOUR, NdjsonRows::writeHourly);
+    }
+
+    /**
+     * POST /api/v1/stats/batch. The batch service blocks while it waits for Open-Meteo,
+     * so it runs on the bounded elastic scheduler rather than on the event loop.
+     */
+    public Mono<ServerResponse> getBatchStatistics(ServerRequest request) {
+        return request.bodyToMono(BatchStatsRequest.class)
+                .defaultIfEmpty(new BatchStatsRequest())
+                .flatMap(body -> {
+                    // 1. Validate the body as @Valid does on the servlet stack
+                    Set<ConstraintViolation<BatchStatsRequest>> violations = validator.validate(body);
+                    if (!violations.isEmpty()) {
+                        ConstraintViolation<BatchStatsRequest> first = violations.iterator().next();
+                        return error(HttpStatus.BAD_REQUEST, "Bad Request",
+                                first.getPropertyPath() + ": " + first.getMessage());
+                    }
+                    if (body.getItems().size() > batchStatService.getMaxItems()) {
+                        return error(HttpStatus.BAD_REQUEST, "Bad Request",
+                                "A batch may hold at most " + batchStatService.getMaxItems() + " items.");
+                    }
+
+                    // 2. Compute the results off the event loop
+                    return Mono.fromCallable(() -> batchStatService.getStatistics(body.getItems()))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .flatMap(response -> ServerResponse.ok().bodyValue(response));
+                })
+                .onErrorResume(ReactiveStatsHandler::upstreamError);
+    }
+
+    private Mono<ServerResponse> statistic(ServerRequest request, String endpoint,
+                                           ToDoubleFunction<SeriesAggregate> statistic) {
+        StatsQuery query;
+        try {
+            query = StatsQuery.from(request);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", e.getMessage());
+        }
+
+        // A matching ETag is answered before any data is looked up
+        StatsHttpCache.Validator cacheValidator = httpCache.validator(endpoint,
+                request.headers().asHttpHeaders(), query.latitude, query.longitude, query.startDate, query.endDate);
+        if (cacheValidator.matches(request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED).headers(h -> h.addAll(cacheValidator.headers(false))).build();
+        }
+
+        return weatherStatService.getTemperatureSummary(query.latitude, query.longitude, query.startDate, query.endDate)
+                .flatMap(summary -> {
+                    double value = statistic.applyAsDouble(summary);
+                    WeatherStatResponse response = new WeatherStatResponse(query.latitude, query.longitude,
+                            query.startDate, query.endDate, String.valueOf(value), value);
+                    response.setStale(summary.isStale());
+                    return ok(cacheValidator, response, response.isStale());
+                })
+                .switchIfEmpty(Mono.defer(ReactiveStatsHandler::notFound))
+                .onErrorResume(ReactiveStatsHandler::upstreamError);
+    }
+
+    /**
+     * Streams the range as the controller does: the first chunk is fetched before the status
+     * is sent, and a chunk that fails later ends the body with an error row. Chunks are
+     * fetched on the bounded elastic scheduler and only when Netty asks for more, so a slow
+     * client stops further fetches.
+     */
+    private Mono<ServerResponse> stream(ServerRequest request, StatsQuery query, LocalDate start, LocalDate end,
+                                        SeriesBuckets.Unit alignTo, NdjsonRows.ChunkWriter chunkWriter) {
+        if (end.isBefore(start)) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", "endDate must not be before startDate.");
+        }
+        DataBufferFactory bufferFactory = request.exchange().getResponse().bufferFactory();
+
+        return Mono.fromCallable(() -> {
+                    // 1. The first chunk decides the status; a null series closes the stream
+                    HourlySeriesStream stream = blockingStatService.openSeriesStream(
+                            query.latitude, query.longitude, start, end, alignTo);
+                    DateRange range = stream.peekRange();
+                    HourlySeries series = stream.next();
+                    return series == null ? null : new FirstChunk(stream, rowsOf(rows -> chunkWriter.write(rows, range, series)));
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(first -> {
+                    // 2. The remaining chunks are pulled one per request from the server
+                    Flux<byte[]> rest = Flux.<byte[]>generate(sink -> {
+                                HourlySeriesStream stream = first.stream();
+                                if (!stream.hasNext()) {
+                                    sink.complete();
+                                    return;
+                                }
+                                DateRange range = stream.peekRange();
+                                try {
+                                    HourlySeries series = stream.next();
+                                    if (series == null) {
+                                        sink.next(rowsOf(rows -> rows.writeError("Not Found",
+                                                "No temperature data found for " + range.start() + " to " + range.end() + ".")));
+                                        sink.complete();
+                                    } else {
+                                        sink.next(rowsOf(rows -> chunkWriter.write(rows, range, series)));
+                                    }
+                                } catch (UpstreamBusyException | UpstreamUnavailableException e) {
+                                    sink.next(rowsOf(rows -> rows.writeError("Service Unavailable", e.getMessage())));
+                                    sink.complete();
+                                } catch (UpstreamQuotaExceededException e) {
+                                    sink.next(rowsOf(rows -> rows.writeError("Too Many Requests", e.getMessage())));
+                                    sink.complete();
+                                }
+                            })
+                            .doFinally(signal -> first.stream().close())
+                            .subscribeOn(Schedulers.boundedElastic());
+                    Flux<DataBuffer> body = Flux.concat(Mono.just(first.rows()), rest).map(bufferFactory::wrap);
+                    return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(body, DataBuffer.class);
+                })
+                .switchIfEmpty(Mono.defer(ReactiveStatsHandler::notFound))
+                .onErrorResume(ReactiveStatsHandler::upstreamError);
+    }
+
+    /**
+     * Writes rows into a byte array, the unit a streamed body is emitted in.
+     */
+    private byte[] rowsOf(RowsAction action) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            NdjsonRows rows = new NdjsonRows(jsonFactory, out);
+            action.write(rows);
+            rows.flush();
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Mono<ServerResponse> ok(StatsHttpCache.Validator cacheValidator, Object body, boolean stale) {
+        return ServerResponse.ok().headers(h -> h.addAll(cacheValidator.headers(stale))).bodyValue(body);
+    }
+
+    /**
+     * Answers the upstream exceptions as ApiExceptionHandler does; anything else is passed on.
+     */
+    private static Mono<ServerResponse> upstreamError(Throwable e) {
+        if (e instanceof UpstreamBusyException) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", e.getMessage(), 1);
+        }
+        if (e instanceof UpstreamUnavailableException unavailable) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", e.getMessage(),
+                    unavailable.getRetryAfterSeconds());
+        }
+        if (e instanceof UpstreamQuotaExceededException quotaExceeded) {
+            return error(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", e.getMessage(),
+                    quotaExceeded.getRetryAfterSeconds());
+        }
+        return Mono.error(e);
+    }
+
+    private static Mono<ServerResponse> notFound() {
+        return error(HttpStatus.NOT_FOUND, "Not Found", "No temperature data found for the specified range.");
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String error, String message) {
+        return ServerResponse.status(status).bodyValue(new ApiErrorResponse(error, message));
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String error, String message, long retryAfterSeconds) {
+        return ServerResponse.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .bodyValue(new ApiErrorResponse(error, message));
+    }
+
+    @FunctionalInterface
+    private interface RowsAction {
+        void write(NdjsonRows rows) throws IOException;
+    }
+
+    // The opened stream and the rows of its first chunk
+    private record FirstChunk(HourlySeriesStream stream, byte[] rows) {
+    }
+
+    /**
+     * The query parameters shared by the stats endpoints, checked against the same
+     * constraints as the controller's @RequestParam annotations.
+     */
+    private record StatsQuery(double latitude, double longitude, String startDate, String endDate) {
+
+        static StatsQuery from(ServerRequest request) {
+            return new StatsQuery(
+                    coordinate(request, "latitude", 90),
+                    coordinate(request, "longitude", 180),
+                    date(request, "startDate"),
+                    date(request, "endDate"));
+        }
+
+        private static double coordinate(ServerRequest request, String name, double limit) {
+            String raw = required(request, name);
+            double value;
+            try {
+                value = Double.parseDouble(raw);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + ": must be a number");
+            }
+            if (!(value >= -limit && value <= limit)) {
+                throw new IllegalArgumentException(name + ": must be between " + (int) -limit + " and " + (int) limit);
+            }
+            return value;
+        }
+
+        private static String date(ServerRequest request, String name) {
+            String raw = required(request, name);
+            if (!DATE.matcher(raw).matches()) {
+                throw new IllegalArgumentException(name + ": Date must be in YYYY-MM-DD format");
+            }
+            return raw;
+        }
+
+        private static String required(ServerRequest request, String name) {
+            return request.queryParam(name)
+                    .orElseThrow(() -> new IllegalArgumentException("Required parameter '" + name + "' is not present."));
+        }
+    }
+}
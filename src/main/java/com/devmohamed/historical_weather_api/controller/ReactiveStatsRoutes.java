@@ -0,0 +1,40 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Maps the /api/v1/stats/* contract of {@link WeatherStatsController} to
+ * {@link ReactiveStatsHandler} when the application runs on WebFlux.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveStatsRoutes {
+
+    // Only an explicit NDJSON Accept header picks the streaming series, as on the servlet stack
+    private static final RequestPredicate NDJSON = request -> request.headers().accept().stream()
+            .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+
+    @Bean
+    public RouterFunction<ServerResponse> statsRoutes(ReactiveStatsHandler handler) {
+        return route()
+                .path("/api/v1/stats", builder -> builder
+                        .GET("/max", handler::getMaxTemperature)
+                        .GET("/min", handler::getMinTemperature)
+                        .GET("/avg", handler::getAverageTemperature)
+                        .GET("/summary", handler::getTemperatureSummary)
+                        .GET("/metrics", handler::getMetricsSummary)
+                        .GET("/series", NDJSON, handler::streamTemperatureSeries)
+                        .GET("/series", handler::getTemperatureSeries)
+                        .GET("/hourly", handler::exportHourlyTemperatures)
+                        .POST("/batch", handler::getBatchStatistics))
+                .build();
+    }
+}
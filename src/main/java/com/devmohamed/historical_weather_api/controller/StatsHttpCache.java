@@ -0,0 +1,218 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the ETag and Cache-Control headers of a stats request before any data is looked
+ * up, so a matching {@code If-None-Match} is answered with 304 without touching the cache or
+ * Open-Meteo.
+ *
+ * <p>The ETag is a hash of the endpoint, the normalized location, the range, the configured
+ * data version and the representation the client negotiated: JSON, CBOR or Smile, and whether
+ * it takes gzip. Every cacheable answer carries {@code Vary: Accept, Accept-Encoding}, so a
+ * shared cache keeps the formats apart. JSON bodies get a weak ETag: the container gzips
+ * them on the way out, and Tomcat never compresses a response with a strong one.
+ *
+ * <p>A range ending before the recent window can no longer change and is cached for a long
+ * time as immutable. Any other range gets a short max-age, and its ETag also holds the
+ * current max-age period, so it changes at least as often as the data may.
+ */
+@Component
+public class StatsHttpCache {
+
+    // The formats the stats endpoints answer in, in the order chosen when the client takes any
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.parseMediaType("application/cbor"), MediaType.parseMediaType("application/x-jackson-smile"));
+
+    private final OpenMeteoProperties.HttpCache settings;
+    private final int recentWindowDays;
+    private final Clock clock;
+
+    @Autowired
+    public StatsHttpCache(OpenMeteoProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public StatsHttpCache(OpenMeteoProperties properties, Clock clock) {
+        this.settings = properties.getHttpCache();
+        this.recentWindowDays = properties.getCache().getRecentWindowDays();
+        this.clock = clock;
+    }
+
+    /**
+     * @param endpoint The statistic served, e.g. "max" or "summary".
+     * @param request  The request headers, for the Accept and Accept-Encoding the answer depends on.
+     * @return The validator of the request; one that never matches and adds no headers
+     * if caching is disabled or the range or the Accept header cannot be parsed.
+     */
+    public Validator validator(String endpoint, HttpHeaders request, double latitude, double longitude,
+                               String startDate, String endDate) {
+        if (!settings.isEnabled()) {
+            return Validator.NONE;
+        }
+        LocalDate end;
+        MediaType format;
+        try {
+            LocalDate.parse(startDate);
+            end = LocalDate.parse(endDate);
+            format = negotiate(request.getAccept());
+        } catch (DateTimeParseException | InvalidMediaTypeException e) {
+            return Validator.NONE;
+        }
+
+        // 1. Decide how long the answer may be kept
+        boolean historical = end.isBefore(LocalDate.now(clock).minusDays(recentWindowDays));
+        CacheControl cacheControl = historical
+                ? CacheControl.maxAge(settings.getHistoricalMaxAgeSeconds(), TimeUnit.SECONDS).cachePublic().immutable()
+                : CacheControl.maxAge(settings.getRecentMaxAgeSeconds(), TimeUnit.SECONDS).cachePublic();
+
+        // 2. Hash the normalized request; recent ranges also get the current max-age period
+        Location location = Location.of(latitude, longitude);
+        StringBuilder key = new StringBuilder(96)
+                .append(endpoint).append('|')
+                .append(Location.format(location.latitude())).append('|')
+                .append(Location.format(location.longitude())).append('|')
+                .append(startDate).append('|').append(endDate).append('|')
+                .append(settings.getDataVersion()).append('|')
+                .append(format).append('|')
+                .append(acceptsGzip(request) ? "gzip" : "identity");
+        if (!historical) {
+            long period = Math.max(1, settings.getRecentMaxAgeSeconds()) * 1000;
+            key.append('|').append(clock.millis() / period);
+        }
+        boolean compressible = format.equals(MediaType.APPLICATION_JSON);
+        return new Validator(etag(key.toString(), compressible), cacheControl);
+    }
+
+    /**
+     * @return The format the answer will be written in: the supported one the client prefers,
+     * JSON if it names none.
+     */
+    static MediaType negotiate(List<MediaType> accepted) {
+        MediaType best = FORMATS.get(0);
+        double bestQuality = 0;
+        for (MediaType type : accepted.isEmpty() ? List.of(MediaType.ALL) : accepted) {
+            for (MediaType format : FORMATS) {
+                if (type.isCompatibleWith(format) && type.getQualityValue() > bestQuality) {
+                    best = format;
+                    bestQuality = type.getQualityValue();
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean acceptsGzip(HttpHeaders request) {
+        for (String coding : request.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            if (coding.toLowerCase(Locale.ROOT).contains("gzip")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(String key, boolean weak) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            // 128 bits are plenty to tell the versions of one resource apart
+            String tag = '"' + HexFormat.of().formatHex(digest, 0, 16) + '"';
+            return weak ? "W/" + tag : tag;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every Java platform", e);
+        }
+    }
+
+    /**
+     * The validator and caching policy of one request.
+     */
+    public static final class Validator {
+
+        static final Validator NONE = new Validator(null, null);
+
+        private final String etag;
+        private final CacheControl cacheControl;
+
+        private Validator(String etag, CacheControl cacheControl) {
+            this.etag = etag;
+            this.cacheControl = cacheControl;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Checks an {@code If-None-Match} header: a list of entity tags, possibly weak, or "*".
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (etag == null || ifNoneMatch == null) {
+                return false;
+            }
+            // GET uses the weak comparison, so W/"x" matches "x" either way round
+            String opaque = opaqueTag(etag);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = opaqueTag(candidate.trim());
+                if (tag.equals("*") || tag.equals(opaque)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String opaqueTag(String tag) {
+            return tag.startsWith("W/") ? tag.substring(2) : tag;
+        }
+
+        public ResponseEntity<Object> notModified() {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers(false)).build();
+        }
+
+        /**
+         * Wraps a successful body with the caching headers.
+         */
+        public ResponseEntity<Object> ok(Object body, boolean stale) {
+            return ResponseEntity.ok().headers(headers(stale)).body(body);
+        }
+
+        /**
+         * The caching headers of a response. A body computed from stale data is only a
+         * stand-in until the next refresh, so it is never stored or validated.
+         */
+        public HttpHeaders headers(boolean stale) {
+            HttpHeaders headers = new HttpHeaders();
+            if (etag == null) {
+                return headers;
+            }
+            // The same URL has a different body per format and coding
+            headers.setVary(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+            if (stale) {
+                headers.setCacheControl(CacheControl.noStore());
+                return headers;
+            }
+            headers.setETag(etag);
+            headers.setCacheControl(cacheControl);
+            return headers;
+        }
+    }
+}
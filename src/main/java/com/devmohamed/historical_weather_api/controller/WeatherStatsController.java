@@ -1,28 +1,69 @@
 package com.devmohamed.historical_weather_api.controller;
 
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamBusyException;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.exception.UpstreamUnavailableException;
 import com.devmohamed.historical_weather_api.model.ApiErrorResponse;
+import com.devmohamed.historical_weather_api.model.BatchStatsRequest;
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.MetricsSummary;
+import com.devmohamed.historical_weather_api.model.RangeSummary;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import com.devmohamed.historical_weather_api.model.WeatherMetricsResponse;
+import com.devmohamed.historical_weather_api.model.WeatherSeriesResponse;
 import com.devmohamed.historical_weather_api.model.WeatherStatResponse;
+import com.devmohamed.historical_weather_api.model.WeatherSummaryResponse;
+import com.devmohamed.historical_weather_api.provider.BatchStatService;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesStream;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
 import com.devmohamed.historical_weather_api.provider.WeatherStatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.OptionalDouble;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/stats")
+// The reactive profile serves these endpoints through ReactiveStatsRoutes instead
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Validated // Enables validation for @RequestParam constraints
 public class WeatherStatsController {
 
     private final WeatherStatService weatherStatService;
+    private final BatchStatService batchStatService;
+    private final StatsHttpCache httpCache;
+    private final int maxSeriesBuckets;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public WeatherStatsController(WeatherStatService weatherStatService) {
+    public WeatherStatsController(WeatherStatService weatherStatService, BatchStatService batchStatService,
+                                  StatsHttpCache httpCache, OpenMeteoProperties properties, ObjectMapper objectMapper) {
         this.weatherStatService = weatherStatService;
+        this.batchStatService = batchStatService;
+        this.httpCache = httpCache;
+        this.maxSeriesBuckets = properties.getSeries().getMaxBuckets();
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -33,9 +74,19 @@ public class WeatherStatsController {
             @RequestParam @Min(-90) @Max(90) double latitude,
             @RequestParam @Min(-180) @Max(180) double longitude,
             @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String startDate,
-            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate) {
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate,
+            @RequestHeader HttpHeaders requestHeaders) {
+
+        // A matching ETag is answered before any data is looked up
+        StatsHttpCache.Validator validator = httpCache.validator("max", requestHeaders,
+                latitude, longitude, startDate, endDate);
+        if (validator.matches(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            return validator.notModified();
+        }
 
-        OptionalDouble maxTemp = weatherStatService.getMaximumTemperature(latitude, longitude, startDate, endDate);
+        // The whole summary is fetched so we can tell whether it was served stale
+        Optional<SeriesAggregate> summary = weatherStatService.getTemperatureSummary(latitude, longitude, startDate, endDate);
+        OptionalDouble maxTemp = summary.map(aggregate -> OptionalDouble.of(aggregate.getMax())).orElse(OptionalDouble.empty());
 
         if (maxTemp.isPresent()) {
             WeatherStatResponse response = new WeatherStatResponse(
@@ -45,7 +96,8 @@ public class WeatherStatsController {
                     String.valueOf(maxTemp.getAsDouble()),
                     maxTemp.getAsDouble()
             );
-            return ResponseEntity.ok(response);
+            response.setStale(summary.get().isStale());
+            return validator.ok(response, response.isStale());
         } else {
             ApiErrorResponse error = new ApiErrorResponse(
                     "Not Found",
@@ -63,9 +115,17 @@ public class WeatherStatsController {
             @RequestParam @Min(-90) @Max(90) double latitude,
             @RequestParam @Min(-180) @Max(180) double longitude,
             @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String startDate,
-            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate) {
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate,
+            @RequestHeader HttpHeaders requestHeaders) {
+
+        StatsHttpCache.Validator validator = httpCache.validator("min", requestHeaders,
+                latitude, longitude, startDate, endDate);
+        if (validator.matches(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            return validator.notModified();
+        }
 
-        OptionalDouble minTemp = weatherStatService.getMinimumTemperature(latitude, longitude, startDate, endDate);
+        Optional<SeriesAggregate> summary = weatherStatService.getTemperatureSummary(latitude, longitude, startDate, endDate);
+        OptionalDouble minTemp = summary.map(aggregate -> OptionalDouble.of(aggregate.getMin())).orElse(OptionalDouble.empty());
 
         if (minTemp.isPresent()) {
             WeatherStatResponse response = new WeatherStatResponse( latitude, longitude,
@@ -74,7 +134,8 @@ public class WeatherStatsController {
                     String.valueOf(minTemp.getAsDouble()),
                     minTemp.getAsDouble()
             );
-            return ResponseEntity.ok(response);
+            response.setStale(summary.get().isStale());
+            return validator.ok(response, response.isStale());
         } else {
             ApiErrorResponse error = new ApiErrorResponse(
                     "Not Found",
@@ -92,9 +153,17 @@ public class WeatherStatsController {
             @RequestParam @Min(-90) @Max(90) double latitude,
             @RequestParam @Min(-180) @Max(180) double longitude,
             @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String startDate,
-            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate) {
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate,
+            @RequestHeader HttpHeaders requestHeaders) {
 
-        OptionalDouble avgTemp = weatherStatService.getAverageTemperature(latitude, longitude, startDate, endDate);
+        StatsHttpCache.Validator validator = httpCache.validator("avg", requestHeaders,
+                latitude, longitude, startDate, endDate);
+        if (validator.matches(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            return validator.notModified();
+        }
+
+        Optional<SeriesAggregate> summary = weatherStatService.getTemperatureSummary(latitude, longitude, startDate, endDate);
+        OptionalDouble avgTemp = summary.map(aggregate -> OptionalDouble.of(aggregate.getMean())).orElse(OptionalDouble.empty());
 
         if (avgTemp.isPresent()) {
             WeatherStatResponse response = new WeatherStatResponse(
@@ -104,7 +173,44 @@ public class WeatherStatsController {
                     String.valueOf(avgTemp.getAsDouble()),
                     avgTemp.getAsDouble()
                     );
-            return ResponseEntity.ok(response);
+            response.setStale(summary.get().isStale());
+            return validator.ok(response, response.isStale());
+        } else {
+            ApiErrorResponse error = new ApiErrorResponse(
+                    "Not Found",
+                    "No temperature data found for the specified range."
+            );
+            return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Endpoint to get every temperature statistic of the range in one call.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<?> getTemperatureSummary(
+            @RequestParam @Min(-90) @Max(90) double latitude,
+            @RequestParam @Min(-180) @Max(180) double longitude,
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String startDate,
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate,
+            @RequestHeader HttpHeaders requestHeaders) {
+
+        StatsHttpCache.Validator validator = httpCache.validator("summary", requestHeaders,
+                latitude, longitude, startDate, endDate);
+        if (validator.matches(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            return validator.notModified();
+        }
+
+        Optional<RangeSummary> summary = weatherStatService.getRangeSummary(latitude, longitude, startDate, endDate);
+
+        if (summary.isPresent()) {
+            WeatherSummaryResponse response = new WeatherSummaryResponse(
+                    latitude, longitude,
+                    startDate,
+                    endDate,
+                    summary.get()
+            );
+            return validator.ok(response, response.isStale());
         } else {
             ApiErrorResponse error = new ApiErrorResponse(
                     "Not Found",
@@ -113,4 +219,249 @@ public class WeatherStatsController {
             return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint to get every statistic of several hourly variables at once, e.g.
+     * {@code metrics=precipitation,wind_speed_10m}. The variables a range lacks locally are
+     * fetched together, with one upstream call per chunk.
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<?> getMetricsSummary(
+            @RequestParam @Min(-90) @Max(90) double latitude,
+            @RequestParam @Min(-180) @Max(180) double longitude,
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String startDate,
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate,
+            @RequestParam(defaultValue = "temperature_2m") @Pattern(regexp = HourlyVariable.LIST_PATTERN, message = "Metrics must be a list of temperature_2m, precipitation, wind_speed_10m, relative_humidity_2m") String metrics,
+            @RequestHeader HttpHeaders requestHeaders) {
+
+        // 1. Check the range before anything is fetched
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = LocalDate.parse(startDate);
+            end = LocalDate.parse(endDate);
+        } catch (DateTimeParseException e) {
+            return badRequest("Invalid date: " + e.getParsedString());
+        }
+        if (end.isBefore(start)) {
+            return badRequest("endDate must not be before startDate.");
+        }
+
+        // 2. The ETag covers the variables as well as the range
+        Set<HourlyVariable> variables = HourlyVariable.parseAll(metrics);
+        StatsHttpCache.Validator validator = httpCache.validator("metrics|" + variables, requestHeaders,
+                latitude, longitude, startDate, endDate);
+        if (validator.matches(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            return validator.notModified();
+        }
+
+        Optional<MetricsSummary> summary = weatherStatService.getMetricsSummary(latitude, longitude, start, end, variables);
+
+        if (summary.isPresent()) {
+            WeatherMetricsResponse response = new WeatherMetricsResponse(
+                    latitude, longitude,
+                    startDate,
+                    endDate,
+                    summary.get()
+            );
+            return validator.ok(response, response.isStale());
+        } else {
+            ApiErrorResponse error = new ApiErrorResponse(
+                    "Not Found",
+                    "No data found for the specified metrics and range."
+            );
+            return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Endpoint to get the range downsampled into hour, day, week or month buckets, with the
+     * requested statistics as one array per statistic. Buckets follow the dates of the
+     * series in its timezone; weeks start on Monday.
+     */
+    @GetMapping("/series")
+    public ResponseEntity<?> getTemperatureSeries(
+            @RequestParam @Min(-90) @Max(90) double latitude,
+            @RequestParam @Min(-180) @Max(180) double longitude,
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String startDate,
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate,
+            @RequestParam(defaultValue = "day") @Pattern(regexp = "hour|day|week|month", message = "Bucket must be one of hour, day, week, month") String bucket,
+            @RequestParam(defaultValue = "min,max,avg") @Pattern(regexp = "(min|max|avg|count)(,(min|max|avg|count))*", message = "Stats must be a list of min, max, avg, count") String stats,
+            @RequestHeader HttpHeaders requestHeaders) {
+
+        // 1. Check the range and its size before anything is fetched
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = LocalDate.parse(startDate);
+            end = LocalDate.parse(endDate);
+        } catch (DateTimeParseException e) {
+            return badRequest("Invalid date: " + e.getParsedString());
+        }
+        if (end.isBefore(start)) {
+            return badRequest("endDate must not be before startDate.");
+        }
+        SeriesBuckets.Unit unit = SeriesBuckets.Unit.valueOf(bucket.toUpperCase(Locale.ROOT));
+        if (SeriesBuckets.count(unit, start, end) > maxSeriesBuckets) {
+            return badRequest("A series may hold at most " + maxSeriesBuckets + " buckets; use a larger bucket.");
+        }
+
+        // 2. The ETag covers the bucket and the statistics as well as the range
+        Set<WeatherSeriesResponse.Statistic> statistics = WeatherSeriesResponse.Statistic.parseAll(stats);
+        StatsHttpCache.Validator validator = httpCache.validator("series|" + unit + "|" + statistics,
+                requestHeaders, latitude, longitude, startDate, endDate);
+        if (validator.matches(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            return validator.notModified();
+        }
+
+        Optional<SeriesBuckets> buckets = weatherStatService.getBucketedSeries(latitude, longitude, start, end, unit);
+
+        if (buckets.isPresent()) {
+            WeatherSeriesResponse response = new WeatherSeriesResponse(
+                    latitude, longitude,
+                    startDate,
+                    endDate,
+                    OpenMeteoClientService.TIMEZONE,
+                    buckets.get(),
+                    statistics
+            );
+            return validator.ok(response, response.isStale());
+        } else {
+            ApiErrorResponse error = new ApiErrorResponse(
+                    "Not Found",
+                    "No temperature data found for the specified range."
+            );
+            return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Streaming variant of {@link #getTemperatureSeries}, chosen with
+     * {@code Accept: application/x-ndjson}: one row per bucket, written chunk by chunk as the
+     * range is fetched. Memory stays constant, so there is no limit on the number of buckets.
+     */
+    @GetMapping(value = "/series", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTemperatureSeries(
+            @RequestParam @Min(-90) @Max(90) double latitude,
+            @RequestParam @Min(-180) @Max(180) double longitude,
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String startDate,
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate,
+            @RequestParam(defaultValue = "day") @Pattern(regexp = "hour|day|week|month", message = "Bucket must be one of hour, day, week, month") String bucket,
+            @RequestParam(defaultValue = "min,max,avg") @Pattern(regexp = "(min|max|avg|count)(,(min|max|avg|count))*", message = "Stats must be a list of min, max, avg, count") String stats) {
+
+        SeriesBuckets.Unit unit = SeriesBuckets.Unit.valueOf(bucket.toUpperCase(Locale.ROOT));
+        Set<WeatherSeriesResponse.Statistic> statistics = WeatherSeriesResponse.Statistic.parseAll(stats);
+        return stream(latitude, longitude, startDate, endDate, unit,
+                (rows, range, series) -> rows.writeBuckets(range, series, unit, statistics));
+    }
+
+    /**
+     * Endpoint to export the raw hourly temperatures of a range as NDJSON, one row per hour
+     * in the timezone of the series, written chunk by chunk as the range is fetched.
+     */
+    @GetMapping(value = "/hourly", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportHourlyTemperatures(
+            @RequestParam @Min(-90) @Max(90) double latitude,
+            @RequestParam @Min(-180) @Max(180) double longitude,
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String startDate,
+            @RequestParam @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format") String endDate) {
+
+        return stream(latitude, longitude, startDate, endDate, SeriesBuckets.Unit.HOUR, NdjsonRows::writeHourly);
+    }
+
+    /**
+     * Endpoint to get statistics for many locations and ranges in one call.
+     * Each item gets its own result or error, so one bad item does not fail the batch.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getBatchStatistics(@Valid @RequestBody BatchStatsRequest request) {
+        if (request.getItems().size() > batchStatService.getMaxItems()) {
+            ApiErrorResponse error = new ApiErrorResponse(
+                    "Bad Request",
+                    "A batch may hold at most " + batchStatService.getMaxItems() + " items."
+            );
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(batchStatService.getStatistics(request.getItems()));
+    }
+
+    /**
+     * Fetches the first chunk before answering, so a range without data or a busy upstream
+     * still gets its 404 or 503. The remaining chunks are fetched a few ahead of the writer;
+     * a slow client blocks the writer, and with it further fetches. A chunk that fails after
+     * rows were sent ends the stream with an error row.
+     */
+    private ResponseEntity<StreamingResponseBody> stream(double latitude, double longitude, String startDate, String endDate,
+                                     SeriesBuckets.Unit alignTo, NdjsonRows.ChunkWriter chunkWriter) {
+        // 1. Check the range before anything is fetched
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = LocalDate.parse(startDate);
+            end = LocalDate.parse(endDate);
+        } catch (DateTimeParseException e) {
+            return jsonError(HttpStatus.BAD_REQUEST, new ApiErrorResponse("Bad Request", "Invalid date: " + e.getParsedString()));
+        }
+        if (end.isBefore(start)) {
+            return jsonError(HttpStatus.BAD_REQUEST, new ApiErrorResponse("Bad Request", "endDate must not be before startDate."));
+        }
+
+        // 2. The first chunk decides the status; upstream exceptions go to ApiExceptionHandler
+        HourlySeriesStream stream = weatherStatService.openSeriesStream(latitude, longitude, start, end, alignTo);
+        DateRange firstRange = stream.peekRange();
+        HourlySeries first = stream.next();
+        if (first == null) {
+            ApiErrorResponse error = new ApiErrorResponse(
+                    "Not Found",
+                    "No temperature data found for the specified range."
+            );
+            return jsonError(HttpStatus.NOT_FOUND, error);
+        }
+
+        // 3. Write each chunk and flush it before waiting for the next one
+        StreamingResponseBody body = out -> {
+            try (stream) {
+                NdjsonRows rows = new NdjsonRows(objectMapper.getFactory(), out);
+                DateRange range = firstRange;
+                HourlySeries series = first;
+                while (series != null) {
+                    chunkWriter.write(rows, range, series);
+                    rows.flush();
+                    if (!stream.hasNext()) {
+                        break;
+                    }
+                    range = stream.peekRange();
+                    try {
+                        series = stream.next();
+                    } catch (UpstreamBusyException | UpstreamUnavailableException e) {
+                        rows.writeError("Service Unavailable", e.getMessage());
+                        break;
+                    } catch (UpstreamQuotaExceededException e) {
+                        rows.writeError("Too Many Requests", e.getMessage());
+                        break;
+                    }
+                    if (series == null) {
+                        rows.writeError("Not Found", "No temperature data found for "
+                                + range.start() + " to " + range.end() + ".");
+                    }
+                }
+                rows.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * An error of a streaming endpoint, written as the JSON body of the other endpoints.
+     * Spring only streams a ResponseEntity typed as such, so the error is written by hand.
+     */
+    private ResponseEntity<StreamingResponseBody> jsonError(HttpStatus status, ApiErrorResponse error) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, error));
+    }
+
+    private static ResponseEntity<ApiErrorResponse> badRequest(String message) {
+        return new ResponseEntity<>(new ApiErrorResponse("Bad Request", message), HttpStatus.BAD_REQUEST);
+    }
+}
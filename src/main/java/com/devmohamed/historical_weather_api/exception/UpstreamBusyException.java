@@ -0,0 +1,12 @@
+package com.devmohamed.historical_weather_api.exception;
+
+/**
+ * Thrown when a call to Open-Meteo cannot get a bulkhead slot in time.
+ * Mapped to 503 Service Unavailable by the API exception handler.
+ */
+public class UpstreamBusyException extends RuntimeException {
+
+    public UpstreamBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.devmohamed.historical_weather_api.exception;
+
+/**
+ * Thrown by the Open-Meteo client when a call failed in a way that may succeed if repeated:
+ * no connection, a timeout or a 5xx answer. The gateway retries it; errors that would fail
+ * again (e.g. 400 Bad Request) are not thrown but answered with null, and 429 Too Many
+ * Requests is an {@link UpstreamQuotaExceededException}.
+ */
+public class UpstreamCallException extends RuntimeException {
+
+    public UpstreamCallException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,20 @@
+package com.devmohamed.historical_weather_api.exception;
+
+/**
+ * Thrown when a call to Open-Meteo would exceed one of its request quotas, or Open-Meteo
+ * answered 429 Too Many Requests. Not retried; mapped to 429 Too Many Requests with a
+ * Retry-After by the API exception handler.
+ */
+public class UpstreamQuotaExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UpstreamQuotaExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
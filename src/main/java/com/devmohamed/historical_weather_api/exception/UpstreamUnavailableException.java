@@ -0,0 +1,19 @@
+package com.devmohamed.historical_weather_api.exception;
+
+/**
+ * Thrown when calls to Open-Meteo are short-circuited because its circuit breaker is open.
+ * Mapped to 503 Service Unavailable by the API exception handler.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UpstreamUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
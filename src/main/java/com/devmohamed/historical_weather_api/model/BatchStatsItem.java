@@ -0,0 +1,110 @@
+package com.devmohamed.historical_weather_api.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import java.util.List;
+
+/**
+ * One location, date range and set of statistics inside a batch request.
+ * Field names and constraints mirror the query parameters of the single endpoints.
+ */
+public class BatchStatsItem {
+
+    @NotNull
+    @Min(-90) @Max(90)
+    private Double latitude;
+
+    @NotNull
+    @Min(-180) @Max(180)
+    private Double longitude;
+
+    @NotNull
+    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format")
+    private String startDate;
+
+    @NotNull
+    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Date must be in YYYY-MM-DD format")
+    private String endDate;
+
+    // Any of: sum, max, min, avg, count, variance, std_dev
+    @NotEmpty
+    private List<@Pattern(regexp = "sum|max|min|avg|count|variance|std_dev",
+            message = "Statistic must be one of sum, max, min, avg, count, variance, std_dev") String> statistics;
+
+    // The hourly variable to aggregate, temperature_2m if absent
+    @Pattern(regexp = "temperature_2m|precipitation|wind_speed_10m|relative_humidity_2m",
+            message = "Metric must be one of temperature_2m, precipitation, wind_speed_10m, relative_humidity_2m")
+    private String metric;
+
+    public BatchStatsItem() {
+    }
+
+    public BatchStatsItem(double latitude, double longitude, String startDate, String endDate,
+                          List<String> statistics) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.statistics = statistics;
+    }
+
+    public BatchStatsItem(double latitude, double longitude, String startDate, String endDate,
+                          List<String> statistics, String metric) {
+        this(latitude, longitude, startDate, endDate, statistics);
+        this.metric = metric;
+    }
+
+    // Getters and Setters
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(String startDate) {
+        this.startDate = startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(String endDate) {
+        this.endDate = endDate;
+    }
+
+    public List<String> getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(List<String> statistics) {
+        this.statistics = statistics;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public void setMetric(String metric) {
+        this.metric = metric;
+    }
+}
@@ -0,0 +1,25 @@
+package com.devmohamed.historical_weather_api.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Request body of POST /api/v1/stats/batch.
+ */
+public class BatchStatsRequest {
+
+    @NotEmpty
+    private List<@Valid BatchStatsItem> items;
+
+    // Getters and Setters
+
+    public List<BatchStatsItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BatchStatsItem> items) {
+        this.items = items;
+    }
+}
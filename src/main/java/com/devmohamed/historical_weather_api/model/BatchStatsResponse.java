@@ -0,0 +1,32 @@
+package com.devmohamed.historical_weather_api.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Response of POST /api/v1/stats/batch, with one result per request item in request order.
+ */
+public class BatchStatsResponse {
+
+    private final List<BatchStatsResult> results;
+
+    // Number of upstream requests the batch needed
+    @JsonProperty("upstream_requests")
+    private final int upstreamRequests;
+
+    public BatchStatsResponse(List<BatchStatsResult> results, int upstreamRequests) {
+        this.results = results;
+        this.upstreamRequests = upstreamRequests;
+    }
+
+    // Getters
+
+    public List<BatchStatsResult> getResults() {
+        return results;
+    }
+
+    public int getUpstreamRequests() {
+        return upstreamRequests;
+    }
+}
@@ -0,0 +1,84 @@
+package com.devmohamed.historical_weather_api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * The outcome of one batch item: either the requested statistics or an error.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchStatsResult {
+
+    // Position of the item in the request
+    private final int index;
+
+    private final double latitude;
+    private final double longitude;
+
+    @JsonProperty("start_date")
+    private final String startDate;
+
+    @JsonProperty("end_date")
+    private final String endDate;
+
+    // Only set if the item named a metric
+    private final String metric;
+
+    private final Map<String, Double> statistics;
+    private final ApiErrorResponse error;
+
+    private BatchStatsResult(int index, BatchStatsItem item, Map<String, Double> statistics, ApiErrorResponse error) {
+        this.index = index;
+        this.latitude = item.getLatitude();
+        this.longitude = item.getLongitude();
+        this.startDate = item.getStartDate();
+        this.endDate = item.getEndDate();
+        this.metric = item.getMetric();
+        this.statistics = statistics;
+        this.error = error;
+    }
+
+    public static BatchStatsResult success(int index, BatchStatsItem item, Map<String, Double> statistics) {
+        return new BatchStatsResult(index, item, statistics, null);
+    }
+
+    public static BatchStatsResult failure(int index, BatchStatsItem item, String error, String message) {
+        return new BatchStatsResult(index, item, null, new ApiErrorResponse(error, message));
+    }
+
+    // Getters
+
+    public int getIndex() {
+        return index;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public Map<String, Double> getStatistics() {
+        return statistics;
+    }
+
+    public ApiErrorResponse getError() {
+        return error;
+    }
+}
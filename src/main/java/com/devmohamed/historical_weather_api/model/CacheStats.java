@@ -0,0 +1,73 @@
+package com.devmohamed.historical_weather_api.model;
+
+/**
+ * Snapshot of the day-granular upstream response cache counters, per tier.
+ */
+public class CacheStats {
+
+    private final long size;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+
+    // Days served past their TTL because Open-Meteo was unavailable or too slow
+    private final long staleHits;
+
+    // p95 of one lookup of a range in this tier, -1 until enough lookups were timed
+    private final long latencyP95Micros;
+
+    // The tier shared by all replicas, asked for the days missed here
+    private final SharedCacheStats shared;
+
+    public CacheStats(long size, long hits, long misses, long evictions, long expirations, long staleHits,
+                      long latencyP95Micros, SharedCacheStats shared) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.staleHits = staleHits;
+        this.latencyP95Micros = latencyP95Micros;
+        this.shared = shared;
+    }
+
+    // Getters
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public long getStaleHits() {
+        return staleHits;
+    }
+
+    public long getLatencyP95Micros() {
+        return latencyP95Micros;
+    }
+
+    public SharedCacheStats getShared() {
+        return shared;
+    }
+
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
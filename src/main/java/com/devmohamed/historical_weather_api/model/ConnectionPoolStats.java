@@ -0,0 +1,37 @@
+package com.devmohamed.historical_weather_api.model;
+
+/**
+ * Snapshot of the Open-Meteo HTTP connection pool.
+ */
+public class ConnectionPoolStats {
+
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int max;
+
+    public ConnectionPoolStats(int leased, int pending, int available, int max) {
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+    }
+
+    // Getters
+
+    public int getLeased() {
+        return leased;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,13 @@
+package com.devmohamed.historical_weather_api.model;
+
+import java.time.LocalDate;
+
+/**
+ * An inclusive range of days.
+ */
+public record DateRange(LocalDate start, LocalDate end) {
+
+    public int days() {
+        return (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+    }
+}
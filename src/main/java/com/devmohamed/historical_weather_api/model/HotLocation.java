@@ -0,0 +1,39 @@
+package com.devmohamed.historical_weather_api.model;
+
+/**
+ * One entry of the heavy-hitter sketch: a location and how often it was requested.
+ */
+public class HotLocation {
+
+    private final double latitude;
+    private final double longitude;
+    private final long requests;
+
+    // The count may be overestimated by at most this much, see Space-Saving
+    private final long maxOverestimate;
+
+    public HotLocation(double latitude, double longitude, long requests, long maxOverestimate) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.requests = requests;
+        this.maxOverestimate = maxOverestimate;
+    }
+
+    // Getters
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getMaxOverestimate() {
+        return maxOverestimate;
+    }
+}
@@ -1,33 +1,117 @@
 package com.devmohamed.historical_weather_api.model;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
-
-@JsonIgnoreProperties(ignoreUnknown = true)
+/**
+ * The "hourly" block of an Open-Meteo response, decoded by {@link HourlyDataDeserializer}
+ * into a columnar frame. The {@code time} array is reduced to its first timestamp plus a
+ * fixed step, and every {@link HourlyVariable} in the payload is kept as its own primitive
+ * column with NaN for missing hours. Variables that were not requested have no column.
+ */
+@JsonDeserialize(using = HourlyDataDeserializer.class)
 public class HourlyData {
 
-    private List<String> time;
+    public static final long UNKNOWN_START = Long.MIN_VALUE;
+
+    // First timestamp, as seconds since the epoch of the local date-time read as UTC
+    private long startEpochSecond = UNKNOWN_START;
+
+    private int intervalSeconds = 3600;
 
-    @JsonProperty("temperature_2m")
-    private List<Double> temperature2m;
+    // Number of entries in the time array
+    private int timeCount;
+
+    // One column per HourlyVariable, by ordinal; null when the payload did not hold it
+    private final double[][] columns = new double[HourlyVariable.values().length][];
 
     // Getters and Setters
-    public List<String> getTime() {
-        return time;
+    public long getStartEpochSecond() {
+        return startEpochSecond;
+    }
+
+    public void setStartEpochSecond(long startEpochSecond) {
+        this.startEpochSecond = startEpochSecond;
+    }
+
+    public int getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    public void setIntervalSeconds(int intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public int getTimeCount() {
+        return timeCount;
     }
 
-    public void setTime(List<String> time) {
-        this.time = time;
+    public void setTimeCount(int timeCount) {
+        this.timeCount = timeCount;
     }
 
-    public List<Double> getTemperature2m() {
-        return temperature2m;
+    /**
+     * @return The values of the variable, or null if the payload did not hold it.
+     */
+    public double[] getColumn(HourlyVariable variable) {
+        return columns[variable.ordinal()];
     }
 
+    public void setColumn(HourlyVariable variable, double[] values) {
+        columns[variable.ordinal()] = values;
+    }
+
+    /**
+     * @return The variables that have a column.
+     */
+    public Set<HourlyVariable> getVariables() {
+        Set<HourlyVariable> variables = EnumSet.noneOf(HourlyVariable.class);
+        for (HourlyVariable variable : HourlyVariable.values()) {
+            if (columns[variable.ordinal()] != null) {
+                variables.add(variable);
+            }
+        }
+        return variables;
+    }
+
+    public double[] getTemperature2m() {
+        return getColumn(HourlyVariable.TEMPERATURE_2M);
+    }
+
+    public void setTemperature2m(double[] temperature2m) {
+        setColumn(HourlyVariable.TEMPERATURE_2M, temperature2m);
+    }
+
+    /**
+     * Boxed convenience setter, mainly for building data by hand. Null entries become NaN.
+     */
     public void setTemperature2m(List<Double> temperature2m) {
-        this.temperature2m = temperature2m;
+        if (temperature2m == null) {
+            setTemperature2m((double[]) null);
+            return;
+        }
+        double[] values = new double[temperature2m.size()];
+        for (int i = 0; i < values.length; i++) {
+            Double value = temperature2m.get(i);
+            values[i] = value == null ? Double.NaN : value;
+        }
+        setTemperature2m(values);
+    }
+
+    /**
+     * @return The local timestamp of the first hour, or null if the payload had no time axis.
+     */
+    public LocalDateTime getStartTime() {
+        return startEpochSecond == UNKNOWN_START ? null
+                : LocalDateTime.ofEpochSecond(startEpochSecond, 0, ZoneOffset.UTC);
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startEpochSecond = startTime == null ? UNKNOWN_START : startTime.toEpochSecond(ZoneOffset.UTC);
     }
-}
\ No newline at end of file
+}
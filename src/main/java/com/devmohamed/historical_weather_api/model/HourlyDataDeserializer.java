@@ -0,0 +1,170 @@
+package com.devmohamed.historical_weather_api.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Token-level decoder for the Open-Meteo "hourly" block.
+ *
+ * <p>Data binding a one-year range the default way allocates about 8,760 boxed Doubles
+ * and 8,760 timestamp Strings that are thrown away right after the statistics are
+ * computed. This decoder instead:
+ * <ul>
+ *   <li>reads only the first two timestamps and keeps a start epoch plus the step,
+ *       the rest of the time array is counted without materializing any String;</li>
+ *   <li>writes the values of every known {@link HourlyVariable} straight into its own
+ *       {@code double[]} column, with NaN for nulls, sized exactly from the time array when
+ *       that came first (as Open-Meteo sends it), or through a reused per-thread scratch
+ *       buffer otherwise;</li>
+ *   <li>skips any other array without decoding a single number.</li>
+ * </ul>
+ */
+public class HourlyDataDeserializer extends StdDeserializer<HourlyData> {
+
+    // Scratch buffers above this size are not kept, so one huge payload cannot pin memory
+    private static final int MAX_RETAINED_SCRATCH = 1 << 17;
+
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[1024]);
+
+    public HourlyDataDeserializer() {
+        super(HourlyData.class);
+    }
+
+    @Override
+    public HourlyData deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        HourlyData data = new HourlyData();
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        }
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            if ("time".equals(field)) {
+                readTime(p, ctxt, data);
+                continue;
+            }
+            HourlyVariable variable = HourlyVariable.fromApiName(field);
+            if (variable != null) {
+                data.setColumn(variable, readValues(p, ctxt, data.getTimeCount()));
+            } else {
+                p.skipChildren();
+            }
+        }
+        return data;
+    }
+
+    private static void readTime(JsonParser p, DeserializationContext ctxt, HourlyData data) throws IOException {
+        expectArray(p, ctxt);
+        int count = 0;
+        long first = HourlyData.UNKNOWN_START;
+        for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+            if (count < 2) {
+                long epochSecond = toEpochSecond(p, token);
+                if (count == 0) {
+                    first = epochSecond;
+                } else {
+                    data.setIntervalSeconds((int) (epochSecond - first));
+                }
+            }
+            count++;
+        }
+        data.setStartEpochSecond(first);
+        data.setTimeCount(count);
+    }
+
+    private static long toEpochSecond(JsonParser p, JsonToken token) throws IOException {
+        // "timeformat=unixtime" sends numbers, the default sends ISO local date-times
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getLongValue();
+        }
+        return LocalDateTime.parse(p.getText()).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static double[] readValues(JsonParser p, DeserializationContext ctxt, int expected) throws IOException {
+        expectArray(p, ctxt);
+        boolean exact = expected > 0;
+        double[] buffer = exact ? new double[expected] : SCRATCH.get();
+        int n = 0;
+        for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+            if (n == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                exact = false;
+            }
+            buffer[n++] = token == JsonToken.VALUE_NULL ? Double.NaN : parseDouble(p);
+        }
+        if (exact && n == buffer.length) {
+            return buffer;
+        }
+        if (buffer.length <= MAX_RETAINED_SCRATCH) {
+            SCRATCH.set(buffer);
+        }
+        return Arrays.copyOf(buffer, n);
+    }
+
+    /**
+     * Parses the current number token from the parser's character buffer. Jackson's own
+     * getDoubleValue() builds a String for every number, which dominates the allocations
+     * of a large payload. Plain decimals with at most 15 significant digits and at most
+     * 22 fraction digits are converted as {@code digits / 10^scale}, which is exactly
+     * rounded because both operands are exact doubles. Anything else falls back to
+     * {@link Double#parseDouble(String)}.
+     */
+    static double parseDouble(JsonParser p) throws IOException {
+        char[] chars = p.getTextCharacters();
+        int offset = p.getTextOffset();
+        int end = offset + p.getTextLength();
+        int i = offset;
+        boolean negative = i < end && chars[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long digits = 0;
+        int significant = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                digits = digits * 10 + (c - '0');
+                if (digits != 0) {
+                    significant++;
+                }
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                // Exponents and anything unexpected take the slow, always correct path
+                return p.getDoubleValue();
+            }
+        }
+        if (significant > 15 || scale > 22) {
+            return p.getDoubleValue();
+        }
+        double value = scale <= 0 ? digits : digits / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static void expectArray(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            ctxt.reportWrongTokenException(HourlyData.class, JsonToken.START_ARRAY,
+                    "Expected an array for field '%s'", p.currentName());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.devmohamed.historical_weather_api.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An hourly temperature series starting at local midnight of {@code startDate}.
+ * Missing hours are stored as {@link Double#NaN} so the values can live in a
+ * primitive array. A stale series was served from expired cache entries because
+ * Open-Meteo was unavailable or too slow to answer.
+ */
+public class HourlySeries {
+
+    public static final int HOURS_PER_DAY = 24;
+
+    private final LocalDate startDate;
+    private final double[] values;
+    private final boolean stale;
+
+    public HourlySeries(LocalDate startDate, double[] values) {
+        this(startDate, values, false);
+    }
+
+    public HourlySeries(LocalDate startDate, double[] values, boolean stale) {
+        this.startDate = startDate;
+        this.values = values;
+        this.stale = stale;
+    }
+
+    // Getters
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return the local timestamp of the value at {@code index}.
+     */
+    public LocalDateTime timeAt(int index) {
+        return startDate.atStartOfDay().plusHours(index);
+    }
+}
@@ -0,0 +1,89 @@
+package com.devmohamed.historical_weather_api.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * The hourly variables we request from Open-Meteo, each decoded into its own primitive
+ * column of {@link HourlyData}. Requests name them by their Open-Meteo name.
+ */
+public enum HourlyVariable {
+
+    TEMPERATURE_2M("temperature_2m", "°C"),
+    PRECIPITATION("precipitation", "mm"),
+    WIND_SPEED_10M("wind_speed_10m", "km/h"),
+    RELATIVE_HUMIDITY_2M("relative_humidity_2m", "%");
+
+    public static final Set<HourlyVariable> TEMPERATURE = Set.of(TEMPERATURE_2M);
+
+    // Matches a comma-separated list of the names below, for request validation
+    public static final String LIST_PATTERN = "(temperature_2m|precipitation|wind_speed_10m|relative_humidity_2m)"
+            + "(,(temperature_2m|precipitation|wind_speed_10m|relative_humidity_2m))*";
+
+    private static final HourlyVariable[] VALUES = values();
+
+    private final String apiName;
+    private final String unit;
+
+    HourlyVariable(String apiName, String unit) {
+        this.apiName = apiName;
+        this.unit = unit;
+    }
+
+    /**
+     * @return The variable with that Open-Meteo name, or null if we do not know it.
+     */
+    public static HourlyVariable fromApiName(String apiName) {
+        for (HourlyVariable variable : VALUES) {
+            if (variable.apiName.equals(apiName)) {
+                return variable;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a comma-separated list of Open-Meteo names such as "temperature_2m,precipitation".
+     *
+     * @throws IllegalArgumentException If a name is unknown.
+     */
+    public static Set<HourlyVariable> parseAll(String list) {
+        Set<HourlyVariable> variables = EnumSet.noneOf(HourlyVariable.class);
+        for (String name : list.split(",")) {
+            HourlyVariable variable = fromApiName(name.trim());
+            if (variable == null) {
+                throw new IllegalArgumentException("Unknown hourly variable: " + name);
+            }
+            variables.add(variable);
+        }
+        return variables;
+    }
+
+    /**
+     * @return The value of Open-Meteo's "hourly" parameter for these variables, in declaration
+     * order, so equal sets always give the same URL.
+     */
+    public static String toHourlyParam(Set<HourlyVariable> variables) {
+        StringJoiner joined = new StringJoiner(",");
+        for (HourlyVariable variable : VALUES) {
+            if (variables.contains(variable)) {
+                joined.add(variable.apiName);
+            }
+        }
+        return joined.toString();
+    }
+
+    // Getters
+
+    public String getApiName() {
+        return apiName;
+    }
+
+    /**
+     * @return The unit Open-Meteo answers in by default.
+     */
+    public String getUnit() {
+        return unit;
+    }
+}
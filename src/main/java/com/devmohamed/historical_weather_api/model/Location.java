@@ -0,0 +1,32 @@
+package com.devmohamed.historical_weather_api.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A normalized latitude/longitude pair used as a lookup key.
+ * Coordinates are rounded to {@value #SCALE} decimal places (about 11 m),
+ * well below the resolution of the Open-Meteo grid, so values that only
+ * differ in floating point noise map to the same key.
+ */
+public record Location(double latitude, double longitude) {
+
+    public static final int SCALE = 4;
+
+    public static Location of(double latitude, double longitude) {
+        return new Location(normalize(latitude), normalize(longitude));
+    }
+
+    /**
+     * Formats a coordinate as a plain decimal ("0.0001", never "1.0E-4") for URLs and keys.
+     */
+    public static String format(double coordinate) {
+        return BigDecimal.valueOf(coordinate).stripTrailingZeros().toPlainString();
+    }
+
+    private static double normalize(double value) {
+        double rounded = BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP).doubleValue();
+        // Collapse -0.0 into 0.0 so both hash to the same key
+        return rounded == 0.0 ? 0.0 : rounded;
+    }
+}
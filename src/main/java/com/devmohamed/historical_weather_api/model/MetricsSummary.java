@@ -0,0 +1,35 @@
+package com.devmohamed.historical_weather_api.model;
+
+import java.util.Map;
+
+/**
+ * The aggregates of several hourly variables over one date range, together with the plan
+ * that was used to fetch them.
+ */
+public class MetricsSummary {
+
+    private final Map<HourlyVariable, SeriesAggregate> aggregates;
+    private final RangePlan plan;
+
+    public MetricsSummary(Map<HourlyVariable, SeriesAggregate> aggregates, RangePlan plan) {
+        this.aggregates = aggregates;
+        this.plan = plan;
+    }
+
+    /**
+     * @return Whether any aggregate was computed from data served past its TTL.
+     */
+    public boolean isStale() {
+        return aggregates.values().stream().anyMatch(SeriesAggregate::isStale);
+    }
+
+    // Getters
+
+    public Map<HourlyVariable, SeriesAggregate> getAggregates() {
+        return aggregates;
+    }
+
+    public RangePlan getPlan() {
+        return plan;
+    }
+}
@@ -0,0 +1,90 @@
+package com.devmohamed.historical_weather_api.model;
+
+import java.util.List;
+
+/**
+ * Snapshot of the heavy-hitter sketch and of the prefetch runs.
+ */
+public class PrefetchStats {
+
+    private final long requests;
+    private final int trackedLocations;
+    private final long runs;
+    private final long prefetched;
+    private final long alreadyWarm;
+    private final long failures;
+    private final long budgetExhaustedRuns;
+
+    // Prefetched ranges whose first request came while they were still fresh
+    private final long warmHits;
+
+    // Prefetched ranges that expired or were prefetched again before anyone asked for them
+    private final long unused;
+
+    private final List<HotLocation> topLocations;
+
+    public PrefetchStats(long requests, int trackedLocations, long runs, long prefetched, long alreadyWarm,
+                         long failures, long budgetExhaustedRuns, long warmHits, long unused,
+                         List<HotLocation> topLocations) {
+        this.requests = requests;
+        this.trackedLocations = trackedLocations;
+        this.runs = runs;
+        this.prefetched = prefetched;
+        this.alreadyWarm = alreadyWarm;
+        this.failures = failures;
+        this.budgetExhaustedRuns = budgetExhaustedRuns;
+        this.warmHits = warmHits;
+        this.unused = unused;
+        this.topLocations = topLocations;
+    }
+
+    // Getters
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public int getTrackedLocations() {
+        return trackedLocations;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    public long getPrefetched() {
+        return prefetched;
+    }
+
+    public long getAlreadyWarm() {
+        return alreadyWarm;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getBudgetExhaustedRuns() {
+        return budgetExhaustedRuns;
+    }
+
+    public long getWarmHits() {
+        return warmHits;
+    }
+
+    public long getUnused() {
+        return unused;
+    }
+
+    /**
+     * @return The share of settled prefetches that served a request warm.
+     */
+    public double getEffectiveness() {
+        long settled = warmHits + unused;
+        return settled == 0 ? 0.0 : (double) warmHits / settled;
+    }
+
+    public List<HotLocation> getTopLocations() {
+        return topLocations;
+    }
+}
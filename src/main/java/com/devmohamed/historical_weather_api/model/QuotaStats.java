@@ -0,0 +1,56 @@
+package com.devmohamed.historical_weather_api.model;
+
+/**
+ * Snapshot of the upstream quota governor: what is left of each window and what was refused.
+ */
+public class QuotaStats {
+
+    private final boolean enabled;
+    private final long remainingPerMinute;
+    private final long remainingPerHour;
+    private final long remainingPerDay;
+    private final long shedInteractive;
+    private final long shedBackground;
+    private final long upstreamRejections;
+
+    public QuotaStats(boolean enabled, long remainingPerMinute, long remainingPerHour, long remainingPerDay,
+                      long shedInteractive, long shedBackground, long upstreamRejections) {
+        this.enabled = enabled;
+        this.remainingPerMinute = remainingPerMinute;
+        this.remainingPerHour = remainingPerHour;
+        this.remainingPerDay = remainingPerDay;
+        this.shedInteractive = shedInteractive;
+        this.shedBackground = shedBackground;
+        this.upstreamRejections = upstreamRejections;
+    }
+
+    // Getters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getRemainingPerMinute() {
+        return remainingPerMinute;
+    }
+
+    public long getRemainingPerHour() {
+        return remainingPerHour;
+    }
+
+    public long getRemainingPerDay() {
+        return remainingPerDay;
+    }
+
+    public long getShedInteractive() {
+        return shedInteractive;
+    }
+
+    public long getShedBackground() {
+        return shedBackground;
+    }
+
+    public long getUpstreamRejections() {
+        return upstreamRejections;
+    }
+}
@@ -0,0 +1,55 @@
+package com.devmohamed.historical_weather_api.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * How a date range is fetched: the calendar unit it was split by, the resulting
+ * chunks in date order, and how many of them are fetched at the same time.
+ * Serialized as the "metadata" of range responses.
+ */
+public class RangePlan {
+
+    public enum Unit {
+        WHOLE, MONTH, YEAR
+    }
+
+    private final Unit unit;
+    private final List<DateRange> chunks;
+    private final int parallelism;
+
+    public RangePlan(Unit unit, List<DateRange> chunks, int parallelism) {
+        this.unit = unit;
+        this.chunks = chunks;
+        this.parallelism = parallelism;
+    }
+
+    // Getters
+
+    @JsonIgnore
+    public Unit getUnit() {
+        return unit;
+    }
+
+    @JsonProperty("chunk_unit")
+    public String getChunkUnit() {
+        return unit.name().toLowerCase(Locale.ROOT);
+    }
+
+    @JsonIgnore
+    public List<DateRange> getChunks() {
+        return chunks;
+    }
+
+    @JsonProperty("chunk_count")
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+}
@@ -0,0 +1,25 @@
+package com.devmohamed.historical_weather_api.model;
+
+/**
+ * The aggregate of a date range together with the plan that was used to fetch it.
+ */
+public class RangeSummary {
+
+    private final SeriesAggregate aggregate;
+    private final RangePlan plan;
+
+    public RangeSummary(SeriesAggregate aggregate, RangePlan plan) {
+        this.aggregate = aggregate;
+        this.plan = plan;
+    }
+
+    // Getters
+
+    public SeriesAggregate getAggregate() {
+        return aggregate;
+    }
+
+    public RangePlan getPlan() {
+        return plan;
+    }
+}
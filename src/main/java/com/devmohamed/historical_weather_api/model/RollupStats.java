@@ -0,0 +1,43 @@
+package com.devmohamed.historical_weather_api.model;
+
+/**
+ * Snapshot of the rollup index counters.
+ */
+public class RollupStats {
+
+    private final long locationYears;
+    private final long hits;
+    private final long misses;
+    private final long indexedDays;
+    private final long evictions;
+
+    public RollupStats(long locationYears, long hits, long misses, long indexedDays, long evictions) {
+        this.locationYears = locationYears;
+        this.hits = hits;
+        this.misses = misses;
+        this.indexedDays = indexedDays;
+        this.evictions = evictions;
+    }
+
+    // Getters
+
+    public long getLocationYears() {
+        return locationYears;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getIndexedDays() {
+        return indexedDays;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+}
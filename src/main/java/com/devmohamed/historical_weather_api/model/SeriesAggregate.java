@@ -0,0 +1,173 @@
+package com.devmohamed.historical_weather_api.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * All summary statistics of an hourly series, computed in a single pass over
+ * the primitive values. Missing hours (NaN) are counted but otherwise skipped.
+ * The variance is the population variance of the present hours, accumulated
+ * with Welford's algorithm so long ranges do not lose precision. Aggregates of
+ * consecutive chunks can be combined with {@link #merge(SeriesAggregate)}; the result
+ * is stale as soon as one of the series folded into it was.
+ */
+public class SeriesAggregate {
+
+    private long count;
+    private long nullCount;
+    private double sum;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private LocalDateTime minTime;
+    private LocalDateTime maxTime;
+    private boolean stale;
+
+    /**
+     * Builds the aggregate of a whole series.
+     */
+    public static SeriesAggregate of(HourlySeries series) {
+        SeriesAggregate aggregate = new SeriesAggregate();
+        aggregate.accept(series);
+        return aggregate;
+    }
+
+    /**
+     * Rebuilds an aggregate from its stored parts, e.g. a node of a rollup index.
+     */
+    public static SeriesAggregate ofParts(long count, long nullCount, double sum, double mean, double m2,
+                                          double min, LocalDateTime minTime, double max, LocalDateTime maxTime) {
+        SeriesAggregate aggregate = new SeriesAggregate();
+        aggregate.count = count;
+        aggregate.nullCount = nullCount;
+        aggregate.sum = sum;
+        aggregate.mean = mean;
+        aggregate.m2 = m2;
+        aggregate.min = min;
+        aggregate.minTime = minTime;
+        aggregate.max = max;
+        aggregate.maxTime = maxTime;
+        return aggregate;
+    }
+
+    /**
+     * Folds every value of the series into this aggregate.
+     */
+    public void accept(HourlySeries series) {
+        stale |= series.isStale();
+        double[] values = series.getValues();
+        int minIndex = -1;
+        int maxIndex = -1;
+        for (int i = 0; i < values.length; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                nullCount++;
+                continue;
+            }
+            count++;
+            sum += value;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+            if (value < min) {
+                min = value;
+                minIndex = i;
+            }
+            if (value > max) {
+                max = value;
+                maxIndex = i;
+            }
+        }
+        // Timestamps are only materialized once per series, never inside the loop
+        if (minIndex >= 0 && series.getStartDate() != null) {
+            minTime = series.timeAt(minIndex);
+        }
+        if (maxIndex >= 0 && series.getStartDate() != null) {
+            maxTime = series.timeAt(maxIndex);
+        }
+    }
+
+    /**
+     * Combines the aggregate of a later chunk into this one, using Chan's parallel form of
+     * Welford's update for the variance. Merging chunk aggregates in date order gives the
+     * same min/max timestamps as one pass over the whole series: ties keep the earlier hour.
+     */
+    public void merge(SeriesAggregate other) {
+        stale |= other.stale;
+        nullCount += other.nullCount;
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            sum = other.sum;
+            mean = other.mean;
+            m2 = other.m2;
+        } else {
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+            mean += delta * other.count / total;
+            sum += other.sum;
+            count = total;
+        }
+        if (other.min < min) {
+            min = other.min;
+            minTime = other.minTime;
+        }
+        if (other.max > max) {
+            max = other.max;
+            maxTime = other.maxTime;
+        }
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    // Getters
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    public double getVariance() {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    public LocalDateTime getMinTime() {
+        return minTime;
+    }
+
+    public LocalDateTime getMaxTime() {
+        return maxTime;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+}
@@ -0,0 +1,204 @@
+package com.devmohamed.historical_weather_api.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * The min, max, sum and count of present hours per calendar bucket of a date range, kept in
+ * column arrays. Buckets follow the local dates of the hourly series, i.e. the timezone
+ * Open-Meteo answered in, so an hour is never moved to a neighbouring day by an offset.
+ *
+ * <p>Buckets are laid out when the range is known; series are then folded in with
+ * {@link #accept(HourlySeries)}, each placed by its own start date, in one pass over the
+ * primitive values. Missing hours (NaN) only lower the count of their bucket, and a bucket
+ * without any present hour has NaN statistics.
+ */
+public class SeriesBuckets {
+
+    public enum Unit {
+        HOUR, DAY, WEEK, MONTH
+    }
+
+    private final Unit unit;
+    private final LocalDate startDate;
+    private final int hours;
+
+    // Hour offset of the first hour of each bucket, plus the total hours at the end
+    private final int[] bucketStarts;
+    private final double[] min;
+    private final double[] max;
+    private final double[] sum;
+    private final int[] count;
+    private boolean stale;
+
+    /**
+     * Lays out the empty buckets of an inclusive range. The first bucket starts with the
+     * range even if the week or month began earlier, and the last one ends with it.
+     */
+    public SeriesBuckets(Unit unit, LocalDate start, LocalDate end) {
+        this.unit = unit;
+        this.startDate = start;
+        this.hours = (int) (end.toEpochDay() - start.toEpochDay() + 1) * HourlySeries.HOURS_PER_DAY;
+        int size = count(unit, start, end);
+        this.bucketStarts = new int[size + 1];
+        if (unit == Unit.HOUR) {
+            for (int i = 0; i <= size; i++) {
+                bucketStarts[i] = i;
+            }
+        } else {
+            int bucket = 0;
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                if (day.equals(start) || isBucketStart(unit, day)) {
+                    bucketStarts[bucket++] = (int) (day.toEpochDay() - start.toEpochDay()) * HourlySeries.HOURS_PER_DAY;
+                }
+            }
+            bucketStarts[size] = hours;
+        }
+        this.min = new double[size];
+        this.max = new double[size];
+        this.sum = new double[size];
+        this.count = new int[size];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Buckets a whole series.
+     */
+    public static SeriesBuckets of(HourlySeries series, Unit unit) {
+        int days = Math.max(1, series.size() / HourlySeries.HOURS_PER_DAY);
+        SeriesBuckets buckets = new SeriesBuckets(unit, series.getStartDate(),
+                series.getStartDate().plusDays(days - 1));
+        buckets.accept(series);
+        return buckets;
+    }
+
+    /**
+     * @return The number of buckets of the inclusive range, without laying them out.
+     */
+    public static int count(Unit unit, LocalDate start, LocalDate end) {
+        long days = end.toEpochDay() - start.toEpochDay() + 1;
+        return switch (unit) {
+            case HOUR -> (int) Math.min(Integer.MAX_VALUE, days * HourlySeries.HOURS_PER_DAY);
+            case DAY -> (int) days;
+            case WEEK -> (int) ((end.with(DayOfWeek.MONDAY).toEpochDay() - start.with(DayOfWeek.MONDAY).toEpochDay()) / 7 + 1);
+            case MONTH -> (int) ((end.getYear() - start.getYear()) * 12L + end.getMonthValue() - start.getMonthValue() + 1);
+        };
+    }
+
+    /**
+     * Folds the values of the series into the buckets their hours fall in.
+     * Hours outside the range are ignored.
+     */
+    public void accept(HourlySeries series) {
+        stale |= series.isStale();
+        double[] values = series.getValues();
+        long offset = (series.getStartDate().toEpochDay() - startDate.toEpochDay()) * HourlySeries.HOURS_PER_DAY;
+        int from = (int) Math.max(0, offset);
+        int to = (int) Math.min(hours, offset + values.length);
+        if (from >= to) {
+            return;
+        }
+
+        // 1. Find the bucket of the first hour, then walk bucket by bucket
+        int bucket = Arrays.binarySearch(bucketStarts, from);
+        if (bucket < 0) {
+            bucket = -bucket - 2;
+        }
+        for (; bucket < count.length && bucketStarts[bucket] < to; bucket++) {
+            int end = Math.min(bucketStarts[bucket + 1], to);
+            double lo = min[bucket];
+            double hi = max[bucket];
+            double total = sum[bucket];
+            int present = count[bucket];
+            // 2. The inner loop only touches locals and the primitive array
+            for (int hour = Math.max(bucketStarts[bucket], from); hour < end; hour++) {
+                double value = values[(int) (hour - offset)];
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                present++;
+                total += value;
+                if (value < lo) {
+                    lo = value;
+                }
+                if (value > hi) {
+                    hi = value;
+                }
+            }
+            min[bucket] = lo;
+            max[bucket] = hi;
+            sum[bucket] = total;
+            count[bucket] = present;
+        }
+    }
+
+    /**
+     * @return Whether a bucket of the given unit starts at midnight of the day.
+     */
+    public static boolean isBucketStart(Unit unit, LocalDate day) {
+        return switch (unit) {
+            case HOUR, DAY -> true;
+            case WEEK -> day.getDayOfWeek() == DayOfWeek.MONDAY;
+            case MONTH -> day.getDayOfMonth() == 1;
+        };
+    }
+
+    // Getters
+
+    public Unit getUnit() {
+        return unit;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public int size() {
+        return count.length;
+    }
+
+    /**
+     * @return The local time of the first hour of the bucket.
+     */
+    public LocalDateTime startOf(int bucket) {
+        return startDate.atStartOfDay().plusHours(bucketStarts[bucket]);
+    }
+
+    /**
+     * @return The number of present hours in the bucket.
+     */
+    public int countOf(int bucket) {
+        return count[bucket];
+    }
+
+    public double minOf(int bucket) {
+        return count[bucket] == 0 ? Double.NaN : min[bucket];
+    }
+
+    public double maxOf(int bucket) {
+        return count[bucket] == 0 ? Double.NaN : max[bucket];
+    }
+
+    public double meanOf(int bucket) {
+        return count[bucket] == 0 ? Double.NaN : sum[bucket] / count[bucket];
+    }
+
+    /**
+     * @return Whether any bucket has a present hour.
+     */
+    public boolean isEmpty() {
+        for (int present : count) {
+            if (present > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
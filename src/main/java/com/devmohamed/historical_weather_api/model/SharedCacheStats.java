@@ -0,0 +1,69 @@
+package com.devmohamed.historical_weather_api.model;
+
+/**
+ * Snapshot of the shared cache tier counters.
+ */
+public class SharedCacheStats {
+
+    private final boolean enabled;
+    private final long hits;
+    private final long misses;
+    private final long writes;
+
+    // Commands that failed or timed out; each one is answered as a miss
+    private final long errors;
+
+    // Invalidation messages received from any replica
+    private final long invalidations;
+
+    // p95 of one lookup of a range, -1 until enough lookups were timed
+    private long latencyP95Micros = -1;
+
+    public SharedCacheStats(boolean enabled, long hits, long misses, long writes, long errors, long invalidations) {
+        this.enabled = enabled;
+        this.hits = hits;
+        this.misses = misses;
+        this.writes = writes;
+        this.errors = errors;
+        this.invalidations = invalidations;
+    }
+
+    // Getters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public long getLatencyP95Micros() {
+        return latencyP95Micros;
+    }
+
+    public void setLatencyP95Micros(long latencyP95Micros) {
+        this.latencyP95Micros = latencyP95Micros;
+    }
+
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,31 @@
+package com.devmohamed.historical_weather_api.model;
+
+/**
+ * Snapshot of the persistent hourly store counters.
+ */
+public class StoreStats {
+
+    private final int openFiles;
+    private final long daysRead;
+    private final long daysWritten;
+
+    public StoreStats(int openFiles, long daysRead, long daysWritten) {
+        this.openFiles = openFiles;
+        this.daysRead = daysRead;
+        this.daysWritten = daysWritten;
+    }
+
+    // Getters
+
+    public int getOpenFiles() {
+        return openFiles;
+    }
+
+    public long getDaysRead() {
+        return daysRead;
+    }
+
+    public long getDaysWritten() {
+        return daysWritten;
+    }
+}
@@ -0,0 +1,71 @@
+package com.devmohamed.historical_weather_api.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of verifying (and optionally compacting) the persistent hourly store.
+ */
+public class StoreVerificationReport {
+
+    @JsonProperty("files_checked")
+    private int filesChecked;
+
+    @JsonProperty("empty_files")
+    private int emptyFiles;
+
+    @JsonProperty("hours_stored")
+    private long hoursStored;
+
+    @JsonProperty("files_removed")
+    private int filesRemoved;
+
+    @JsonProperty("corrupt_files")
+    private final List<String> corruptFiles = new ArrayList<>();
+
+    // Getters and Setters
+
+    public int getFilesChecked() {
+        return filesChecked;
+    }
+
+    public void setFilesChecked(int filesChecked) {
+        this.filesChecked = filesChecked;
+    }
+
+    public int getEmptyFiles() {
+        return emptyFiles;
+    }
+
+    public void setEmptyFiles(int emptyFiles) {
+        this.emptyFiles = emptyFiles;
+    }
+
+    public long getHoursStored() {
+        return hoursStored;
+    }
+
+    public void setHoursStored(long hoursStored) {
+        this.hoursStored = hoursStored;
+    }
+
+    public int getFilesRemoved() {
+        return filesRemoved;
+    }
+
+    public void setFilesRemoved(int filesRemoved) {
+        this.filesRemoved = filesRemoved;
+    }
+
+    public List<String> getCorruptFiles() {
+        return corruptFiles;
+    }
+
+    @Override
+    public String toString() {
+        return "files_checked=" + filesChecked + ", empty_files=" + emptyFiles + ", hours_stored=" + hoursStored
+                + ", files_removed=" + filesRemoved + ", corrupt_files=" + corruptFiles;
+    }
+}
@@ -0,0 +1,125 @@
+package com.devmohamed.historical_weather_api.model;
+
+/**
+ * Snapshot of the counters kept in front of the Open-Meteo client.
+ */
+public class UpstreamStats {
+
+    private final long upstreamCalls;
+    private final long coalescedCalls;
+    private final int inFlight;
+    private final long batchCalls;
+
+    private final int bulkheadMax;
+    private final int concurrencyLimit;
+    private final int bulkheadAvailable;
+    private final int bulkheadQueued;
+    private final long bulkheadRejected;
+
+    private final long retries;
+    private final long hedges;
+    private final long hedgesWon;
+    private final long deadlineExceeded;
+
+    private final String circuitState;
+    private final long circuitOpened;
+    private final long shortCircuited;
+
+    private final QuotaStats quota;
+
+    public UpstreamStats(long upstreamCalls, long coalescedCalls, int inFlight, long batchCalls,
+                         int bulkheadMax, int concurrencyLimit, int bulkheadAvailable, int bulkheadQueued,
+                         long bulkheadRejected, long retries, long hedges, long hedgesWon, long deadlineExceeded,
+                         String circuitState, long circuitOpened, long shortCircuited, QuotaStats quota) {
+        this.upstreamCalls = upstreamCalls;
+        this.coalescedCalls = coalescedCalls;
+        this.inFlight = inFlight;
+        this.batchCalls = batchCalls;
+        this.bulkheadMax = bulkheadMax;
+        this.concurrencyLimit = concurrencyLimit;
+        this.bulkheadAvailable = bulkheadAvailable;
+        this.bulkheadQueued = bulkheadQueued;
+        this.bulkheadRejected = bulkheadRejected;
+        this.retries = retries;
+        this.hedges = hedges;
+        this.hedgesWon = hedgesWon;
+        this.deadlineExceeded = deadlineExceeded;
+        this.circuitState = circuitState;
+        this.circuitOpened = circuitOpened;
+        this.shortCircuited = shortCircuited;
+        this.quota = quota;
+    }
+
+    // Getters
+
+    public long getUpstreamCalls() {
+        return upstreamCalls;
+    }
+
+    public long getCoalescedCalls() {
+        return coalescedCalls;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public long getBatchCalls() {
+        return batchCalls;
+    }
+
+    public int getBulkheadMax() {
+        return bulkheadMax;
+    }
+
+    /**
+     * The calls allowed in flight right now; below {@link #getBulkheadMax()} while Open-Meteo is slow.
+     */
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public int getBulkheadAvailable() {
+        return bulkheadAvailable;
+    }
+
+    public int getBulkheadQueued() {
+        return bulkheadQueued;
+    }
+
+    public long getBulkheadRejected() {
+        return bulkheadRejected;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    public long getHedges() {
+        return hedges;
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon;
+    }
+
+    public long getDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+
+    public String getCircuitState() {
+        return circuitState;
+    }
+
+    public long getCircuitOpened() {
+        return circuitOpened;
+    }
+
+    public long getShortCircuited() {
+        return shortCircuited;
+    }
+
+    public QuotaStats getQuota() {
+        return quota;
+    }
+}
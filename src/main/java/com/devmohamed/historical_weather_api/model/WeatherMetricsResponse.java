@@ -0,0 +1,164 @@
+package com.devmohamed.historical_weather_api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DTO for the metrics response: every statistic of each requested hourly variable,
+ * keyed by its Open-Meteo name.
+ */
+public class WeatherMetricsResponse {
+
+    private double latitude;
+    private double longitude;
+
+    @JsonProperty("start_date")
+    private String startDate;
+
+    @JsonProperty("end_date")
+    private String endDate;
+
+    private Map<String, Metric> metrics;
+
+    // How the range was fetched: chunk unit, chunk count and parallelism
+    private RangePlan metadata;
+
+    // Only written when true: some statistics were computed from data served past its TTL
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean stale;
+
+    // Full-args constructor from the computed aggregates
+    public WeatherMetricsResponse(double latitude, double longitude, String startDate, String endDate,
+                                  MetricsSummary summary) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.metrics = new LinkedHashMap<>();
+        summary.getAggregates().forEach(
+                (variable, aggregate) -> metrics.put(variable.getApiName(), new Metric(variable, aggregate)));
+        this.metadata = summary.getPlan();
+        this.stale = summary.isStale();
+    }
+
+    // Getters
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public Map<String, Metric> getMetrics() {
+        return metrics;
+    }
+
+    public RangePlan getMetadata() {
+        return metadata;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * The statistics of one variable, as in the summary response, with its unit.
+     */
+    public static class Metric {
+
+        private String unit;
+        private long count;
+
+        @JsonProperty("null_count")
+        private long nullCount;
+
+        private double sum;
+        private double min;
+        private double max;
+        private double mean;
+        private double variance;
+
+        @JsonProperty("std_dev")
+        private double stdDev;
+
+        @JsonProperty("min_time")
+        private LocalDateTime minTime;
+
+        @JsonProperty("max_time")
+        private LocalDateTime maxTime;
+
+        public Metric(HourlyVariable variable, SeriesAggregate aggregate) {
+            this.unit = variable.getUnit();
+            this.count = aggregate.getCount();
+            this.nullCount = aggregate.getNullCount();
+            this.sum = aggregate.getSum();
+            this.min = aggregate.getMin();
+            this.max = aggregate.getMax();
+            this.mean = aggregate.getMean();
+            this.variance = aggregate.getVariance();
+            this.stdDev = aggregate.getStdDev();
+            this.minTime = aggregate.getMinTime();
+            this.maxTime = aggregate.getMaxTime();
+        }
+
+        // Getters
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getNullCount() {
+            return nullCount;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getVariance() {
+            return variance;
+        }
+
+        public double getStdDev() {
+            return stdDev;
+        }
+
+        public LocalDateTime getMinTime() {
+            return minTime;
+        }
+
+        public LocalDateTime getMaxTime() {
+            return maxTime;
+        }
+    }
+}
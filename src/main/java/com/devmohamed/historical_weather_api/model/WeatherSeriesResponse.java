@@ -0,0 +1,154 @@
+package com.devmohamed.historical_weather_api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * DTO for the bucketed series response. Every bucket is one index into the column arrays,
+ * so a chart can use them as they are. Only the requested statistics are written, and a
+ * bucket without any present hour has null statistics.
+ */
+public class WeatherSeriesResponse {
+
+    public enum Statistic {
+        MIN, MAX, AVG, COUNT;
+
+        /**
+         * Parses a comma-separated list such as "min,max,avg".
+         */
+        public static Set<Statistic> parseAll(String list) {
+            Set<Statistic> statistics = EnumSet.noneOf(Statistic.class);
+            for (String name : list.split(",")) {
+                statistics.add(valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            }
+            return statistics;
+        }
+    }
+
+    private double latitude;
+    private double longitude;
+
+    @JsonProperty("start_date")
+    private String startDate;
+
+    @JsonProperty("end_date")
+    private String endDate;
+
+    // The timezone of the bucket boundaries and times
+    private String timezone;
+
+    private String bucket;
+
+    // Start of each bucket: a date, or a date-time for hourly buckets
+    private String[] time;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double[] min;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double[] max;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double[] avg;
+
+    // Present hours per bucket
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private int[] count;
+
+    // Only written when true: the buckets were computed from data served past its TTL
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean stale;
+
+    // Full-args constructor from computed buckets
+    public WeatherSeriesResponse(double latitude, double longitude, String startDate, String endDate,
+                                 String timezone, SeriesBuckets buckets, Set<Statistic> statistics) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.timezone = timezone;
+        this.bucket = buckets.getUnit().name().toLowerCase(Locale.ROOT);
+        this.stale = buckets.isStale();
+
+        int size = buckets.size();
+        boolean hourly = buckets.getUnit() == SeriesBuckets.Unit.HOUR;
+        this.time = new String[size];
+        this.min = statistics.contains(Statistic.MIN) ? new Double[size] : null;
+        this.max = statistics.contains(Statistic.MAX) ? new Double[size] : null;
+        this.avg = statistics.contains(Statistic.AVG) ? new Double[size] : null;
+        this.count = statistics.contains(Statistic.COUNT) ? new int[size] : null;
+        for (int i = 0; i < size; i++) {
+            time[i] = hourly ? buckets.startOf(i).toString() : buckets.startOf(i).toLocalDate().toString();
+            if (min != null) {
+                min[i] = orNull(buckets.minOf(i));
+            }
+            if (max != null) {
+                max[i] = orNull(buckets.maxOf(i));
+            }
+            if (avg != null) {
+                avg[i] = orNull(buckets.meanOf(i));
+            }
+            if (count != null) {
+                count[i] = buckets.countOf(i);
+            }
+        }
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    // Getters
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public String getTimezone() {
+        return timezone;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public String[] getTime() {
+        return time;
+    }
+
+    public Double[] getMin() {
+        return min;
+    }
+
+    public Double[] getMax() {
+        return max;
+    }
+
+    public Double[] getAvg() {
+        return avg;
+    }
+
+    public int[] getCount() {
+        return count;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+}
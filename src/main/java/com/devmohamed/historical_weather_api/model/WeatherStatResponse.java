@@ -1,5 +1,6 @@
 package com.devmohamed.historical_weather_api.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -19,6 +20,10 @@ public class WeatherStatResponse {
     private String statistic;
     private double value;
 
+    // Only written when true: the value was computed from data served past its TTL
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean stale;
+
     // Full-args constructor for easy creation in the controller
     public WeatherStatResponse(double latitude, double longitude, String startDate, String endDate, String statistic, double value) {
         this.latitude = latitude;
@@ -78,4 +83,12 @@ public class WeatherStatResponse {
     public void setValue(double value) {
         this.value = value;
     }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.devmohamed.historical_weather_api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the summary response, holding every statistic of a range at once.
+ */
+public class WeatherSummaryResponse {
+
+    private double latitude;
+    private double longitude;
+
+    @JsonProperty("start_date")
+    private String startDate;
+
+    @JsonProperty("end_date")
+    private String endDate;
+
+    private long count;
+
+    @JsonProperty("null_count")
+    private long nullCount;
+
+    private double min;
+    private double max;
+    private double mean;
+    private double variance;
+
+    @JsonProperty("std_dev")
+    private double stdDev;
+
+    @JsonProperty("min_time")
+    private LocalDateTime minTime;
+
+    @JsonProperty("max_time")
+    private LocalDateTime maxTime;
+
+    // How the range was fetched: chunk unit, chunk count and parallelism
+    private RangePlan metadata;
+
+    // Only written when true: the statistics were computed from data served past its TTL
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean stale;
+
+    // Full-args constructor from a computed aggregate
+    public WeatherSummaryResponse(double latitude, double longitude, String startDate, String endDate,
+                                  RangeSummary summary) {
+        SeriesAggregate aggregate = summary.getAggregate();
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.count = aggregate.getCount();
+        this.nullCount = aggregate.getNullCount();
+        this.min = aggregate.getMin();
+        this.max = aggregate.getMax();
+        this.mean = aggregate.getMean();
+        this.variance = aggregate.getVariance();
+        this.stdDev = aggregate.getStdDev();
+        this.minTime = aggregate.getMinTime();
+        this.maxTime = aggregate.getMaxTime();
+        this.metadata = summary.getPlan();
+        this.stale = aggregate.isStale();
+    }
+
+    // Getters
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+
+    public double getStdDev() {
+        return stdDev;
+    }
+
+    public LocalDateTime getMinTime() {
+        return minTime;
+    }
+
+    public LocalDateTime getMaxTime() {
+        return maxTime;
+    }
+
+    public RangePlan getMetadata() {
+        return metadata;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+}
@@ -0,0 +1,144 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estimates how many upstream calls may be in flight at once from how long they take,
+ * after the gradient limiters of TCP Vegas and Netflix's concurrency-limits.
+ *
+ * <p>The shortest round trip seen is taken as Open-Meteo's latency without queueing. Calls
+ * are taken in windows of about one limit's worth, at least {@value #MIN_WINDOW}, so a single
+ * slow call does not move the limit; each window compares its mean round trip with the
+ * minimum. Within {@code rtt-tolerance} times the minimum the limit grows by about its square
+ * root, beyond it the limit shrinks in proportion, down to half per window. Each window moves
+ * the limit only {@code smoothing} of the way, and a window with a failed call cuts it by
+ * {@code backoff-ratio} instead. The limit does not grow while fewer than half of it was in
+ * use, since such calls say nothing about a higher one.
+ *
+ * <p>Every {@code probe-multiplier} times the limit in calls, the minimum is learned again
+ * from the calls that follow, so a lasting change of Open-Meteo's own latency becomes the new baseline.
+ *
+ * <p>A caller over the limit is only worth queueing for a few round trips: a call that waits
+ * longer than that is better answered with 503 at once, so the client can retry elsewhere.
+ */
+class AdaptiveConcurrencyLimit {
+
+    static final int MIN_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final int probeMultiplier;
+    private final double maxWaitRtts;
+
+    // A ReentrantLock rather than synchronized, so virtual threads never pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double limit;
+    private volatile long minRttNanos = Long.MAX_VALUE;
+    private long untilProbe;
+
+    // The current window
+    private int samples;
+    private long rttSumNanos;
+    private int maxInFlight;
+    private boolean dropped;
+
+    AdaptiveConcurrencyLimit(OpenMeteoProperties.ConcurrencyLimit settings, int maxLimit) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.minLimit = Math.clamp(settings.getMinLimit(), 1, this.maxLimit);
+        this.rttTolerance = Math.max(1.0, settings.getRttTolerance());
+        this.smoothing = Math.clamp(settings.getSmoothing(), 0.01, 1.0);
+        this.backoffRatio = Math.clamp(settings.getBackoffRatio(), 0.1, 1.0);
+        this.probeMultiplier = Math.max(1, settings.getProbeMultiplier());
+        this.maxWaitRtts = Math.max(0.0, settings.getMaxWaitRtts());
+        this.limit = Math.clamp(settings.getInitialLimit(), minLimit, this.maxLimit);
+        this.untilProbe = probeMultiplier * (long) limit;
+    }
+
+    /**
+     * Records a completed call, and recomputes the limit when it closes a window.
+     *
+     * @param rttNanos How long the call took.
+     * @param inFlight Calls in flight when it completed, itself included.
+     * @param dropped  Whether the call failed or timed out.
+     * @return The new limit.
+     */
+    int onSample(long rttNanos, int inFlight, boolean dropped) {
+        lock.lock();
+        try {
+            // 1. Learn the baseline again now and then, so it can move up as well as down
+            if (--untilProbe <= 0) {
+                minRttNanos = Long.MAX_VALUE;
+                untilProbe = probeMultiplier * (long) limit;
+            }
+            if (!dropped) {
+                minRttNanos = Math.min(minRttNanos, Math.max(1, rttNanos));
+                rttSumNanos += rttNanos;
+            }
+            this.dropped |= dropped;
+            maxInFlight = Math.max(maxInFlight, inFlight);
+            if (++samples < Math.max(MIN_WINDOW, (int) limit)) {
+                return getLimit();
+            }
+
+            // 2. Close the window
+            boolean anyDropped = this.dropped;
+            int succeeded = anyDropped ? 0 : samples;
+            long meanRttNanos = succeeded == 0 ? 0 : rttSumNanos / succeeded;
+            int busiest = maxInFlight;
+            samples = 0;
+            rttSumNanos = 0;
+            maxInFlight = 0;
+            this.dropped = false;
+            if (anyDropped) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                return getLimit();
+            }
+
+            // 3. Within the tolerance the gradient is 1 and the limit grows by its square root
+            double gradient = Math.clamp(rttTolerance * minRttNanos / Math.max(1, meanRttNanos), 0.5, 1.0);
+            if (gradient >= 1.0 && busiest * 2 < limit) {
+                return getLimit();
+            }
+            double target = limit * gradient + Math.sqrt(limit);
+            limit = Math.clamp((1 - smoothing) * limit + smoothing * target, minLimit, maxLimit);
+            return getLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @param ceilingMs The longest wait allowed in any case.
+     * @return How long (ms) a caller over the limit may wait for a slot: {@code max-wait-rtts}
+     * times the shortest round trip, at least 1 ms unless that setting is 0, and the
+     * ceiling until a round trip was seen.
+     */
+    long maxWaitMillis(long ceilingMs) {
+        long minRtt = getMinRttNanos();
+        if (minRtt < 0) {
+            return ceilingMs;
+        }
+        if (maxWaitRtts == 0) {
+            return 0;
+        }
+        long waitMs = (long) Math.ceil(maxWaitRtts * minRtt / 1_000_000.0);
+        return Math.clamp(waitMs, 1, Math.max(1, ceilingMs));
+    }
+
+    /**
+     * @return The shortest round trip of the current baseline, or -1 before the first call.
+     */
+    long getMinRttNanos() {
+        long min = minRttNanos;
+        return min == Long.MAX_VALUE ? -1 : min;
+    }
+}
@@ -0,0 +1,287 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamBusyException;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.exception.UpstreamUnavailableException;
+import com.devmohamed.historical_weather_api.model.BatchStatsItem;
+import com.devmohamed.historical_weather_api.model.BatchStatsResponse;
+import com.devmohamed.historical_weather_api.model.BatchStatsResult;
+import com.devmohamed.historical_weather_api.model.HourlyData;
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Computes statistics for many (location, range) items at once. Items answered
+ * entirely from the rollup index, the cache or the store never go upstream; the
+ * others are grouped by date range and sent as comma-separated coordinate lists,
+ * a bounded number of upstream requests at a time. Each request asks for the union
+ * of the variables its items name, so items on different variables of the same
+ * location and range share one call.
+ */
+@Service
+public class BatchStatService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchStatService.class);
+
+    private static final Map<String, ToDoubleFunction<SeriesAggregate>> STATISTICS = Map.of(
+            "sum", SeriesAggregate::getSum,
+            "max", SeriesAggregate::getMax,
+            "min", SeriesAggregate::getMin,
+            "avg", SeriesAggregate::getMean,
+            "count", SeriesAggregate::getCount,
+            "variance", SeriesAggregate::getVariance,
+            "std_dev", SeriesAggregate::getStdDev);
+
+    private final HourlySeriesService hourlySeriesService;
+    private final HourlyRollupIndex rollupIndex;
+    private final OpenMeteoGateway openMeteoGateway;
+    private final OpenMeteoProperties.Batch settings;
+
+    // Upstream requests of batches. Not the application task executor, where they would hold
+    // threads that chunked stats and streams need; max-parallel-requests bounds each batch.
+    private final ExecutorService requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public BatchStatService(HourlySeriesService hourlySeriesService,
+                            HourlyRollupIndex rollupIndex,
+                            OpenMeteoGateway openMeteoGateway,
+                            OpenMeteoProperties properties) {
+        this.hourlySeriesService = hourlySeriesService;
+        this.rollupIndex = rollupIndex;
+        this.openMeteoGateway = openMeteoGateway;
+        this.settings = properties.getBatch();
+    }
+
+    public int getMaxItems() {
+        return settings.getMaxItems();
+    }
+
+    /**
+     * Computes the requested statistics of every item.
+     *
+     * @param items The batch items, already validated for shape.
+     * @return One result per item in request order, each holding statistics or an error.
+     */
+    public BatchStatsResponse getStatistics(List<BatchStatsItem> items) {
+        BatchStatsResult[] results = new BatchStatsResult[items.size()];
+
+        // 1. Answer what we can locally, group the rest by range and then by location
+        Map<Range, Map<Location, List<Integer>>> pending = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchStatsItem item = items.get(i);
+            Range range = Range.parse(item.getStartDate(), item.getEndDate());
+            if (range == null) {
+                results[i] = BatchStatsResult.failure(i, item, "Bad Request",
+                        "The date range is not valid or ends before it starts.");
+                continue;
+            }
+            Location location = Location.of(item.getLatitude(), item.getLongitude());
+            // Only temperatures are kept locally
+            SeriesAggregate local = variableOf(item) == HourlyVariable.TEMPERATURE_2M
+                    ? aggregateLocal(location, range)
+                    : null;
+            if (local != null) {
+                results[i] = toResult(i, item, local);
+            } else {
+                pending.computeIfAbsent(range, key -> new LinkedHashMap<>())
+                        .computeIfAbsent(location, key -> new ArrayList<>())
+                        .add(i);
+            }
+        }
+
+        // 2. Split every range group into upstream requests of bounded size
+        List<Chunk> chunks = new ArrayList<>();
+        int maxLocations = Math.max(1, settings.getMaxLocationsPerRequest());
+        pending.forEach((range, byLocation) -> {
+            List<Location> locations = new ArrayList<>(byLocation.keySet());
+            for (int from = 0; from < locations.size(); from += maxLocations) {
+                List<Location> part = locations.subList(from, Math.min(from + maxLocations, locations.size()));
+                List<List<Integer>> itemIndexes = part.stream().map(byLocation::get).toList();
+                Set<HourlyVariable> variables = EnumSet.noneOf(HourlyVariable.class);
+                itemIndexes.forEach(indexes -> indexes.forEach(index -> variables.add(variableOf(items.get(index)))));
+                chunks.add(new Chunk(range, part, itemIndexes, variables));
+            }
+        });
+
+        // 3. Run the upstream requests, at most maxParallelRequests at a time
+        if (!chunks.isEmpty()) {
+            log.info("Batch of {} items needs {} upstream requests", items.size(), chunks.size());
+            Queue<Chunk> queue = new ConcurrentLinkedQueue<>(chunks);
+            int workers = Math.min(Math.max(1, settings.getMaxParallelRequests()), chunks.size());
+            CompletableFuture<?>[] running = new CompletableFuture<?>[workers];
+            for (int w = 0; w < workers; w++) {
+                running[w] = CompletableFuture.runAsync(() -> {
+                    for (Chunk chunk = queue.poll(); chunk != null; chunk = queue.poll()) {
+                        fetchChunk(chunk, items, results);
+                    }
+                }, requestExecutor);
+            }
+            CompletableFuture.allOf(running).join();
+        }
+        return new BatchStatsResponse(Arrays.asList(results), chunks.size());
+    }
+
+    /**
+     * @return The aggregate from the rollup index, or from a series held in the cache or the store,
+     * or null if the range has to be fetched.
+     */
+    private SeriesAggregate aggregateLocal(Location location, Range range) {
+        SeriesAggregate indexed = rollupIndex.query(location, range.start(), range.end());
+        if (indexed != null) {
+            return indexed;
+        }
+        HourlySeries series = hourlySeriesService.getLocalSeries(location, range.start(), range.end());
+        if (series == null) {
+            return null;
+        }
+        rollupIndex.index(location, series);
+        return SeriesAggregate.of(series);
+    }
+
+    private void fetchChunk(Chunk chunk, List<BatchStatsItem> items, BatchStatsResult[] results) {
+        Range range = chunk.range();
+        List<HourlyForecastResponse> responses;
+        try {
+            // A batch yields to single requests, whose users are waiting on one answer
+            responses = openMeteoGateway.getHourlyBatch(chunk.locations(),
+                    range.start().toString(), range.end().toString(), chunk.variables(), UpstreamPriority.BACKGROUND);
+        } catch (UpstreamBusyException | UpstreamUnavailableException e) {
+            // No slot free or the circuit breaker is open: only this chunk's items fail
+            fail(chunk.itemIndexes(), items, results, "Service Unavailable", e.getMessage());
+            return;
+        } catch (UpstreamQuotaExceededException e) {
+            fail(chunk.itemIndexes(), items, results, "Too Many Requests", e.getMessage());
+            return;
+        }
+        if (responses == null) {
+            fail(chunk.itemIndexes(), items, results, "Not Found", "No data found for the specified range.");
+            return;
+        }
+
+        for (int j = 0; j < chunk.locations().size(); j++) {
+            Location location = chunk.locations().get(j);
+            Map<HourlyVariable, SeriesAggregate> aggregates = aggregateFetched(location, range, responses.get(j));
+            for (int index : chunk.itemIndexes().get(j)) {
+                BatchStatsItem item = items.get(index);
+                SeriesAggregate aggregate = aggregates.get(variableOf(item));
+                results[index] = aggregate == null
+                        ? notFound(index, item)
+                        : toResult(index, item, aggregate);
+            }
+        }
+    }
+
+    /**
+     * Aggregates every column of one location's response. The temperatures also go to the cache,
+     * the store and the rollup index, as for single requests.
+     *
+     * @return The aggregates by variable, without the columns the response lacks.
+     */
+    private Map<HourlyVariable, SeriesAggregate> aggregateFetched(Location location, Range range,
+                                                                  HourlyForecastResponse response) {
+        Map<HourlyVariable, SeriesAggregate> aggregates = new EnumMap<>(HourlyVariable.class);
+        HourlyData hourly = response == null ? null : response.getHourly();
+        if (hourly == null) {
+            return aggregates;
+        }
+        for (HourlyVariable variable : hourly.getVariables()) {
+            if (variable == HourlyVariable.TEMPERATURE_2M) {
+                HourlySeries series = hourlySeriesService.acceptFetched(location, range.start(), range.end(), response);
+                if (series != null) {
+                    if (series.getValues().length == range.days() * HourlySeries.HOURS_PER_DAY) {
+                        rollupIndex.index(location, series);
+                    }
+                    aggregates.put(variable, SeriesAggregate.of(series));
+                }
+            } else {
+                aggregates.put(variable, SeriesAggregate.of(new HourlySeries(range.start(), hourly.getColumn(variable))));
+            }
+        }
+        return aggregates;
+    }
+
+    /**
+     * @return The variable an item asks about, temperature if it names none.
+     */
+    private static HourlyVariable variableOf(BatchStatsItem item) {
+        return item.getMetric() == null ? HourlyVariable.TEMPERATURE_2M : HourlyVariable.fromApiName(item.getMetric());
+    }
+
+    private static BatchStatsResult notFound(int index, BatchStatsItem item) {
+        String name = variableOf(item) == HourlyVariable.TEMPERATURE_2M ? "temperature" : item.getMetric();
+        return BatchStatsResult.failure(index, item, "Not Found", "No " + name + " data found for the specified range.");
+    }
+
+    private static void fail(List<List<Integer>> itemIndexes, List<BatchStatsItem> items,
+                             BatchStatsResult[] results, String error, String message) {
+        for (List<Integer> indexes : itemIndexes) {
+            for (int index : indexes) {
+                results[index] = BatchStatsResult.failure(index, items.get(index), error, message);
+            }
+        }
+    }
+
+    private static BatchStatsResult toResult(int index, BatchStatsItem item, SeriesAggregate aggregate) {
+        if (aggregate.isEmpty()) {
+            return notFound(index, item);
+        }
+        Map<String, Double> statistics = new LinkedHashMap<>();
+        for (String name : item.getStatistics()) {
+            statistics.put(name, STATISTICS.get(name).applyAsDouble(aggregate));
+        }
+        return BatchStatsResult.success(index, item, statistics);
+    }
+
+    private record Range(LocalDate start, LocalDate end) {
+
+        int days() {
+            return (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+        }
+
+        /**
+         * @return The parsed range, or null if a date is invalid or the range is reversed.
+         */
+        static Range parse(String startDate, String endDate) {
+            try {
+                LocalDate start = LocalDate.parse(startDate);
+                LocalDate end = LocalDate.parse(endDate);
+                return end.isBefore(start) ? null : new Range(start, end);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * One upstream request: a range, its locations, for each location the items waiting on it,
+     * and the variables any of them needs.
+     */
+    private record Chunk(Range range, List<Location> locations, List<List<Integer>> itemIndexes,
+                         Set<HourlyVariable> variables) {
+    }
+}
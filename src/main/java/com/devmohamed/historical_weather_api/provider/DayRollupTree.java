@@ -0,0 +1,168 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Segment tree over the days of one calendar year of one location. Every leaf holds the
+ * aggregate of one day (count, missing hours, sum, Welford mean and M2, min and max with
+ * their hour) and every inner node the merge of its two children, so any day range is
+ * answered by merging at most 2·log2(512) nodes instead of scanning its hourly values.
+ *
+ * <p>Nodes are kept in parallel primitive arrays (about 52 KB per year) rather than objects.
+ * Not thread-safe; {@link HourlyRollupIndex} guards every tree with its segment lock.
+ */
+class DayRollupTree {
+
+    // Leaves, a power of two so the iterative query keeps left-to-right order
+    static final int LEAVES = 512;
+
+    private final int[] count = new int[2 * LEAVES];
+    private final int[] nullCount = new int[2 * LEAVES];
+    private final short[] days = new short[2 * LEAVES];
+    private final double[] sum = new double[2 * LEAVES];
+    private final double[] mean = new double[2 * LEAVES];
+    private final double[] m2 = new double[2 * LEAVES];
+    private final double[] min = new double[2 * LEAVES];
+    private final double[] max = new double[2 * LEAVES];
+
+    // Hour of the extreme, counted from midnight of January 1st
+    private final int[] minHour = new int[2 * LEAVES];
+    private final int[] maxHour = new int[2 * LEAVES];
+
+    DayRollupTree() {
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Sets the leaf of one day from its 24 hourly values and updates its ancestors.
+     *
+     * @param dayOfYear Zero-based day of the year.
+     * @param values    Source array.
+     * @param offset    Index of the day's first hour in {@code values}.
+     */
+    void setDay(int dayOfYear, double[] values, int offset) {
+        int node = LEAVES + dayOfYear;
+        int n = 0;
+        int nulls = 0;
+        double s = 0;
+        double mu = 0;
+        double sq = 0;
+        double lo = Double.POSITIVE_INFINITY;
+        double hi = Double.NEGATIVE_INFINITY;
+        int loHour = 0;
+        int hiHour = 0;
+        for (int h = 0; h < HourlySeries.HOURS_PER_DAY; h++) {
+            double value = values[offset + h];
+            if (Double.isNaN(value)) {
+                nulls++;
+                continue;
+            }
+            n++;
+            s += value;
+            double delta = value - mu;
+            mu += delta / n;
+            sq += delta * (value - mu);
+            if (value < lo) {
+                lo = value;
+                loHour = dayOfYear * HourlySeries.HOURS_PER_DAY + h;
+            }
+            if (value > hi) {
+                hi = value;
+                hiHour = dayOfYear * HourlySeries.HOURS_PER_DAY + h;
+            }
+        }
+        count[node] = n;
+        nullCount[node] = nulls;
+        days[node] = 1;
+        sum[node] = s;
+        mean[node] = mu;
+        m2[node] = sq;
+        min[node] = lo;
+        max[node] = hi;
+        minHour[node] = loHour;
+        maxHour[node] = hiHour;
+
+        for (node >>= 1; node >= 1; node >>= 1) {
+            pull(node);
+        }
+    }
+
+    /**
+     * Merges the days {@code [from, to]} into {@code target}, left to right.
+     *
+     * @return false if at least one day of the range has not been indexed.
+     */
+    boolean query(int from, int to, SeriesAggregate target, LocalDateTime yearStart) {
+        int expectedDays = to - from + 1;
+        int l = from + LEAVES;
+        int r = to + LEAVES + 1;
+
+        // Nodes on the right edge are collected and merged last, in reverse, to keep day order
+        int[] left = new int[16];
+        int[] right = new int[16];
+        int leftCount = 0;
+        int rightCount = 0;
+        int covered = 0;
+        for (; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                covered += days[l];
+                left[leftCount++] = l++;
+            }
+            if ((r & 1) == 1) {
+                covered += days[--r];
+                right[rightCount++] = r;
+            }
+        }
+        if (covered != expectedDays) {
+            return false;
+        }
+        for (int i = 0; i < leftCount; i++) {
+            mergeInto(target, left[i], yearStart);
+        }
+        for (int i = rightCount - 1; i >= 0; i--) {
+            mergeInto(target, right[i], yearStart);
+        }
+        return true;
+    }
+
+    private void mergeInto(SeriesAggregate target, int node, LocalDateTime yearStart) {
+        boolean empty = count[node] == 0;
+        target.merge(SeriesAggregate.ofParts(count[node], nullCount[node], sum[node], mean[node], m2[node],
+                min[node], empty ? null : yearStart.plusHours(minHour[node]),
+                max[node], empty ? null : yearStart.plusHours(maxHour[node])));
+    }
+
+    /**
+     * Recomputes an inner node from its children with the same rules as SeriesAggregate.merge.
+     */
+    private void pull(int node) {
+        int a = 2 * node;
+        int b = a + 1;
+        long n = (long) count[a] + count[b];
+        count[node] = (int) n;
+        nullCount[node] = nullCount[a] + nullCount[b];
+        days[node] = (short) (days[a] + days[b]);
+        sum[node] = sum[a] + sum[b];
+        if (count[a] == 0 || count[b] == 0) {
+            int only = count[a] == 0 ? b : a;
+            mean[node] = mean[only];
+            m2[node] = m2[only];
+        } else {
+            double delta = mean[b] - mean[a];
+            mean[node] = mean[a] + delta * count[b] / n;
+            m2[node] = m2[a] + m2[b] + delta * delta * ((double) count[a] * count[b] / n);
+        }
+        // Ties keep the earlier hour, as in a single pass
+        boolean leftMin = min[a] <= min[b];
+        min[node] = leftMin ? min[a] : min[b];
+        minHour[node] = leftMin ? minHour[a] : minHour[b];
+        boolean leftMax = max[a] >= max[b];
+        max[node] = leftMax ? max[a] : max[b];
+        maxHour[node] = leftMax ? maxHour[a] : maxHour[b];
+    }
+}
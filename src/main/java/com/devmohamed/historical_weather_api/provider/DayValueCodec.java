@@ -0,0 +1,92 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of one cached day for the shared cache tier:
+ * <pre>
+ *   byte 0      format: 1 = hundredths of a degree, 2 = raw doubles
+ *   bytes 1-8   expiry in epoch milliseconds
+ *   then        24 values, as shorts (format 1) or doubles (format 2)
+ * </pre>
+ * Open-Meteo reports temperatures with one decimal, so nearly every day fits the 57 bytes
+ * of format 1, with {@link Short#MIN_VALUE} for a missing hour. A day holding any value
+ * that would not survive the round trip is written as doubles instead.
+ */
+public final class DayValueCodec {
+
+    static final byte HUNDREDTHS = 1;
+    static final byte DOUBLES = 2;
+    static final int HEADER_BYTES = 1 + Long.BYTES;
+
+    private static final short MISSING = Short.MIN_VALUE;
+
+    private DayValueCodec() {
+    }
+
+    /**
+     * Encodes the 24 values starting at {@code offset}.
+     */
+    public static byte[] encode(double[] values, int offset, long expiresAtMillis) {
+        boolean compact = true;
+        for (int h = 0; h < HourlySeries.HOURS_PER_DAY && compact; h++) {
+            compact = fitsHundredths(values[offset + h]);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES
+                + HourlySeries.HOURS_PER_DAY * (compact ? Short.BYTES : Double.BYTES));
+        buffer.put(compact ? HUNDREDTHS : DOUBLES).putLong(expiresAtMillis);
+        for (int h = 0; h < HourlySeries.HOURS_PER_DAY; h++) {
+            double value = values[offset + h];
+            if (!compact) {
+                buffer.putDouble(value);
+            } else {
+                buffer.putShort(Double.isNaN(value) ? MISSING : (short) Math.rint(value * 100.0));
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @return The expiry of an encoded day, or -1 if the bytes are not a day in a known format.
+     */
+    public static long expiresAt(byte[] encoded) {
+        return isValid(encoded) ? ByteBuffer.wrap(encoded, 1, Long.BYTES).getLong() : -1;
+    }
+
+    /**
+     * Decodes the 24 values of a valid encoded day into {@code target} at {@code offset}.
+     */
+    public static void decode(byte[] encoded, double[] target, int offset) {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded, HEADER_BYTES, encoded.length - HEADER_BYTES);
+        boolean compact = encoded[0] == HUNDREDTHS;
+        for (int h = 0; h < HourlySeries.HOURS_PER_DAY; h++) {
+            if (compact) {
+                short value = buffer.getShort();
+                target[offset + h] = value == MISSING ? Double.NaN : value / 100.0;
+            } else {
+                target[offset + h] = buffer.getDouble();
+            }
+        }
+    }
+
+    private static boolean isValid(byte[] encoded) {
+        if (encoded == null || encoded.length < HEADER_BYTES) {
+            return false;
+        }
+        return switch (encoded[0]) {
+            case HUNDREDTHS -> encoded.length == HEADER_BYTES + HourlySeries.HOURS_PER_DAY * Short.BYTES;
+            case DOUBLES -> encoded.length == HEADER_BYTES + HourlySeries.HOURS_PER_DAY * Double.BYTES;
+            default -> false;
+        };
+    }
+
+    private static boolean fitsHundredths(double value) {
+        if (Double.isNaN(value)) {
+            return true;
+        }
+        double scaled = Math.rint(value * 100.0);
+        return scaled > MISSING && scaled <= Short.MAX_VALUE && scaled / 100.0 == value;
+    }
+}
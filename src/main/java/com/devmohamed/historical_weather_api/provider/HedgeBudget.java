@@ -0,0 +1,41 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that bounds hedged requests to a share of the upstream calls. Every call
+ * deposits {@code percent / 100} of a token, every hedge spends a whole one, and at most
+ * {@value #MAX_TOKENS} tokens are saved up, so a slow spell cannot double the load.
+ */
+class HedgeBudget {
+
+    static final int MAX_TOKENS = 10;
+
+    // Tokens are kept in hundredths, so one call deposits exactly `percent` units
+    private static final long TOKEN = 100;
+
+    private final long deposit;
+    private final AtomicLong balance = new AtomicLong();
+
+    HedgeBudget(int percent) {
+        this.deposit = Math.max(0, percent);
+    }
+
+    void onCall() {
+        balance.updateAndGet(b -> Math.min(MAX_TOKENS * TOKEN, b + deposit));
+    }
+
+    /**
+     * @return true if a hedge may be sent; its token is then spent.
+     */
+    boolean tryHedge() {
+        long b;
+        do {
+            b = balance.get();
+            if (b < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(b, b - TOKEN));
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HotLocation;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.PrefetchStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fetches the newest days of the most requested locations during the off-peak window, so the
+ * first request of the day for a hot location finds them in the cache instead of waiting for
+ * Open-Meteo. Each off-peak window fetches at most {@code budget-per-window} locations, and the
+ * fetched days stay cached for {@code keep-warm-ms} rather than the short TTL of recent days,
+ * so later runs find them warm instead of fetching them again. Fetches go through the same
+ * gateway as user requests (bulkhead, single-flight, circuit breaker, quota) at background
+ * priority, so they never take a slot or the quota reserve a user request needs, and a run
+ * stops as soon as Open-Meteo refuses calls or the window closes.
+ */
+@Service
+public class HotLocationPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(HotLocationPrefetcher.class);
+
+    private final HotLocationTracker tracker;
+    private final HourlySeriesService hourlySeriesService;
+    private final OpenMeteoProperties.Prefetch settings;
+    private final OpenMeteoProperties.Cache cacheSettings;
+    private final Clock clock;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder prefetched = new LongAdder();
+    private final LongAdder alreadyWarm = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder budgetExhaustedRuns = new LongAdder();
+
+    // Only touched by the scheduler thread
+    private LocalDate lastDecay;
+    private LocalDate window;
+    private int budget;
+
+    @Autowired
+    public HotLocationPrefetcher(HotLocationTracker tracker, HourlySeriesService hourlySeriesService,
+                                 OpenMeteoProperties properties) {
+        this(tracker, hourlySeriesService, properties, Clock.systemUTC());
+    }
+
+    public HotLocationPrefetcher(HotLocationTracker tracker, HourlySeriesService hourlySeriesService,
+                                 OpenMeteoProperties properties, Clock clock) {
+        this.tracker = tracker;
+        this.hourlySeriesService = hourlySeriesService;
+        this.settings = properties.getPrefetch();
+        this.cacheSettings = properties.getCache();
+        this.clock = clock;
+    }
+
+    /**
+     * Runs on every tick of the scheduler and does nothing outside the off-peak window.
+     */
+    @Scheduled(initialDelayString = "${client.open-meteo.prefetch.interval-ms:300000}",
+            fixedDelayString = "${client.open-meteo.prefetch.interval-ms:300000}")
+    public void prefetch() {
+        if (!settings.isEnabled() || !isOffPeak()) {
+            return;
+        }
+        runs.increment();
+        tracker.expirePrefetched();
+        // The budget covers the whole window, not each tick of it
+        LocalDate current = windowStart();
+        if (!current.equals(window)) {
+            window = current;
+            budget = settings.getBudgetPerWindow();
+        }
+
+        // 1. The newest complete days, which recent requests are most likely to include
+        LocalDate today = LocalDate.now(clock);
+        LocalDate end = today.minusDays(1);
+        LocalDate start = today.minusDays(Math.max(1, settings.getDays()));
+        boolean recent = !end.isBefore(today.minusDays(cacheSettings.getRecentWindowDays()));
+        long ttlMs = recent ? cacheSettings.getRecentTtlMs() : cacheSettings.getHistoricalTtlMs();
+        long warmUntil = clock.millis() + Math.max(ttlMs, settings.getKeepWarmMs());
+
+        // 2. Walk the hottest locations until the window's budget or the window runs out
+        for (HotLocation hot : tracker.top(settings.getTopK())) {
+            if (!isOffPeak()) {
+                break;
+            }
+            Location location = Location.of(hot.getLatitude(), hot.getLongitude());
+            if (hourlySeriesService.getLocalSeries(location, start, end) != null) {
+                alreadyWarm.increment();
+                continue;
+            }
+            if (budget <= 0) {
+                budgetExhaustedRuns.increment();
+                break;
+            }
+            budget--;
+            HourlySeries series;
+            try {
+                series = hourlySeriesService.getHourlySeries(location.latitude(), location.longitude(),
+                        start.toString(), end.toString(), UpstreamPriority.BACKGROUND);
+            } catch (RuntimeException e) {
+                // The bulkhead is full, the breaker is open or the quota is down to its reserve
+                failures.increment();
+                log.warn("Stopping the prefetch run, Open-Meteo refused a call: {}", e.getMessage());
+                break;
+            }
+            if (series == null || series.isStale()) {
+                failures.increment();
+                continue;
+            }
+            prefetched.increment();
+            hourlySeriesService.keepWarm(location, series, warmUntil);
+            tracker.markPrefetched(location, start, end, warmUntil);
+        }
+
+        // 3. Age the counts once a day, so yesterday's traffic ranks tonight's run the most
+        if (!today.equals(lastDecay)) {
+            tracker.decay();
+            lastDecay = today;
+        }
+    }
+
+    /**
+     * @param limit Max number of top locations listed.
+     */
+    public PrefetchStats getStats(int limit) {
+        return new PrefetchStats(tracker.getRequests(), tracker.getTrackedLocations(), runs.sum(),
+                prefetched.sum(), alreadyWarm.sum(), failures.sum(), budgetExhaustedRuns.sum(),
+                tracker.getWarmHits(), tracker.getUnused(), tracker.top(limit));
+    }
+
+    /**
+     * The day the current off-peak window opened, which is yesterday past midnight in a
+     * window that wraps.
+     */
+    private LocalDate windowStart() {
+        ZonedDateTime now = clock.instant().atZone(ZoneOffset.UTC);
+        return now.getHour() < settings.getOffPeakStartHour()
+                ? now.toLocalDate().minusDays(1)
+                : now.toLocalDate();
+    }
+
+    private boolean isOffPeak() {
+        int hour = clock.instant().atZone(ZoneOffset.UTC).getHour();
+        int from = settings.getOffPeakStartHour();
+        int to = settings.getOffPeakEndHour();
+        return from <= to ? hour >= from && hour < to : hour >= from || hour < to;
+    }
+}
@@ -0,0 +1,269 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HotLocation;
+import com.devmohamed.historical_weather_api.model.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts requests per location in a Space-Saving sketch of fixed size, so the most requested
+ * locations can be listed without keeping a counter for every coordinate ever seen.
+ *
+ * <p>When the sketch is full, a new location takes over the counter with the lowest count and
+ * inherits that count as its possible overestimate. Any location requested more often than
+ * {@code requests / capacity} times is guaranteed to be in the sketch. The counters sit in a
+ * min-heap, so recording a request is a hash lookup and an O(log capacity) sift.
+ *
+ * <p>It also settles the ranges fetched ahead of demand: the first request that overlaps a
+ * prefetched range counts as a warm hit if it came before the range expired.
+ */
+@Service
+public class HotLocationTracker {
+
+    private final int capacity;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Location, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+
+    private final LongAdder requests = new LongAdder();
+    private final Map<Location, Prefetched> prefetched = new ConcurrentHashMap<>();
+    private final LongAdder warmHits = new LongAdder();
+    private final LongAdder unused = new LongAdder();
+
+    @Autowired
+    public HotLocationTracker(OpenMeteoProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public HotLocationTracker(OpenMeteoProperties properties, Clock clock) {
+        this.capacity = Math.max(1, properties.getPrefetch().getTrackedLocations());
+        this.clock = clock;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    /**
+     * Counts one request for the location.
+     *
+     * @param start First day requested, or null if the range could not be parsed.
+     * @param end   Last day requested, or null if the range could not be parsed.
+     */
+    public void record(Location location, LocalDate start, LocalDate end) {
+        requests.increment();
+        lock.lock();
+        try {
+            increment(location);
+        } finally {
+            lock.unlock();
+        }
+        if (start != null && end != null && !prefetched.isEmpty()) {
+            settle(location, start, end);
+        }
+    }
+
+    /**
+     * @return Up to {@code k} locations, the most requested first.
+     */
+    public List<HotLocation> top(int k) {
+        Counter[] snapshot;
+        lock.lock();
+        try {
+            snapshot = new Counter[size];
+            for (int i = 0; i < size; i++) {
+                Counter counter = heap[i];
+                snapshot[i] = new Counter(counter.location, counter.count, counter.error);
+            }
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(snapshot, Comparator.comparingLong((Counter counter) -> counter.count).reversed());
+        List<HotLocation> top = new ArrayList<>(Math.min(k, snapshot.length));
+        for (int i = 0; i < snapshot.length && i < k; i++) {
+            Counter counter = snapshot[i];
+            top.add(new HotLocation(counter.location.latitude(), counter.location.longitude(),
+                    counter.count, counter.error));
+        }
+        return top;
+    }
+
+    /**
+     * Halves every count, so the ranking follows recent traffic rather than all-time totals.
+     * Counters that drop to zero are freed.
+     */
+    public void decay() {
+        lock.lock();
+        try {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                Counter counter = heap[i];
+                counter.count >>= 1;
+                counter.error >>= 1;
+                if (counter.count == 0) {
+                    counters.remove(counter.location);
+                } else {
+                    heap[kept++] = counter;
+                }
+            }
+            Arrays.fill(heap, kept, size, null);
+            size = kept;
+            // Halving keeps the order of any two counts, but dropping entries breaks the heap
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+            for (int i = 0; i < size; i++) {
+                heap[i].index = i;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remembers a range fetched ahead of demand until a request settles it or it expires.
+     *
+     * @param warmUntilMillis When the fetched days leave the cache.
+     */
+    public void markPrefetched(Location location, LocalDate start, LocalDate end, long warmUntilMillis) {
+        if (prefetched.put(location, new Prefetched(start, end, warmUntilMillis)) != null) {
+            unused.increment();
+        }
+    }
+
+    /**
+     * Settles the prefetched ranges that expired before anyone asked for them.
+     */
+    public void expirePrefetched() {
+        long now = clock.millis();
+        prefetched.forEach((location, range) -> {
+            if (range.warmUntilMillis < now && prefetched.remove(location, range)) {
+                unused.increment();
+            }
+        });
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public int getTrackedLocations() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getWarmHits() {
+        return warmHits.sum();
+    }
+
+    public long getUnused() {
+        return unused.sum();
+    }
+
+    private void settle(Location location, LocalDate start, LocalDate end) {
+        Prefetched range = prefetched.get(location);
+        if (range != null && !start.isAfter(range.end) && !end.isBefore(range.start)
+                && prefetched.remove(location, range)) {
+            if (clock.millis() <= range.warmUntilMillis) {
+                warmHits.increment();
+            } else {
+                unused.increment();
+            }
+        }
+    }
+
+    private void increment(Location location) {
+        Counter counter = counters.get(location);
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.index);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter(location, 1, 0);
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(location, counter);
+            siftUp(counter.index);
+            return;
+        }
+        // 1. Take over the smallest counter; its count bounds how often the new location was missed
+        Counter min = heap[0];
+        counters.remove(min.location);
+        min.location = location;
+        min.error = min.count;
+        min.count++;
+        counters.put(location, min);
+        siftDown(0);
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private static final class Counter {
+
+        private Location location;
+        private long count;
+        private long error;
+        private int index;
+
+        Counter(Location location, long count, long error) {
+            this.location = location;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private record Prefetched(LocalDate start, LocalDate end, long warmUntilMillis) {
+    }
+}
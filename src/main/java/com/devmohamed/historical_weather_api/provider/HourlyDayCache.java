@@ -0,0 +1,399 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.CacheStats;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.SharedCacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-process cache of upstream hourly temperatures, keyed by (location, day).
+ * Each entry holds the 24 hourly values of one day. Past days are immutable upstream
+ * and get a long TTL, recent and future days get a short one. An expired day is no longer
+ * a hit, but it is kept for {@code stale-if-error-ms} longer so it can still be served,
+ * marked stale, while Open-Meteo is unavailable. The cache is split into independently
+ * locked LRU segments so concurrent requests rarely contend.
+ *
+ * <p>This is the near tier of a two-tier cache. Days it misses can be looked up in the
+ * {@link SharedDayCache} shared by all replicas; a day found there is kept here until the
+ * same expiry, and days fetched from Open-Meteo are written to both tiers with one expiry.
+ * Invalidating a range drops it from both tiers on every replica.
+ */
+@Service
+public class HourlyDayCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final OpenMeteoProperties.Cache settings;
+    private final SharedDayCache shared;
+    private final Clock clock;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+
+    // Time of one range lookup in each tier
+    private final LatencyWindow nearLatencies = new LatencyWindow();
+    private final LatencyWindow sharedLatencies = new LatencyWindow();
+    private final Timer nearTimer;
+    private final Timer sharedTimer;
+
+    @Autowired
+    public HourlyDayCache(OpenMeteoProperties properties, SharedDayCache shared, MeterRegistry meterRegistry) {
+        this(properties, shared, meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a cache without a shared tier, whose counters are only visible through {@link #getStats()}.
+     */
+    public HourlyDayCache(OpenMeteoProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public HourlyDayCache(OpenMeteoProperties properties, Clock clock) {
+        this(properties, SharedDayCache.NONE, new SimpleMeterRegistry(), clock);
+    }
+
+    public HourlyDayCache(OpenMeteoProperties properties, SharedDayCache shared, MeterRegistry meterRegistry,
+                          Clock clock) {
+        this.settings = properties.getCache();
+        this.shared = shared;
+        this.clock = clock;
+        int perSegment = Math.max(1, settings.getMaxDays() / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.nearTimer = latencyTimer(meterRegistry, "near");
+        this.sharedTimer = latencyTimer(meterRegistry, "shared");
+        registerMeters(meterRegistry);
+        shared.setInvalidationListener(this::invalidateNear);
+    }
+
+    /**
+     * Copies every cached, unexpired day of the range into {@code target}.
+     *
+     * @param location The normalized location.
+     * @param start    First day of the range.
+     * @param present  One flag per day of the range, set to true for each day served from the cache.
+     * @param target   Destination array holding {@code present.length * 24} hourly values.
+     * @return The number of days served from the cache.
+     */
+    public int getDays(Location location, LocalDate start, boolean[] present, double[] target) {
+        if (!settings.isEnabled()) {
+            return 0;
+        }
+        long startNanos = System.nanoTime();
+        long now = clock.millis();
+        long firstDay = start.toEpochDay();
+        int found = 0;
+        for (int i = 0; i < present.length; i++) {
+            Entry entry = segmentFor(location, firstDay + i).get(new DayKey(location, firstDay + i), now);
+            if (entry != null) {
+                System.arraycopy(entry.values, 0, target, i * HourlySeries.HOURS_PER_DAY, HourlySeries.HOURS_PER_DAY);
+                present[i] = true;
+                found++;
+            }
+        }
+        hits.add(found);
+        misses.add(present.length - found);
+        recordLatency(nearTimer, nearLatencies, startNanos);
+        return found;
+    }
+
+    /**
+     * Copies the days of the range not yet flagged in {@code present} from the shared tier,
+     * and keeps them here until the expiry they have there.
+     *
+     * @return The number of days found.
+     */
+    public int getSharedDays(Location location, LocalDate start, boolean[] present, double[] target) {
+        if (!settings.isEnabled() || !shared.isEnabled()) {
+            return 0;
+        }
+        long startNanos = System.nanoTime();
+        long now = clock.millis();
+        long[] expiresAt = new long[present.length];
+        int found = shared.getDays(location, start, present, target, expiresAt, now);
+        long firstDay = start.toEpochDay();
+        for (int i = 0; i < present.length && found > 0; i++) {
+            if (expiresAt[i] > 0) {
+                double[] day = new double[HourlySeries.HOURS_PER_DAY];
+                System.arraycopy(target, i * HourlySeries.HOURS_PER_DAY, day, 0, HourlySeries.HOURS_PER_DAY);
+                segmentFor(location, firstDay + i).put(new DayKey(location, firstDay + i), new Entry(day, expiresAt[i]));
+            }
+        }
+        recordLatency(sharedTimer, sharedLatencies, startNanos);
+        return found;
+    }
+
+    /**
+     * Copies the days of the range not yet flagged in {@code present} from entries that are
+     * expired but still within the stale-if-error window, or fresh.
+     *
+     * @return The number of days found.
+     */
+    public int getStaleDays(Location location, LocalDate start, boolean[] present, double[] target) {
+        if (!settings.isEnabled()) {
+            return 0;
+        }
+        long now = clock.millis();
+        long firstDay = start.toEpochDay();
+        int found = 0;
+        for (int i = 0; i < present.length; i++) {
+            if (present[i]) {
+                continue;
+            }
+            Entry entry = segmentFor(location, firstDay + i).getStale(new DayKey(location, firstDay + i), now);
+            if (entry != null) {
+                System.arraycopy(entry.values, 0, target, i * HourlySeries.HOURS_PER_DAY, HourlySeries.HOURS_PER_DAY);
+                present[i] = true;
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Counts days that were actually served stale, as opposed to merely looked up.
+     */
+    public void recordStaleHits(int days) {
+        staleHits.add(days);
+    }
+
+    /**
+     * Stores {@code days} consecutive days taken from {@code values}, starting at {@code fromDay}.
+     */
+    public void putDays(Location location, LocalDate start, double[] values, int fromDay, int days) {
+        putDays(location, start, values, fromDay, days, 0);
+    }
+
+    /**
+     * Stores the days like {@link #putDays(Location, LocalDate, double[], int, int)}, but keeps
+     * each of them at least until {@code keepUntilMillis}, whatever its usual TTL.
+     */
+    public void putDays(Location location, LocalDate start, double[] values, int fromDay, int days,
+                        long keepUntilMillis) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        long now = clock.millis();
+        long recentFrom = LocalDate.now(clock).minusDays(settings.getRecentWindowDays()).toEpochDay();
+        long firstDay = start.toEpochDay();
+        long[] expiresAt = new long[fromDay + days];
+        for (int i = fromDay; i < fromDay + days; i++) {
+            long epochDay = firstDay + i;
+            double[] day = new double[HourlySeries.HOURS_PER_DAY];
+            System.arraycopy(values, i * HourlySeries.HOURS_PER_DAY, day, 0, HourlySeries.HOURS_PER_DAY);
+            long ttl = epochDay < recentFrom ? settings.getHistoricalTtlMs() : settings.getRecentTtlMs();
+            expiresAt[i] = Math.max(now + ttl, keepUntilMillis);
+            segmentFor(location, epochDay).put(new DayKey(location, epochDay), new Entry(day, expiresAt[i]));
+        }
+        // Both tiers expire the days together
+        shared.putDays(location, start, values, fromDay, days, expiresAt, now);
+    }
+
+    /**
+     * Drops the days of the inclusive range from both tiers, on every replica.
+     */
+    public void invalidate(Location location, LocalDate start, LocalDate end) {
+        if (shared.isEnabled()) {
+            // The shared tier tells every replica, this one included
+            shared.invalidate(location, start, end);
+        } else {
+            invalidateNear(location, start, end);
+        }
+    }
+
+    public CacheStats getStats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        SharedCacheStats sharedStats = shared.getStats();
+        sharedStats.setLatencyP95Micros(p95Micros(sharedLatencies));
+        return new CacheStats(size, hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), staleHits.sum(),
+                p95Micros(nearLatencies), sharedStats);
+    }
+
+    private void invalidateNear(Location location, LocalDate start, LocalDate end) {
+        for (long epochDay = start.toEpochDay(); epochDay <= end.toEpochDay(); epochDay++) {
+            segmentFor(location, epochDay).remove(new DayKey(location, epochDay));
+        }
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+
+    private static void recordLatency(Timer timer, LatencyWindow window, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+        window.record(nanos);
+    }
+
+    private static long p95Micros(LatencyWindow window) {
+        long nanos = window.getP95Nanos();
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static Timer latencyTimer(MeterRegistry registry, String tier) {
+        return Timer.builder("openmeteo.cache.latency")
+                .description("Time to look up the days of one range in a cache tier")
+                .tag("tier", tier)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    private void registerMeters(MeterRegistry registry) {
+        FunctionCounter.builder("openmeteo.cache.hits", hits, LongAdder::sum)
+                .description("Days found in a cache tier")
+                .tag("tier", "near")
+                .register(registry);
+        FunctionCounter.builder("openmeteo.cache.misses", misses, LongAdder::sum)
+                .description("Days looked up in a cache tier and not found")
+                .tag("tier", "near")
+                .register(registry);
+        Gauge.builder("openmeteo.cache.hit.ratio", this, cache -> hitRatio(cache.hits.sum(), cache.misses.sum()))
+                .description("Share of the days looked up in a cache tier that were found")
+                .tag("tier", "near")
+                .register(registry);
+        if (shared.isEnabled()) {
+            FunctionCounter.builder("openmeteo.cache.hits", shared, tier -> tier.getStats().getHits())
+                    .description("Days found in a cache tier")
+                    .tag("tier", "shared")
+                    .register(registry);
+            FunctionCounter.builder("openmeteo.cache.misses", shared, tier -> tier.getStats().getMisses())
+                    .description("Days looked up in a cache tier and not found")
+                    .tag("tier", "shared")
+                    .register(registry);
+            Gauge.builder("openmeteo.cache.hit.ratio", shared, tier -> tier.getStats().getHitRatio())
+                    .description("Share of the days looked up in a cache tier that were found")
+                    .tag("tier", "shared")
+                    .register(registry);
+            FunctionCounter.builder("openmeteo.cache.errors", shared, tier -> tier.getStats().getErrors())
+                    .description("Shared cache commands that failed or timed out")
+                    .tag("tier", "shared")
+                    .register(registry);
+        }
+    }
+
+    private Segment segmentFor(Location location, long epochDay) {
+        int hash = location.hashCode() * 31 + Long.hashCode(epochDay);
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private record DayKey(Location location, long epochDay) {
+    }
+
+    private static final class Entry {
+
+        final double[] values;
+        final long expiresAtMillis;
+
+        // Set, under the segment lock, the first time the entry is found expired
+        boolean expired;
+
+        Entry(double[] values, long expiresAtMillis) {
+            this.values = values;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    /**
+     * One LRU segment. A ReentrantLock is used rather than synchronized so
+     * virtual threads never pin their carrier while waiting for it.
+     */
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<DayKey, Entry> entries;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<DayKey, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Entry get(DayKey key, long now) {
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                if (entry == null || entry.expiresAtMillis > now) {
+                    return entry;
+                }
+                if (!entry.expired) {
+                    entry.expired = true;
+                    expirations.increment();
+                }
+                if (entry.expiresAtMillis + settings.getStaleIfErrorMs() <= now) {
+                    entries.remove(key);
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Entry getStale(DayKey key, long now) {
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                return entry != null && entry.expiresAtMillis + settings.getStaleIfErrorMs() > now ? entry : null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(DayKey key, Entry entry) {
+            lock.lock();
+            try {
+                entries.put(key, entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(DayKey key) {
+            lock.lock();
+            try {
+                entries.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.RollupStats;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Range-query index over per-day rollups of immutable hourly history. Each (location, year)
+ * gets a {@link DayRollupTree}, so the statistics of any whole-day range are merged from
+ * O(log n) precomputed nodes per calendar year it touches, instead of from up to 8,784
+ * hourly values per year. Only days outside the recent window are indexed, because those
+ * can no longer change upstream. Trees are kept in independently locked LRU segments.
+ */
+@Service
+public class HourlyRollupIndex {
+
+    private static final int SEGMENTS = 16;
+
+    private final OpenMeteoProperties.Rollup settings;
+    private final int recentWindowDays;
+    private final Clock clock;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder indexedDays = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public HourlyRollupIndex(OpenMeteoProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public HourlyRollupIndex(OpenMeteoProperties properties, Clock clock) {
+        this.settings = properties.getRollup();
+        this.recentWindowDays = properties.getCache().getRecentWindowDays();
+        this.clock = clock;
+        int perSegment = Math.max(1, settings.getMaxLocationYears() / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Indexes every immutable day of a whole-day series.
+     */
+    public void index(Location location, HourlySeries series) {
+        double[] values = series.getValues();
+        if (!settings.isEnabled() || series.getStartDate() == null
+                || values.length % HourlySeries.HOURS_PER_DAY != 0) {
+            return;
+        }
+        LocalDate firstMutableDay = LocalDate.now(clock).minusDays(recentWindowDays);
+        int days = values.length / HourlySeries.HOURS_PER_DAY;
+        LocalDate day = series.getStartDate();
+        int i = 0;
+        while (i < days && day.isBefore(firstMutableDay)) {
+            // One lock round trip per calendar year touched
+            int year = day.getYear();
+            YearKey key = new YearKey(location, year);
+            Segment segment = segmentFor(key);
+            segment.lock.lock();
+            try {
+                DayRollupTree tree = segment.trees.computeIfAbsent(key, k -> new DayRollupTree());
+                for (; i < days && day.getYear() == year && day.isBefore(firstMutableDay); i++, day = day.plusDays(1)) {
+                    tree.setDay(day.getDayOfYear() - 1, values, i * HourlySeries.HOURS_PER_DAY);
+                    indexedDays.increment();
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Answers the statistics of an inclusive day range from the index.
+     *
+     * @return The aggregate, or null if any day of the range has not been indexed.
+     */
+    public SeriesAggregate query(Location location, LocalDate start, LocalDate end) {
+        if (!settings.isEnabled()) {
+            return null;
+        }
+        SeriesAggregate total = new SeriesAggregate();
+        for (int year = start.getYear(); year <= end.getYear(); year++) {
+            LocalDate from = year == start.getYear() ? start : LocalDate.of(year, 1, 1);
+            LocalDate to = year == end.getYear() ? end : LocalDate.of(year, 12, 31);
+            YearKey key = new YearKey(location, year);
+            Segment segment = segmentFor(key);
+            segment.lock.lock();
+            try {
+                DayRollupTree tree = segment.trees.get(key);
+                if (tree == null || !tree.query(from.getDayOfYear() - 1, to.getDayOfYear() - 1, total,
+                        LocalDate.of(year, 1, 1).atStartOfDay())) {
+                    misses.increment();
+                    return null;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        hits.increment();
+        return total;
+    }
+
+    public RollupStats getStats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.trees.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return new RollupStats(size, hits.sum(), misses.sum(), indexedDays.sum(), evictions.sum());
+    }
+
+    private Segment segmentFor(YearKey key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private record YearKey(Location location, int year) {
+    }
+
+    /**
+     * One LRU segment of trees, guarded by a ReentrantLock so virtual threads do not pin.
+     */
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<YearKey, DayRollupTree> trees;
+
+        Segment(int capacity) {
+            this.trees = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<YearKey, DayRollupTree> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
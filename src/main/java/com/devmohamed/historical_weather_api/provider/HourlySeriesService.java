@@ -0,0 +1,350 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HourlyData;
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resolves the hourly temperature series for a location and date range.
+ * Days already held in the {@link HourlyDayCache} (either of its tiers) or the persistent
+ * {@link HourlyTemperatureStore} are served locally and only the missing
+ * sub-ranges are requested from Open-Meteo, merged into as few upstream
+ * calls as the configured gap allows. Fetched days are written back to both.
+ *
+ * <p>When the cache still holds an expired copy of every missing day, Open-Meteo gets
+ * {@code stale-latency-budget-ms} to answer. If it fails, is short-circuited or is too slow,
+ * the stale copy is returned, marked stale, and a slow fetch keeps running in the
+ * background so the cache is refreshed once it completes.
+ */
+@Service
+public class HourlySeriesService {
+
+    private static final Logger log = LoggerFactory.getLogger(HourlySeriesService.class);
+
+    private final OpenMeteoGateway openMeteoGateway;
+    private final HourlyDayCache dayCache;
+    private final HourlyTemperatureStore temperatureStore;
+    private final int maxGapDays;
+    private final long staleLatencyBudgetMs;
+
+    // Fetches that may outlive the request, when a stale copy is served in the meantime
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public HourlySeriesService(OpenMeteoGateway openMeteoGateway,
+                               HourlyDayCache dayCache,
+                               HourlyTemperatureStore temperatureStore,
+                               OpenMeteoProperties properties) {
+        this.openMeteoGateway = openMeteoGateway;
+        this.dayCache = dayCache;
+        this.temperatureStore = temperatureStore;
+        this.maxGapDays = properties.getCache().getMaxGapDays();
+        this.staleLatencyBudgetMs = properties.getCache().getStaleLatencyBudgetMs();
+    }
+
+    /**
+     * Fetches the hourly temperature series for the given location and date range.
+     *
+     * @param latitude  Latitude for the location.
+     * @param longitude Longitude for the location.
+     * @param startDate Start date in "YYYY-MM-DD" format.
+     * @param endDate   End date in "YYYY-MM-DD" format.
+     * @return The hourly series, possibly stale, or null if the data could not be retrieved.
+     */
+    public HourlySeries getHourlySeries(double latitude, double longitude, String startDate, String endDate) {
+        return getHourlySeries(latitude, longitude, startDate, endDate, UpstreamPriority.INTERACTIVE);
+    }
+
+    /**
+     * Fetches the hourly temperature series, with the days missing locally requested at
+     * {@code priority}.
+     *
+     * @see #getHourlySeries(double, double, String, String)
+     */
+    public HourlySeries getHourlySeries(double latitude, double longitude, String startDate, String endDate,
+                                        UpstreamPriority priority) {
+        Location location = Location.of(latitude, longitude);
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = LocalDate.parse(startDate);
+            end = LocalDate.parse(endDate);
+        } catch (DateTimeParseException e) {
+            // Let the upstream decide how to answer a range we cannot reason about
+            return fetchUncached(location, startDate, endDate, priority);
+        }
+        if (end.isBefore(start)) {
+            return fetchUncached(location, startDate, endDate, priority);
+        }
+
+        int days = (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+        double[] values = new double[days * HourlySeries.HOURS_PER_DAY];
+        boolean[] present = new boolean[days];
+
+        if (readLocal(location, start, present, values) == days) {
+            return new HourlySeries(start, values);
+        }
+
+        // An expired copy of every missing day lets us bound how long we wait for Open-Meteo
+        double[] stale = staleCopy(location, start, present, values);
+        if (stale != null) {
+            return fetchOrServeStale(location, start, startDate, endDate, present, values, stale, priority);
+        }
+        return fetchMissing(location, start, startDate, endDate, present, values, priority);
+    }
+
+    /**
+     * Fetches the days not flagged in {@code present} into {@code values} and writes them back.
+     */
+    private HourlySeries fetchMissing(Location location, LocalDate start, String startDate, String endDate,
+                                      boolean[] present, double[] values, UpstreamPriority priority) {
+        int days = present.length;
+        for (int[] run : missingRuns(present, maxGapDays)) {
+            LocalDate runStart = start.plusDays(run[0]);
+            LocalDate runEnd = start.plusDays(run[1]);
+            HourlyForecastResponse response = openMeteoGateway.getHourlyTemperature(
+                    location, runStart.toString(), runEnd.toString(), priority);
+            double[] fetched = toValues(response);
+            if (fetched == null) {
+                return null;
+            }
+
+            int runDays = run[1] - run[0] + 1;
+            if (fetched.length != runDays * HourlySeries.HOURS_PER_DAY || !startsAt(response, runStart)) {
+                // The upstream did not answer with whole days, so the result cannot be split per day
+                log.warn("Unexpected hourly payload of {} values for {} days at {}",
+                        fetched.length, runDays, location);
+                return runDays == days ? new HourlySeries(start, fetched)
+                        : fetchUncached(location, startDate, endDate, priority);
+            }
+
+            if (runDays == days) {
+                // The whole range came from one call, so the parsed array can be used as is
+                values = fetched;
+            } else {
+                System.arraycopy(fetched, 0, values, run[0] * HourlySeries.HOURS_PER_DAY, fetched.length);
+            }
+            writeBack(location, runStart, fetched, runDays);
+        }
+        return new HourlySeries(start, values);
+    }
+
+    /**
+     * Gives Open-Meteo the latency budget to answer, and falls back to the stale copy if it
+     * fails or takes longer. A slow fetch is not cancelled: it completes in the background
+     * and writes the fresh days back for the next request.
+     */
+    private HourlySeries fetchOrServeStale(Location location, LocalDate start, String startDate, String endDate,
+                                           boolean[] present, double[] values, double[] stale,
+                                           UpstreamPriority priority) {
+        CompletableFuture<HourlySeries> refresh = CompletableFuture.supplyAsync(
+                () -> fetchMissing(location, start, startDate, endDate, present, values, priority), refreshExecutor);
+        try {
+            HourlySeries fresh = refresh.get(staleLatencyBudgetMs, TimeUnit.MILLISECONDS);
+            if (fresh != null) {
+                return fresh;
+            }
+            log.warn("No fresh data from Open-Meteo for {}, serving stale days", location);
+        } catch (TimeoutException e) {
+            log.warn("Open-Meteo missed the {} ms budget for {}, serving stale days and refreshing in the background",
+                    staleLatencyBudgetMs, location);
+        } catch (ExecutionException e) {
+            log.warn("Refresh failed for {}, serving stale days: {}", location, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int staleDays = 0;
+        for (boolean day : present) {
+            staleDays += day ? 0 : 1;
+        }
+        dayCache.recordStaleHits(staleDays);
+        return new HourlySeries(start, stale, true);
+    }
+
+    /**
+     * @return A copy of {@code values} completed from expired cache entries, or null if
+     * at least one missing day has no stale copy either.
+     */
+    private double[] staleCopy(Location location, LocalDate start, boolean[] present, double[] values) {
+        boolean[] covered = present.clone();
+        double[] copy = values.clone();
+        int missing = 0;
+        for (boolean day : present) {
+            missing += day ? 0 : 1;
+        }
+        return dayCache.getStaleDays(location, start, covered, copy) == missing ? copy : null;
+    }
+
+    /**
+     * Returns the series only if every day of the range is held in the cache or the store.
+     *
+     * @return The series, or null if at least one day would have to be fetched upstream.
+     */
+    public HourlySeries getLocalSeries(Location location, LocalDate start, LocalDate end) {
+        int days = (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+        double[] values = new double[days * HourlySeries.HOURS_PER_DAY];
+        boolean[] present = new boolean[days];
+
+        return readLocal(location, start, present, values) == days ? new HourlySeries(start, values) : null;
+    }
+
+    /**
+     * Turns a response fetched elsewhere (e.g. by a batch request) for the whole range
+     * into a series, and writes its days back to the cache and the store.
+     *
+     * @return The series, or null if the response holds no temperature data.
+     */
+    public HourlySeries acceptFetched(Location location, LocalDate start, LocalDate end,
+                                      HourlyForecastResponse response) {
+        double[] fetched = toValues(response);
+        if (fetched == null) {
+            return null;
+        }
+        int days = (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+        if (fetched.length == days * HourlySeries.HOURS_PER_DAY && startsAt(response, start)) {
+            writeBack(location, start, fetched, days);
+        } else {
+            log.warn("Unexpected hourly payload of {} values for {} days at {}, not cached",
+                    fetched.length, days, location);
+        }
+        return new HourlySeries(start, fetched);
+    }
+
+    /**
+     * Fetches the hourly frame of several variables for the whole range with one upstream
+     * call. Only temperatures are cached: when the frame holds them, they are written back
+     * as by any other fetch.
+     *
+     * @param variables The variables needed, at least one.
+     * @return The frame, holding a column for every variable needed and possibly more, or
+     * null if the data could not be retrieved.
+     */
+    public HourlyData getHourlyFrame(Location location, LocalDate start, LocalDate end,
+                                     Set<HourlyVariable> variables, UpstreamPriority priority) {
+        HourlyForecastResponse response = openMeteoGateway.getHourly(
+                location, start.toString(), end.toString(), variables, priority);
+        if (response == null || response.getHourly() == null
+                || !response.getHourly().getVariables().containsAll(variables)) {
+            return null;
+        }
+        if (response.getHourly().getTemperature2m() != null) {
+            acceptFetched(location, start, end, response);
+        }
+        return response.getHourly();
+    }
+
+    /**
+     * Groups the days missing from the cache into inclusive [from, to] day offsets.
+     * Runs separated by no more than {@code maxGap} cached days are merged so that
+     * one slightly larger upstream call replaces several small ones.
+     */
+    static List<int[]> missingRuns(boolean[] present, int maxGap) {
+        List<int[]> runs = new ArrayList<>();
+        int i = 0;
+        while (i < present.length) {
+            if (present[i]) {
+                i++;
+                continue;
+            }
+            int from = i;
+            while (i < present.length && !present[i]) {
+                i++;
+            }
+            int to = i - 1;
+            int[] last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+            if (last != null && from - last[1] - 1 <= maxGap) {
+                last[1] = to;
+            } else {
+                runs.add(new int[]{from, to});
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Fills {@code values} from the cache, then from the store, then from the cache tier
+     * shared with the other replicas, for the days still missing.
+     *
+     * @return The number of days found.
+     */
+    private int readLocal(Location location, LocalDate start, boolean[] present, double[] values) {
+        int found = dayCache.getDays(location, start, present, values);
+        if (found < present.length) {
+            found += temperatureStore.readDays(location, start, present, values);
+        }
+        if (found < present.length) {
+            found += dayCache.getSharedDays(location, start, present, values);
+        }
+        return found;
+    }
+
+    /**
+     * Keeps the days of a series just fetched in the cache until {@code untilMillis}, even
+     * those that would expire sooner as recent days.
+     */
+    public void keepWarm(Location location, HourlySeries series, long untilMillis) {
+        int days = series.size() / HourlySeries.HOURS_PER_DAY;
+        dayCache.putDays(location, series.getStartDate(), series.getValues(), 0, days, untilMillis);
+    }
+
+    private void writeBack(Location location, LocalDate start, double[] fetched, int days) {
+        dayCache.putDays(location, start, fetched, 0, days);
+        temperatureStore.writeDays(location, start, fetched, 0, days);
+    }
+
+    private HourlySeries fetchUncached(Location location, String startDate, String endDate,
+                                       UpstreamPriority priority) {
+        HourlyForecastResponse response = openMeteoGateway.getHourlyTemperature(location, startDate, endDate, priority);
+        double[] values = toValues(response);
+        if (values == null) {
+            return null;
+        }
+        LocalDate start;
+        try {
+            start = LocalDate.parse(startDate);
+        } catch (DateTimeParseException e) {
+            start = null;
+        }
+        return new HourlySeries(start, values);
+    }
+
+    /**
+     * @return The primitive temperature values of a response, or null if it holds no temperature data.
+     */
+    private static double[] toValues(HourlyForecastResponse response) {
+        if (response == null || response.getHourly() == null || response.getHourly().getTemperature2m() == null) {
+            return null;
+        }
+        return response.getHourly().getTemperature2m();
+    }
+
+    /**
+     * Checks that the time axis of the response, when present, is hourly and starts at midnight of {@code day}.
+     */
+    private static boolean startsAt(HourlyForecastResponse response, LocalDate day) {
+        HourlyData hourly = response.getHourly();
+        LocalDateTime startTime = hourly.getStartTime();
+        return startTime == null
+                || (startTime.equals(day.atStartOfDay()) && hourly.getIntervalSeconds() == 3600);
+    }
+}
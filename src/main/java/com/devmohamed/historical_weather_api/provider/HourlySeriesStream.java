@@ -0,0 +1,110 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Hands out the hourly series of a planned range one chunk at a time, in date order, so a
+ * caller can write each chunk out before the next is needed. At most {@code lookahead} chunks
+ * are fetched or held at once, whatever the length of the range; a caller that stops reading,
+ * e.g. because the client is slow, stops further fetches as well.
+ *
+ * <p>Not thread-safe: one reader calls {@link #next()} until it returns null or gives up, then
+ * {@link #close()}.
+ */
+public class HourlySeriesStream implements AutoCloseable {
+
+    private final List<DateRange> chunks;
+    private final Function<DateRange, HourlySeries> fetcher;
+    private final Executor executor;
+    private final int lookahead;
+
+    private final ArrayDeque<CompletableFuture<HourlySeries>> inFlight = new ArrayDeque<>();
+    private int nextToFetch;
+    private int nextToRead;
+    private boolean closed;
+
+    public HourlySeriesStream(List<DateRange> chunks, Function<DateRange, HourlySeries> fetcher,
+                              Executor executor, int lookahead) {
+        this.chunks = chunks;
+        this.fetcher = fetcher;
+        this.executor = executor;
+        this.lookahead = Math.max(1, lookahead);
+    }
+
+    /**
+     * @return Whether chunks are left to read.
+     */
+    public boolean hasNext() {
+        return !closed && nextToRead < chunks.size();
+    }
+
+    /**
+     * @return The range of the chunk the next call to {@link #next()} returns.
+     */
+    public DateRange peekRange() {
+        return chunks.get(nextToRead);
+    }
+
+    /**
+     * Waits for the next chunk and starts fetching the ones after it.
+     *
+     * @return The series of the next chunk, or null if it could not be retrieved or no chunk
+     * is left; the stream is closed after a null.
+     * @throws RuntimeException What the fetch threw, e.g. a full upstream bulkhead; the stream
+     *                          is closed as well.
+     */
+    public HourlySeries next() {
+        if (!hasNext()) {
+            return null;
+        }
+        // 1. Keep the window full, then wait for its oldest chunk
+        fill();
+        CompletableFuture<HourlySeries> head = inFlight.poll();
+        nextToRead++;
+        HourlySeries series;
+        try {
+            series = head.join();
+        } catch (CompletionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (series == null) {
+            close();
+            return null;
+        }
+        // 2. The slot just freed goes to the next chunk while the caller writes this one
+        fill();
+        return series;
+    }
+
+    /**
+     * Cancels the chunks fetched ahead. A fetch already running finishes in the background
+     * and still fills the cache.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (CompletableFuture<HourlySeries> future : inFlight) {
+            future.cancel(false);
+        }
+        inFlight.clear();
+    }
+
+    private void fill() {
+        while (!closed && inFlight.size() < lookahead && nextToFetch < chunks.size()) {
+            DateRange chunk = chunks.get(nextToFetch++);
+            inFlight.add(CompletableFuture.supplyAsync(() -> fetcher.apply(chunk), executor));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.StoreVerificationReport;
+
+/**
+ * Command line entry point to verify or compact the persistent hourly store
+ * without starting the application.
+ *
+ * <pre>
+ *   gradle storeTool --args="verify data/hourly-store"
+ *   gradle storeTool --args="compact data/hourly-store"
+ * </pre>
+ */
+public final class HourlyStoreTool {
+
+    private HourlyStoreTool() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1 || !(args[0].equals("verify") || args[0].equals("compact"))) {
+            System.err.println("Usage: HourlyStoreTool verify|compact [directory]");
+            System.exit(2);
+        }
+
+        OpenMeteoProperties properties = new OpenMeteoProperties();
+        properties.getStore().setEnabled(true);
+        if (args.length > 1) {
+            properties.getStore().setDirectory(args[1]);
+        }
+        HourlyTemperatureStore store = new HourlyTemperatureStore(properties);
+
+        StoreVerificationReport report = args[0].equals("compact") ? store.compact() : store.verify();
+        System.out.println(report);
+        if (!args[0].equals("compact") && !report.getCorruptFiles().isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
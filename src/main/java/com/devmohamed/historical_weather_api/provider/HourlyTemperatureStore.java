@@ -0,0 +1,456 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.StoreStats;
+import com.devmohamed.historical_weather_api.model.StoreVerificationReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Persistent store for immutable hourly temperature history.
+ *
+ * <p>Each grid cell (a normalized {@link Location}) gets one directory and every year one
+ * fixed-layout file inside it:
+ * <pre>
+ *   offset 0     header   magic, version, year, hours in year, latitude, longitude (32 bytes)
+ *   offset 32    bitmap   one bit per hour of the year, set once the hour has been fetched
+ *   offset 1136  values   one float per hour of the year, NaN when the upstream had no value
+ * </pre>
+ * Files are memory-mapped, so reading a range is an offset calculation plus a scan of the
+ * mapped bytes, with no parsing and no allocation. Only days outside the recent window are
+ * written, because those will no longer change upstream, and only days whose values survive
+ * the float round trip; any other day is left to the cache and the upstream.
+ */
+@Service
+public class HourlyTemperatureStore {
+
+    private static final Logger log = LoggerFactory.getLogger(HourlyTemperatureStore.class);
+
+    static final int MAGIC = 0x48575453; // "HWTS"
+    static final short VERSION = 1;
+    static final int MAX_HOURS = 366 * HourlySeries.HOURS_PER_DAY;
+    static final int HEADER_BYTES = 32;
+    static final int BITMAP_BYTES = 1104; // 8784 bits, padded to a multiple of 8 bytes
+    static final int VALUES_OFFSET = HEADER_BYTES + BITMAP_BYTES;
+    static final int FILE_BYTES = VALUES_OFFSET + MAX_HOURS * Float.BYTES;
+
+    private static final String FILE_SUFFIX = ".bin";
+
+    private final OpenMeteoProperties.Store settings;
+    private final int recentWindowDays;
+    private final Path root;
+    private final Clock clock;
+
+    private final ReentrantLock filesLock = new ReentrantLock();
+    private final LinkedHashMap<Path, YearFile> openFiles;
+    // Files a write is using, counted per path; they stay pinned after the LRU map lets go of them
+    private final Map<Path, Integer> writers = new HashMap<>();
+
+    private final LongAdder daysRead = new LongAdder();
+    private final LongAdder daysWritten = new LongAdder();
+
+    @Autowired
+    public HourlyTemperatureStore(OpenMeteoProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public HourlyTemperatureStore(OpenMeteoProperties properties, Clock clock) {
+        this.settings = properties.getStore();
+        this.recentWindowDays = properties.getCache().getRecentWindowDays();
+        this.root = Paths.get(settings.getDirectory());
+        this.clock = clock;
+        int maxOpenFiles = Math.max(1, settings.getMaxOpenFiles());
+        this.openFiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, YearFile> eldest) {
+                // The mapping is released by the GC once nothing references it any more
+                return size() > maxOpenFiles;
+            }
+        };
+    }
+
+    /**
+     * Copies every fully stored day of the range into {@code target}. Days already
+     * flagged in {@code present} are skipped.
+     *
+     * @return The number of days served from the store.
+     */
+    public int readDays(Location location, LocalDate start, boolean[] present, double[] target) {
+        if (!settings.isEnabled()) {
+            return 0;
+        }
+        int found = 0;
+        YearFile file = null;
+        int fileYear = Integer.MIN_VALUE;
+        for (int i = 0; i < present.length; i++) {
+            if (present[i]) {
+                continue;
+            }
+            LocalDate day = start.plusDays(i);
+            if (day.getYear() != fileYear) {
+                fileYear = day.getYear();
+                file = open(location, fileYear, false);
+            }
+            int hourOfYear = (day.getDayOfYear() - 1) * HourlySeries.HOURS_PER_DAY;
+            if (file != null && file.hasDay(hourOfYear)) {
+                file.readDay(hourOfYear, target, i * HourlySeries.HOURS_PER_DAY);
+                present[i] = true;
+                found++;
+            }
+        }
+        daysRead.add(found);
+        return found;
+    }
+
+    /**
+     * Writes {@code days} consecutive days taken from {@code values}, starting at {@code fromDay}.
+     * Days inside the recent window are skipped because they can still change upstream.
+     */
+    public void writeDays(Location location, LocalDate start, double[] values, int fromDay, int days) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        LocalDate firstMutableDay = LocalDate.now(clock).minusDays(recentWindowDays);
+        List<YearFile> touched = new ArrayList<>(2);
+        try {
+            YearFile file = null;
+            int fileYear = Integer.MIN_VALUE;
+            for (int i = fromDay; i < fromDay + days; i++) {
+                LocalDate day = start.plusDays(i);
+                if (!day.isBefore(firstMutableDay)) {
+                    break;
+                }
+                if (day.getYear() != fileYear) {
+                    fileYear = day.getYear();
+                    file = open(location, fileYear, true);
+                    if (file != null) {
+                        touched.add(file);
+                    }
+                }
+                if (file != null && file.writeDay((day.getDayOfYear() - 1) * HourlySeries.HOURS_PER_DAY,
+                        values, i * HourlySeries.HOURS_PER_DAY)) {
+                    daysWritten.increment();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // The store is an optimization, a failed write must never fail the request
+            log.warn("Could not write hourly data for {} to the store: {}", location, e.getMessage());
+        } finally {
+            touched.forEach(YearFile::force);
+            touched.forEach(this::unpin);
+        }
+    }
+
+    public StoreStats getStats() {
+        filesLock.lock();
+        try {
+            return new StoreStats(openFiles.size(), daysRead.sum(), daysWritten.sum());
+        } finally {
+            filesLock.unlock();
+        }
+    }
+
+    /**
+     * Checks every year file for a valid header and size, and counts the stored hours.
+     */
+    public StoreVerificationReport verify() {
+        return scan(false);
+    }
+
+    /**
+     * Verifies the store and removes files that are corrupt or hold no hours at all,
+     * along with any cell directory left empty.
+     */
+    public StoreVerificationReport compact() {
+        return scan(true);
+    }
+
+    private StoreVerificationReport scan(boolean compact) {
+        StoreVerificationReport report = new StoreVerificationReport();
+        if (!Files.isDirectory(root)) {
+            return report;
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(root, 2)) {
+            walk.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX)).forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (Path path : files) {
+            report.setFilesChecked(report.getFilesChecked() + 1);
+            long hours = countHours(path);
+            boolean remove = false;
+            if (hours < 0) {
+                report.getCorruptFiles().add(root.relativize(path).toString());
+                remove = compact;
+            } else if (hours == 0) {
+                report.setEmptyFiles(report.getEmptyFiles() + 1);
+                remove = compact;
+            } else {
+                report.setHoursStored(report.getHoursStored() + hours);
+            }
+            if (remove && delete(path)) {
+                report.setFilesRemoved(report.getFilesRemoved() + 1);
+            }
+        }
+
+        if (compact) {
+            try (Stream<Path> cells = Files.list(root)) {
+                cells.filter(Files::isDirectory).forEach(this::deleteIfEmpty);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * @return The number of stored hours, or -1 when the file is corrupt.
+     */
+    private long countHours(Path path) {
+        String name = path.getFileName().toString();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != FILE_BYTES) {
+                return -1;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_BYTES);
+            int year = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION
+                    || !name.equals(year + FILE_SUFFIX) || buffer.getInt(12) != Year.of(year).length() * 24) {
+                return -1;
+            }
+            long hours = 0;
+            for (int i = 0; i < BITMAP_BYTES; i += Long.BYTES) {
+                hours += Long.bitCount(buffer.getLong(HEADER_BYTES + i));
+            }
+            return hours;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Removes a file nobody has mapped. A mapped one may be written right now, or be a new
+     * file whose bitmap stays empty only until its first day lands; unlinking it would lose
+     * those writes. Holding the lock keeps {@link #open} from mapping it meanwhile.
+     */
+    private boolean delete(Path path) {
+        filesLock.lock();
+        try {
+            if (openFiles.containsKey(path) || writers.containsKey(path)) {
+                return false;
+            }
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not remove store file {}: {}", path, e.getMessage());
+            return false;
+        } finally {
+            filesLock.unlock();
+        }
+    }
+
+    private void deleteIfEmpty(Path directory) {
+        try (Stream<Path> entries = Files.list(directory)) {
+            if (entries.findAny().isEmpty()) {
+                Files.delete(directory);
+            }
+        } catch (IOException e) {
+            log.warn("Could not remove store directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Maps the year file of a location. With {@code create} the file is made if missing and
+     * pinned for a write until {@link #unpin} is called.
+     */
+    private YearFile open(Location location, int year, boolean create) {
+        Path path = root.resolve(cellName(location)).resolve(year + FILE_SUFFIX);
+        filesLock.lock();
+        try {
+            YearFile file = openFiles.get(path);
+            if (file == null) {
+                if (!create && !Files.exists(path)) {
+                    return null;
+                }
+                file = YearFile.map(path, location, year);
+                if (file == null) {
+                    return null;
+                }
+                openFiles.put(path, file);
+            }
+            if (create) {
+                writers.merge(path, 1, Integer::sum);
+            }
+            return file;
+        } finally {
+            filesLock.unlock();
+        }
+    }
+
+    private void unpin(YearFile file) {
+        filesLock.lock();
+        try {
+            writers.computeIfPresent(file.path, (path, count) -> count == 1 ? null : count - 1);
+        } finally {
+            filesLock.unlock();
+        }
+    }
+
+    private static String cellName(Location location) {
+        return BigDecimal.valueOf(location.latitude()).toPlainString()
+                + "_" + BigDecimal.valueOf(location.longitude()).toPlainString();
+    }
+
+    /**
+     * One mapped year file. Reads use absolute gets on the shared mapping and need no lock.
+     * Writes store the values first and then set the bitmap words with release semantics;
+     * readers load those words with acquire semantics, so a reader that sees a present bit
+     * also sees the value written before it. The little-endian words match the byte-wise
+     * bit order of the file: hour {@code h} is bit {@code h & 7} of byte {@code h >>> 3}.
+     */
+    private static final class YearFile {
+
+        private static final VarHandle BITMAP =
+                MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final ReentrantLock writeLock = new ReentrantLock();
+
+        private YearFile(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        static YearFile map(Path path, Location location, int year) {
+            try {
+                Files.createDirectories(path.getParent());
+                try (FileChannel channel = FileChannel.open(path,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+                    boolean fresh = channel.size() == 0;
+                    if (!fresh && channel.size() != FILE_BYTES) {
+                        log.warn("Ignoring store file {} with unexpected size {}", path, channel.size());
+                        return null;
+                    }
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_BYTES);
+                    if (fresh) {
+                        buffer.putInt(0, MAGIC);
+                        buffer.putShort(4, VERSION);
+                        buffer.putInt(8, year);
+                        buffer.putInt(12, Year.of(year).length() * HourlySeries.HOURS_PER_DAY);
+                        buffer.putDouble(16, location.latitude());
+                        buffer.putDouble(24, location.longitude());
+                        buffer.force();
+                    } else if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION || buffer.getInt(8) != year) {
+                        log.warn("Ignoring store file {} with an invalid header", path);
+                        return null;
+                    }
+                    return new YearFile(path, buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        boolean hasDay(int firstHour) {
+            int lastHour = firstHour + HourlySeries.HOURS_PER_DAY - 1;
+            for (int word = firstHour >>> 6; word <= lastHour >>> 6; word++) {
+                long mask = dayMask(word, firstHour, lastHour);
+                if (((long) BITMAP.getAcquire(buffer, HEADER_BYTES + word * Long.BYTES) & mask) != mask) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Only valid after {@link #hasDay} returned true for the same day, whose acquiring
+         * load orders these plain reads after the writes that set the bits.
+         */
+        void readDay(int firstHour, double[] target, int offset) {
+            int position = VALUES_OFFSET + firstHour * Float.BYTES;
+            for (int h = 0; h < HourlySeries.HOURS_PER_DAY; h++) {
+                target[offset + h] = restore(buffer.getFloat(position + h * Float.BYTES));
+            }
+        }
+
+        /**
+         * @return False, with nothing written, if a value would not read back as it was.
+         */
+        boolean writeDay(int firstHour, double[] values, int offset) {
+            for (int h = 0; h < HourlySeries.HOURS_PER_DAY; h++) {
+                double value = values[offset + h];
+                if (!Double.isNaN(value) && restore((float) value) != value) {
+                    return false;
+                }
+            }
+            writeLock.lock();
+            try {
+                int position = VALUES_OFFSET + firstHour * Float.BYTES;
+                for (int h = 0; h < HourlySeries.HOURS_PER_DAY; h++) {
+                    buffer.putFloat(position + h * Float.BYTES, (float) values[offset + h]);
+                }
+                // The OR is atomic, so a second mapping of the same file cannot drop these bits
+                int lastHour = firstHour + HourlySeries.HOURS_PER_DAY - 1;
+                for (int word = firstHour >>> 6; word <= lastHour >>> 6; word++) {
+                    BITMAP.getAndBitwiseOrRelease(buffer, HEADER_BYTES + word * Long.BYTES,
+                            dayMask(word, firstHour, lastHour));
+                }
+                return true;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        /**
+         * The bits of bitmap word {@code word} that belong to the hours {@code [firstHour, lastHour]}.
+         */
+        private static long dayMask(int word, int firstHour, int lastHour) {
+            int from = Math.max(firstHour, word << 6) & 63;
+            int to = Math.min(lastHour, (word << 6) + 63) & 63;
+            return (-1L >>> (63 - to)) & (-1L << from);
+        }
+
+        /**
+         * Open-Meteo reports temperatures with one decimal, so rounding the float back to two
+         * decimals restores exactly the double the upstream sent. {@link #writeDay} refuses
+         * any value for which that does not hold.
+         */
+        private static double restore(float value) {
+            return Float.isNaN(value) ? Double.NaN : Math.rint(value * 100.0) / 100.0;
+        }
+    }
+}
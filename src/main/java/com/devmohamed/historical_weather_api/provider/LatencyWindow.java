@@ -0,0 +1,48 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The latencies of the last {@value #SIZE} successful upstream attempts, with their 95th
+ * percentile recomputed every {@value #REFRESH_EVERY} samples. Recording is one atomic
+ * increment and one array write; readers get the cached percentile.
+ */
+class LatencyWindow {
+
+    static final int SIZE = 1024;
+    static final int REFRESH_EVERY = 64;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long p95Nanos = -1;
+
+    void record(long nanos) {
+        long n = recorded.getAndIncrement();
+        samples.set((int) (n % SIZE), nanos);
+        if ((n + 1) % REFRESH_EVERY == 0) {
+            refresh(Math.min(n + 1, SIZE));
+        }
+    }
+
+    long getRecorded() {
+        return recorded.get();
+    }
+
+    /**
+     * @return The p95 latency of the window in nanoseconds, or -1 before the first refresh.
+     */
+    long getP95Nanos() {
+        return p95Nanos;
+    }
+
+    private void refresh(long count) {
+        long[] copy = new long[(int) count];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        p95Nanos = copy[(int) Math.ceil(0.95 * copy.length) - 1];
+    }
+}
@@ -1,18 +1,39 @@
 package com.devmohamed.historical_weather_api.provider;
+import com.devmohamed.historical_weather_api.exception.UpstreamCallException;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
 import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
 @Service
 public class OpenMeteoClientService {
 
     private static final Logger log = LoggerFactory.getLogger(OpenMeteoClientService.class);
+
+    /**
+     * The timezone every request asks for, and so the one of every cached day. It is also
+     * Open-Meteo's default; sending it keeps the local dates of the time axis fixed.
+     */
+    public static final String TIMEZONE = "GMT";
+
     private final RestTemplate restTemplate;
 
     /**
@@ -27,23 +48,38 @@ public class OpenMeteoClientService {
     /**
      * Fetches historical HOURLY temperature data from the Open-Meteo API.
      *
+     * @see #getHourly(double, double, String, String, Set)
+     */
+    public HourlyForecastResponse getHourlyTemperature(
+            double latitude, double longitude, String startDate, String endDate) {
+        return getHourly(latitude, longitude, startDate, endDate, HourlyVariable.TEMPERATURE);
+    }
+
+    /**
+     * Fetches historical HOURLY data from the Open-Meteo API, one column per variable.
+     *
      * @param latitude   Latitude for the location.
      * @param longitude  Longitude for the location.
      * @param startDate  Start date in "YYYY-MM-DD" format.
      * @param endDate    End date in "YYYY-MM-DD" format.
-     * @return A DTO mapping the hourly API response, or null if an error occurs.
+     * @param variables  The variables to fetch, at least one; nothing else is requested.
+     * @return A DTO mapping the hourly API response, or null if the request was rejected.
+     * @throws UpstreamCallException If the call failed in a way worth retrying.
+     * @throws UpstreamQuotaExceededException If Open-Meteo answered 429 Too Many Requests.
      */
-    public HourlyForecastResponse getHourlyTemperature(
-            double latitude, double longitude, String startDate, String endDate) {
+    public HourlyForecastResponse getHourly(
+            double latitude, double longitude, String startDate, String endDate, Set<HourlyVariable> variables) {
 
         // Build the URL for the hourly endpoint.
         // The base URL is already set in the RestTemplate bean.
+        // Coordinates are written as plain decimals, Double.toString would give "1.0E-4".
         String url = UriComponentsBuilder.fromPath("/forecast")
-                .queryParam("latitude", latitude)
-                .queryParam("longitude", longitude)
+                .queryParam("latitude", Location.format(latitude))
+                .queryParam("longitude", Location.format(longitude))
                 .queryParam("start_date", startDate)
                 .queryParam("end_date", endDate)
-                .queryParam("hourly", "temperature_2m") // Requesting the hourly metric
+                .queryParam("hourly", HourlyVariable.toHourlyParam(variables)) // Requesting the hourly metrics
+                .queryParam("timezone", TIMEZONE)
                 .toUriString();
 
         log.info("Contacting Open-Meteo API for HOURLY data: {}", url);
@@ -57,6 +93,10 @@ public class OpenMeteoClientService {
             log.info("Successfully received hourly response from Open-Meteo.");
             return response;
 
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw quotaExceeded(e);
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            throw new UpstreamCallException("Transient error calling Open-Meteo: " + e.getMessage(), e);
         } catch (RestClientException e) {
             log.error("Error calling Open-Meteo API for hourly data: {}", e.getMessage());
             // In a real app, you would throw a custom exception here
@@ -64,4 +104,95 @@ public class OpenMeteoClientService {
             return null;
         }
     }
+
+    /**
+     * Fetches hourly temperature data for several locations with one request.
+     *
+     * @see #getHourlyBatch(List, String, String, Set)
+     */
+    public List<HourlyForecastResponse> getHourlyTemperatureBatch(
+            List<Location> locations, String startDate, String endDate) {
+        return getHourlyBatch(locations, startDate, endDate, HourlyVariable.TEMPERATURE);
+    }
+
+    /**
+     * Fetches hourly data for several locations with one request.
+     * Open-Meteo accepts comma-separated latitude and longitude lists and then answers
+     * with a JSON array holding one response per location, in the same order.
+     *
+     * @param locations  The locations to fetch, at least one.
+     * @param startDate  Start date in "YYYY-MM-DD" format.
+     * @param endDate    End date in "YYYY-MM-DD" format.
+     * @param variables  The variables to fetch for every location, at least one.
+     * @return One response per location in request order, or null if the request was rejected.
+     * @throws UpstreamCallException If the call failed in a way worth retrying.
+     * @throws UpstreamQuotaExceededException If Open-Meteo answered 429 Too Many Requests.
+     */
+    public List<HourlyForecastResponse> getHourlyBatch(
+            List<Location> locations, String startDate, String endDate, Set<HourlyVariable> variables) {
+
+        // A single location is answered with a plain object, not an array
+        if (locations.size() == 1) {
+            Location location = locations.get(0);
+            HourlyForecastResponse response = getHourly(
+                    location.latitude(), location.longitude(), startDate, endDate, variables);
+            return response == null ? null : List.of(response);
+        }
+
+        String url = UriComponentsBuilder.fromPath("/forecast")
+                .queryParam("latitude", joinCoordinates(locations, Location::latitude))
+                .queryParam("longitude", joinCoordinates(locations, Location::longitude))
+                .queryParam("start_date", startDate)
+                .queryParam("end_date", endDate)
+                .queryParam("hourly", HourlyVariable.toHourlyParam(variables))
+                .queryParam("timezone", TIMEZONE)
+                .toUriString();
+
+        log.info("Contacting Open-Meteo API for HOURLY data of {} locations: {}", locations.size(), url);
+
+        try {
+            HourlyForecastResponse[] responses = restTemplate.getForObject(url, HourlyForecastResponse[].class);
+            if (responses == null || responses.length != locations.size()) {
+                log.error("Open-Meteo answered a batch of {} locations with {} responses",
+                        locations.size(), responses == null ? 0 : responses.length);
+                return null;
+            }
+            log.info("Successfully received {} hourly responses from Open-Meteo.", responses.length);
+            return Arrays.asList(responses);
+
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw quotaExceeded(e);
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            throw new UpstreamCallException("Transient error calling Open-Meteo: " + e.getMessage(), e);
+        } catch (RestClientException e) {
+            log.error("Error calling Open-Meteo API for batched hourly data: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Open-Meteo names the quota it enforced in the body, e.g. "Minutely API request limit
+     * exceeded", and may send a Retry-After in seconds; -1 when it does not.
+     */
+    private static UpstreamQuotaExceededException quotaExceeded(HttpClientErrorException e) {
+        long retryAfterSeconds = -1;
+        String retryAfter = e.getResponseHeaders() == null ? null
+                : e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                retryAfterSeconds = Long.parseLong(retryAfter.trim());
+            } catch (NumberFormatException ignored) {
+                // An HTTP date; the governor falls back to the reset of the window
+            }
+        }
+        String body = e.getResponseBodyAsString();
+        return new UpstreamQuotaExceededException(body.isEmpty() ? e.getMessage() : body, retryAfterSeconds);
+    }
+
+    private static String joinCoordinates(List<Location> locations,
+                                          ToDoubleFunction<Location> coordinate) {
+        return locations.stream()
+                .map(location -> Location.format(coordinate.applyAsDouble(location)))
+                .collect(Collectors.joining(","));
+    }
 }
@@ -0,0 +1,494 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamBusyException;
+import com.devmohamed.historical_weather_api.exception.UpstreamCallException;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.exception.UpstreamUnavailableException;
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.UpstreamStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The single way into {@link OpenMeteoClientService}. Concurrent callers asking for the
+ * same normalized (latitude, longitude, start, end) share one in-flight upstream call, which
+ * fetches the union of the {@link HourlyVariable}s they need, and the calls that do go out
+ * pass a bulkhead. Its limit follows Open-Meteo's latency
+ * through an {@link AdaptiveConcurrencyLimit}, capped by the size of the connection pool.
+ *
+ * <p>Every call is for a user waiting on it or for background work (prefetch, batch), see
+ * {@link UpstreamPriority}. Before it goes out it spends Open-Meteo quota through the
+ * {@link UpstreamQuotaGovernor} and fails with 429 when the quota is used up; it then waits
+ * for a slot in a bounded line where interactive callers are served first, and fails with
+ * 503 when its line is full or no slot frees up in time. Coalesced callers share the call,
+ * and the priority, of the one that started it.
+ *
+ * <p>Every call runs within a deadline. Transient failures are retried with capped,
+ * jittered exponential backoff, and an attempt slower than the observed p95 latency is
+ * hedged with a duplicate request, within a budget, taking whichever answers first.
+ * A circuit breaker watches the outcome of every call and, while Open-Meteo is failing
+ * or slow, refuses calls at once instead of letting them queue up.
+ */
+@Service
+public class OpenMeteoGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenMeteoGateway.class);
+
+    private final OpenMeteoClientService openMeteoClientService;
+    private final SingleFlight<UpstreamKey, HourlyForecastResponse> singleFlight = new SingleFlight<>();
+
+    private final PriorityBulkhead bulkhead;
+    private final int maxConcurrent;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final long acquireTimeoutMs;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder[] shed = {new LongAdder(), new LongAdder()};
+    private final UpstreamQuotaGovernor quota;
+    private final LongAdder batchCalls = new LongAdder();
+
+    private final OpenMeteoProperties.Retry retrySettings;
+    private final OpenMeteoProperties.Hedge hedgeSettings;
+    private final LatencyWindow latencies = new LatencyWindow();
+    private final HedgeBudget hedgeBudget;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder deadlineExceeded = new LongAdder();
+    private final UpstreamCircuitBreaker circuitBreaker;
+
+    // Attempts that may be hedged run here, so the caller can stop waiting on a slow one
+    private final ExecutorService attempts = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public OpenMeteoGateway(OpenMeteoClientService openMeteoClientService, OpenMeteoProperties properties,
+                            UpstreamQuotaGovernor quota, MeterRegistry meterRegistry) {
+        this.openMeteoClientService = openMeteoClientService;
+        this.maxConcurrent = properties.getBulkhead().getMaxConcurrent();
+        this.acquireTimeoutMs = properties.getBulkhead().getAcquireTimeoutMs();
+        this.concurrencyLimit = properties.getConcurrencyLimit().isEnabled()
+                ? new AdaptiveConcurrencyLimit(properties.getConcurrencyLimit(), maxConcurrent)
+                : null;
+        this.bulkhead = new PriorityBulkhead(concurrencyLimit == null ? maxConcurrent : concurrencyLimit.getLimit(),
+                properties.getBulkhead().getMaxQueued(), properties.getBulkhead().getBackgroundMaxQueued());
+        this.quota = quota;
+        this.retrySettings = properties.getRetry();
+        this.hedgeSettings = properties.getHedge();
+        this.hedgeBudget = new HedgeBudget(hedgeSettings.getBudgetPercent());
+        this.circuitBreaker = new UpstreamCircuitBreaker(properties.getCircuitBreaker());
+        registerMeters(meterRegistry);
+    }
+
+    /**
+     * Creates a gateway whose counters are only visible through {@link #getStats()}.
+     */
+    public OpenMeteoGateway(OpenMeteoClientService openMeteoClientService, OpenMeteoProperties properties) {
+        this(openMeteoClientService, properties, new UpstreamQuotaGovernor(properties), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Fetches hourly temperatures for a user request, joining an identical call that is
+     * already in flight.
+     *
+     * @param location  The normalized location.
+     * @param startDate Start date in "YYYY-MM-DD" format.
+     * @param endDate   End date in "YYYY-MM-DD" format.
+     * @return The upstream response, or null if the request was rejected, every attempt
+     * failed or the deadline passed.
+     * @throws UpstreamBusyException If no bulkhead slot became free in time.
+     * @throws UpstreamUnavailableException If the circuit breaker is open.
+     * @throws UpstreamQuotaExceededException If the call would exceed Open-Meteo's quota.
+     */
+    public HourlyForecastResponse getHourlyTemperature(Location location, String startDate, String endDate) {
+        return getHourlyTemperature(location, startDate, endDate, UpstreamPriority.INTERACTIVE);
+    }
+
+    /**
+     * Fetches hourly temperatures, joining an identical call that is already in flight.
+     *
+     * @see #getHourlyTemperature(Location, String, String)
+     */
+    public HourlyForecastResponse getHourlyTemperature(Location location, String startDate, String endDate,
+                                                       UpstreamPriority priority) {
+        return getHourly(location, startDate, endDate, HourlyVariable.TEMPERATURE, priority);
+    }
+
+    /**
+     * Fetches hourly data for the given variables, joining a call for the same location and
+     * range that is already in flight and fetches all of them. A call in flight that lacks
+     * some of them is not joined; a call for the union of both goes out instead, and later
+     * callers for either set join that one.
+     *
+     * @param variables The variables needed, at least one. The response may hold more.
+     * @see #getHourlyTemperature(Location, String, String)
+     */
+    public HourlyForecastResponse getHourly(Location location, String startDate, String endDate,
+                                            Set<HourlyVariable> variables, UpstreamPriority priority) {
+        // Only the leader of a coalesced group takes a slot, the waiters hold none
+        double cost = quota.cost(1, startDate, endDate);
+        return singleFlight.execute(new UpstreamKey(location, startDate, endDate), variables,
+                columns -> callWithRetries(location, cost, priority, () -> openMeteoClientService.getHourly(
+                        location.latitude(), location.longitude(), startDate, endDate, EnumSet.copyOf(columns))));
+    }
+
+    /**
+     * Fetches hourly data for several locations with one upstream request.
+     * The request takes a single bulkhead slot, whatever the number of locations.
+     *
+     * @param locations The normalized locations, at least one.
+     * @param startDate Start date in "YYYY-MM-DD" format.
+     * @param endDate   End date in "YYYY-MM-DD" format.
+     * @param variables The variables to fetch for every location, at least one.
+     * @param priority  Whom the call is for.
+     * @return One response per location in request order, or null if the request was rejected,
+     * every attempt failed or the deadline passed.
+     * @throws UpstreamBusyException If no bulkhead slot became free in time.
+     * @throws UpstreamUnavailableException If the circuit breaker is open.
+     * @throws UpstreamQuotaExceededException If the call would exceed Open-Meteo's quota.
+     */
+    public List<HourlyForecastResponse> getHourlyBatch(List<Location> locations, String startDate, String endDate,
+                                                       Set<HourlyVariable> variables, UpstreamPriority priority) {
+        if (locations.size() == 1) {
+            // A lone location can still join a single request in flight
+            HourlyForecastResponse response = getHourly(locations.get(0), startDate, endDate, variables, priority);
+            return response == null ? null : List.of(response);
+        }
+        batchCalls.increment();
+        return callWithRetries(locations.size() + " locations", quota.cost(locations.size(), startDate, endDate),
+                priority, () -> openMeteoClientService.getHourlyBatch(locations, startDate, endDate, variables));
+    }
+
+    public UpstreamStats getStats() {
+        return new UpstreamStats(singleFlight.getExecutions(), singleFlight.getCoalesced(), singleFlight.getInFlight(),
+                batchCalls.sum(), maxConcurrent, bulkhead.getLimit(), bulkhead.availablePermits(), bulkhead.getQueued(), rejected.sum(),
+                retries.sum(), hedges.sum(), hedgeWins.sum(), deadlineExceeded.sum(),
+                circuitBreaker.getState().name(), circuitBreaker.getOpened(), circuitBreaker.getShortCircuited(),
+                quota.getStats());
+    }
+
+    /**
+     * Runs attempts until one answers, the attempts are used up or the deadline passes.
+     * Only {@link UpstreamCallException} is retried; anything else reaches the caller.
+     * Every attempt spends {@code cost} of the quota.
+     */
+    private <T> T callWithRetries(Object target, double cost, UpstreamPriority priority, Supplier<T> call) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retrySettings.getDeadlineMs());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(target, cost, priority, call, deadline);
+            } catch (TimeoutException e) {
+                deadlineExceeded.increment();
+                log.warn("Upstream call for {} passed its {} ms deadline", target, retrySettings.getDeadlineMs());
+                return null;
+            } catch (UpstreamCallException e) {
+                long backoff = backoffNanos(attempt);
+                if (attempt >= retrySettings.getMaxAttempts() || System.nanoTime() + backoff >= deadline) {
+                    log.error("Giving up on upstream call for {} after {} attempts: {}", target, attempt, e.getMessage());
+                    return null;
+                }
+                retries.increment();
+                log.warn("Attempt {} for {} failed, retrying in {} ms: {}",
+                        attempt, target, TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * One attempt, hedged when it runs past the observed p95 latency.
+     *
+     * @throws TimeoutException If the deadline passed before any request answered.
+     */
+    private <T> T attempt(Object target, double cost, UpstreamPriority priority, Supplier<T> call, long deadline)
+            throws TimeoutException {
+        // 1. Fail at once while the breaker is open or the quota is used up, then take a slot
+        //    as soon as the bulkhead allows
+        if (!circuitBreaker.tryAcquire()) {
+            throw new UpstreamUnavailableException("Open-Meteo is currently unavailable, try again later.",
+                    circuitBreaker.getRetryAfterSeconds());
+        }
+        UpstreamQuotaGovernor.Grant grant;
+        try {
+            grant = quota.acquire(cost, priority);
+        } catch (UpstreamQuotaExceededException e) {
+            circuitBreaker.onNotCalled();
+            log.warn("Open-Meteo quota used up, shedding {} call for {}", priority.name().toLowerCase(Locale.ROOT), target);
+            throw e;
+        }
+        try {
+            acquireSlot(target, priority);
+        } catch (UpstreamBusyException e) {
+            circuitBreaker.onNotCalled();
+            quota.refund(grant);
+            throw e;
+        }
+        if (!hedgeSettings.isEnabled()) {
+            return callAndRelease(call);
+        }
+        hedgeBudget.onCall();
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(() -> callAndRelease(call), attempts);
+
+        // 2. Past the hedge delay, send a duplicate if a slot is free right now and the budget allows it
+        long hedgeDelay = hedgeDelayNanos();
+        if (hedgeDelay >= 0
+                && !completesWithin(primary, Math.min(hedgeDelay, deadline - System.nanoTime()))
+                && System.nanoTime() < deadline
+                && tryStartHedge(cost)) {
+            hedges.increment();
+            log.info("Upstream call for {} is slower than {} ms, sending a hedged request",
+                    target, TimeUnit.NANOSECONDS.toMillis(hedgeDelay));
+            CompletableFuture<T> hedge = CompletableFuture.supplyAsync(() -> callAndRelease(call), attempts);
+            // The slower request is left to finish on its own and gives its slot back then
+            return await(firstSuccessful(primary, hedge), deadline);
+        }
+        return await(primary, deadline);
+    }
+
+    private void acquireSlot(Object target, UpstreamPriority priority) {
+        // A user waits a few round trips at most; background work may queue for the whole timeout
+        long timeoutMs = concurrencyLimit != null && priority == UpstreamPriority.INTERACTIVE
+                ? concurrencyLimit.maxWaitMillis(acquireTimeoutMs)
+                : acquireTimeoutMs;
+        // The bulkhead's lock parks virtual threads without pinning their carrier
+        try {
+            PriorityBulkhead.Admission admission = bulkhead.acquire(priority, timeoutMs);
+            if (admission != PriorityBulkhead.Admission.ACQUIRED) {
+                rejected.increment();
+                shed[priority.ordinal()].increment();
+                log.warn("Upstream bulkhead full ({} in flight, {}), rejecting {} call for {}", bulkhead.getInFlight(),
+                        admission == PriorityBulkhead.Admission.QUEUE_FULL ? "line full" : "timed out",
+                        priority.name().toLowerCase(Locale.ROOT), target);
+                throw new UpstreamBusyException("Too many concurrent requests to Open-Meteo, try again shortly.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamBusyException("Interrupted while waiting for an upstream slot.");
+        }
+    }
+
+    /**
+     * A hedge never waits for a slot, spends quota as background work does, and spends
+     * budget only when it actually goes out.
+     */
+    private boolean tryStartHedge(double cost) {
+        // A breaker that is not closed is probing with trial calls, duplicates would skew the trial
+        if (circuitBreaker.getState() != UpstreamCircuitBreaker.State.CLOSED || !bulkhead.tryAcquire()) {
+            return false;
+        }
+        UpstreamQuotaGovernor.Grant grant = quota.tryAcquire(cost, UpstreamPriority.BACKGROUND);
+        if (grant == null) {
+            bulkhead.release();
+            return false;
+        }
+        if (!hedgeBudget.tryHedge()) {
+            quota.refund(grant);
+            bulkhead.release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Calls the client, reports the outcome to the breaker and the concurrency limit, records
+     * how long a successful call took and always gives the slot back.
+     */
+    private <T> T callAndRelease(Supplier<T> call) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        boolean overQuota = false;
+        try {
+            T result = call.get();
+            failed = false;
+            latencies.record(System.nanoTime() - start);
+            return result;
+        } catch (UpstreamQuotaExceededException e) {
+            // Open-Meteo answered 429: a quota we did not know was spent, not a sign it is failing
+            overQuota = true;
+            throw quota.onUpstreamRejected(e);
+        } finally {
+            if (overQuota) {
+                circuitBreaker.onNotCalled();
+            } else {
+                long elapsed = System.nanoTime() - start;
+                circuitBreaker.onResult(failed, elapsed);
+                if (concurrencyLimit != null) {
+                    bulkhead.setLimit(concurrencyLimit.onSample(elapsed, bulkhead.getInFlight(), failed));
+                }
+            }
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * @return How long to wait before hedging, or -1 while too few latencies have been seen.
+     */
+    private long hedgeDelayNanos() {
+        long p95 = latencies.getP95Nanos();
+        if (p95 < 0 || latencies.getRecorded() < hedgeSettings.getMinSamples()) {
+            return -1;
+        }
+        return Math.max(p95, TimeUnit.MILLISECONDS.toNanos(hedgeSettings.getMinDelayMs()));
+    }
+
+    /**
+     * Capped exponential backoff with jitter, never shorter than the configured minimum:
+     * a uniform pick between min-backoff and min(max-backoff, min-backoff * 2^attempt).
+     */
+    private long backoffNanos(int attempt) {
+        long min = TimeUnit.MILLISECONDS.toNanos(retrySettings.getMinBackoffMs());
+        long cap = TimeUnit.MILLISECONDS.toNanos(retrySettings.getMaxBackoffMs());
+        long ceiling = Math.max(min, Math.min(cap, min << Math.min(attempt, 20)));
+        return ceiling > min ? ThreadLocalRandom.current().nextLong(min, ceiling + 1) : min;
+    }
+
+    private static boolean completesWithin(CompletableFuture<?> future, long nanos) {
+        try {
+            future.get(Math.max(0, nanos), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+
+    /**
+     * Waits for the future until the deadline and hands back its value or its exception.
+     */
+    private static <T> T await(CompletableFuture<T> future, long deadline) throws TimeoutException {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamBusyException("Interrupted while waiting for Open-Meteo.");
+        }
+    }
+
+    /**
+     * Completes with the first request that answers, or with the last failure if both fail.
+     */
+    private <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> primary, CompletableFuture<T> hedge) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        // Decided before completing, so the win is counted by the time the caller sees the result
+        AtomicBoolean decided = new AtomicBoolean();
+        primary.whenComplete((value, error) -> {
+            if (error == null) {
+                if (decided.compareAndSet(false, true)) {
+                    winner.complete(value);
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(unwrap(error));
+            }
+        });
+        hedge.whenComplete((value, error) -> {
+            if (error == null) {
+                if (decided.compareAndSet(false, true)) {
+                    hedgeWins.increment();
+                    winner.complete(value);
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(unwrap(error));
+            }
+        });
+        return winner;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private void registerMeters(MeterRegistry registry) {
+        for (UpstreamPriority priority : UpstreamPriority.values()) {
+            FunctionCounter.builder("openmeteo.upstream.shed", shed[priority.ordinal()], LongAdder::sum)
+                    .description("Upstream calls refused before going out")
+                    .tag("reason", "bulkhead")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        Gauge.builder("openmeteo.upstream.queued", bulkhead, PriorityBulkhead::getQueued)
+                .description("Callers waiting for a bulkhead slot")
+                .register(registry);
+        Gauge.builder("openmeteo.upstream.concurrency.limit", bulkhead, PriorityBulkhead::getLimit)
+                .description("Upstream calls allowed in flight at once")
+                .register(registry);
+        if (concurrencyLimit != null) {
+            Gauge.builder("openmeteo.upstream.rtt.min", concurrencyLimit,
+                            limit -> limit.getMinRttNanos() < 0 ? Double.NaN : limit.getMinRttNanos() / 1e6)
+                    .description("Shortest upstream round trip of the current baseline")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        }
+        FunctionCounter.builder("openmeteo.upstream.retries", retries, LongAdder::sum)
+                .description("Upstream attempts repeated after a transient failure")
+                .register(registry);
+        FunctionCounter.builder("openmeteo.upstream.hedges", hedges, LongAdder::sum)
+                .description("Duplicate requests sent for attempts slower than the observed p95")
+                .register(registry);
+        FunctionCounter.builder("openmeteo.upstream.hedges.won", hedgeWins, LongAdder::sum)
+                .description("Hedged requests that answered before the original")
+                .register(registry);
+        Gauge.builder("openmeteo.upstream.hedges.win.ratio", this,
+                        gateway -> gateway.hedges.sum() == 0 ? 0 : (double) gateway.hedgeWins.sum() / gateway.hedges.sum())
+                .description("Share of hedged requests that answered first")
+                .register(registry);
+        FunctionCounter.builder("openmeteo.upstream.deadline.exceeded", deadlineExceeded, LongAdder::sum)
+                .description("Upstream calls abandoned at their deadline")
+                .register(registry);
+        Gauge.builder("openmeteo.upstream.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(registry);
+        FunctionCounter.builder("openmeteo.upstream.circuit.opened", circuitBreaker, UpstreamCircuitBreaker::getOpened)
+                .description("Times the circuit breaker opened")
+                .register(registry);
+        FunctionCounter.builder("openmeteo.upstream.short.circuited", circuitBreaker,
+                        UpstreamCircuitBreaker::getShortCircuited)
+                .description("Upstream calls refused at once while the circuit breaker was open")
+                .register(registry);
+    }
+
+    private record UpstreamKey(Location location, String startDate, String endDate) {
+    }
+}
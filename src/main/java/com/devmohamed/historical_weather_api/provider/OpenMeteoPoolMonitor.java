@@ -0,0 +1,33 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.model.ConnectionPoolStats;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class OpenMeteoPoolMonitor {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    public OpenMeteoPoolMonitor(PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * Reads the current totals of the Open-Meteo connection pool.
+     *
+     * @return leased, pending, available and max connection counts.
+     */
+    public ConnectionPoolStats getStats() {
+        PoolStats stats = connectionManager.getTotalStats();
+        return new ConnectionPoolStats(
+                stats.getLeased(),
+                stats.getPending(),
+                stats.getAvailable(),
+                stats.getMax()
+        );
+    }
+}
@@ -0,0 +1,141 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamBusyException;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking Open-Meteo client for the reactive profile. No thread waits while a request
+ * is in flight; the response is decoded once its body has arrived.
+ *
+ * <p>Transient failures (connection errors and 5xx) are retried with the same capped,
+ * jittered exponential backoff and per-call deadline as the blocking gateway. A request that
+ * gets no pooled connection in time fails with {@link UpstreamBusyException}, as a caller that
+ * gets no bulkhead slot does. Every attempt spends quota through the same
+ * {@link UpstreamQuotaGovernor} as the gateway, and fails with
+ * {@link UpstreamQuotaExceededException} once it is used up or Open-Meteo answers 429.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class OpenMeteoReactiveClient {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenMeteoReactiveClient.class);
+
+    private final WebClient webClient;
+    private final OpenMeteoProperties.Retry retrySettings;
+    private final UpstreamQuotaGovernor quota;
+
+    @Autowired
+    public OpenMeteoReactiveClient(@Qualifier("OpenMeteoWebClient") WebClient webClient,
+                                   OpenMeteoProperties properties, UpstreamQuotaGovernor quota) {
+        this.webClient = webClient;
+        this.retrySettings = properties.getRetry();
+        this.quota = quota;
+    }
+
+    /**
+     * Fetches historical HOURLY temperature data from the Open-Meteo API.
+     *
+     * @param latitude   Latitude for the location.
+     * @param longitude  Longitude for the location.
+     * @param startDate  Start date in "YYYY-MM-DD" format.
+     * @param endDate    End date in "YYYY-MM-DD" format.
+     * @return The response, or an empty Mono if the request was rejected, every attempt
+     * failed or the deadline passed.
+     * @throws UpstreamBusyException (as an error signal) if no connection was free in time.
+     * @throws UpstreamQuotaExceededException (as an error signal) if Open-Meteo's quota is used up.
+     */
+    public Mono<HourlyForecastResponse> getHourlyTemperature(
+            double latitude, double longitude, String startDate, String endDate) {
+        String url = UriComponentsBuilder.fromPath("/forecast")
+                .queryParam("latitude", Location.format(latitude))
+                .queryParam("longitude", Location.format(longitude))
+                .queryParam("start_date", startDate)
+                .queryParam("end_date", endDate)
+                .queryParam("hourly", "temperature_2m")
+                .queryParam("timezone", OpenMeteoClientService.TIMEZONE)
+                .toUriString();
+
+        double cost = quota.cost(1, startDate, endDate);
+        // Deferred, so every retry spends quota again
+        return Mono.defer(() -> {
+                    quota.acquire(cost, UpstreamPriority.INTERACTIVE);
+                    return webClient.get()
+                            .uri(url)
+                            .retrieve()
+                            .bodyToMono(HourlyForecastResponse.class);
+                })
+                .doOnSubscribe(subscription -> log.info("Contacting Open-Meteo API for HOURLY data: {}", url))
+                .retryWhen(Retry.backoff(Math.max(0, retrySettings.getMaxAttempts() - 1),
+                                Duration.ofMillis(retrySettings.getMinBackoffMs()))
+                        .maxBackoff(Duration.ofMillis(retrySettings.getMaxBackoffMs()))
+                        .filter(OpenMeteoReactiveClient::isTransient)
+                        .doBeforeRetry(signal -> log.warn("Attempt {} for {} failed, retrying: {}",
+                                signal.totalRetries() + 1, url, signal.failure().getMessage())))
+                .timeout(Duration.ofMillis(retrySettings.getDeadlineMs()))
+                .onErrorResume(e -> {
+                    if (e instanceof UpstreamQuotaExceededException) {
+                        return Mono.error(e);
+                    }
+                    if (e instanceof WebClientResponseException.TooManyRequests tooMany) {
+                        return Mono.error(quota.onUpstreamRejected(quotaExceeded(tooMany)));
+                    }
+                    if (isPoolExhausted(e)) {
+                        return Mono.error(new UpstreamBusyException("Too many concurrent calls to Open-Meteo, try again shortly."));
+                    }
+                    log.error("Error calling Open-Meteo API for hourly data: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    static boolean isTransient(Throwable e) {
+        if (e instanceof WebClientRequestException) {
+            // Waiting longer for a pooled connection only adds to the queue
+            return !isPoolExhausted(e);
+        }
+        return e instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+
+    /**
+     * Open-Meteo names the quota it enforced in the body and may send a Retry-After in seconds.
+     */
+    private static UpstreamQuotaExceededException quotaExceeded(WebClientResponseException e) {
+        long retryAfterSeconds = -1;
+        String retryAfter = e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                retryAfterSeconds = Long.parseLong(retryAfter.trim());
+            } catch (NumberFormatException ignored) {
+                // An HTTP date; the governor falls back to the reset of the window
+            }
+        }
+        String body = e.getResponseBodyAsString();
+        return new UpstreamQuotaExceededException(body.isEmpty() ? e.getMessage() : body, retryAfterSeconds);
+    }
+
+    /**
+     * Connect and read timeouts surface as Netty's own exceptions; a TimeoutException under a
+     * request error is the pool giving up on a free connection.
+     */
+    private static boolean isPoolExhausted(Throwable e) {
+        return e instanceof WebClientRequestException && e.getCause() instanceof TimeoutException;
+    }
+}
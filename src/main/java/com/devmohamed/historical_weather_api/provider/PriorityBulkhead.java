@@ -0,0 +1,177 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The upstream bulkhead: a limit on the calls in flight, and a bounded waiting line per
+ * {@link UpstreamPriority}. A freed slot goes to the longest-waiting interactive caller, and
+ * to a background caller only when no interactive one is waiting. A caller that finds its
+ * line full is turned away at once rather than joining an ever longer queue.
+ *
+ * <p>The limit may be changed at any time, e.g. by an {@link AdaptiveConcurrencyLimit}.
+ * Lowering it takes no slot back; it only holds new callers until enough calls completed.
+ */
+class PriorityBulkhead {
+
+    enum Admission { ACQUIRED, QUEUE_FULL, TIMED_OUT }
+
+    private final int[] maxQueued;
+
+    // A ReentrantLock rather than synchronized, so virtual threads never pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition[] turns;
+    private final int[] waiting = new int[UpstreamPriority.values().length];
+    private int limit;
+    private int inFlight;
+
+    PriorityBulkhead(int limit, int maxQueuedInteractive, int maxQueuedBackground) {
+        this.limit = limit;
+        this.maxQueued = new int[]{maxQueuedInteractive, maxQueuedBackground};
+        this.turns = new Condition[]{lock.newCondition(), lock.newCondition()};
+    }
+
+    /**
+     * Takes a slot, waiting at most {@code timeoutMs} for one behind the callers already waiting
+     * at the same or a higher priority.
+     */
+    Admission acquire(UpstreamPriority priority, long timeoutMs) throws InterruptedException {
+        int p = priority.ordinal();
+        lock.lock();
+        try {
+            if (inFlight < limit && !waitingAtOrAbove(p)) {
+                inFlight++;
+                return Admission.ACQUIRED;
+            }
+            if (waiting[p] >= maxQueued[p]) {
+                return Admission.QUEUE_FULL;
+            }
+            waiting[p]++;
+            try {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+                while (inFlight >= limit || waitingAbove(p)) {
+                    if (nanos <= 0) {
+                        return Admission.TIMED_OUT;
+                    }
+                    nanos = turns[p].awaitNanos(nanos);
+                }
+                inFlight++;
+                return Admission.ACQUIRED;
+            } finally {
+                waiting[p]--;
+                // A slot this caller was woken for but did not take goes to the next in line
+                if (inFlight < limit) {
+                    signalNext();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a slot only if one is free and nobody is waiting for it.
+     */
+    boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < limit && !waitingAtOrAbove(UpstreamPriority.BACKGROUND.ordinal())) {
+                inFlight++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the limit; a higher one lets waiting callers in at once.
+     */
+    void setLimit(int limit) {
+        lock.lock();
+        try {
+            boolean raised = limit > this.limit;
+            this.limit = limit;
+            // Each caller let in wakes the next one while slots are left, see acquire()
+            if (raised && inFlight < limit) {
+                signalNext();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int availablePermits() {
+        lock.lock();
+        try {
+            return Math.max(0, limit - inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getQueued() {
+        lock.lock();
+        try {
+            int queued = 0;
+            for (int count : waiting) {
+                queued += count;
+            }
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalNext() {
+        for (int p = 0; p < waiting.length; p++) {
+            if (waiting[p] > 0) {
+                turns[p].signal();
+                return;
+            }
+        }
+    }
+
+    private boolean waitingAbove(int priority) {
+        for (int p = 0; p < priority; p++) {
+            if (waiting[p] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean waitingAtOrAbove(int priority) {
+        return waitingAbove(priority) || waiting[priority] > 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.RangePlan;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits long date ranges into calendar month or year chunks. Chunks follow calendar
+ * boundaries, so they line up with the store's year files and identical chunks of
+ * overlapping requests can share one upstream call.
+ */
+@Component
+public class RangePlanner {
+
+    private final OpenMeteoProperties.Chunking settings;
+
+    @Autowired
+    public RangePlanner(OpenMeteoProperties properties) {
+        this.settings = properties.getChunking();
+    }
+
+    /**
+     * Plans how to fetch the given inclusive range.
+     *
+     * @return The plan, with a single WHOLE chunk for ranges that are not worth splitting.
+     */
+    public RangePlan plan(LocalDate start, LocalDate end) {
+        DateRange range = new DateRange(start, end);
+        int days = range.days();
+
+        RangePlan.Unit unit = RangePlan.Unit.WHOLE;
+        if (settings.isEnabled() && days > settings.getYearChunksAboveDays()) {
+            unit = RangePlan.Unit.YEAR;
+        } else if (settings.isEnabled() && days > settings.getMonthChunksAboveDays()) {
+            unit = RangePlan.Unit.MONTH;
+        }
+        if (unit == RangePlan.Unit.WHOLE) {
+            return new RangePlan(unit, List.of(range), 1);
+        }
+
+        List<DateRange> chunks = new ArrayList<>();
+        LocalDate chunkStart = start;
+        while (!chunkStart.isAfter(end)) {
+            LocalDate next = unit == RangePlan.Unit.YEAR
+                    ? chunkStart.withDayOfYear(1).plusYears(1)
+                    : chunkStart.withDayOfMonth(1).plusMonths(1);
+            LocalDate chunkEnd = next.minusDays(1).isAfter(end) ? end : next.minusDays(1);
+            chunks.add(new DateRange(chunkStart, chunkEnd));
+            chunkStart = next;
+        }
+        int parallelism = Math.min(Math.max(1, settings.getMaxParallel()), chunks.size());
+        return new RangePlan(unit, chunks, parallelism);
+    }
+
+    /**
+     * Plans the range like {@link #plan(LocalDate, LocalDate)}, then moves every chunk boundary
+     * forward to the next start of a bucket, so no bucket spans two chunks. Month and year
+     * chunks already line up with every unit but weeks.
+     */
+    public RangePlan plan(LocalDate start, LocalDate end, SeriesBuckets.Unit alignTo) {
+        RangePlan plan = plan(start, end);
+        List<DateRange> chunks = plan.getChunks();
+        if (chunks.size() == 1) {
+            return plan;
+        }
+
+        // 1. The first chunk keeps its start; later ones start at their first bucket boundary
+        List<LocalDate> starts = new ArrayList<>(chunks.size());
+        starts.add(start);
+        for (int i = 1; i < chunks.size(); i++) {
+            LocalDate chunkStart = chunks.get(i).start();
+            while (!chunkStart.isAfter(end) && !SeriesBuckets.isBucketStart(alignTo, chunkStart)) {
+                chunkStart = chunkStart.plusDays(1);
+            }
+            if (!chunkStart.isAfter(end) && chunkStart.isAfter(starts.get(starts.size() - 1))) {
+                starts.add(chunkStart);
+            }
+        }
+
+        // 2. Each chunk ends the day before the next one starts
+        List<DateRange> aligned = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            LocalDate chunkEnd = i + 1 < starts.size() ? starts.get(i + 1).minusDays(1) : end;
+            aligned.add(new DateRange(starts.get(i), chunkEnd));
+        }
+        return new RangePlan(plan.getUnit(), aligned, Math.min(plan.getParallelism(), aligned.size()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.RangePlan;
+import com.devmohamed.historical_weather_api.model.RangeSummary;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link WeatherStatService} for the reactive profile. Ranges are
+ * planned the same way and answered from the rollup index and the local days where possible;
+ * chunks that have to be fetched are requested through {@link OpenMeteoReactiveClient} with
+ * at most {@code plan.getParallelism()} in flight, without holding a thread while they wait.
+ *
+ * <p>A chunk is fetched whole as soon as one of its days is missing locally, rather than
+ * only its missing runs as {@link HourlySeriesService} does.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWeatherStatService {
+
+    private final OpenMeteoReactiveClient openMeteoReactiveClient;
+    private final HourlySeriesService hourlySeriesService;
+    private final HourlyRollupIndex rollupIndex;
+    private final RangePlanner rangePlanner;
+    private final HotLocationTracker hotLocations;
+
+    @Autowired
+    public ReactiveWeatherStatService(OpenMeteoReactiveClient openMeteoReactiveClient,
+                                      HourlySeriesService hourlySeriesService,
+                                      HourlyRollupIndex rollupIndex,
+                                      RangePlanner rangePlanner,
+                                      HotLocationTracker hotLocations) {
+        this.openMeteoReactiveClient = openMeteoReactiveClient;
+        this.hourlySeriesService = hourlySeriesService;
+        this.rollupIndex = rollupIndex;
+        this.rangePlanner = rangePlanner;
+        this.hotLocations = hotLocations;
+    }
+
+    /**
+     * Calculates every temperature statistic for a given location and date range, together
+     * with the plan used to fetch it.
+     *
+     * @param latitude   Latitude for the location.
+     * @param longitude  Longitude for the location.
+     * @param startDate  Start date in "YYYY-MM-DD" format.
+     * @param endDate    End date in "YYYY-MM-DD" format.
+     * @return The aggregate and plan, or an empty Mono if no temperature data is available.
+     */
+    public Mono<RangeSummary> getRangeSummary(double latitude, double longitude, String startDate, String endDate) {
+        return Mono.defer(() -> {
+            // 1. Plan the range; Open-Meteo rejects ranges we cannot parse as well
+            RangePlan plan = plan(startDate, endDate);
+            if (plan == null) {
+                return Mono.empty();
+            }
+            Location location = Location.of(latitude, longitude);
+            List<DateRange> chunks = plan.getChunks();
+            hotLocations.record(location, chunks.get(0).start(), chunks.get(chunks.size() - 1).end());
+
+            // 2. A fully indexed range is answered at once, otherwise the chunks are aggregated in date order
+            SeriesAggregate indexed = chunks.size() > 1
+                    ? rollupIndex.query(location, chunks.get(0).start(), chunks.get(chunks.size() - 1).end())
+                    : null;
+            Mono<SeriesAggregate> aggregate = indexed != null ? Mono.just(indexed) : Flux.fromIterable(chunks)
+                    .flatMapSequential(chunk -> aggregateRange(location, chunk), plan.getParallelism())
+                    .collectList()
+                    // A chunk without data fails the whole range, as in the blocking service
+                    .filter(partials -> partials.size() == chunks.size())
+                    .map(ReactiveWeatherStatService::mergeInOrder);
+
+            return aggregate.filter(total -> !total.isEmpty()).map(total -> new RangeSummary(total, plan));
+        });
+    }
+
+    /**
+     * Calculates every temperature statistic for a given location and date range.
+     *
+     * @return The aggregate, or an empty Mono if no temperature data is available.
+     */
+    public Mono<SeriesAggregate> getTemperatureSummary(
+            double latitude, double longitude, String startDate, String endDate) {
+        return getRangeSummary(latitude, longitude, startDate, endDate).map(RangeSummary::getAggregate);
+    }
+
+    /**
+     * Answers one chunk from the rollup index or the local days, or fetches it and writes it back.
+     */
+    private Mono<SeriesAggregate> aggregateRange(Location location, DateRange range) {
+        return Mono.defer(() -> {
+            SeriesAggregate indexed = rollupIndex.query(location, range.start(), range.end());
+            if (indexed != null) {
+                return Mono.just(indexed);
+            }
+            HourlySeries local = hourlySeriesService.getLocalSeries(location, range.start(), range.end());
+            if (local != null) {
+                rollupIndex.index(location, local);
+                return Mono.just(SeriesAggregate.of(local));
+            }
+            return openMeteoReactiveClient.getHourlyTemperature(location.latitude(), location.longitude(),
+                            range.start().toString(), range.end().toString())
+                    // Writing back may force a store file to disk, which must not happen on an event loop
+                    .publishOn(Schedulers.boundedElastic())
+                    .mapNotNull(response -> hourlySeriesService.acceptFetched(location, range.start(), range.end(), response))
+                    .map(series -> {
+                        if (series.getValues().length == range.days() * HourlySeries.HOURS_PER_DAY) {
+                            rollupIndex.index(location, series);
+                        }
+                        return SeriesAggregate.of(series);
+                    });
+        });
+    }
+
+    private static SeriesAggregate mergeInOrder(List<SeriesAggregate> partials) {
+        SeriesAggregate total = new SeriesAggregate();
+        for (SeriesAggregate partial : partials) {
+            total.merge(partial);
+        }
+        return total;
+    }
+
+    private RangePlan plan(String startDate, String endDate) {
+        try {
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = LocalDate.parse(endDate);
+            return end.isBefore(start) ? null : rangePlanner.plan(start, end);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Minimal blocking client for the Redis serialization protocol (RESP2), with a bounded pool
+ * of connections. It knows only what the shared day cache needs: pipelined commands with
+ * binary arguments, and one long-lived subscription. Connections are opened lazily; one that
+ * fails is closed rather than returned to the pool.
+ *
+ * <p>Replies are returned as {@code byte[]} (bulk strings, null when absent), {@link Long}
+ * (integers), {@link String} (simple strings) or {@code List<Object>} (arrays). An error
+ * reply is thrown as an {@link IOException}.
+ */
+final class RespClient implements AutoCloseable {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final OpenMeteoProperties.SharedCache settings;
+    private final Semaphore permits;
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final ArrayDeque<Connection> idle = new ArrayDeque<>();
+    private volatile Connection subscription;
+    private volatile boolean closed;
+
+    RespClient(OpenMeteoProperties.SharedCache settings) {
+        this.settings = settings;
+        this.permits = new Semaphore(Math.max(1, settings.getMaxConnections()));
+    }
+
+    /**
+     * Sends the commands in one write and reads their replies in order.
+     */
+    List<Object> pipeline(List<byte[][]> commands) throws IOException {
+        if (closed) {
+            throw new IOException("Client is closed");
+        }
+        try {
+            if (!permits.tryAcquire(settings.getCommandTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("No free connection within " + settings.getCommandTimeoutMs() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection", e);
+        }
+        Connection connection = null;
+        try {
+            connection = borrow();
+            for (byte[][] command : commands) {
+                connection.write(command);
+            }
+            connection.out.flush();
+            List<Object> replies = new ArrayList<>(commands.size());
+            IOException error = null;
+            for (int i = 0; i < commands.size(); i++) {
+                // Every reply is read, even after an error reply, so the connection stays in sync
+                Object reply = connection.read();
+                if (reply instanceof RespError e && error == null) {
+                    error = new IOException(e.message());
+                }
+                replies.add(reply);
+            }
+            release(connection);
+            connection = null;
+            if (error != null) {
+                throw error;
+            }
+            return replies;
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+            permits.release();
+        }
+    }
+
+    /**
+     * Subscribes to the channel and hands every message to {@code listener} until the
+     * connection fails or the client is closed. Runs on the calling thread.
+     *
+     * @param onSubscribed Run once the server confirmed the subscription.
+     */
+    void subscribe(byte[] channel, Runnable onSubscribed, Consumer<byte[]> listener) throws IOException {
+        try (Connection connection = open(0)) {
+            subscription = connection;
+            if (closed) {
+                return;
+            }
+            connection.write(new byte[][]{bytes("SUBSCRIBE"), channel});
+            connection.out.flush();
+            while (!closed) {
+                if (connection.read() instanceof List<?> message && message.size() == 3
+                        && message.get(0) instanceof byte[] kind) {
+                    String type = new String(kind, StandardCharsets.US_ASCII);
+                    if ("subscribe".equals(type)) {
+                        onSubscribed.run();
+                    } else if ("message".equals(type) && message.get(2) instanceof byte[] payload) {
+                        listener.accept(payload);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        // Unblocks the subscriber waiting for its next message
+        Connection subscribed = subscription;
+        if (subscribed != null) {
+            subscribed.close();
+        }
+        idleLock.lock();
+        try {
+            for (Connection connection : idle) {
+                connection.close();
+            }
+            idle.clear();
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Connection borrow() throws IOException {
+        idleLock.lock();
+        try {
+            Connection connection = idle.poll();
+            if (connection != null) {
+                return connection;
+            }
+        } finally {
+            idleLock.unlock();
+        }
+        return open((int) settings.getCommandTimeoutMs());
+    }
+
+    private void release(Connection connection) {
+        idleLock.lock();
+        try {
+            if (closed) {
+                connection.close();
+            } else {
+                idle.push(connection);
+            }
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    /**
+     * Connects, authenticates and selects the database.
+     *
+     * @param readTimeoutMs Socket read timeout; 0 waits forever, as a subscription does.
+     */
+    private Connection open(int readTimeoutMs) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(settings.getHost(), settings.getPort()),
+                    (int) settings.getConnectTimeoutMs());
+            socket.setSoTimeout(readTimeoutMs);
+            Connection connection = new Connection(socket);
+            if (!settings.getPassword().isEmpty()) {
+                connection.call(bytes("AUTH"), bytes(settings.getPassword()));
+            }
+            if (settings.getDatabase() != 0) {
+                connection.call(bytes("SELECT"), bytes(Integer.toString(settings.getDatabase())));
+            }
+            return connection;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private record RespError(String message) {
+    }
+
+    private static final class Connection implements AutoCloseable {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        void call(byte[]... command) throws IOException {
+            write(command);
+            out.flush();
+            if (read() instanceof RespError e) {
+                throw new IOException(e.message());
+            }
+        }
+
+        void write(byte[][] command) throws IOException {
+            out.write('*');
+            out.write(bytes(Integer.toString(command.length)));
+            out.write(CRLF);
+            for (byte[] argument : command) {
+                out.write('$');
+                out.write(bytes(Integer.toString(argument.length)));
+                out.write(CRLF);
+                out.write(argument);
+                out.write(CRLF);
+            }
+        }
+
+        Object read() throws IOException {
+            int type = in.read();
+            if (type < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+            String line = readLine();
+            switch (type) {
+                case '+':
+                    return line;
+                case '-':
+                    return new RespError(line);
+                case ':':
+                    return Long.parseLong(line);
+                case '$': {
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] value = in.readNBytes(length);
+                    if (value.length < length || in.read() != '\r' || in.read() != '\n') {
+                        throw new EOFException("Truncated bulk string");
+                    }
+                    return value;
+                }
+                case '*': {
+                    int count = Integer.parseInt(line);
+                    if (count < 0) {
+                        return null;
+                    }
+                    List<Object> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        items.add(read());
+                    }
+                    return items;
+                }
+                default:
+                    throw new IOException("Unexpected reply type '" + (char) type + "'");
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b < 0) {
+                    throw new EOFException("Connection closed by the server");
+                }
+                line.append((char) b);
+            }
+            if (in.read() != '\n') {
+                throw new IOException("Malformed reply line");
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Nothing left to do with a connection we are dropping
+            }
+        }
+    }
+}
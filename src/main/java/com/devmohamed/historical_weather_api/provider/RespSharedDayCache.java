@@ -0,0 +1,285 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.SharedCacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SharedDayCache} on a Redis-protocol server (Redis, Valkey, KeyDB, ...).
+ *
+ * <p>Every (location, day) is one key, e.g. {@code hw:t2m:52.52:13.41:2024-01-01}, holding
+ * the day in the {@link DayValueCodec} format and set with a {@code PX} matching its expiry,
+ * so the server drops it when the in-process copies expire too. A range is read with one
+ * {@code MGET}, and the days fetched from Open-Meteo are written with one pipelined batch of
+ * {@code SET}s in the background, off the request path.
+ *
+ * <p>Invalidations delete the keys and are published on {@code <prefix>invalidate}; every
+ * replica subscribes to it and drops its in-process copies. A replica that misses a message
+ * while its subscription reconnects keeps its copy until that copy expires. Writes and deletes
+ * of one replica reach the server in the order they were made, and every replica deletes the
+ * keys again when told, so a write queued before an invalidation cannot bring the days back.
+ *
+ * <p>A failed or slow command is answered as a miss, and the tier is then skipped for
+ * {@code retry-after-ms}, so a down server costs one timeout rather than one per request.
+ */
+public class RespSharedDayCache implements SharedDayCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RespSharedDayCache.class);
+
+    private static final byte[] MGET = RespClient.bytes("MGET");
+    private static final byte[] SET = RespClient.bytes("SET");
+    private static final byte[] PX = RespClient.bytes("PX");
+    private static final byte[] DEL = RespClient.bytes("DEL");
+    private static final byte[] PUBLISH = RespClient.bytes("PUBLISH");
+
+    private final OpenMeteoProperties.SharedCache settings;
+    private final RespClient client;
+    private final byte[] channel;
+
+    // Writes of fetched days run here in order, so the request does not wait for them
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("shared-cache-writer").factory());
+    private final Thread subscriber;
+
+    private volatile InvalidationListener listener = (location, start, end) -> {
+    };
+    private volatile boolean subscribed;
+    private volatile boolean closed;
+    private volatile long downUntilMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public RespSharedDayCache(OpenMeteoProperties.SharedCache settings) {
+        this.settings = settings;
+        this.client = new RespClient(settings);
+        this.channel = RespClient.bytes(settings.getKeyPrefix() + "invalidate");
+        this.subscriber = Thread.ofVirtual().name("shared-cache-invalidations").start(this::listen);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * @return Whether invalidations published by other replicas are being received.
+     */
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    @Override
+    public int getDays(Location location, LocalDate start, boolean[] present, double[] target,
+                       long[] expiresAt, long now) {
+        // 1. One MGET for every day still missing
+        List<Integer> indexes = new ArrayList<>();
+        List<byte[]> command = new ArrayList<>();
+        command.add(MGET);
+        for (int i = 0; i < present.length; i++) {
+            if (!present[i]) {
+                indexes.add(i);
+                command.add(key(location, start.plusDays(i)));
+            }
+        }
+        if (indexes.isEmpty()) {
+            return 0;
+        }
+        if (isDown()) {
+            misses.add(indexes.size());
+            return 0;
+        }
+        List<?> values;
+        try {
+            values = (List<?>) client.pipeline(List.<byte[][]>of(command.toArray(byte[][]::new))).get(0);
+        } catch (IOException | RuntimeException e) {
+            failed("read", e);
+            misses.add(indexes.size());
+            return 0;
+        }
+
+        // 2. Only unexpired days in a known format count
+        int found = 0;
+        for (int k = 0; k < indexes.size(); k++) {
+            byte[] encoded = values.get(k) instanceof byte[] bytes ? bytes : null;
+            long expiry = DayValueCodec.expiresAt(encoded);
+            if (expiry > now) {
+                int i = indexes.get(k);
+                DayValueCodec.decode(encoded, target, i * HourlySeries.HOURS_PER_DAY);
+                present[i] = true;
+                expiresAt[i] = expiry;
+                found++;
+            }
+        }
+        hits.add(found);
+        misses.add(indexes.size() - found);
+        return found;
+    }
+
+    @Override
+    public void putDays(Location location, LocalDate start, double[] values, int fromDay, int days,
+                        long[] expiresAt, long now) {
+        if (isDown() || closed) {
+            return;
+        }
+        // Encoded now, as the caller may reuse the values array once this returns
+        List<byte[][]> commands = new ArrayList<>(days);
+        for (int i = fromDay; i < fromDay + days; i++) {
+            long ttl = expiresAt[i] - now;
+            if (ttl > 0) {
+                commands.add(new byte[][]{SET, key(location, start.plusDays(i)),
+                        DayValueCodec.encode(values, i * HourlySeries.HOURS_PER_DAY, expiresAt[i]),
+                        PX, RespClient.bytes(Long.toString(ttl))});
+            }
+        }
+        if (commands.isEmpty()) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                client.pipeline(commands);
+                writes.add(commands.size());
+            } catch (IOException | RuntimeException e) {
+                failed("write", e);
+            }
+        });
+    }
+
+    @Override
+    public void invalidate(Location location, LocalDate start, LocalDate end) {
+        // This replica is told at once, whether or not the server can be reached
+        listener.invalidated(location, start, end);
+        byte[] message = RespClient.bytes(Location.format(location.latitude()) + "," + Location.format(location.longitude())
+                + "," + start + "," + end);
+        List<byte[][]> commands = List.of(delete(location, start, end), new byte[][]{PUBLISH, channel, message});
+        try {
+            // Behind the writes this replica queued before, and waited for like any other command
+            writer.submit(() -> {
+                client.pipeline(commands);
+                return null;
+            }).get();
+        } catch (ExecutionException e) {
+            failed("invalidate", e.getCause() instanceof Exception cause ? cause : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failed("invalidate", e);
+        }
+    }
+
+    @Override
+    public void setInvalidationListener(InvalidationListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public SharedCacheStats getStats() {
+        return new SharedCacheStats(true, hits.sum(), misses.sum(), writes.sum(), errors.sum(), invalidations.sum());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        client.close();
+        subscriber.interrupt();
+        writer.shutdown();
+    }
+
+    private byte[][] delete(Location location, LocalDate start, LocalDate end) {
+        List<byte[]> delete = new ArrayList<>();
+        delete.add(DEL);
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            delete.add(key(location, day));
+        }
+        return delete.toArray(byte[][]::new);
+    }
+
+    private byte[] key(Location location, LocalDate day) {
+        return RespClient.bytes(settings.getKeyPrefix() + "t2m:" + Location.format(location.latitude())
+                + ":" + Location.format(location.longitude()) + ":" + day);
+    }
+
+    /**
+     * Keeps the subscription open, reconnecting after {@code retry-after-ms} when it fails.
+     */
+    private void listen() {
+        while (!closed) {
+            try {
+                client.subscribe(channel, () -> subscribed = true, this::onInvalidation);
+            } catch (IOException | RuntimeException e) {
+                if (!closed) {
+                    log.warn("Shared cache subscription lost, retrying in {} ms: {}", settings.getRetryAfterMs(), e.getMessage());
+                }
+            } finally {
+                subscribed = false;
+            }
+            try {
+                Thread.sleep(settings.getRetryAfterMs());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void onInvalidation(byte[] message) {
+        String[] parts = new String(message, StandardCharsets.UTF_8).split(",");
+        try {
+            Location location = Location.of(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]));
+            LocalDate start = LocalDate.parse(parts[2]);
+            LocalDate end = LocalDate.parse(parts[3]);
+            invalidations.increment();
+            listener.invalidated(location, start, end);
+            deleteAfterPendingWrites(location, start, end);
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException | DateTimeParseException e) {
+            log.warn("Ignoring malformed invalidation message: {}", new String(message, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Deletes the days once more behind the writes this replica still has queued, which the
+     * invalidating replica's delete may have overtaken.
+     */
+    private void deleteAfterPendingWrites(Location location, LocalDate start, LocalDate end) {
+        if (isDown() || closed) {
+            return;
+        }
+        byte[][] delete = delete(location, start, end);
+        writer.execute(() -> {
+            try {
+                client.pipeline(List.<byte[][]>of(delete));
+            } catch (IOException | RuntimeException e) {
+                failed("invalidate", e);
+            }
+        });
+    }
+
+    private boolean isDown() {
+        return System.currentTimeMillis() < downUntilMillis;
+    }
+
+    private void failed(String operation, Exception e) {
+        errors.increment();
+        if (!isDown()) {
+            log.warn("Shared cache {} failed, skipping the tier for {} ms: {}",
+                    operation, settings.getRetryAfterMs(), e.getMessage());
+        }
+        downUntilMillis = System.currentTimeMillis() + settings.getRetryAfterMs();
+    }
+}
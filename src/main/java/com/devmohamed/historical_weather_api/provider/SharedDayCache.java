@@ -0,0 +1,94 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.SharedCacheStats;
+
+import java.time.LocalDate;
+
+/**
+ * The tier of the day cache shared by all replicas, asked by {@link HourlyDayCache} for the
+ * days it misses. Implementations are an optimization only: they answer a failure as a miss
+ * and never throw on the request path.
+ *
+ * <p>A day is stored with an absolute expiry, decided by the in-process cache from its TTL
+ * policy, and is only returned before that time. The in-process copy of a day found here
+ * keeps the same expiry, so the two tiers expire a day together.
+ *
+ * <p>The Redis-protocol implementation is {@link RespSharedDayCache}; another one can be
+ * plugged in by declaring a bean of this type.
+ */
+public interface SharedDayCache extends AutoCloseable {
+
+    /**
+     * The tier that holds nothing, used while no shared cache is configured.
+     */
+    SharedDayCache NONE = new SharedDayCache() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public int getDays(Location location, LocalDate start, boolean[] present, double[] target,
+                           long[] expiresAt, long now) {
+            return 0;
+        }
+
+        @Override
+        public void putDays(Location location, LocalDate start, double[] values, int fromDay, int days,
+                            long[] expiresAt, long now) {
+        }
+
+        @Override
+        public void invalidate(Location location, LocalDate start, LocalDate end) {
+        }
+
+        @Override
+        public void setInvalidationListener(InvalidationListener listener) {
+        }
+
+        @Override
+        public SharedCacheStats getStats() {
+            return new SharedCacheStats(false, 0, 0, 0, 0, 0);
+        }
+    };
+
+    /**
+     * Told about ranges invalidated by any replica, including this one.
+     */
+    @FunctionalInterface
+    interface InvalidationListener {
+        void invalidated(Location location, LocalDate start, LocalDate end);
+    }
+
+    boolean isEnabled();
+
+    /**
+     * Copies the unexpired days of the range not yet flagged in {@code present} into
+     * {@code target}, flags them, and sets their expiry in {@code expiresAt}.
+     *
+     * @param now The current time in epoch milliseconds.
+     * @return The number of days found.
+     */
+    int getDays(Location location, LocalDate start, boolean[] present, double[] target, long[] expiresAt, long now);
+
+    /**
+     * Stores {@code days} consecutive days taken from {@code values}, starting at
+     * {@code fromDay}, each until its expiry in {@code expiresAt}. May return before the
+     * days are written.
+     */
+    void putDays(Location location, LocalDate start, double[] values, int fromDay, int days, long[] expiresAt, long now);
+
+    /**
+     * Removes the days of the inclusive range and tells every replica's listener.
+     */
+    void invalidate(Location location, LocalDate start, LocalDate end);
+
+    void setInvalidationListener(InvalidationListener listener);
+
+    SharedCacheStats getStats();
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,110 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls that share a key into one execution.
+ * The first caller for a key runs the call on its own thread; everyone who
+ * arrives while it is in flight waits for the same future and receives the
+ * same value, or the same exception.
+ *
+ * <p>Calls that fetch a set of columns for their key (see {@link #execute(Object, Set, Function)})
+ * are only joined by callers needing no column beyond that set. Any other caller starts a call
+ * for the union of both sets and takes the key over, so everyone arriving after it joins the
+ * wider call.
+ *
+ * @param <K> The key type, which must implement equals and hashCode.
+ * @param <V> The result type.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public V execute(K key, Supplier<V> call) {
+        return execute(key, Set.of(), columns -> call.get());
+    }
+
+    /**
+     * Runs {@code call} for the columns needed, or joins a call in flight for the key that
+     * fetches all of them.
+     *
+     * @param needs The columns the caller needs.
+     * @param call  Fetches the columns it is given, which hold at least {@code needs}.
+     */
+    public <C> V execute(K key, Set<C> needs, Function<Set<C>, V> call) {
+        while (true) {
+            Flight<V> existing = inFlight.get(key);
+            if (existing != null && existing.columns().containsAll(needs)) {
+                coalesced.increment();
+                return await(existing.future());
+            }
+
+            Set<C> columns = new HashSet<>(needs);
+            if (existing != null) {
+                @SuppressWarnings("unchecked")
+                Set<C> wider = (Set<C>) existing.columns();
+                columns.addAll(wider);
+            }
+            Flight<V> mine = new Flight<>(columns, new CompletableFuture<>());
+            boolean started = existing == null
+                    ? inFlight.putIfAbsent(key, mine) == null
+                    : inFlight.replace(key, existing, mine);
+            if (!started) {
+                // Another caller got there first, look again at what it fetches
+                continue;
+            }
+
+            executions.increment();
+            try {
+                V value = call.apply(columns);
+                mine.future().complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                mine.future().completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Rethrow what the leader saw, so every waiter fails the same way
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Flight<V>(Set<?> columns, CompletableFuture<V> future) {
+    }
+}
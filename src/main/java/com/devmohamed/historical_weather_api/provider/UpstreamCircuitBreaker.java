@@ -0,0 +1,213 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-based circuit breaker over the last {@code window-size} upstream calls.
+ *
+ * <p>While CLOSED every call goes through and its outcome is recorded. Once the window
+ * holds at least {@code min-calls} outcomes and the failure rate or the slow-call rate
+ * reaches its threshold, the breaker turns OPEN and refuses calls for {@code open-ms}.
+ * It then turns HALF_OPEN and lets {@code half-open-calls} trial calls through: if all of
+ * them succeed in time it closes with an empty window, otherwise it opens again.
+ */
+class UpstreamCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamCircuitBreaker.class);
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final OpenMeteoProperties.CircuitBreaker settings;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    // A ReentrantLock rather than synchronized, so virtual threads never pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final byte[] outcomes;
+    private int next;
+    private int size;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private long openUntilNanos;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+
+    UpstreamCircuitBreaker(OpenMeteoProperties.CircuitBreaker settings) {
+        this.settings = settings;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(settings.getSlowCallMs());
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(settings.getOpenMs());
+        this.outcomes = new byte[Math.max(1, settings.getWindowSize())];
+    }
+
+    /**
+     * Asks to make one call. Every permitted call must be followed by {@link #onResult}
+     * or, if it never went out, {@link #onNotCalled}.
+     *
+     * @return true if the call may go out.
+     */
+    boolean tryAcquire() {
+        if (!settings.isEnabled()) {
+            return true;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openUntilNanos < 0) {
+                    shortCircuited.increment();
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialsStarted = 0;
+                trialsSucceeded = 0;
+                log.info("Upstream circuit half-open, letting {} trial calls through", settings.getHalfOpenCalls());
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialsStarted >= settings.getHalfOpenCalls()) {
+                    shortCircuited.increment();
+                    return false;
+                }
+                trialsStarted++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param failed       Whether the call threw.
+     * @param elapsedNanos How long the call took.
+     */
+    void onResult(boolean failed, long elapsedNanos) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        boolean slow = elapsedNanos >= slowCallNanos;
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED -> {
+                    record((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+                    if (size >= settings.getMinCalls()
+                            && (failures * 100L >= (long) settings.getFailureRatePercent() * size
+                            || slowCalls * 100L >= (long) settings.getSlowCallRatePercent() * size)) {
+                        log.warn("Upstream circuit opened: {} of the last {} calls failed, {} were slow",
+                                failures, size, slowCalls);
+                        open();
+                    }
+                }
+                case HALF_OPEN -> {
+                    if (failed || slow) {
+                        log.warn("Upstream circuit trial call {}, opening again", failed ? "failed" : "was slow");
+                        open();
+                    } else if (++trialsSucceeded >= settings.getHalfOpenCalls()) {
+                        log.info("Upstream circuit closed after {} successful trial calls", trialsSucceeded);
+                        close();
+                    }
+                }
+                // Calls permitted before the breaker opened may still finish, they change nothing
+                case OPEN -> {
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a permission whose call never went out, e.g. because the bulkhead was full.
+     */
+    void onNotCalled() {
+        if (!settings.isEnabled() || state != State.HALF_OPEN) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && trialsStarted > 0) {
+                trialsStarted--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    State getState() {
+        return state;
+    }
+
+    /**
+     * @return Whole seconds until trial calls are let through, at least 1.
+     */
+    long getRetryAfterSeconds() {
+        lock.lock();
+        try {
+            long remaining = openUntilNanos - System.nanoTime();
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getOpened() {
+        return opened.sum();
+    }
+
+    long getShortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    private void record(byte outcome) {
+        if (size == outcomes.length) {
+            byte evicted = outcomes[next];
+            if ((evicted & FAILED) != 0) {
+                failures--;
+            }
+            if ((evicted & SLOW) != 0) {
+                slowCalls--;
+            }
+        } else {
+            size++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        if ((outcome & FAILED) != 0) {
+            failures++;
+        }
+        if ((outcome & SLOW) != 0) {
+            slowCalls++;
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntilNanos = System.nanoTime() + openNanos;
+        opened.increment();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        size = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
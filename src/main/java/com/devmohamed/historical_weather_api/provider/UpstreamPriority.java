@@ -0,0 +1,10 @@
+package com.devmohamed.historical_weather_api.provider;
+
+/**
+ * Who an upstream call is for. Interactive calls are answered to a waiting user and are
+ * admitted first; background calls (prefetch, batch) only get what they leave over.
+ */
+public enum UpstreamPriority {
+    INTERACTIVE,
+    BACKGROUND
+}
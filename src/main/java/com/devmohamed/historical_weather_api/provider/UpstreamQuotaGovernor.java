@@ -0,0 +1,329 @@
+package com.devmohamed.historical_weather_api.provider;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.model.QuotaStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps upstream calls within Open-Meteo's per-minute, per-hour and per-day quotas with one
+ * token bucket per window, each refilled continuously at its limit per window. A call takes
+ * its cost from every bucket at once or from none, and is refused rather than queued when
+ * one of them runs short, with the time until it would fit as its Retry-After.
+ *
+ * <p>Background calls (prefetch, batch) stop at {@code background-reserve-percent} of each
+ * bucket, so the last tokens of a window always go to users waiting for an answer.
+ *
+ * <p>A call Open-Meteo answers with 429 all the same (another client shares our address,
+ * or the limits changed) empties the window it names and blocks it until that window resets.
+ */
+@Service
+public class UpstreamQuotaGovernor {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamQuotaGovernor.class);
+
+    public enum Window { MINUTE, HOUR, DAY }
+
+    private final OpenMeteoProperties.Quota settings;
+    private final Clock clock;
+
+    // A ReentrantLock rather than synchronized, so virtual threads never pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Bucket[] buckets;
+
+    private final LongAdder[] shed = {new LongAdder(), new LongAdder()};
+    private final LongAdder upstreamRejections = new LongAdder();
+
+    @Autowired
+    public UpstreamQuotaGovernor(OpenMeteoProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a governor whose meters are only visible through {@link #getStats()}.
+     */
+    public UpstreamQuotaGovernor(OpenMeteoProperties properties) {
+        this(properties, new SimpleMeterRegistry(), Clock.systemUTC());
+    }
+
+    public UpstreamQuotaGovernor(OpenMeteoProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.settings = properties.getQuota();
+        this.clock = clock;
+        long now = clock.millis();
+        this.buckets = new Bucket[]{
+                new Bucket(settings.getPerMinute(), TimeUnit.MINUTES.toMillis(1), now),
+                new Bucket(settings.getPerHour(), TimeUnit.HOURS.toMillis(1), now),
+                new Bucket(settings.getPerDay(), TimeUnit.DAYS.toMillis(1), now)};
+        registerMeters(meterRegistry);
+    }
+
+    /**
+     * How many calls Open-Meteo counts a request as: one per location, and for a range longer
+     * than {@code days-per-call}, one per {@code days-per-call} days, pro rata.
+     */
+    public double cost(int locations, String startDate, String endDate) {
+        long days;
+        try {
+            days = ChronoUnit.DAYS.between(LocalDate.parse(startDate), LocalDate.parse(endDate)) + 1;
+        } catch (DateTimeParseException e) {
+            days = 1;
+        }
+        return locations * Math.max(1.0, (double) days / Math.max(1, settings.getDaysPerCall()));
+    }
+
+    /**
+     * Takes {@code cost} from every window.
+     *
+     * @return What was taken, to hand back to {@link #refund} if the call never goes out.
+     * @throws UpstreamQuotaExceededException If a window cannot afford it right now.
+     */
+    public Grant acquire(double cost, UpstreamPriority priority) {
+        double[] taken = new double[buckets.length];
+        long waitMillis = take(cost, priority, taken);
+        if (waitMillis > 0) {
+            shed[priority.ordinal()].increment();
+            throw new UpstreamQuotaExceededException(
+                    "Open-Meteo request quota used up, try again later.", toRetryAfterSeconds(waitMillis));
+        }
+        return new Grant(taken);
+    }
+
+    /**
+     * Takes {@code cost} from every window if they can afford it, without counting a refusal.
+     *
+     * @return What was taken, or null if a window cannot afford it right now.
+     */
+    public Grant tryAcquire(double cost, UpstreamPriority priority) {
+        double[] taken = new double[buckets.length];
+        return take(cost, priority, taken) == 0 ? new Grant(taken) : null;
+    }
+
+    /**
+     * Gives back exactly the tokens taken for a call that never went out.
+     */
+    public void refund(Grant grant) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            long now = clock.millis();
+            for (int i = 0; i < buckets.length; i++) {
+                Bucket bucket = buckets[i];
+                if (bucket.limit > 0) {
+                    bucket.refill(now);
+                    bucket.tokens = Math.min(bucket.limit, bucket.tokens + grant.taken[i]);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that Open-Meteo answered 429: the window its message names (the minute if none)
+     * is emptied and blocked until it resets, or for the Retry-After Open-Meteo sent.
+     *
+     * @param rejection What the client threw, carrying Open-Meteo's message and Retry-After (-1 if none).
+     * @return The exception to hand the caller, with the Retry-After of the blocked window.
+     */
+    public UpstreamQuotaExceededException onUpstreamRejected(UpstreamQuotaExceededException rejection) {
+        upstreamRejections.increment();
+        String reason = rejection.getMessage() == null ? "" : rejection.getMessage().toLowerCase(Locale.ROOT);
+        Window window = reason.contains("daily") ? Window.DAY
+                : reason.contains("hourly") ? Window.HOUR : Window.MINUTE;
+        long now = clock.millis();
+        long blockedUntil = rejection.getRetryAfterSeconds() > 0
+                ? now + TimeUnit.SECONDS.toMillis(rejection.getRetryAfterSeconds())
+                : nextReset(window, now);
+        log.warn("Open-Meteo refused a call over its {} quota, holding calls for {} s: {}",
+                window.name().toLowerCase(Locale.ROOT), toRetryAfterSeconds(blockedUntil - now), rejection.getMessage());
+        lock.lock();
+        try {
+            Bucket bucket = buckets[window.ordinal()];
+            bucket.refill(now);
+            bucket.tokens = 0;
+            bucket.blockedUntil = Math.max(bucket.blockedUntil, blockedUntil);
+        } finally {
+            lock.unlock();
+        }
+        return new UpstreamQuotaExceededException("Open-Meteo request quota used up, try again later.",
+                toRetryAfterSeconds(blockedUntil - now));
+    }
+
+    /**
+     * @return The calls left in the window, rounded down; the limit while quotas are off.
+     */
+    public long getRemaining(Window window) {
+        Bucket bucket = buckets[window.ordinal()];
+        if (!settings.isEnabled() || bucket.limit <= 0) {
+            return Math.max(0, (long) bucket.limit);
+        }
+        lock.lock();
+        try {
+            long now = clock.millis();
+            bucket.refill(now);
+            return now < bucket.blockedUntil ? 0 : (long) bucket.tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public QuotaStats getStats() {
+        return new QuotaStats(settings.isEnabled(), getRemaining(Window.MINUTE), getRemaining(Window.HOUR),
+                getRemaining(Window.DAY), shed[UpstreamPriority.INTERACTIVE.ordinal()].sum(),
+                shed[UpstreamPriority.BACKGROUND.ordinal()].sum(), upstreamRejections.sum());
+    }
+
+    /**
+     * @param taken Receives what was taken from each window, in {@link Window} order.
+     * @return 0 if the cost was taken from every window, otherwise the milliseconds until
+     * every window could afford it, and nothing is taken.
+     */
+    private long take(double cost, UpstreamPriority priority, double[] taken) {
+        if (!settings.isEnabled()) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            // 1. Check every window first, so a refused call takes nothing from any of them
+            long now = clock.millis();
+            long waitMillis = 0;
+            for (Bucket bucket : buckets) {
+                if (bucket.limit > 0) {
+                    bucket.refill(now);
+                    waitMillis = Math.max(waitMillis, bucket.waitMillis(cost, floor(bucket, priority), now));
+                }
+            }
+            if (waitMillis > 0) {
+                return waitMillis;
+            }
+
+            // 2. Every window can afford it
+            for (int i = 0; i < buckets.length; i++) {
+                Bucket bucket = buckets[i];
+                if (bucket.limit > 0) {
+                    taken[i] = bucket.capped(cost, floor(bucket, priority));
+                    bucket.tokens -= taken[i];
+                }
+            }
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double floor(Bucket bucket, UpstreamPriority priority) {
+        return priority == UpstreamPriority.BACKGROUND
+                ? bucket.limit * Math.clamp(settings.getBackgroundReservePercent(), 0, 100) / 100.0
+                : 0;
+    }
+
+    /**
+     * Open-Meteo counts its windows by the clock, in UTC.
+     */
+    private static long nextReset(Window window, long nowMillis) {
+        Instant now = Instant.ofEpochMilli(nowMillis);
+        Instant reset = switch (window) {
+            case MINUTE -> now.truncatedTo(ChronoUnit.MINUTES).plus(1, ChronoUnit.MINUTES);
+            case HOUR -> now.truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+            case DAY -> now.atZone(ZoneOffset.UTC).toLocalDate().plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        };
+        return reset.toEpochMilli();
+    }
+
+    private static long toRetryAfterSeconds(long millis) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(millis + 999));
+    }
+
+    private void registerMeters(MeterRegistry registry) {
+        for (Window window : Window.values()) {
+            Gauge.builder("openmeteo.quota.remaining", this, governor -> governor.getRemaining(window))
+                    .description("Upstream calls left in the quota window")
+                    .tag("window", window.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        for (UpstreamPriority priority : UpstreamPriority.values()) {
+            FunctionCounter.builder("openmeteo.upstream.shed", shed[priority.ordinal()], LongAdder::sum)
+                    .description("Upstream calls refused before going out")
+                    .tag("reason", "quota")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        FunctionCounter.builder("openmeteo.quota.upstream.rejections", upstreamRejections, LongAdder::sum)
+                .description("Calls Open-Meteo answered with 429 Too Many Requests")
+                .register(registry);
+    }
+
+    /**
+     * The tokens one call took from each window. A call costing more than a window can hold
+     * takes less than its cost there, so a refund must give back these amounts, not the cost.
+     */
+    public static final class Grant {
+
+        private final double[] taken;
+
+        private Grant(double[] taken) {
+            this.taken = taken;
+        }
+    }
+
+    /**
+     * One quota window. Only touched under the governor's lock.
+     */
+    private static final class Bucket {
+
+        private final double limit;
+        private final double tokensPerMilli;
+        private double tokens;
+        private long refilledAt;
+        private long blockedUntil;
+
+        Bucket(int limit, long windowMillis, long now) {
+            this.limit = limit;
+            this.tokensPerMilli = (double) limit / windowMillis;
+            this.tokens = limit;
+            this.refilledAt = now;
+        }
+
+        void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(limit, tokens + (now - refilledAt) * tokensPerMilli);
+                refilledAt = now;
+            }
+        }
+
+        /**
+         * A call costing more than the bucket can ever hold above its floor needs it full.
+         */
+        double capped(double cost, double floor) {
+            return Math.min(cost, limit - floor);
+        }
+
+        long waitMillis(double cost, double floor, long now) {
+            if (now < blockedUntil) {
+                return blockedUntil - now;
+            }
+            double missing = capped(cost, floor) + floor - tokens;
+            return missing <= 1e-9 ? 0 : Math.max(1, (long) Math.ceil(missing / tokensPerMilli));
+        }
+    }
+}
@@ -1,60 +1,185 @@
 package com.devmohamed.historical_weather_api.provider;
 
-import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.HourlyData;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.MetricsSummary;
+import com.devmohamed.historical_weather_api.model.RangePlan;
+import com.devmohamed.historical_weather_api.model.RangeSummary;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Optional;
 import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 @Service
 public class WeatherStatService {
 
     private static final Logger log = LoggerFactory.getLogger(WeatherStatService.class);
 
-    private final OpenMeteoClientService openMeteoClientService;
+    private final HourlySeriesService hourlySeriesService;
+    private final HourlyRollupIndex rollupIndex;
+    private final RangePlanner rangePlanner;
+    private final HotLocationTracker hotLocations;
+
+    // Chunk fetches of long ranges and streams. Not the application task executor: a streamed
+    // body runs there and waits on these fetches, so sharing it could fill every thread with
+    // waiting bodies. The plan's parallelism and the upstream bulkhead bound what runs here.
+    private final ExecutorService chunkExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     /**
-     * Injects the existing client service so we can fetch data.
+     * Injects the series service, which reads through the day cache before calling Open-Meteo,
+     * the rollup index that answers indexed ranges without touching hourly values, and the
+     * tracker of the most requested locations.
      */
     @Autowired
-    public WeatherStatService(OpenMeteoClientService openMeteoClientService) {
-        this.openMeteoClientService = openMeteoClientService;
+    public WeatherStatService(HourlySeriesService hourlySeriesService,
+                              HourlyRollupIndex rollupIndex,
+                              RangePlanner rangePlanner,
+                              HotLocationTracker hotLocations) {
+        this.hourlySeriesService = hourlySeriesService;
+        this.rollupIndex = rollupIndex;
+        this.rangePlanner = rangePlanner;
+        this.hotLocations = hotLocations;
     }
 
     /**
-     * Calculates the maximum temperature from the hourly data for a given location and date range.
+     * Calculates every temperature statistic for a given location and date range.
+     * See {@link #getRangeSummary} for how the range is fetched.
      *
      * @param latitude   Latitude for the location.
      * @param longitude  Longitude for the location.
      * @param startDate  Start date in "YYYY-MM-DD" format.
      * @param endDate    End date in "YYYY-MM-DD" format.
-     * @return An OptionalDouble containing the max temperature, or an empty Optional if data is not available.
+     * @return The aggregate, or an empty Optional if no temperature data is available.
      */
-    public OptionalDouble getMaximumTemperature(
+    public Optional<SeriesAggregate> getTemperatureSummary(
+            double latitude, double longitude, String startDate, String endDate) {
+        return getRangeSummary(latitude, longitude, startDate, endDate).map(RangeSummary::getAggregate);
+    }
+
+    /**
+     * Calculates every temperature statistic for a given location and date range, together
+     * with the plan used to fetch it. Long ranges are split into calendar chunks that are
+     * fetched in parallel; each chunk is reduced to a small aggregate as soon as it arrives,
+     * so the hourly values of the whole range are never held at once.
+     *
+     * @param latitude   Latitude for the location.
+     * @param longitude  Longitude for the location.
+     * @param startDate  Start date in "YYYY-MM-DD" format.
+     * @param endDate    End date in "YYYY-MM-DD" format.
+     * @return The aggregate and plan, or an empty Optional if no temperature data is available.
+     */
+    public Optional<RangeSummary> getRangeSummary(
             double latitude, double longitude, String startDate, String endDate) {
 
-        // 1. Call your existing service to get the API response
-        HourlyForecastResponse response = openMeteoClientService.getHourlyTemperature(
-                latitude, longitude, startDate, endDate);
+        // 1. Plan the range; anything we cannot parse goes upstream as a single request
+        RangePlan plan = plan(startDate, endDate);
+        recordRequest(latitude, longitude, plan);
+        SeriesAggregate aggregate;
+        if (plan == null) {
+            aggregate = aggregateWhole(latitude, longitude, startDate, endDate);
+        } else if (plan.getChunks().size() == 1) {
+            aggregate = aggregateRange(latitude, longitude, plan.getChunks().get(0));
+        } else {
+            // A fully indexed range is answered at once, whatever its length
+            aggregate = rollupIndex.query(Location.of(latitude, longitude),
+                    plan.getChunks().get(0).start(), plan.getChunks().get(plan.getChunks().size() - 1).end());
+            if (aggregate == null) {
+                aggregate = aggregateChunks(latitude, longitude, plan);
+            }
+        }
+
+        // 2. Validate the result
+        if (aggregate == null) {
+            log.warn("No hourly data returned from client for lat: {}, lon: {}", latitude, longitude);
+            return Optional.empty();
+        }
+        if (plan == null) {
+            // The range was passed through unplanned, so there are no chunks to report
+            plan = new RangePlan(RangePlan.Unit.WHOLE, List.of(), 1);
+        }
+        return aggregate.isEmpty() ? Optional.empty() : Optional.of(new RangeSummary(aggregate, plan));
+    }
+
+    /**
+     * Calculates every statistic of several hourly variables for a location and date range.
+     * Long ranges are split into chunks as for {@link #getRangeSummary}. A chunk takes its
+     * temperatures from the rollup index or the local days when they hold it, and fetches
+     * every other variable with one upstream call, so asking for more variables adds columns
+     * to a call rather than calls.
+     *
+     * @param latitude  Latitude.
+     * @param longitude Longitude.
+     * @param start     First day of the range.
+     * @param end       Last day of the range, not before {@code start}.
+     * @param variables The variables to aggregate, at least one.
+     * @return One aggregate per variable, or an empty Optional if any of them has no data.
+     */
+    public Optional<MetricsSummary> getMetricsSummary(double latitude, double longitude, LocalDate start,
+                                                      LocalDate end, Set<HourlyVariable> variables) {
+        RangePlan plan = rangePlanner.plan(start, end);
+        recordRequest(latitude, longitude, plan);
+        Location location = Location.of(latitude, longitude);
 
-        // 2. Validate the response
-        if (response == null || response.getHourly() == null || response.getHourly().getTemperature2m() == null) {
+        // 1. Aggregate every chunk, each with at most one upstream call
+        List<Map<HourlyVariable, SeriesAggregate>> partials = mapChunks(plan,
+                chunk -> aggregateVariables(location, chunk, variables));
+        if (partials == null) {
             log.warn("No hourly data returned from client for lat: {}, lon: {}", latitude, longitude);
-            return OptionalDouble.empty();
+            return Optional.empty();
         }
 
-        List<Double> temperatures = response.getHourly().getTemperature2m();
+        // 2. Merge each variable in date order
+        Map<HourlyVariable, SeriesAggregate> totals = new EnumMap<>(HourlyVariable.class);
+        for (HourlyVariable variable : variables) {
+            SeriesAggregate total = new SeriesAggregate();
+            for (Map<HourlyVariable, SeriesAggregate> partial : partials) {
+                total.merge(partial.get(variable));
+            }
+            if (total.isEmpty()) {
+                return Optional.empty();
+            }
+            totals.put(variable, total);
+        }
+        return Optional.of(new MetricsSummary(totals, plan));
+    }
 
-        // 3. Calculate the maximum temperature using Java Streams
-        return temperatures.stream()
-                .filter(Objects::nonNull) // Filter out any null values in the list
-                .mapToDouble(Double::doubleValue)
-                .max();
+    /**
+     * Calculates the maximum temperature from the hourly data for a given location and date range.
+     *
+     * @param latitude   Latitude for the location.
+     * @param longitude  Longitude for the location.
+     * @param startDate  Start date in "YYYY-MM-DD" format.
+     * @param endDate    End date in "YYYY-MM-DD" format.
+     * @return An OptionalDouble containing the max temperature, or an empty Optional if data is not available.
+     */
+    public OptionalDouble getMaximumTemperature(
+            double latitude, double longitude, String startDate, String endDate) {
+        return statistic(latitude, longitude, startDate, endDate, SeriesAggregate::getMax);
     }
 
     /**
@@ -67,16 +192,7 @@ public class WeatherStatService {
      * @return An OptionalDouble containing the min temperature, or empty if no data.
      */
     public OptionalDouble getMinimumTemperature(double latitude, double longitude, String startDate, String endDate) {
-        List<Double> temperatures = getTemperatures(latitude, longitude, startDate, endDate);
-
-        if (temperatures.isEmpty()) {
-            return OptionalDouble.empty();
-        }
-
-        // Use Java Stream to find the minimum value
-        return temperatures.stream()
-                .mapToDouble(Double::doubleValue)
-                .min();
+        return statistic(latitude, longitude, startDate, endDate, SeriesAggregate::getMin);
     }
 
     /**
@@ -89,33 +205,225 @@ public class WeatherStatService {
      * @return An OptionalDouble containing the average temperature, or empty if no data.
      */
     public OptionalDouble getAverageTemperature(double latitude, double longitude, String startDate, String endDate) {
-        List<Double> temperatures = getTemperatures(latitude, longitude, startDate, endDate);
+        return statistic(latitude, longitude, startDate, endDate, SeriesAggregate::getMean);
+    }
+
+    /**
+     * Downsamples the hourly temperatures of a location and date range into calendar buckets.
+     * Long ranges are fetched by chunk in parallel like {@link #getRangeSummary}; the chunks
+     * are then bucketed in date order in a single pass over their values.
+     *
+     * @param latitude  Latitude.
+     * @param longitude Longitude.
+     * @param start     First day of the range.
+     * @param end       Last day of the range, not before {@code start}.
+     * @param unit      Bucket size.
+     * @return The buckets, or an empty Optional if no temperature data is available.
+     */
+    public Optional<SeriesBuckets> getBucketedSeries(double latitude, double longitude,
+                                                     LocalDate start, LocalDate end, SeriesBuckets.Unit unit) {
+        RangePlan plan = rangePlanner.plan(start, end);
+        recordRequest(latitude, longitude, plan);
+
+        // 1. Fetch the chunks through the day cache; each keeps its own start date
+        List<HourlySeries> parts = mapChunks(plan,
+                chunk -> hourlySeriesService.getHourlySeries(latitude, longitude,
+                        chunk.start().toString(), chunk.end().toString()));
+        if (parts == null) {
+            log.warn("No hourly data returned from client for lat: {}, lon: {}", latitude, longitude);
+            return Optional.empty();
+        }
+
+        // 2. Fold them into the buckets in date order
+        SeriesBuckets buckets = new SeriesBuckets(unit, start, end);
+        for (HourlySeries part : parts) {
+            buckets.accept(part);
+        }
+        return buckets.isEmpty() ? Optional.empty() : Optional.of(buckets);
+    }
+
+    /**
+     * Opens a stream over the hourly series of a location and date range, one chunk at a
+     * time in date order, for callers that write each chunk out as it arrives. Chunk
+     * boundaries are moved to bucket boundaries, so a bucket never spans two chunks.
+     *
+     * @param latitude  Latitude.
+     * @param longitude Longitude.
+     * @param start     First day of the range.
+     * @param end       Last day of the range, not before {@code start}.
+     * @param alignTo   Bucket unit the chunks must line up with; HOUR for raw values.
+     * @return The stream; the caller must close it.
+     */
+    public HourlySeriesStream openSeriesStream(double latitude, double longitude,
+                                               LocalDate start, LocalDate end, SeriesBuckets.Unit alignTo) {
+        RangePlan plan = rangePlanner.plan(start, end, alignTo);
+        recordRequest(latitude, longitude, plan);
+        return new HourlySeriesStream(plan.getChunks(),
+                chunk -> hourlySeriesService.getHourlySeries(latitude, longitude,
+                        chunk.start().toString(), chunk.end().toString()),
+                chunkExecutor, plan.getParallelism());
+    }
+
+    /**
+     * Helper method to pick a single statistic out of the summary.
+     */
+    private OptionalDouble statistic(double latitude, double longitude, String startDate, String endDate,
+                                     ToDoubleFunction<SeriesAggregate> extractor) {
+        return getTemperatureSummary(latitude, longitude, startDate, endDate)
+                .map(aggregate -> OptionalDouble.of(extractor.applyAsDouble(aggregate)))
+                .orElse(OptionalDouble.empty());
+    }
+
+    private void recordRequest(double latitude, double longitude, RangePlan plan) {
+        List<DateRange> chunks = plan == null ? List.of() : plan.getChunks();
+        hotLocations.record(Location.of(latitude, longitude),
+                chunks.isEmpty() ? null : chunks.get(0).start(),
+                chunks.isEmpty() ? null : chunks.get(chunks.size() - 1).end());
+    }
+
+    private RangePlan plan(String startDate, String endDate) {
+        try {
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = LocalDate.parse(endDate);
+            return end.isBefore(start) ? null : rangePlanner.plan(start, end);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fetches the range as one series and computes all statistics in a single pass.
+     */
+    private SeriesAggregate aggregateWhole(double latitude, double longitude, String startDate, String endDate) {
+        HourlySeries series = hourlySeriesService.getHourlySeries(latitude, longitude, startDate, endDate);
+        return series == null ? null : SeriesAggregate.of(series);
+    }
+
+    /**
+     * Answers a parsed range from the rollup index, or fetches it, computes its statistics
+     * in a single pass and indexes its immutable days for the next request.
+     */
+    private SeriesAggregate aggregateRange(double latitude, double longitude, DateRange range) {
+        Location location = Location.of(latitude, longitude);
+        SeriesAggregate indexed = rollupIndex.query(location, range.start(), range.end());
+        if (indexed != null) {
+            return indexed;
+        }
+        HourlySeries series = hourlySeriesService.getHourlySeries(
+                latitude, longitude, range.start().toString(), range.end().toString());
+        if (series == null) {
+            return null;
+        }
+        // A stale series is only a stand-in until the next refresh, it must not be indexed
+        if (!series.isStale() && series.getValues().length == range.days() * HourlySeries.HOURS_PER_DAY) {
+            rollupIndex.index(location, series);
+        }
+        return SeriesAggregate.of(series);
+    }
 
-        if (temperatures.isEmpty()) {
-            return OptionalDouble.empty();
+    /**
+     * Aggregates every variable over one chunk: the temperatures from the rollup index or the
+     * local days if they hold the chunk, the variables left from one upstream frame.
+     *
+     * @return The aggregates by variable, or null if the chunk could not be retrieved.
+     */
+    private Map<HourlyVariable, SeriesAggregate> aggregateVariables(Location location, DateRange range,
+                                                                    Set<HourlyVariable> variables) {
+        Map<HourlyVariable, SeriesAggregate> aggregates = new EnumMap<>(HourlyVariable.class);
+        Set<HourlyVariable> missing = EnumSet.copyOf(variables);
+        if (missing.contains(HourlyVariable.TEMPERATURE_2M)) {
+            SeriesAggregate local = rollupIndex.query(location, range.start(), range.end());
+            if (local == null) {
+                HourlySeries series = hourlySeriesService.getLocalSeries(location, range.start(), range.end());
+                local = series == null ? null : SeriesAggregate.of(series);
+            }
+            if (local != null) {
+                aggregates.put(HourlyVariable.TEMPERATURE_2M, local);
+                missing.remove(HourlyVariable.TEMPERATURE_2M);
+            }
+        }
+        if (missing.isEmpty()) {
+            return aggregates;
         }
 
-        // Use Java Stream to calculate the average
-        return temperatures.stream()
-                .mapToDouble(Double::doubleValue)
-                .average();
+        HourlyData frame = hourlySeriesService.getHourlyFrame(
+                location, range.start(), range.end(), missing, UpstreamPriority.INTERACTIVE);
+        if (frame == null) {
+            return null;
+        }
+        for (HourlyVariable variable : missing) {
+            aggregates.put(variable, SeriesAggregate.of(new HourlySeries(range.start(), frame.getColumn(variable))));
+        }
+        return aggregates;
     }
 
     /**
-     * Helper method to call the client and extract the temperature list.
+     * Fetches the chunks of the plan with at most {@code plan.getParallelism()} in flight and
+     * merges their partial aggregates in date order.
      *
-     * @return A list of temperatures, or an empty list if no data is found.
+     * @return The merged aggregate, or null if any chunk could not be retrieved.
      */
-    private List<Double> getTemperatures(double latitude, double longitude, String startDate, String endDate) {
-        // Call the client service
-        HourlyForecastResponse response = openMeteoClientService.getHourlyTemperature(
-                latitude, longitude, startDate, endDate);
+    private SeriesAggregate aggregateChunks(double latitude, double longitude, RangePlan plan) {
+        List<SeriesAggregate> partials = mapChunks(plan,
+                chunk -> aggregateRange(latitude, longitude, chunk));
+        if (partials == null) {
+            return null;
+        }
 
-        // Check for null or empty response
-        if (response == null || response.getHourly() == null || response.getHourly().getTemperature2m() == null) {
-            return Collections.emptyList(); // Return an empty list to avoid NullPointerExceptions
+        // Merge in date order so ties resolve exactly as in a single pass
+        SeriesAggregate total = new SeriesAggregate();
+        for (SeriesAggregate partial : partials) {
+            total.merge(partial);
         }
+        log.info("Aggregated {} {} chunks for lat: {}, lon: {} with parallelism {}",
+                plan.getChunks().size(), plan.getChunkUnit(), latitude, longitude, plan.getParallelism());
+        return total;
+    }
 
-        return response.getHourly().getTemperature2m();
+    /**
+     * Maps every chunk of the plan with at most {@code plan.getParallelism()} in flight.
+     *
+     * @return One result per chunk in date order, or null as soon as the mapper returned null
+     * for any chunk.
+     * @throws RuntimeException What the mapper threw for a chunk; no further chunks are started.
+     */
+    private <T> List<T> mapChunks(RangePlan plan, Function<DateRange, T> mapper) {
+        List<DateRange> chunks = plan.getChunks();
+        // One slot per chunk; workers write distinct slots and the join publishes them
+        List<T> results = new ArrayList<>(Collections.nCopies(chunks.size(), null));
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+
+        // Each worker takes the next chunk, so a slow chunk does not hold up the others
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[plan.getParallelism()];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = CompletableFuture.runAsync(() -> {
+                for (int i = next.getAndIncrement(); i < results.size() && !failed.get(); i = next.getAndIncrement()) {
+                    T result;
+                    try {
+                        result = mapper.apply(chunks.get(i));
+                    } catch (RuntimeException e) {
+                        // Stop the other workers too, the range has failed already
+                        failed.set(true);
+                        throw e;
+                    }
+                    if (result == null) {
+                        failed.set(true);
+                        return;
+                    }
+                    results.set(i, result);
+                }
+            }, chunkExecutor);
+        }
+        try {
+            CompletableFuture.allOf(workers).join();
+        } catch (CompletionException e) {
+            // Surface what the chunk threw, e.g. a full upstream bulkhead
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return failed.get() ? null : results;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+package com.devmohamed.historical_weather_api.config;
+
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calls a local stand-in for Open-Meteo through the OpenMeteoRestTemplate bean and checks
+ * what ends up in the meter registry.
+ */
+class OpenMeteoMetricsTest {
+
+    private static final String BODY = "{\"latitude\":52.52,\"longitude\":13.41,\"hourly\":{"
+            + "\"time\":[\"2024-01-01T00:00\",\"2024-01-01T01:00\",\"2024-01-01T02:00\"],"
+            + "\"temperature_2m\":[1.5,null,2.5]}}";
+
+    private HttpServer server;
+    private ApplicationContextRunner contextRunner;
+    private volatile String acceptEncoding;
+    private byte[] gzippedBody;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/forecast", exchange -> {
+            acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        gzippedBody = compressed.toByteArray();
+        server.createContext("/gzip", exchange -> {
+            acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, gzippedBody.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(gzippedBody);
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+
+        contextRunner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(RestTemplateAutoConfiguration.class))
+                .withUserConfiguration(OpenMeteoRestTemplateConfig.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues("client.open-meteo.base-url=http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testSuccessfulCallRecordsLatencyPayloadAndPoints() {
+        contextRunner.run(context -> {
+            // Arrange
+            RestTemplate restTemplate = context.getBean("OpenMeteoRestTemplate", RestTemplate.class);
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            // Act
+            HourlyForecastResponse response = restTemplate.getForObject("/forecast?latitude=52.52",
+                    HourlyForecastResponse.class);
+
+            // Assert
+            assertNotNull(response);
+            Timer latency = registry.get(OpenMeteoMetrics.UPSTREAM_LATENCY)
+                    .tag("outcome", "SUCCESS").tag("status", "200").timer();
+            assertEquals(1, latency.count());
+            DistributionSummary payload = registry.get(OpenMeteoMetrics.PAYLOAD_SIZE).summary();
+            assertEquals(BODY.getBytes(StandardCharsets.UTF_8).length, payload.totalAmount());
+            assertEquals(3, registry.get(OpenMeteoMetrics.HOURLY_POINTS).summary().totalAmount());
+            assertEquals(1, registry.get(OpenMeteoMetrics.DESERIALIZATION).timer().count());
+        });
+    }
+
+    @Test
+    void testGzipIsNegotiatedAndCountedBeforeAndAfterInflating() {
+        contextRunner.run(context -> {
+            // Arrange
+            RestTemplate restTemplate = context.getBean("OpenMeteoRestTemplate", RestTemplate.class);
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            // Act
+            HourlyForecastResponse response = restTemplate.getForObject("/gzip", HourlyForecastResponse.class);
+
+            // Assert: the wire size is the gzipped body, the payload size the inflated one
+            assertNotNull(response);
+            assertEquals(3, response.getHourly().getTimeCount());
+            assertTrue(acceptEncoding != null && acceptEncoding.contains("gzip"), acceptEncoding);
+            assertEquals(gzippedBody.length, registry.get(OpenMeteoMetrics.WIRE_SIZE).summary().totalAmount());
+            assertEquals(BODY.getBytes(StandardCharsets.UTF_8).length,
+                    registry.get(OpenMeteoMetrics.PAYLOAD_SIZE).summary().totalAmount());
+        });
+    }
+
+    @Test
+    void testCompressionCanBeSwitchedOff() {
+        contextRunner.withPropertyValues("client.open-meteo.compression=false").run(context -> {
+            // Arrange
+            RestTemplate restTemplate = context.getBean("OpenMeteoRestTemplate", RestTemplate.class);
+
+            // Act
+            restTemplate.getForObject("/forecast", HourlyForecastResponse.class);
+
+            // Assert
+            assertNull(acceptEncoding);
+        });
+    }
+
+    @Test
+    void testErrorStatusesAndConnectionFailuresAreTagged() {
+        contextRunner.run(context -> {
+            // Arrange
+            RestTemplate restTemplate = context.getBean("OpenMeteoRestTemplate", RestTemplate.class);
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            // Act
+            assertThrows(HttpClientErrorException.NotFound.class,
+                    () -> restTemplate.getForObject("/missing", HourlyForecastResponse.class));
+            server.stop(0);
+            assertThrows(Exception.class, () -> restTemplate.getForObject("/forecast", HourlyForecastResponse.class));
+
+            // Assert
+            assertEquals(1, registry.get(OpenMeteoMetrics.UPSTREAM_LATENCY)
+                    .tag("outcome", "CLIENT_ERROR").tag("status", "404").timer().count());
+            assertEquals(1, registry.get(OpenMeteoMetrics.UPSTREAM_LATENCY)
+                    .tag("status", "IO_ERROR").timer().count());
+            assertEquals(0, registry.get(OpenMeteoMetrics.DESERIALIZATION).timer().count());
+        });
+    }
+
+    @Test
+    void testOnlyBoundedMetersAreRegisteredPerCall() {
+        contextRunner.run(context -> {
+            // Arrange
+            RestTemplate restTemplate = context.getBean("OpenMeteoRestTemplate", RestTemplate.class);
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            int before = registry.getMeters().size();
+
+            // Act: different coordinates must not create new meters
+            for (int i = 0; i < 5; i++) {
+                restTemplate.getForObject("/forecast?latitude=" + i, HourlyForecastResponse.class);
+            }
+
+            // Assert
+            assertEquals(before, registry.getMeters().size());
+        });
+    }
+}
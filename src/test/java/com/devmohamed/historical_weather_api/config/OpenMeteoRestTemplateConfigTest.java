@@ -0,0 +1,63 @@
+package com.devmohamed.historical_weather_api.config;
+
+import com.devmohamed.historical_weather_api.model.ConnectionPoolStats;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoPoolMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the client.open-meteo settings actually reach the
+ * pooled HTTP client behind the OpenMeteoRestTemplate bean.
+ */
+class OpenMeteoRestTemplateConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(RestTemplateAutoConfiguration.class))
+            .withUserConfiguration(OpenMeteoRestTemplateConfig.class, OpenMeteoPoolMonitor.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues(
+                    "client.open-meteo.base-url=http://localhost:1",
+                    "client.open-meteo.pool.max-total=42",
+                    "client.open-meteo.pool.default-max-per-route=7",
+                    "client.open-meteo.connect-timeout-ms=1234");
+
+    @Test
+    void testPoolSettingsAreBound() {
+        contextRunner.run(context -> {
+            OpenMeteoProperties properties = context.getBean(OpenMeteoProperties.class);
+            assertEquals(42, properties.getPool().getMaxTotal());
+            assertEquals(1234, properties.getConnectTimeoutMs());
+
+            PoolingHttpClientConnectionManager manager = context.getBean(PoolingHttpClientConnectionManager.class);
+            assertEquals(42, manager.getMaxTotal());
+            assertEquals(7, manager.getDefaultMaxPerRoute());
+        });
+    }
+
+    @Test
+    void testRestTemplateUsesPooledClient() {
+        contextRunner.run(context -> {
+            RestTemplate restTemplate = context.getBean("OpenMeteoRestTemplate", RestTemplate.class);
+            assertInstanceOf(HttpComponentsClientHttpRequestFactory.class, restTemplate.getRequestFactory());
+        });
+    }
+
+    @Test
+    void testPoolStatsStartEmpty() {
+        contextRunner.run(context -> {
+            ConnectionPoolStats stats = context.getBean(OpenMeteoPoolMonitor.class).getStats();
+            assertEquals(0, stats.getLeased());
+            assertEquals(0, stats.getPending());
+            assertEquals(42, stats.getMax());
+        });
+    }
+}
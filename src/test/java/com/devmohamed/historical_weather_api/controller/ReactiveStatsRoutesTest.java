@@ -0,0 +1,209 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamBusyException;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import com.devmohamed.historical_weather_api.provider.BatchStatService;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesStream;
+import com.devmohamed.historical_weather_api.provider.ReactiveWeatherStatService;
+import com.devmohamed.historical_weather_api.provider.WeatherStatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives the WebFlux routes of the reactive profile and checks they keep the contract of
+ * WeatherStatsController: bodies, 400/404 answers and the caching headers.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveStatsRoutesTest {
+
+    private static final String HISTORICAL = "/api/v1/stats/max?latitude=52.52&longitude=13.41"
+            + "&startDate=2024-01-01&endDate=2024-01-31";
+
+    @Mock
+    private ReactiveWeatherStatService weatherStatService;
+
+    @Mock
+    private WeatherStatService blockingStatService;
+
+    @Mock
+    private BatchStatService batchStatService;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        OpenMeteoProperties properties = new OpenMeteoProperties();
+        ReactiveStatsHandler handler = new ReactiveStatsHandler(weatherStatService, blockingStatService,
+                batchStatService, new StatsHttpCache(properties),
+                Validation.buildDefaultValidatorFactory().getValidator(), properties, new ObjectMapper());
+        client = WebTestClient.bindToRouterFunction(new ReactiveStatsRoutes().statsRoutes(handler)).build();
+    }
+
+    @Test
+    void testMaxIsServedWithCachingHeadersAndRevalidated() {
+        // Arrange
+        when(weatherStatService.getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Mono.just(StatsFixtures.aggregate(false)));
+
+        // Act
+        String etag = client.get().uri(HISTORICAL).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable")
+                .expectBody()
+                .jsonPath("$.value").isEqualTo(12.5)
+                .jsonPath("$.stale").doesNotExist()
+                .returnResult().getResponseHeaders().getETag();
+
+        // Assert: a matching If-None-Match is answered without data
+        assertNotNull(etag);
+        client.get().uri(HISTORICAL).header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag);
+        verify(weatherStatService, times(1)).getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString());
+    }
+
+    @Test
+    void testStaleAnswerIsNotStored() {
+        // Arrange
+        when(weatherStatService.getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Mono.just(StatsFixtures.aggregate(true)));
+
+        // Act & Assert
+        client.get().uri(HISTORICAL.replace("/max", "/avg")).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-store")
+                .expectHeader().doesNotExist(HttpHeaders.ETAG)
+                .expectBody().jsonPath("$.stale").isEqualTo(true);
+    }
+
+    @Test
+    void testMissingDataIsNotFound() {
+        // Arrange
+        when(weatherStatService.getRangeSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Mono.empty());
+
+        // Act & Assert
+        client.get().uri(HISTORICAL.replace("/max", "/summary")).exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Not Found")
+                .jsonPath("$.message").isEqualTo("No temperature data found for the specified range.");
+    }
+
+    @Test
+    void testFullUpstreamPoolIsServiceUnavailable() {
+        // Arrange
+        when(weatherStatService.getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Mono.error(new UpstreamBusyException("Too many concurrent calls to Open-Meteo")));
+
+        // Act & Assert
+        client.get().uri(HISTORICAL.replace("/max", "/min")).exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1")
+                .expectBody().jsonPath("$.error").isEqualTo("Service Unavailable");
+    }
+
+    @Test
+    void testUsedUpQuotaIsTooManyRequests() {
+        // Arrange
+        when(weatherStatService.getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Mono.error(new UpstreamQuotaExceededException("Open-Meteo request quota used up", 42)));
+
+        // Act & Assert
+        client.get().uri(HISTORICAL.replace("/max", "/min")).exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "42")
+                .expectBody().jsonPath("$.error").isEqualTo("Too Many Requests");
+    }
+
+    @Test
+    void testInvalidParametersAreRejectedWithoutData() {
+        // Act & Assert
+        client.get().uri(HISTORICAL.replace("52.52", "91")).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Bad Request");
+        client.get().uri(HISTORICAL.replace("2024-01-31", "2024/01/31")).exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/v1/stats/min?latitude=52.52&longitude=13.41&startDate=2024-01-01").exchange()
+                .expectStatus().isBadRequest();
+        verifyNoInteractions(weatherStatService);
+    }
+
+    @Test
+    void testSeriesRunsOnTheBlockingServiceAndChecksItsParameters() {
+        // Arrange
+        SeriesBuckets buckets = SeriesBuckets.of(
+                new HourlySeries(LocalDate.parse("2024-01-01"), new double[48]), SeriesBuckets.Unit.DAY);
+        when(blockingStatService.getBucketedSeries(52.52, 13.41, LocalDate.parse("2024-01-01"),
+                LocalDate.parse("2024-01-02"), SeriesBuckets.Unit.DAY)).thenReturn(Optional.of(buckets));
+        String series = "/api/v1/stats/series?latitude=52.52&longitude=13.41&startDate=2024-01-01&endDate=2024-01-02";
+
+        // Act & Assert
+        client.get().uri(series + "&stats=avg").exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.bucket").isEqualTo("day")
+                .jsonPath("$.time.length()").isEqualTo(2)
+                .jsonPath("$.avg[1]").isEqualTo(0.0)
+                .jsonPath("$.min").doesNotExist();
+        client.get().uri(series + "&bucket=year").exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri(series.replace("2024-01-02", "2023-12-31")).exchange()
+                .expectStatus().isBadRequest();
+        verify(blockingStatService, times(1)).getBucketedSeries(anyDouble(), anyDouble(), any(), any(), any());
+    }
+
+    @Test
+    void testNdjsonSeriesIsStreamedChunkByChunk() {
+        // Arrange: two chunks, the second one failing upstream
+        DateRange first = new DateRange(LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-01"));
+        DateRange second = new DateRange(LocalDate.parse("2024-01-02"), LocalDate.parse("2024-01-02"));
+        double[] values = new double[24];
+        Arrays.fill(values, 5.0);
+        when(blockingStatService.openSeriesStream(52.52, 13.41, first.start(), second.end(), SeriesBuckets.Unit.DAY))
+                .thenReturn(new HourlySeriesStream(List.of(first, second), range -> {
+                    if (range.equals(second)) {
+                        throw new UpstreamBusyException("Too many concurrent requests to Open-Meteo");
+                    }
+                    return new HourlySeries(range.start(), values);
+                }, Runnable::run, 1));
+        String series = "/api/v1/stats/series?latitude=52.52&longitude=13.41&startDate=2024-01-01&endDate=2024-01-02";
+
+        // Act
+        String body = client.get().uri(series + "&stats=max").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectHeader().doesNotExist(HttpHeaders.ETAG)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        // Assert: the first chunk's rows went out, the failure became the last row
+        assertEquals("{\"time\":\"2024-01-01\",\"max\":5.0}\n"
+                + "{\"error\":\"Service Unavailable\",\"message\":\"Too many concurrent requests to Open-Meteo\"}\n", body);
+        verifyNoMoreInteractions(blockingStatService);
+    }
+}
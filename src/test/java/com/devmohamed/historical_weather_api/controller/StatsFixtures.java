@@ -0,0 +1,25 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Aggregates shared by the servlet and the reactive controller tests.
+ */
+final class StatsFixtures {
+
+    private StatsFixtures() {
+    }
+
+    /**
+     * One day, 2024-01-01, at a constant 12.5 every hour.
+     */
+    static SeriesAggregate aggregate(boolean stale) {
+        double[] values = new double[24];
+        Arrays.fill(values, 12.5);
+        return SeriesAggregate.of(new HourlySeries(LocalDate.parse("2024-01-01"), values, stale));
+    }
+}
@@ -0,0 +1,67 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import com.devmohamed.historical_weather_api.provider.WeatherStatService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs a large GET /api/v1/stats/series through the real Tomcat, which only compresses
+ * responses that carry no strong ETag.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WeatherStatsCompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @MockitoBean
+    private WeatherStatService weatherStatService;
+
+    @Test
+    void testLargeSeriesIsGzippedWithWeakEtag() throws Exception {
+        // Arrange: a year of daily buckets, well above the 1KB compression threshold
+        double[] values = new double[366 * 24];
+        Arrays.fill(values, 12.5);
+        SeriesBuckets buckets = SeriesBuckets.of(new HourlySeries(LocalDate.parse("2024-01-01"), values),
+                SeriesBuckets.Unit.DAY);
+        when(weatherStatService.getBucketedSeries(anyDouble(), anyDouble(), any(), any(), eq(SeriesBuckets.Unit.DAY)))
+                .thenReturn(Optional.of(buckets));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                        + "/api/v1/stats/series?latitude=52.52&longitude=13.41"
+                        + "&startDate=2024-01-01&endDate=2024-12-31&stats=min,max,avg,count"))
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .build();
+
+        // Act: java.net.http leaves the body as sent
+        HttpResponse<byte[]> response;
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        // Assert
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+        String etag = response.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        assertTrue(etag.startsWith("W/\""), etag);
+    }
+}
@@ -0,0 +1,157 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.provider.BatchStatService;
+import com.devmohamed.historical_weather_api.provider.WeatherStatService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks the ETag and Cache-Control headers of WeatherStatsController and that a matching
+ * If-None-Match is answered without asking the service for data.
+ */
+@WebMvcTest(WeatherStatsController.class)
+class WeatherStatsControllerCachingTest {
+
+    private static final String HISTORICAL = "/api/v1/stats/max?latitude=52.52&longitude=13.41"
+            + "&startDate=2024-01-01&endDate=2024-01-31";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private WeatherStatService weatherStatService;
+
+    @MockitoBean
+    private BatchStatService batchStatService;
+
+    @Test
+    void testHistoricalRangeIsImmutableAndRevalidatedWithoutData() throws Exception {
+        // Arrange
+        when(weatherStatService.getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Optional.of(StatsFixtures.aggregate(false)));
+
+        // Act
+        MvcResult first = mockMvc.perform(get(HISTORICAL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert: the same request, with coordinates written differently, is not modified
+        assertNotNull(etag);
+        mockMvc.perform(get(HISTORICAL.replace("52.52", "52.520001")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        verify(weatherStatService, times(1)).getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString());
+    }
+
+    @Test
+    void testEtagDependsOnStatisticAndRange() throws Exception {
+        // Arrange
+        when(weatherStatService.getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Optional.of(StatsFixtures.aggregate(false)));
+
+        // Act
+        String max = etagOf(HISTORICAL);
+        String min = etagOf(HISTORICAL.replace("/max", "/min"));
+        String otherRange = etagOf(HISTORICAL.replace("2024-01-31", "2024-02-29"));
+
+        // Assert
+        assertNotEquals(max, min);
+        assertNotEquals(max, otherRange);
+    }
+
+    @Test
+    void testEachFormatHasItsOwnEtagAndVariesOnAccept() throws Exception {
+        // Arrange
+        when(weatherStatService.getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Optional.of(StatsFixtures.aggregate(false)));
+
+        // Act: JSON first, then CBOR revalidated with the JSON tag
+        MvcResult json = mockMvc.perform(get(HISTORICAL).header(HttpHeaders.ACCEPT, "application/json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                .andReturn();
+        String jsonEtag = json.getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult cbor = mockMvc.perform(get(HISTORICAL).header(HttpHeaders.ACCEPT, "application/cbor")
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                .andReturn();
+        String cborEtag = cbor.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert: neither tag validates the other format, each validates its own
+        assertNotNull(cborEtag);
+        assertNotEquals(jsonEtag, cborEtag);
+        mockMvc.perform(get(HISTORICAL).header(HttpHeaders.ACCEPT, "application/json")
+                        .header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(HISTORICAL).header(HttpHeaders.ACCEPT, "application/cbor")
+                        .header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"));
+        // Without an Accept header the answer is JSON, and so is its tag
+        assertEquals(jsonEtag, etagOf(HISTORICAL));
+        verify(weatherStatService, times(4)).getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString());
+    }
+
+    @Test
+    void testRecentRangeGetsShortMaxAge() throws Exception {
+        // Arrange
+        when(weatherStatService.getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Optional.of(StatsFixtures.aggregate(false)));
+        String today = LocalDate.now().toString();
+
+        // Act & Assert
+        mockMvc.perform(get(HISTORICAL.replace("2024-01-31", today)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testStaleAnswerIsNeitherStoredNorValidated() throws Exception {
+        // Arrange
+        when(weatherStatService.getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Optional.of(StatsFixtures.aggregate(true)));
+
+        // Act & Assert
+        mockMvc.perform(get(HISTORICAL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.stale").value(true));
+    }
+
+    // --- Helpers ---
+
+    private String etagOf(String url) throws Exception {
+        return mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(OpenMeteoProperties.class)
+    @Import(StatsHttpCache.class)
+    static class CachingConfig {
+    }
+}
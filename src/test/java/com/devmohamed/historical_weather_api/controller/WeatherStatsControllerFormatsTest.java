@@ -0,0 +1,102 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import com.devmohamed.historical_weather_api.provider.BatchStatService;
+import com.devmohamed.historical_weather_api.provider.WeatherStatService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that WeatherStatsController answers in CBOR or Smile when the Accept header asks
+ * for it, and in JSON otherwise.
+ */
+@WebMvcTest(WeatherStatsController.class)
+class WeatherStatsControllerFormatsTest {
+
+    private static final String STATS = "/api/v1/stats/max?latitude=52.52&longitude=13.41"
+            + "&startDate=2024-01-01&endDate=2024-01-01";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private WeatherStatService weatherStatService;
+
+    @MockitoBean
+    private BatchStatService batchStatService;
+
+    @BeforeEach
+    void setUp() {
+        double[] values = new double[24];
+        Arrays.fill(values, 12.5);
+        values[5] = 20.0;
+        SeriesAggregate aggregate = SeriesAggregate.of(new HourlySeries(LocalDate.parse("2024-01-01"), values));
+        when(weatherStatService.getTemperatureSummary(anyDouble(), anyDouble(), anyString(), anyString()))
+                .thenReturn(Optional.of(aggregate));
+    }
+
+    @Test
+    void testCborIsServedWhenAsked() throws Exception {
+        // Act
+        byte[] body = mockMvc.perform(get(STATS).header(HttpHeaders.ACCEPT, "application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        JsonNode response = new CBORMapper().readTree(body);
+        assertEquals(20.0, response.get("value").asDouble());
+        assertEquals("2024-01-01", response.get("start_date").asText());
+    }
+
+    @Test
+    void testSmileIsServedWhenAsked() throws Exception {
+        // Act
+        byte[] body = mockMvc.perform(get(STATS.replace("/max", "/min")).header(HttpHeaders.ACCEPT, "application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        assertEquals(12.5, new SmileMapper().readTree(body).get("value").asDouble());
+    }
+
+    @Test
+    void testJsonStaysTheDefault() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get(STATS.replace("/max", "/avg")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(jsonPath("$.latitude").value(52.52));
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(OpenMeteoProperties.class)
+    @Import(StatsHttpCache.class)
+    static class FormatsConfig {
+    }
+}
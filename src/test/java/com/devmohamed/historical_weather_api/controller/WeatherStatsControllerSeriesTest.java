@@ -0,0 +1,104 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import com.devmohamed.historical_weather_api.provider.BatchStatService;
+import com.devmohamed.historical_weather_api.provider.WeatherStatService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks the column-oriented body of GET /api/v1/stats/series and its range checks.
+ */
+@WebMvcTest(WeatherStatsController.class)
+class WeatherStatsControllerSeriesTest {
+
+    private static final String SERIES = "/api/v1/stats/series?latitude=52.52&longitude=13.41"
+            + "&startDate=2024-01-01&endDate=2024-01-03";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private WeatherStatService weatherStatService;
+
+    @MockitoBean
+    private BatchStatService batchStatService;
+
+    @Test
+    void testBucketsAreWrittenAsColumns() throws Exception {
+        // Arrange: three days, the second one without any value
+        double[] values = new double[72];
+        Arrays.fill(values, 10.0);
+        Arrays.fill(values, 24, 48, Double.NaN);
+        values[50] = 16.0;
+        SeriesBuckets buckets = SeriesBuckets.of(new HourlySeries(LocalDate.parse("2024-01-01"), values),
+                SeriesBuckets.Unit.DAY);
+        when(weatherStatService.getBucketedSeries(anyDouble(), anyDouble(), any(), any(), eq(SeriesBuckets.Unit.DAY)))
+                .thenReturn(Optional.of(buckets));
+
+        // Act & Assert
+        mockMvc.perform(get(SERIES + "&stats=max,avg,count"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.bucket").value("day"))
+                .andExpect(jsonPath("$.timezone").value("GMT"))
+                .andExpect(jsonPath("$.time[0]").value("2024-01-01"))
+                .andExpect(jsonPath("$.time[2]").value("2024-01-03"))
+                .andExpect(jsonPath("$.max[0]").value(10.0))
+                .andExpect(jsonPath("$.max[1]").doesNotExist())
+                .andExpect(jsonPath("$.max[2]").value(16.0))
+                .andExpect(jsonPath("$.avg[2]").value(10.25))
+                .andExpect(jsonPath("$.count[1]").value(0))
+                .andExpect(jsonPath("$.min").doesNotExist());
+    }
+
+    @Test
+    void testTooManyBucketsAreRejectedWithoutData() throws Exception {
+        // Act & Assert: two years of hourly buckets are over the default limit
+        mockMvc.perform(get(SERIES.replace("2024-01-03", "2025-12-31") + "&bucket=hour"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"));
+        mockMvc.perform(get(SERIES.replace("2024-01-03", "2023-12-31")))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(weatherStatService);
+    }
+
+    @Test
+    void testMissingDataIsNotFound() throws Exception {
+        // Arrange
+        when(weatherStatService.getBucketedSeries(anyDouble(), anyDouble(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get(SERIES + "&bucket=month"))
+                .andExpect(status().isNotFound());
+        verify(weatherStatService).getBucketedSeries(52.52, 13.41, LocalDate.parse("2024-01-01"),
+                LocalDate.parse("2024-01-03"), SeriesBuckets.Unit.MONTH);
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(OpenMeteoProperties.class)
+    @Import(StatsHttpCache.class)
+    static class SeriesConfig {
+    }
+}
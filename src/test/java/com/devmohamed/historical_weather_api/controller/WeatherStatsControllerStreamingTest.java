@@ -0,0 +1,191 @@
+package com.devmohamed.historical_weather_api.controller;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamBusyException;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import com.devmohamed.historical_weather_api.provider.BatchStatService;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesStream;
+import com.devmohamed.historical_weather_api.provider.WeatherStatService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks the NDJSON rows of GET /api/v1/stats/hourly and the streaming GET /api/v1/stats/series.
+ */
+@WebMvcTest(WeatherStatsController.class)
+class WeatherStatsControllerStreamingTest {
+
+    private static final String QUERY = "?latitude=52.52&longitude=13.41&startDate=2024-01-01&endDate=2024-01-03";
+    private static final DateRange FIRST = new DateRange(LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-02"));
+    private static final DateRange SECOND = new DateRange(LocalDate.parse("2024-01-03"), LocalDate.parse("2024-01-03"));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private WeatherStatService weatherStatService;
+
+    @MockitoBean
+    private BatchStatService batchStatService;
+
+    @Test
+    void testHourlyExportWritesOneRowPerHour() throws Exception {
+        // Arrange: two chunks, the third day without a value at 05:00
+        double[] third = filled(24, 3.0);
+        third[5] = Double.NaN;
+        givenChunks(SeriesBuckets.Unit.HOUR, Map.of(
+                FIRST, new HourlySeries(FIRST.start(), filled(48, 1.5)),
+                SECOND, new HourlySeries(SECOND.start(), third)));
+
+        // Act
+        String[] rows = streamedRows("/api/v1/stats/hourly" + QUERY);
+
+        // Assert
+        assertThat(rows).hasSize(72);
+        assertThat(rows[0]).isEqualTo("{\"time\":\"2024-01-01T00:00\",\"temperature_2m\":1.5}");
+        assertThat(rows[47]).isEqualTo("{\"time\":\"2024-01-02T23:00\",\"temperature_2m\":1.5}");
+        assertThat(rows[53]).isEqualTo("{\"time\":\"2024-01-03T05:00\",\"temperature_2m\":null}");
+        assertThat(rows[71]).isEqualTo("{\"time\":\"2024-01-03T23:00\",\"temperature_2m\":3.0}");
+    }
+
+    @Test
+    void testSeriesIsStreamedWhenNdjsonIsAccepted() throws Exception {
+        // Arrange
+        givenChunks(SeriesBuckets.Unit.DAY, Map.of(
+                FIRST, new HourlySeries(FIRST.start(), filled(48, 2.0)),
+                SECOND, new HourlySeries(SECOND.start(), filled(24, 4.0), true)));
+
+        // Act
+        String[] rows = streamedRows("/api/v1/stats/series" + QUERY + "&stats=max,count");
+
+        // Assert: no ETag on a stream, and stale rows say so
+        assertThat(rows).containsExactly(
+                "{\"time\":\"2024-01-01\",\"max\":2.0,\"count\":24}",
+                "{\"time\":\"2024-01-02\",\"max\":2.0,\"count\":24}",
+                "{\"time\":\"2024-01-03\",\"max\":4.0,\"count\":24,\"stale\":true}");
+    }
+
+    @Test
+    void testFailureAfterTheFirstChunkEndsWithAnErrorRow() throws Exception {
+        // Arrange
+        givenChunks(SeriesBuckets.Unit.HOUR, range -> {
+            if (range.equals(SECOND)) {
+                throw new UpstreamBusyException("Too many concurrent requests to Open-Meteo");
+            }
+            return new HourlySeries(range.start(), filled(48, 1.0));
+        });
+
+        // Act
+        String[] rows = streamedRows("/api/v1/stats/hourly" + QUERY);
+
+        // Assert
+        assertThat(rows).hasSize(49);
+        assertThat(rows[48]).isEqualTo("{\"error\":\"Service Unavailable\","
+                + "\"message\":\"Too many concurrent requests to Open-Meteo\"}");
+    }
+
+    @Test
+    void testFirstChunkDecidesTheStatus() throws Exception {
+        // Arrange: nothing for the first chunk
+        givenChunks(SeriesBuckets.Unit.HOUR, range -> null);
+
+        // Act & Assert
+        mockMvc.perform(asyncDispatch(started("/api/v1/stats/hourly" + QUERY)))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Not Found"));
+
+        // Arrange: a full bulkhead
+        givenChunks(SeriesBuckets.Unit.HOUR, range -> {
+            throw new UpstreamBusyException("Too many concurrent requests to Open-Meteo");
+        });
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/stats/hourly" + QUERY))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        // Arrange: Open-Meteo's quota used up
+        givenChunks(SeriesBuckets.Unit.HOUR, range -> {
+            throw new UpstreamQuotaExceededException("Open-Meteo request quota used up, try again later.", 30);
+        });
+
+        // Act & Assert: not a 404, the data exists but cannot be fetched right now
+        mockMvc.perform(get("/api/v1/stats/hourly" + QUERY))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"))
+                .andExpect(jsonPath("$.error").value("Too Many Requests"));
+    }
+
+    @Test
+    void testInvalidRangeIsRejectedWithoutData() throws Exception {
+        // Act & Assert
+        mockMvc.perform(asyncDispatch(started("/api/v1/stats/hourly" + QUERY.replace("2024-01-03", "2023-12-31"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"));
+        verifyNoInteractions(weatherStatService);
+    }
+
+    private MvcResult started(String url) throws Exception {
+        return mockMvc.perform(get(url).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private String[] streamedRows(String url) throws Exception {
+        String body = mockMvc.perform(asyncDispatch(started(url)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).endsWith("\n");
+        return body.split("\n");
+    }
+
+    private void givenChunks(SeriesBuckets.Unit unit, Map<DateRange, HourlySeries> chunks) {
+        givenChunks(unit, chunks::get);
+    }
+
+    private void givenChunks(SeriesBuckets.Unit unit, Function<DateRange, HourlySeries> fetcher) {
+        when(weatherStatService.openSeriesStream(anyDouble(), anyDouble(), eq(FIRST.start()), eq(SECOND.end()), eq(unit)))
+                .thenAnswer(invocation -> new HourlySeriesStream(List.of(FIRST, SECOND), fetcher, Runnable::run, 1));
+    }
+
+    private static double[] filled(int hours, double value) {
+        double[] values = new double[hours];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(OpenMeteoProperties.class)
+    @Import(StatsHttpCache.class)
+    static class StreamingConfig {
+    }
+}
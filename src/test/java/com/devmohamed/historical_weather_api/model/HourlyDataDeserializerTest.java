@@ -0,0 +1,103 @@
+package com.devmohamed.historical_weather_api.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming HourlyDataDeserializer. Its allocation against the old boxed
+ * List binding is measured by HourlyResponseParseBenchmark under the JMH gc profiler.
+ */
+class HourlyDataDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testParsesTimeAxisAndValues() throws Exception {
+        // Arrange
+        String json = "{\"latitude\":52.52,\"longitude\":13.41,\"timezone\":\"GMT\","
+                + "\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\"},"
+                + "\"hourly\":{\"time\":[\"2024-01-01T00:00\",\"2024-01-01T01:00\",\"2024-01-01T02:00\"],"
+                + "\"temperature_2m\":[1.5,null,-3.25]}}";
+
+        // Act
+        HourlyForecastResponse response = objectMapper.readValue(json, HourlyForecastResponse.class);
+
+        // Assert
+        HourlyData hourly = response.getHourly();
+        assertEquals(LocalDateTime.parse("2024-01-01T00:00"), hourly.getStartTime());
+        assertEquals(3600, hourly.getIntervalSeconds());
+        assertEquals(3, hourly.getTimeCount());
+        assertEquals(3, hourly.getTemperature2m().length);
+        assertEquals(1.5, hourly.getTemperature2m()[0]);
+        assertTrue(Double.isNaN(hourly.getTemperature2m()[1]));
+        assertEquals(-3.25, hourly.getTemperature2m()[2]);
+        assertEquals(52.52, response.getLatitude());
+    }
+
+    @Test
+    void testValuesBeforeTimeAndUnknownFields() throws Exception {
+        // Arrange: no size hint from the time array, plus a field we do not map
+        String json = "{\"hourly\":{\"temperature_2m\":[1,2,3,4,5],\"precipitation\":[0,0,0,0,0],"
+                + "\"time\":[1704067200,1704070800,1704074400,1704078000,1704081600]}}";
+
+        // Act
+        HourlyData hourly = objectMapper.readValue(json, HourlyForecastResponse.class).getHourly();
+
+        // Assert
+        assertArrayEquals(new double[]{1, 2, 3, 4, 5}, hourly.getTemperature2m());
+        assertEquals(LocalDateTime.parse("2024-01-01T00:00"), hourly.getStartTime());
+        assertEquals(3600, hourly.getIntervalSeconds());
+    }
+
+    @Test
+    void testParsesEveryKnownVariableIntoItsColumn() throws Exception {
+        // Arrange: three variables we know and one we do not
+        String json = "{\"hourly\":{\"time\":[\"2024-01-01T00:00\",\"2024-01-01T01:00\"],"
+                + "\"precipitation\":[0.2,null],\"wind_speed_10m\":[12.5,14],"
+                + "\"snow_depth\":[0,0],\"relative_humidity_2m\":[81,79]}}";
+
+        // Act
+        HourlyData hourly = objectMapper.readValue(json, HourlyForecastResponse.class).getHourly();
+
+        // Assert: one column per known variable, none for temperature or the unknown one
+        assertEquals(EnumSet.of(HourlyVariable.PRECIPITATION, HourlyVariable.WIND_SPEED_10M,
+                HourlyVariable.RELATIVE_HUMIDITY_2M), hourly.getVariables());
+        assertEquals(0.2, hourly.getColumn(HourlyVariable.PRECIPITATION)[0]);
+        assertTrue(Double.isNaN(hourly.getColumn(HourlyVariable.PRECIPITATION)[1]));
+        assertArrayEquals(new double[]{12.5, 14}, hourly.getColumn(HourlyVariable.WIND_SPEED_10M));
+        assertArrayEquals(new double[]{81, 79}, hourly.getColumn(HourlyVariable.RELATIVE_HUMIDITY_2M));
+        assertNull(hourly.getTemperature2m());
+        assertEquals(2, hourly.getTimeCount());
+    }
+
+    @Test
+    void testNumberFormatsMatchDoubleParsing() throws Exception {
+        // Arrange: fast path values and values that must fall back to Double.parseDouble
+        String[] numbers = {"0", "-0.5", "12.3", "-45.67", "100", "1e2", "-2.5E-3", "0.1234567890123456789", "5.100000000000001"};
+        String json = "{\"hourly\":{\"temperature_2m\":[" + String.join(",", numbers) + "]}}";
+
+        // Act
+        double[] values = objectMapper.readValue(json, HourlyForecastResponse.class).getHourly().getTemperature2m();
+
+        // Assert
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(Double.parseDouble(numbers[i]), values[i], numbers[i]);
+        }
+    }
+
+    @Test
+    void testMissingTimeAndNullTemperatures() throws Exception {
+        // Act
+        HourlyData hourly = objectMapper.readValue("{\"hourly\":{\"temperature_2m\":null}}",
+                HourlyForecastResponse.class).getHourly();
+
+        // Assert
+        assertNull(hourly.getTemperature2m());
+        assertNull(hourly.getStartTime());
+    }
+}
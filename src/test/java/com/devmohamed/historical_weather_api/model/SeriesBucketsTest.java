@@ -0,0 +1,114 @@
+package com.devmohamed.historical_weather_api.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the calendar layout and the single-pass statistics of SeriesBuckets.
+ */
+class SeriesBucketsTest {
+
+    @Test
+    void testWeeksStartOnMondayAndAreClippedToTheRange() {
+        // Arrange: Wednesday 2024-01-03 to Tuesday 2024-01-16
+        LocalDate start = LocalDate.parse("2024-01-03");
+        LocalDate end = LocalDate.parse("2024-01-16");
+
+        // Act
+        SeriesBuckets buckets = new SeriesBuckets(SeriesBuckets.Unit.WEEK, start, end);
+
+        // Assert
+        assertEquals(3, buckets.size());
+        assertEquals(3, SeriesBuckets.count(SeriesBuckets.Unit.WEEK, start, end));
+        assertEquals(LocalDateTime.parse("2024-01-03T00:00"), buckets.startOf(0));
+        assertEquals(LocalDateTime.parse("2024-01-08T00:00"), buckets.startOf(1));
+        assertEquals(LocalDateTime.parse("2024-01-15T00:00"), buckets.startOf(2));
+    }
+
+    @Test
+    void testMonthsFollowTheCalendar() {
+        // Arrange: 2024-01-30 to 2024-03-02 spans three months, February has 29 days
+        double[] values = new double[33 * 24];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i / 24 < 2 ? 1.0 : i / 24 < 31 ? 2.0 : 3.0;
+        }
+
+        // Act
+        SeriesBuckets buckets = SeriesBuckets.of(new HourlySeries(LocalDate.parse("2024-01-30"), values),
+                SeriesBuckets.Unit.MONTH);
+
+        // Assert
+        assertEquals(3, buckets.size());
+        assertEquals(48, buckets.countOf(0));
+        assertEquals(29 * 24, buckets.countOf(1));
+        assertEquals(2.0, buckets.minOf(1));
+        assertEquals(2.0, buckets.maxOf(1));
+        assertEquals(3.0, buckets.meanOf(2));
+    }
+
+    @Test
+    void testMissingHoursAreSkippedAndEmptyBucketsHaveNoStatistics() {
+        // Arrange
+        double[] values = new double[48];
+        Arrays.fill(values, Double.NaN);
+        values[30] = 4.0;
+        values[31] = 6.0;
+
+        // Act
+        SeriesBuckets buckets = SeriesBuckets.of(new HourlySeries(LocalDate.parse("2024-01-01"), values),
+                SeriesBuckets.Unit.DAY);
+
+        // Assert
+        assertEquals(0, buckets.countOf(0));
+        assertTrue(Double.isNaN(buckets.minOf(0)));
+        assertTrue(Double.isNaN(buckets.meanOf(0)));
+        assertEquals(2, buckets.countOf(1));
+        assertEquals(5.0, buckets.meanOf(1));
+        assertFalse(buckets.isEmpty());
+    }
+
+    @Test
+    void testChunksArePlacedByTheirOwnStartDate() {
+        // Arrange: one week bucket fed by two chunks that split it, in reverse order
+        LocalDate monday = LocalDate.parse("2024-01-01");
+        SeriesBuckets buckets = new SeriesBuckets(SeriesBuckets.Unit.WEEK, monday, monday.plusDays(6));
+        double[] first = new double[3 * 24];
+        double[] second = new double[4 * 24];
+        Arrays.fill(first, 1.0);
+        Arrays.fill(second, 9.0);
+
+        // Act
+        buckets.accept(new HourlySeries(monday.plusDays(3), second, true));
+        buckets.accept(new HourlySeries(monday, first));
+
+        // Assert
+        assertEquals(1, buckets.size());
+        assertEquals(7 * 24, buckets.countOf(0));
+        assertEquals(1.0, buckets.minOf(0));
+        assertEquals(9.0, buckets.maxOf(0));
+        assertTrue(buckets.isStale());
+    }
+
+    @Test
+    void testHourlyBucketsKeepEveryValue() {
+        // Arrange
+        double[] values = new double[24];
+        Arrays.fill(values, 3.5);
+        values[7] = Double.NaN;
+
+        // Act
+        SeriesBuckets buckets = SeriesBuckets.of(new HourlySeries(LocalDate.parse("2024-01-01"), values),
+                SeriesBuckets.Unit.HOUR);
+
+        // Assert
+        assertEquals(24, buckets.size());
+        assertEquals(LocalDateTime.parse("2024-01-01T07:00"), buckets.startOf(7));
+        assertEquals(0, buckets.countOf(7));
+        assertEquals(3.5, buckets.maxOf(8));
+    }
+}
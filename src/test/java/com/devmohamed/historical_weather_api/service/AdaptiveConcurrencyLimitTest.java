@@ -0,0 +1,144 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoGateway;
+import com.devmohamed.historical_weather_api.provider.UpstreamQuotaGovernor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the gateway against an Open-Meteo stand-in that serves a fixed number of calls at
+ * once, so calls beyond them queue up, and slows the stand-in down halfway: the adaptive
+ * concurrency limit has to settle between its bounds first and then back off.
+ */
+class AdaptiveConcurrencyLimitTest {
+
+    private static final int WORKERS = 8;
+    private static final int CALLERS = 48;
+    private static final int MAX_CONCURRENT = 64;
+
+    private SlowUpstream upstream;
+    private OpenMeteoGateway gateway;
+    private Gauge limitGauge;
+
+    @BeforeEach
+    void setUp() {
+        upstream = new SlowUpstream();
+        OpenMeteoProperties properties = new OpenMeteoProperties();
+        // The bulkhead would let every caller through, only the adaptive limit holds them
+        properties.getBulkhead().setMaxConcurrent(MAX_CONCURRENT);
+        properties.getBulkhead().setAcquireTimeoutMs(30_000);
+        // Keep the fast baseline throughout, so the slowdown reads as queueing rather than a new normal
+        properties.getConcurrencyLimit().setProbeMultiplier(1_000);
+        // Callers over the limit queue rather than being turned away, so they keep up the load
+        properties.getConcurrencyLimit().setMaxWaitRtts(10_000);
+        properties.getHedge().setEnabled(false);
+        properties.getQuota().setEnabled(false);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        gateway = new OpenMeteoGateway(upstream, properties, new UpstreamQuotaGovernor(properties), registry);
+        limitGauge = registry.get("openmeteo.upstream.concurrency.limit").gauge();
+    }
+
+    @Test
+    void testLimitSettlesAndBacksOffWhenUpstreamSlowsDown() throws Exception {
+        // Arrange: distinct locations, so no call is coalesced with another
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        int settled;
+        int slowest;
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                callers.submit(() -> {
+                    while (running.get()) {
+                        Location location = Location.of((next.incrementAndGet() % 1_800) / 10.0 - 90, 20);
+                        if (gateway.getHourlyTemperature(location, "2023-03-01", "2023-03-01") == null) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+            }
+
+            // Act: 10 ms per call for a while, then 50 ms
+            Thread.sleep(1_500);
+            settled = averageLimit(500);
+            upstream.serviceTimeMs = 50;
+            slowest = lowestLimit(3_000);
+            running.set(false);
+        }
+
+        // Assert: queueing at the stand-in kept the limit below the callers, and the slowdown
+        // cut it further, though never below min-limit
+        assertEquals(0, failures.get());
+        assertTrue(settled > 4 && settled < CALLERS, "Settled at " + settled);
+        assertTrue(slowest <= settled / 2, "Lowest after the slowdown " + slowest + ", settled at " + settled);
+        assertTrue(slowest >= 4, "Lowest after the slowdown " + slowest);
+        assertEquals(0, gateway.getStats().getBulkheadRejected());
+    }
+
+    // --- Helpers ---
+
+    private int averageLimit(long millis) throws InterruptedException {
+        long sum = 0;
+        int samples = 0;
+        for (long end = System.currentTimeMillis() + millis; System.currentTimeMillis() < end; samples++) {
+            sum += (long) limitGauge.value();
+            Thread.sleep(10);
+        }
+        return (int) (sum / Math.max(1, samples));
+    }
+
+    private int lowestLimit(long millis) throws InterruptedException {
+        int lowest = Integer.MAX_VALUE;
+        for (long end = System.currentTimeMillis() + millis; System.currentTimeMillis() < end; ) {
+            lowest = Math.min(lowest, (int) limitGauge.value());
+            Thread.sleep(10);
+        }
+        return lowest;
+    }
+
+    /**
+     * Stand-in for Open-Meteo with {@link #WORKERS} workers, taking calls in arrival order.
+     */
+    private static final class SlowUpstream extends OpenMeteoClientService {
+
+        private final Semaphore workers = new Semaphore(WORKERS, true);
+        private volatile long serviceTimeMs = 10;
+
+        SlowUpstream() {
+            super(null);
+        }
+
+        @Override
+        public HourlyForecastResponse getHourly(double latitude, double longitude, String startDate,
+                                                    String endDate, Set<HourlyVariable> variables) {
+            try {
+                workers.acquire();
+                try {
+                    Thread.sleep(serviceTimeMs);
+                } finally {
+                    workers.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HourlyForecastResponse();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamCallException;
+import com.devmohamed.historical_weather_api.model.BatchStatsItem;
+import com.devmohamed.historical_weather_api.model.BatchStatsResponse;
+import com.devmohamed.historical_weather_api.model.BatchStatsResult;
+import com.devmohamed.historical_weather_api.model.HourlyData;
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.provider.BatchStatService;
+import com.devmohamed.historical_weather_api.provider.HourlyDayCache;
+import com.devmohamed.historical_weather_api.provider.HourlyRollupIndex;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesService;
+import com.devmohamed.historical_weather_api.provider.HourlyTemperatureStore;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the BatchStatService grouping, chunking and per-item errors.
+ * The OpenMeteoClientService is mocked; everything behind it is real.
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchStatServiceTest {
+
+    private static final List<String> ALL = List.of("max", "min", "avg", "count");
+
+    @Mock
+    private OpenMeteoClientService openMeteoClientService;
+
+    private OpenMeteoProperties properties;
+    private BatchStatService batchStatService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenMeteoProperties();
+        batchStatService = newService();
+    }
+
+    @Test
+    void testItemsWithTheSameRangeShareOneUpstreamRequest() {
+        // Arrange
+        stubBatchUpstream();
+        List<BatchStatsItem> items = List.of(
+                new BatchStatsItem(52.52, 13.41, "2024-01-01", "2024-01-02", ALL),
+                new BatchStatsItem(48.85, 2.35, "2024-01-01", "2024-01-02", List.of("max")),
+                new BatchStatsItem(40.71, -74.01, "2024-01-01", "2024-01-02", List.of("min", "avg")),
+                new BatchStatsItem(52.52, 13.41, "2024-02-01", "2024-02-01", List.of("count")));
+
+        // Act
+        BatchStatsResponse response = batchStatService.getStatistics(items);
+
+        // Assert: one batched request for January, one single request for February
+        assertEquals(2, response.getUpstreamRequests());
+        verify(openMeteoClientService).getHourlyBatch(
+                eq(List.of(Location.of(52.52, 13.41), Location.of(48.85, 2.35), Location.of(40.71, -74.01))),
+                eq("2024-01-01"), eq("2024-01-02"), eq(HourlyVariable.TEMPERATURE));
+        verify(openMeteoClientService).getHourly(52.52, 13.41, "2024-02-01", "2024-02-01", HourlyVariable.TEMPERATURE);
+
+        BatchStatsResult first = response.getResults().get(0);
+        assertNull(first.getError());
+        assertEquals(List.of("max", "min", "avg", "count"), List.copyOf(first.getStatistics().keySet()));
+        assertEquals(52.52 + 23, first.getStatistics().get("max"), 1e-9);
+        assertEquals(52.52, first.getStatistics().get("min"), 1e-9);
+        assertEquals(48, first.getStatistics().get("count"));
+        assertEquals(48.85 + 23, response.getResults().get(1).getStatistics().get("max"), 1e-9);
+        assertEquals(40.71, response.getResults().get(2).getStatistics().get("min"), 1e-9);
+        assertEquals(24, response.getResults().get(3).getStatistics().get("count"));
+    }
+
+    @Test
+    void testItemsOnDifferentMetricsShareOneUpstreamRequest() {
+        // Arrange: three variables of one location and range, the temperature asked twice
+        stubBatchUpstream();
+        List<BatchStatsItem> items = List.of(
+                new BatchStatsItem(52.52, 13.41, "2024-01-01", "2024-01-01", List.of("max")),
+                new BatchStatsItem(52.52, 13.41, "2024-01-01", "2024-01-01", List.of("sum"), "precipitation"),
+                new BatchStatsItem(52.52, 13.41, "2024-01-01", "2024-01-01", List.of("max"), "wind_speed_10m"),
+                new BatchStatsItem(52.52, 13.41, "2024-01-01", "2024-01-01", List.of("min"), "temperature_2m"));
+
+        // Act
+        BatchStatsResponse response = batchStatService.getStatistics(items);
+
+        // Assert: one request for the union of the columns
+        assertEquals(1, response.getUpstreamRequests());
+        verify(openMeteoClientService).getHourly(52.52, 13.41, "2024-01-01", "2024-01-01", EnumSet.of(
+                HourlyVariable.TEMPERATURE_2M, HourlyVariable.PRECIPITATION, HourlyVariable.WIND_SPEED_10M));
+        assertTrue(response.getResults().stream().allMatch(result -> result.getError() == null));
+        assertEquals(52.52 + 23, response.getResults().get(0).getStatistics().get("max"), 1e-9);
+        assertEquals(24 * 52.52 + 276, response.getResults().get(1).getStatistics().get("sum"), 1e-9);
+        assertEquals("precipitation", response.getResults().get(1).getMetric());
+        assertEquals(52.52 + 23, response.getResults().get(2).getStatistics().get("max"), 1e-9);
+        assertEquals(52.52, response.getResults().get(3).getStatistics().get("min"), 1e-9);
+
+        // Only the temperatures were kept, so the other metrics go upstream again
+        assertEquals(1, batchStatService.getStatistics(items).getUpstreamRequests());
+        verify(openMeteoClientService).getHourly(52.52, 13.41, "2024-01-01", "2024-01-01",
+                EnumSet.of(HourlyVariable.PRECIPITATION, HourlyVariable.WIND_SPEED_10M));
+    }
+
+    @Test
+    void testLargeGroupsAreSplitAndRepeatedItemsAreServedLocally() {
+        // Arrange
+        properties.getBatch().setMaxLocationsPerRequest(2);
+        batchStatService = newService();
+        stubBatchUpstream();
+        List<BatchStatsItem> items = List.of(
+                new BatchStatsItem(1, 1, "2024-01-01", "2024-01-01", ALL),
+                new BatchStatsItem(2, 2, "2024-01-01", "2024-01-01", ALL),
+                new BatchStatsItem(3, 3, "2024-01-01", "2024-01-01", ALL),
+                new BatchStatsItem(4, 4, "2024-01-01", "2024-01-01", ALL),
+                new BatchStatsItem(5, 5, "2024-01-01", "2024-01-01", ALL),
+                // Same location and range as the first item, answered from the same response
+                new BatchStatsItem(1.00001, 1, "2024-01-01", "2024-01-01", List.of("max")));
+
+        // Act
+        BatchStatsResponse response = batchStatService.getStatistics(items);
+
+        // Assert: five distinct locations in groups of two
+        assertEquals(3, response.getUpstreamRequests());
+        assertTrue(response.getResults().stream().allMatch(result -> result.getError() == null));
+        assertEquals(1 + 23, response.getResults().get(5).getStatistics().get("max"), 1e-9);
+
+        // A second run is answered entirely from the cache
+        assertEquals(0, batchStatService.getStatistics(items).getUpstreamRequests());
+    }
+
+    @Test
+    void testErrorsAreReportedPerItem() {
+        // Arrange: one valid item, one reversed range, one range the upstream has no data for
+        stubBatchUpstream();
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), eq("2030-01-01"), anyString(), any()))
+                .thenReturn(null);
+        List<BatchStatsItem> items = List.of(
+                new BatchStatsItem(52.52, 13.41, "2024-01-01", "2024-01-01", List.of("avg")),
+                new BatchStatsItem(52.52, 13.41, "2024-01-05", "2024-01-01", List.of("avg")),
+                new BatchStatsItem(52.52, 13.41, "2030-01-01", "2030-01-01", List.of("avg")));
+
+        // Act
+        List<BatchStatsResult> results = batchStatService.getStatistics(items).getResults();
+
+        // Assert
+        assertNull(results.get(0).getError());
+        assertEquals("Bad Request", results.get(1).getError().getError());
+        assertNull(results.get(1).getStatistics());
+        assertEquals("Not Found", results.get(2).getError().getError());
+        assertEquals(2, results.get(2).getIndex());
+    }
+
+    @Test
+    void testOpenCircuitFailsOnlyTheAffectedItems() {
+        // Arrange: two failed calls open the breaker, retries are off
+        properties.getRetry().setMaxAttempts(1);
+        properties.getCircuitBreaker().setWindowSize(2);
+        properties.getCircuitBreaker().setMinCalls(2);
+        properties.getCircuitBreaker().setOpenMs(60_000);
+        batchStatService = newService();
+        UpstreamCallException failure = new UpstreamCallException("503", null);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenThrow(failure);
+        batchStatService.getStatistics(List.of(
+                new BatchStatsItem(52.52, 13.41, "2024-01-01", "2024-01-01", List.of("avg")),
+                new BatchStatsItem(52.52, 13.41, "2024-02-01", "2024-02-01", List.of("avg"))));
+        List<BatchStatsItem> items = List.of(
+                new BatchStatsItem(52.52, 13.41, "2024-03-01", "2024-03-01", List.of("avg")),
+                new BatchStatsItem(48.85, 2.35, "2024-03-01", "2024-03-01", List.of("avg")),
+                new BatchStatsItem(52.52, 13.41, "2024-03-05", "2024-03-01", List.of("avg")));
+
+        // Act
+        BatchStatsResponse response = batchStatService.getStatistics(items);
+
+        // Assert: the short-circuited chunk is reported per item, the rest of the batch still answers
+        List<BatchStatsResult> results = response.getResults();
+        assertEquals("Service Unavailable", results.get(0).getError().getError());
+        assertEquals("Service Unavailable", results.get(1).getError().getError());
+        assertEquals("Bad Request", results.get(2).getError().getError());
+        verify(openMeteoClientService, times(2)).getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        verify(openMeteoClientService, never()).getHourlyBatch(anyList(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void testParallelRequestsAreBounded() {
+        // Arrange: ten single-location ranges, at most two in flight at once
+        properties.getBatch().setMaxParallelRequests(2);
+        batchStatService = newService();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                    LocalDate day = LocalDate.parse(invocation.getArgument(2, String.class));
+                    return responseFor(invocation.getArgument(0, Double.class), day, 1, HourlyVariable.TEMPERATURE);
+                });
+        BatchStatsItem[] items = new BatchStatsItem[10];
+        for (int i = 0; i < items.length; i++) {
+            String day = LocalDate.parse("2024-03-01").plusDays(i).toString();
+            items[i] = new BatchStatsItem(10, 10, day, day, List.of("max"));
+        }
+
+        // Act
+        BatchStatsResponse response = batchStatService.getStatistics(Arrays.asList(items));
+
+        // Assert
+        assertEquals(10, response.getUpstreamRequests());
+        assertTrue(maxInFlight.get() <= 2, "at most two upstream requests at once, saw " + maxInFlight.get());
+        assertTrue(response.getResults().stream().allMatch(result -> result.getError() == null));
+    }
+
+    // --- Helpers ---
+
+    private BatchStatService newService() {
+        HourlyDayCache dayCache = new HourlyDayCache(properties);
+        OpenMeteoGateway gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        HourlySeriesService seriesService = new HourlySeriesService(gateway, dayCache,
+                new HourlyTemperatureStore(properties), properties);
+        return new BatchStatService(seriesService, new HourlyRollupIndex(properties), gateway, properties);
+    }
+
+    /**
+     * Answers single and batched requests with values that start at the latitude of each location.
+     */
+    private void stubBatchUpstream() {
+        lenient().when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> responseFor(invocation.getArgument(0, Double.class),
+                        LocalDate.parse(invocation.getArgument(2, String.class)),
+                        days(invocation.getArgument(2), invocation.getArgument(3)), invocation.getArgument(4)));
+        lenient().when(openMeteoClientService.getHourlyBatch(anyList(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    List<Location> locations = invocation.getArgument(0);
+                    LocalDate start = LocalDate.parse(invocation.getArgument(1, String.class));
+                    int days = days(invocation.getArgument(1), invocation.getArgument(2));
+                    Set<HourlyVariable> columns = invocation.getArgument(3);
+                    return locations.stream().map(location -> responseFor(location.latitude(), start, days, columns)).toList();
+                });
+    }
+
+    private static int days(String start, String end) {
+        return (int) (LocalDate.parse(end).toEpochDay() - LocalDate.parse(start).toEpochDay()) + 1;
+    }
+
+    /**
+     * Every column asked for holds the same values.
+     */
+    private static HourlyForecastResponse responseFor(double base, LocalDate start, int days,
+                                                      Set<HourlyVariable> columns) {
+        double[] values = new double[days * 24];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = base + i % 24;
+        }
+        HourlyData hourly = new HourlyData();
+        hourly.setStartTime(start.atStartOfDay());
+        hourly.setTimeCount(values.length);
+        for (HourlyVariable column : columns) {
+            hourly.setColumn(column, values);
+        }
+        HourlyForecastResponse response = new HourlyForecastResponse();
+        response.setHourly(hourly);
+        return response;
+    }
+}
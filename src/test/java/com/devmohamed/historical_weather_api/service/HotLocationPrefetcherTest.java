@@ -0,0 +1,199 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamCallException;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.PrefetchStats;
+import com.devmohamed.historical_weather_api.provider.HotLocationPrefetcher;
+import com.devmohamed.historical_weather_api.provider.HotLocationTracker;
+import com.devmohamed.historical_weather_api.provider.HourlyDayCache;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesService;
+import com.devmohamed.historical_weather_api.provider.HourlyTemperatureStore;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the HotLocationPrefetcher. The OpenMeteoClientService is mocked, everything
+ * between it and the prefetcher is real.
+ */
+@ExtendWith(MockitoExtension.class)
+class HotLocationPrefetcherTest {
+
+    // 03:00 UTC, inside the default 02:00-06:00 window; yesterday and the day before get prefetched
+    private static final Instant OFF_PEAK = Instant.parse("2025-06-01T03:00:00Z");
+    private static final String START = "2025-05-30";
+    private static final String END = "2025-05-31";
+
+    @Mock
+    private OpenMeteoClientService openMeteoClientService;
+
+    private OpenMeteoProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenMeteoProperties();
+    }
+
+    @Test
+    void testHottestLocationsAreFetchedWithinTheBudget() {
+        // Arrange
+        properties.getPrefetch().setBudgetPerWindow(2);
+        Clock clock = Clock.fixed(OFF_PEAK, ZoneOffset.UTC);
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        HotLocationPrefetcher prefetcher = newPrefetcher(tracker, clock);
+        request(tracker, Location.of(1, 1), 10);
+        request(tracker, Location.of(2, 2), 5);
+        request(tracker, Location.of(3, 3), 1);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), eq(START), eq(END), any()))
+                .thenReturn(HourlyResponses.daily(LocalDate.parse(START), LocalDate.parse(END)));
+
+        // Act
+        prefetcher.prefetch();
+
+        // Assert: the coldest location did not fit the budget
+        verify(openMeteoClientService).getHourly(1.0, 1.0, START, END, HourlyVariable.TEMPERATURE);
+        verify(openMeteoClientService).getHourly(2.0, 2.0, START, END, HourlyVariable.TEMPERATURE);
+        verify(openMeteoClientService, never()).getHourly(eq(3.0), eq(3.0), anyString(), anyString(), any());
+        PrefetchStats stats = prefetcher.getStats(10);
+        assertEquals(1, stats.getRuns());
+        assertEquals(2, stats.getPrefetched());
+        assertEquals(1, stats.getBudgetExhaustedRuns());
+    }
+
+    @Test
+    void testWarmLocationsAreSkippedAndLaterRequestsCountAsWarmHits() {
+        // Arrange
+        Clock clock = Clock.fixed(OFF_PEAK, ZoneOffset.UTC);
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        HotLocationPrefetcher prefetcher = newPrefetcher(tracker, clock);
+        request(tracker, Location.of(1, 1), 3);
+        when(openMeteoClientService.getHourly(1.0, 1.0, START, END, HourlyVariable.TEMPERATURE))
+                .thenReturn(HourlyResponses.daily(LocalDate.parse(START), LocalDate.parse(END)));
+
+        // Act
+        prefetcher.prefetch();
+        prefetcher.prefetch();
+        tracker.record(Location.of(1, 1), LocalDate.parse(START), LocalDate.parse(END));
+
+        // Assert
+        verify(openMeteoClientService, times(1)).getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        PrefetchStats stats = prefetcher.getStats(10);
+        assertEquals(1, stats.getPrefetched());
+        assertEquals(1, stats.getAlreadyWarm());
+        assertEquals(1, stats.getWarmHits());
+        assertEquals(1.0, stats.getEffectiveness());
+    }
+
+    @Test
+    void testBudgetCoversTheWindowAndPrefetchedDaysStayWarmUntilThePeak() {
+        // Arrange: one location per window, two hot locations that outlast the nightly decay
+        properties.getPrefetch().setBudgetPerWindow(1);
+        MutableClock clock = new MutableClock(OFF_PEAK);
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        HotLocationPrefetcher prefetcher = newPrefetcher(tracker, clock);
+        request(tracker, Location.of(1, 1), 8);
+        request(tracker, Location.of(2, 2), 4);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), eq(START), eq(END), any()))
+                .thenReturn(HourlyResponses.daily(LocalDate.parse(START), LocalDate.parse(END)));
+
+        // Act: every tick of the window, each past the ten-minute TTL of recent days
+        for (int tick = 0; tick < 12; tick++) {
+            prefetcher.prefetch();
+            clock.advance(15 * 60_000);
+        }
+
+        // Assert: one call for the whole window, and the days are still cached at noon
+        verify(openMeteoClientService, times(1)).getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        verify(openMeteoClientService).getHourly(1.0, 1.0, START, END, HourlyVariable.TEMPERATURE);
+        assertEquals(11, prefetcher.getStats(10).getAlreadyWarm());
+        assertEquals(12, prefetcher.getStats(10).getBudgetExhaustedRuns());
+        clock.advance(6 * 3_600_000);
+        tracker.record(Location.of(1, 1), LocalDate.parse(START), LocalDate.parse(END));
+        assertEquals(1, tracker.getWarmHits());
+    }
+
+    @Test
+    void testFailedFetchesAreCountedAndNotMarkedAsPrefetched() {
+        // Arrange
+        Clock clock = Clock.fixed(OFF_PEAK, ZoneOffset.UTC);
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        HotLocationPrefetcher prefetcher = newPrefetcher(tracker, clock);
+        request(tracker, Location.of(1, 1), 2);
+        request(tracker, Location.of(2, 2), 1);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenThrow(new UpstreamCallException("Open-Meteo is down", null));
+
+        // Act
+        prefetcher.prefetch();
+
+        // Assert
+        PrefetchStats stats = prefetcher.getStats(10);
+        assertEquals(2, stats.getFailures());
+        assertEquals(0, stats.getPrefetched());
+        tracker.record(Location.of(1, 1), LocalDate.parse(START), LocalDate.parse(END));
+        assertEquals(0, tracker.getWarmHits());
+    }
+
+    @Test
+    void testNothingIsFetchedOutsideTheOffPeakWindow() {
+        // Arrange
+        Clock clock = Clock.fixed(Instant.parse("2025-06-01T12:00:00Z"), ZoneOffset.UTC);
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        HotLocationPrefetcher prefetcher = newPrefetcher(tracker, clock);
+        request(tracker, Location.of(1, 1), 3);
+
+        // Act
+        prefetcher.prefetch();
+
+        // Assert
+        verifyNoInteractions(openMeteoClientService);
+        assertEquals(0, prefetcher.getStats(10).getRuns());
+        assertEquals(1, prefetcher.getStats(10).getTopLocations().size());
+    }
+
+    @Test
+    void testWindowCanWrapAroundMidnight() {
+        // Arrange: 22:00-04:00, at 23:00
+        properties.getPrefetch().setOffPeakStartHour(22);
+        properties.getPrefetch().setOffPeakEndHour(4);
+        Clock clock = Clock.fixed(Instant.parse("2025-06-01T23:00:00Z"), ZoneOffset.UTC);
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        HotLocationPrefetcher prefetcher = newPrefetcher(tracker, clock);
+
+        // Act
+        prefetcher.prefetch();
+
+        // Assert
+        assertEquals(1, prefetcher.getStats(10).getRuns());
+    }
+
+    private HotLocationPrefetcher newPrefetcher(HotLocationTracker tracker, Clock clock) {
+        HourlySeriesService hourlySeriesService = new HourlySeriesService(
+                new OpenMeteoGateway(openMeteoClientService, properties),
+                new HourlyDayCache(properties, clock), new HourlyTemperatureStore(properties, clock), properties);
+        return new HotLocationPrefetcher(tracker, hourlySeriesService, properties, clock);
+    }
+
+    private static void request(HotLocationTracker tracker, Location location, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(location, null, null);
+        }
+    }
+}
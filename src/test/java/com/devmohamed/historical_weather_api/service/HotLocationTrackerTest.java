@@ -0,0 +1,158 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HotLocation;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.provider.HotLocationTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HotLocationTracker sketch and its prefetch accounting.
+ */
+class HotLocationTrackerTest {
+
+    private static final LocalDate START = LocalDate.parse("2025-05-30");
+    private static final LocalDate END = LocalDate.parse("2025-05-31");
+
+    private OpenMeteoProperties properties;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenMeteoProperties();
+        clock = new MutableClock(Instant.parse("2025-06-01T03:00:00Z"));
+    }
+
+    @Test
+    void testTopLocationsAreRankedByRequests() {
+        // Arrange
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+
+        // Act
+        record(tracker, Location.of(1, 1), 5);
+        record(tracker, Location.of(2, 2), 9);
+        record(tracker, Location.of(3, 3), 2);
+
+        // Assert
+        List<HotLocation> top = tracker.top(2);
+        assertEquals(2, top.size());
+        assertEquals(2.0, top.get(0).getLatitude());
+        assertEquals(9, top.get(0).getRequests());
+        assertEquals(1.0, top.get(1).getLatitude());
+        assertEquals(0, top.get(1).getMaxOverestimate());
+        assertEquals(16, tracker.getRequests());
+        assertEquals(3, tracker.getTrackedLocations());
+    }
+
+    @Test
+    void testHeavyHittersSurviveALongTailOfRareLocations() {
+        // Arrange: 10 tracked counters, 3 hot locations and 500 locations seen once or twice
+        properties.getPrefetch().setTrackedLocations(10);
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        Random random = new Random(42);
+        int[] hotCounts = new int[3];
+
+        // Act
+        for (int i = 0; i < 3000; i++) {
+            if (random.nextInt(2) == 0) {
+                int hot = random.nextInt(3);
+                hotCounts[hot]++;
+                tracker.record(Location.of(hot, 0), null, null);
+            } else {
+                tracker.record(Location.of(100 + random.nextInt(500), 0), null, null);
+            }
+        }
+
+        // Assert: every hot location is kept and its true count lies within the reported bounds
+        assertEquals(10, tracker.getTrackedLocations());
+        List<HotLocation> top = tracker.top(3);
+        for (HotLocation hot : top) {
+            assertTrue(hot.getLatitude() < 3, "unexpected location " + hot.getLatitude());
+            int actual = hotCounts[(int) hot.getLatitude()];
+            assertTrue(hot.getRequests() >= actual);
+            assertTrue(hot.getRequests() - hot.getMaxOverestimate() <= actual);
+        }
+    }
+
+    @Test
+    void testDecayHalvesCountsAndDropsColdLocations() {
+        // Arrange
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        record(tracker, Location.of(1, 1), 8);
+        record(tracker, Location.of(2, 2), 1);
+
+        // Act
+        tracker.decay();
+
+        // Assert
+        assertEquals(1, tracker.getTrackedLocations());
+        assertEquals(4, tracker.top(5).get(0).getRequests());
+
+        // The freed counter is reused without disturbing the ranking
+        record(tracker, Location.of(3, 3), 6);
+        assertEquals(3.0, tracker.top(1).get(0).getLatitude());
+    }
+
+    @Test
+    void testRequestWithinTheWarmPeriodCountsAsWarmHit() {
+        // Arrange
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        tracker.markPrefetched(Location.of(1, 1), START, END, clock.millis() + 600_000);
+
+        // Act
+        clock.advance(300_000);
+        tracker.record(Location.of(1, 1), LocalDate.parse("2025-05-25"), END);
+        tracker.record(Location.of(1, 1), LocalDate.parse("2025-05-25"), END);
+
+        // Assert: only the first request settles the prefetch
+        assertEquals(1, tracker.getWarmHits());
+        assertEquals(0, tracker.getUnused());
+    }
+
+    @Test
+    void testExpiredOrReplacedPrefetchesCountAsUnused() {
+        // Arrange
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        tracker.markPrefetched(Location.of(1, 1), START, END, clock.millis() + 600_000);
+        tracker.markPrefetched(Location.of(2, 2), START, END, clock.millis() + 600_000);
+        tracker.markPrefetched(Location.of(2, 2), START, END, clock.millis() + 600_000);
+
+        // Act
+        clock.advance(900_000);
+        tracker.expirePrefetched();
+        tracker.record(Location.of(1, 1), START, END);
+
+        // Assert
+        assertEquals(0, tracker.getWarmHits());
+        assertEquals(3, tracker.getUnused());
+    }
+
+    @Test
+    void testRequestOutsideThePrefetchedRangeDoesNotSettleIt() {
+        // Arrange
+        HotLocationTracker tracker = new HotLocationTracker(properties, clock);
+        tracker.markPrefetched(Location.of(1, 1), START, END, clock.millis() + 600_000);
+
+        // Act
+        tracker.record(Location.of(1, 1), LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-31"));
+        tracker.record(Location.of(1, 1), null, null);
+
+        // Assert
+        assertEquals(0, tracker.getWarmHits());
+        assertEquals(0, tracker.getUnused());
+    }
+
+    private static void record(HotLocationTracker tracker, Location location, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(location, null, null);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.model.HourlyData;
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+
+import java.time.LocalDate;
+
+/**
+ * Upstream responses shared by the blocking and the reactive service tests.
+ */
+final class HourlyResponses {
+
+    private HourlyResponses() {
+    }
+
+    /**
+     * Whole days of data holding {@link #valueFor} for every hour.
+     */
+    static HourlyForecastResponse daily(LocalDate start, LocalDate end) {
+        int hours = (int) (end.toEpochDay() - start.toEpochDay() + 1) * 24;
+        double[] temps = new double[hours];
+        for (int i = 0; i < hours; i++) {
+            temps[i] = valueFor(start.plusDays(i / 24), i % 24);
+        }
+        HourlyData hourly = new HourlyData();
+        hourly.setStartTime(start.atStartOfDay());
+        hourly.setTimeCount(hours);
+        hourly.setTemperature2m(temps);
+        HourlyForecastResponse response = new HourlyForecastResponse();
+        response.setHourly(hourly);
+        return response;
+    }
+
+    /**
+     * A value that is unique per (day of month, hour), so misplaced copies are caught.
+     */
+    static double valueFor(LocalDate day, int hour) {
+        return day.getDayOfMonth() * 100 + hour;
+    }
+
+    /**
+     * Whole days of data with a seasonal and a daily cycle and a missing hour every few days.
+     * The values depend only on the hour, so responses for overlapping ranges agree.
+     */
+    static HourlyForecastResponse seasonal(LocalDate from, LocalDate to) {
+        int hours = (int) (to.toEpochDay() - from.toEpochDay() + 1) * 24;
+        double[] temps = new double[hours];
+        for (int i = 0; i < hours; i++) {
+            long hour = (from.toEpochDay() - LocalDate.parse("2023-01-01").toEpochDay()) * 24 + i;
+            temps[i] = hour % 101 == 0 ? Double.NaN
+                    : Math.round(100 * (10 - 15 * Math.cos(hour * 2 * Math.PI / 8760) + 5 * Math.sin(hour * Math.PI / 12))) / 100.0;
+        }
+        HourlyData hourly = new HourlyData();
+        hourly.setStartTime(from.atStartOfDay());
+        hourly.setTimeCount(hours);
+        hourly.setTemperature2m(temps);
+        HourlyForecastResponse response = new HourlyForecastResponse();
+        response.setHourly(hourly);
+        return response;
+    }
+}
@@ -0,0 +1,118 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import com.devmohamed.historical_weather_api.provider.HourlyRollupIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HourlyRollupIndex. Every range answered by the index must equal
+ * a single pass over the same hourly values.
+ */
+class HourlyRollupIndexTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.parse("2021-03-10");
+    private static final int DAYS = 1200;
+
+    private final Location location = Location.of(52.52, 13.41);
+    private final Clock clock = Clock.fixed(Instant.parse("2025-06-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private OpenMeteoProperties properties;
+    private HourlyRollupIndex rollupIndex;
+    private double[] values;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenMeteoProperties();
+        rollupIndex = new HourlyRollupIndex(properties, clock);
+
+        // Rounded values so extremes repeat, plus missing hours and one fully missing day
+        Random random = new Random(42);
+        values = new double[DAYS * HourlySeries.HOURS_PER_DAY];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(50) == 0 ? Double.NaN : Math.round(random.nextGaussian() * 80) / 10.0;
+        }
+        Arrays.fill(values, 100 * 24, 101 * 24, Double.NaN);
+    }
+
+    @Test
+    void testRandomRangesMatchASinglePass() {
+        // Arrange
+        rollupIndex.index(location, new HourlySeries(FIRST_DAY, values));
+        Random random = new Random(7);
+
+        for (int q = 0; q < 500; q++) {
+            int from = random.nextInt(DAYS);
+            int to = from + random.nextInt(DAYS - from);
+
+            // Act
+            SeriesAggregate actual = rollupIndex.query(location, FIRST_DAY.plusDays(from), FIRST_DAY.plusDays(to));
+
+            // Assert
+            SeriesAggregate expected = SeriesAggregate.of(new HourlySeries(FIRST_DAY.plusDays(from),
+                    Arrays.copyOfRange(values, from * 24, (to + 1) * 24)));
+            assertNotNull(actual, "range " + from + ".." + to);
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(expected.getNullCount(), actual.getNullCount());
+            assertEquals(expected.getSum(), actual.getSum(), 1e-6);
+            assertEquals(expected.getMean(), actual.getMean(), 1e-9);
+            assertEquals(expected.getVariance(), actual.getVariance(), 1e-9);
+            assertEquals(expected.getMin(), actual.getMin());
+            assertEquals(expected.getMinTime(), actual.getMinTime());
+            assertEquals(expected.getMax(), actual.getMax());
+            assertEquals(expected.getMaxTime(), actual.getMaxTime());
+        }
+    }
+
+    @Test
+    void testRangesWithDaysNotIndexedAreMisses() {
+        // Arrange: index the first and the last 100 days only
+        rollupIndex.index(location, new HourlySeries(FIRST_DAY, Arrays.copyOfRange(values, 0, 100 * 24)));
+        rollupIndex.index(location, new HourlySeries(FIRST_DAY.plusDays(DAYS - 100),
+                Arrays.copyOfRange(values, (DAYS - 100) * 24, DAYS * 24)));
+
+        // Act & Assert
+        assertNotNull(rollupIndex.query(location, FIRST_DAY, FIRST_DAY.plusDays(99)));
+        assertNull(rollupIndex.query(location, FIRST_DAY, FIRST_DAY.plusDays(100)));
+        assertNull(rollupIndex.query(location, FIRST_DAY, FIRST_DAY.plusDays(DAYS - 1)));
+        assertNull(rollupIndex.query(Location.of(1, 1), FIRST_DAY, FIRST_DAY));
+        assertEquals(1, rollupIndex.getStats().getHits());
+        assertEquals(3, rollupIndex.getStats().getMisses());
+    }
+
+    @Test
+    void testRecentDaysAreNotIndexed() {
+        // Arrange: from 2025-05-27 on, days fall inside the recent window and may still change upstream
+        LocalDate start = LocalDate.parse("2025-05-25");
+        rollupIndex.index(location, new HourlySeries(start, Arrays.copyOfRange(values, 0, 8 * 24)));
+
+        // Act & Assert
+        assertNotNull(rollupIndex.query(location, start, LocalDate.parse("2025-05-26")));
+        assertNull(rollupIndex.query(location, start, LocalDate.parse("2025-05-30")));
+        assertEquals(2, rollupIndex.getStats().getIndexedDays());
+    }
+
+    @Test
+    void testDisabledIndexAnswersNothing() {
+        // Arrange
+        properties.getRollup().setEnabled(false);
+        rollupIndex = new HourlyRollupIndex(properties, clock);
+        rollupIndex.index(location, new HourlySeries(FIRST_DAY, values));
+
+        // Act & Assert
+        assertNull(rollupIndex.query(location, FIRST_DAY, FIRST_DAY));
+        assertEquals(0, rollupIndex.getStats().getLocationYears());
+    }
+}
@@ -0,0 +1,290 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamCallException;
+import com.devmohamed.historical_weather_api.model.CacheStats;
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.provider.HourlyDayCache;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesService;
+import com.devmohamed.historical_weather_api.provider.HourlyTemperatureStore;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the HourlySeriesService and its day-granular cache.
+ * The OpenMeteoClientService is mocked so we can count upstream calls.
+ */
+@ExtendWith(MockitoExtension.class)
+class HourlySeriesServiceTest {
+
+    @Mock
+    private OpenMeteoClientService openMeteoClientService;
+
+    private OpenMeteoProperties properties;
+    private HourlyDayCache dayCache;
+    private HourlySeriesService hourlySeriesService;
+
+    // Reusable test data
+    private final double lat = 52.52;
+    private final double lon = 13.41;
+
+    // Everything in these tests is far in the past relative to this clock
+    private final Clock clock = Clock.fixed(Instant.parse("2025-06-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenMeteoProperties();
+        dayCache = new HourlyDayCache(properties, clock);
+        hourlySeriesService = newService(dayCache, new HourlyTemperatureStore(properties));
+    }
+
+    @Test
+    void testSecondRequestIsServedFromCache() {
+        // Arrange
+        stubUpstream("2024-01-01", "2024-01-03");
+
+        // Act
+        HourlySeries first = hourlySeriesService.getHourlySeries(lat, lon, "2024-01-01", "2024-01-03");
+        HourlySeries second = hourlySeriesService.getHourlySeries(lat, lon, "2024-01-01", "2024-01-03");
+
+        // Assert
+        assertArrayEquals(first.getValues(), second.getValues());
+        verify(openMeteoClientService, times(1)).getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        CacheStats stats = dayCache.getStats();
+        assertEquals(3, stats.getHits());
+        assertEquals(3, stats.getMisses());
+    }
+
+    @Test
+    void testOverlappingRangeOnlyFetchesMissingDays() {
+        // Arrange
+        stubUpstream("2024-01-01", "2024-01-07");
+        stubUpstream("2024-01-08", "2024-01-10");
+        hourlySeriesService.getHourlySeries(lat, lon, "2024-01-01", "2024-01-07");
+
+        // Act: slide the window forward by three days
+        HourlySeries series = hourlySeriesService.getHourlySeries(lat, lon, "2024-01-04", "2024-01-10");
+
+        // Assert
+        assertEquals(7 * 24, series.size());
+        assertEquals(HourlyResponses.valueFor(LocalDate.parse("2024-01-04"), 0), series.getValues()[0]);
+        assertEquals(HourlyResponses.valueFor(LocalDate.parse("2024-01-10"), 23), series.getValues()[7 * 24 - 1]);
+        verify(openMeteoClientService).getHourly(lat, lon, "2024-01-08", "2024-01-10", HourlyVariable.TEMPERATURE);
+    }
+
+    @Test
+    void testSmallCachedGapIsMergedIntoOneUpstreamCall() {
+        // Arrange: cache day 3 only, then ask for days 1..5
+        stubUpstream("2024-01-03", "2024-01-03");
+        stubUpstream("2024-01-01", "2024-01-05");
+        hourlySeriesService.getHourlySeries(lat, lon, "2024-01-03", "2024-01-03");
+
+        // Act
+        HourlySeries series = hourlySeriesService.getHourlySeries(lat, lon, "2024-01-01", "2024-01-05");
+
+        // Assert: one call for the whole range instead of two calls around the cached day
+        assertEquals(5 * 24, series.size());
+        verify(openMeteoClientService).getHourly(lat, lon, "2024-01-01", "2024-01-05", HourlyVariable.TEMPERATURE);
+        verify(openMeteoClientService, times(2)).getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void testLargeCachedGapIsFetchedAsSeparateRuns() {
+        // Arrange
+        properties.getCache().setMaxGapDays(0);
+        hourlySeriesService = newService(dayCache, new HourlyTemperatureStore(properties));
+        stubUpstream("2024-01-03", "2024-01-03");
+        stubUpstream("2024-01-01", "2024-01-02");
+        stubUpstream("2024-01-04", "2024-01-05");
+        hourlySeriesService.getHourlySeries(lat, lon, "2024-01-03", "2024-01-03");
+
+        // Act
+        HourlySeries series = hourlySeriesService.getHourlySeries(lat, lon, "2024-01-01", "2024-01-05");
+
+        // Assert
+        assertEquals(HourlyResponses.valueFor(LocalDate.parse("2024-01-03"), 5), series.getValues()[2 * 24 + 5]);
+        verify(openMeteoClientService).getHourly(lat, lon, "2024-01-01", "2024-01-02", HourlyVariable.TEMPERATURE);
+        verify(openMeteoClientService).getHourly(lat, lon, "2024-01-04", "2024-01-05", HourlyVariable.TEMPERATURE);
+    }
+
+    @Test
+    void testRecentDaysExpireBeforeHistoricalDays() {
+        // Arrange: 2025-05-31 falls inside the recent window of the clock, 2024-05-31 does not
+        MutableClock mutableClock = new MutableClock(clock.instant());
+        HourlyDayCache cache = new HourlyDayCache(properties, mutableClock);
+        Location location = Location.of(lat, lon);
+        cache.putDays(location, LocalDate.parse("2025-05-31"), new double[24], 0, 1);
+        cache.putDays(location, LocalDate.parse("2024-05-31"), new double[24], 0, 1);
+
+        // Act: move past the recent TTL but stay inside the historical TTL
+        mutableClock.advance(properties.getCache().getRecentTtlMs() + 1);
+        boolean[] recent = new boolean[1];
+        boolean[] historical = new boolean[1];
+        cache.getDays(location, LocalDate.parse("2025-05-31"), recent, new double[24]);
+        cache.getDays(location, LocalDate.parse("2024-05-31"), historical, new double[24]);
+
+        // Assert
+        assertFalse(recent[0]);
+        assertTrue(historical[0]);
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    void testSizeBasedEvictionIsCounted() {
+        // Arrange: 16 segments of one entry each
+        properties.getCache().setMaxDays(16);
+        dayCache = new HourlyDayCache(properties, clock);
+        double[] values = new double[100 * 24];
+
+        // Act
+        dayCache.putDays(Location.of(lat, lon),
+                LocalDate.parse("2024-01-01"), values, 0, 100);
+
+        // Assert
+        CacheStats stats = dayCache.getStats();
+        assertTrue(stats.getSize() <= 16);
+        assertEquals(100 - stats.getSize(), stats.getEvictions());
+    }
+
+    @Test
+    void testStoreServesHistoryAfterRestart(@TempDir Path storeDir) {
+        // Arrange
+        properties.getStore().setEnabled(true);
+        properties.getStore().setDirectory(storeDir.toString());
+        HourlyTemperatureStore store = new HourlyTemperatureStore(properties, clock);
+        hourlySeriesService = newService(dayCache, store);
+        stubUpstream("2024-02-27", "2024-03-02");
+        HourlySeries fetched = hourlySeriesService.getHourlySeries(lat, lon, "2024-02-27", "2024-03-02");
+
+        // Act: a new cache and store instance over the same directory, as after a restart
+        HourlySeriesService restarted = newService(
+                new HourlyDayCache(properties, clock), new HourlyTemperatureStore(properties, clock));
+        HourlySeries series = restarted.getHourlySeries(lat, lon, "2024-02-27", "2024-03-02");
+
+        // Assert
+        assertArrayEquals(fetched.getValues(), series.getValues());
+        verify(openMeteoClientService, times(1)).getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void testUpstreamFailureReturnsNull() {
+        // Arrange
+        when(openMeteoClientService.getHourly(lat, lon, "2024-01-01", "2024-01-02", HourlyVariable.TEMPERATURE)).thenReturn(null);
+
+        // Act & Assert
+        assertNull(hourlySeriesService.getHourlySeries(lat, lon, "2024-01-01", "2024-01-02"));
+    }
+
+    @Test
+    void testStaleDaysAreServedWhenUpstreamFails() {
+        // Arrange: a recent day is cached, then expires while Open-Meteo starts failing
+        properties.getRetry().setMaxAttempts(1);
+        MutableClock mutableClock = new MutableClock(clock.instant());
+        HourlyDayCache cache = new HourlyDayCache(properties, mutableClock);
+        hourlySeriesService = newService(cache, new HourlyTemperatureStore(properties));
+        when(openMeteoClientService.getHourly(lat, lon, "2025-05-31", "2025-05-31", HourlyVariable.TEMPERATURE))
+                .thenReturn(HourlyResponses.daily(LocalDate.parse("2025-05-31"), LocalDate.parse("2025-05-31")))
+                .thenThrow(new UpstreamCallException("503", null));
+        HourlySeries fresh = hourlySeriesService.getHourlySeries(lat, lon, "2025-05-31", "2025-05-31");
+        mutableClock.advance(properties.getCache().getRecentTtlMs() + 1);
+
+        // Act
+        HourlySeries series = hourlySeriesService.getHourlySeries(lat, lon, "2025-05-31", "2025-05-31");
+
+        // Assert
+        assertFalse(fresh.isStale());
+        assertTrue(series.isStale());
+        assertArrayEquals(fresh.getValues(), series.getValues());
+        assertEquals(1, cache.getStats().getStaleHits());
+    }
+
+    @Test
+    void testSlowUpstreamGetsStaleAnswerAndRefreshesInBackground() throws Exception {
+        // Arrange: the refresh of the expired day blocks until released
+        properties.getCache().setStaleLatencyBudgetMs(50);
+        MutableClock mutableClock = new MutableClock(clock.instant());
+        HourlyDayCache cache = new HourlyDayCache(properties, mutableClock);
+        hourlySeriesService = newService(cache, new HourlyTemperatureStore(properties));
+        HourlyForecastResponse response = HourlyResponses.daily(LocalDate.parse("2025-05-31"), LocalDate.parse("2025-05-31"));
+        CountDownLatch release = new CountDownLatch(1);
+        when(openMeteoClientService.getHourly(lat, lon, "2025-05-31", "2025-05-31", HourlyVariable.TEMPERATURE))
+                .thenReturn(response)
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return response;
+                });
+        hourlySeriesService.getHourlySeries(lat, lon, "2025-05-31", "2025-05-31");
+        mutableClock.advance(properties.getCache().getRecentTtlMs() + 1);
+
+        // Act
+        long start = System.nanoTime();
+        HourlySeries stale = hourlySeriesService.getHourlySeries(lat, lon, "2025-05-31", "2025-05-31");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        // Assert: answered within about the budget, and the refresh lands in the cache afterwards
+        assertTrue(stale.isStale());
+        assertTrue(elapsedMs < 2000, "stale answer took " + elapsedMs + " ms");
+        boolean[] present = new boolean[1];
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getDays(Location.of(lat, lon), LocalDate.parse("2025-05-31"), present, new double[24]) == 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(present[0]);
+        assertFalse(hourlySeriesService.getHourlySeries(lat, lon, "2025-05-31", "2025-05-31").isStale());
+        verify(openMeteoClientService, times(2)).getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void testNoStaleCopyPastTheStaleWindow() {
+        // Arrange
+        properties.getRetry().setMaxAttempts(1);
+        MutableClock mutableClock = new MutableClock(clock.instant());
+        HourlyDayCache cache = new HourlyDayCache(properties, mutableClock);
+        hourlySeriesService = newService(cache, new HourlyTemperatureStore(properties));
+        when(openMeteoClientService.getHourly(lat, lon, "2025-05-31", "2025-05-31", HourlyVariable.TEMPERATURE))
+                .thenReturn(HourlyResponses.daily(LocalDate.parse("2025-05-31"), LocalDate.parse("2025-05-31")))
+                .thenThrow(new UpstreamCallException("503", null));
+        hourlySeriesService.getHourlySeries(lat, lon, "2025-05-31", "2025-05-31");
+
+        // Act
+        mutableClock.advance(properties.getCache().getRecentTtlMs() + properties.getCache().getStaleIfErrorMs());
+
+        // Assert
+        assertNull(hourlySeriesService.getHourlySeries(lat, lon, "2025-05-31", "2025-05-31"));
+    }
+
+    // --- Helpers ---
+
+    private HourlySeriesService newService(HourlyDayCache cache, HourlyTemperatureStore store) {
+        return new HourlySeriesService(new OpenMeteoGateway(openMeteoClientService, properties), cache, store, properties);
+    }
+
+    private void stubUpstream(String start, String end) {
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE))
+                .thenReturn(HourlyResponses.daily(LocalDate.parse(start), LocalDate.parse(end)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.exception.UpstreamBusyException;
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesStream;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HourlySeriesStream: order, the lookahead bound and how it ends.
+ */
+class HourlySeriesStreamTest {
+
+    private static final List<DateRange> CHUNKS = List.of(
+            day("2024-01-01"), day("2024-01-02"), day("2024-01-03"), day("2024-01-04"));
+
+    @Test
+    void testChunksAreReadInOrderWithBoundedLookahead() {
+        // Arrange: fetches run on the calling thread, so every started fetch is counted at once
+        List<LocalDate> fetched = new ArrayList<>();
+        HourlySeriesStream stream = new HourlySeriesStream(CHUNKS, range -> {
+            fetched.add(range.start());
+            return new HourlySeries(range.start(), new double[24]);
+        }, Runnable::run, 2);
+
+        // Act: nothing is fetched before the first read
+        assertTrue(fetched.isEmpty());
+        List<LocalDate> read = new ArrayList<>();
+        while (stream.hasNext()) {
+            read.add(stream.next().getStartDate());
+
+            // Assert: at most two chunks beyond those read are fetched
+            assertEquals(Math.min(read.size() + 2, CHUNKS.size()), fetched.size());
+        }
+        assertEquals(CHUNKS.stream().map(DateRange::start).toList(), read);
+        assertNull(stream.next());
+    }
+
+    @Test
+    void testMissingChunkEndsTheStream() {
+        // Arrange
+        HourlySeriesStream stream = new HourlySeriesStream(CHUNKS,
+                range -> range.equals(CHUNKS.get(1)) ? null : new HourlySeries(range.start(), new double[24]),
+                Runnable::run, 1);
+
+        // Act & Assert
+        assertNotNull(stream.next());
+        assertEquals(CHUNKS.get(1), stream.peekRange());
+        assertNull(stream.next());
+        assertFalse(stream.hasNext());
+    }
+
+    @Test
+    void testUpstreamExceptionIsRethrownAndClosesTheStream() {
+        // Arrange
+        HourlySeriesStream stream = new HourlySeriesStream(CHUNKS, range -> {
+            throw new UpstreamBusyException("Too many concurrent requests to Open-Meteo");
+        }, Runnable::run, 2);
+
+        // Act & Assert
+        assertThrows(UpstreamBusyException.class, stream::next);
+        assertFalse(stream.hasNext());
+    }
+
+    // --- Helpers ---
+
+    private static DateRange day(String date) {
+        return new DateRange(LocalDate.parse(date), LocalDate.parse(date));
+    }
+}
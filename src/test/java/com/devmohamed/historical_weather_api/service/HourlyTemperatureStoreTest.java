@@ -0,0 +1,185 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.StoreVerificationReport;
+import com.devmohamed.historical_weather_api.provider.HourlyTemperatureStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the memory-mapped HourlyTemperatureStore.
+ */
+class HourlyTemperatureStoreTest {
+
+    @TempDir
+    Path storeDir;
+
+    private OpenMeteoProperties properties;
+    private HourlyTemperatureStore store;
+
+    private final Location location = Location.of(52.52, 13.41);
+    private final Clock clock = Clock.fixed(Instant.parse("2025-06-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenMeteoProperties();
+        properties.getStore().setEnabled(true);
+        properties.getStore().setDirectory(storeDir.toString());
+        store = new HourlyTemperatureStore(properties, clock);
+    }
+
+    @Test
+    void testRoundTripAcrossYearBoundaryKeepsExactValues() {
+        // Arrange: 2023-12-31 and 2024-01-01 live in different year files
+        double[] values = new double[48];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (-123 + i) / 10.0;
+        }
+        values[5] = Double.NaN;
+
+        // Act
+        store.writeDays(location, LocalDate.parse("2023-12-31"), values, 0, 2);
+        double[] target = new double[48];
+        boolean[] present = new boolean[2];
+        int found = store.readDays(location, LocalDate.parse("2023-12-31"), present, target);
+
+        // Assert
+        assertEquals(2, found);
+        assertTrue(Double.isNaN(target[5]));
+        for (int i = 0; i < values.length; i++) {
+            if (i != 5) {
+                assertEquals(values[i], target[i]);
+            }
+        }
+        assertTrue(Files.exists(storeDir.resolve("52.52_13.41").resolve("2023.bin")));
+        assertTrue(Files.exists(storeDir.resolve("52.52_13.41").resolve("2024.bin")));
+    }
+
+    @Test
+    void testDaysThatWouldNotReadBackExactlyAreNotWritten() {
+        // Arrange: the first day holds a value a float cannot carry to two decimals
+        double[] values = new double[48];
+        values[3] = 12.345;
+
+        // Act
+        store.writeDays(location, LocalDate.parse("2024-01-01"), values, 0, 2);
+        boolean[] present = new boolean[2];
+        double[] target = new double[48];
+        int found = store.readDays(location, LocalDate.parse("2024-01-01"), present, target);
+
+        // Assert
+        assertEquals(1, found);
+        assertArrayEquals(new boolean[]{false, true}, present);
+        assertEquals(1, store.getStats().getDaysWritten());
+    }
+
+    @Test
+    void testDaysSpanningTwoBitmapWordsAreFound() {
+        // Arrange: hours 48-71 of 2024-01-03 straddle the first and second 64-hour word
+        store.writeDays(location, LocalDate.parse("2024-01-03"), new double[24], 0, 1);
+
+        // Act
+        boolean[] present = new boolean[3];
+        int found = store.readDays(location, LocalDate.parse("2024-01-02"), present, new double[72]);
+
+        // Assert
+        assertEquals(1, found);
+        assertArrayEquals(new boolean[]{false, true, false}, present);
+    }
+
+    @Test
+    void testMissingDaysAreNotReported() {
+        // Arrange
+        store.writeDays(location, LocalDate.parse("2024-03-01"), new double[24], 0, 1);
+
+        // Act
+        boolean[] present = new boolean[3];
+        int found = store.readDays(location, LocalDate.parse("2024-02-29"), present, new double[72]);
+
+        // Assert
+        assertEquals(1, found);
+        assertArrayEquals(new boolean[]{false, true, false}, present);
+    }
+
+    @Test
+    void testRecentDaysAreNotWritten() {
+        // Act: 2025-05-30 is inside the recent window of the clock
+        store.writeDays(location, LocalDate.parse("2025-05-30"), new double[24], 0, 1);
+
+        // Assert
+        boolean[] present = new boolean[1];
+        assertEquals(0, store.readDays(location, LocalDate.parse("2025-05-30"), present, new double[24]));
+        assertEquals(0, store.getStats().getDaysWritten());
+    }
+
+    @Test
+    void testVerifyReportsCorruptFilesAndCompactRemovesThem() throws IOException {
+        // Arrange
+        store.writeDays(location, LocalDate.parse("2024-01-01"), new double[48], 0, 2);
+        Path corrupt = storeDir.resolve("1.0_2.0").resolve("2020.bin");
+        Files.createDirectories(corrupt.getParent());
+        Files.write(corrupt, new byte[]{1, 2, 3});
+
+        // Act
+        StoreVerificationReport verified = store.verify();
+        StoreVerificationReport compacted = store.compact();
+
+        // Assert
+        assertEquals(2, verified.getFilesChecked());
+        assertEquals(48, verified.getHoursStored());
+        assertEquals(1, verified.getCorruptFiles().size());
+        assertEquals(1, compacted.getFilesRemoved());
+        assertFalse(Files.exists(corrupt.getParent()));
+        assertTrue(store.verify().getCorruptFiles().isEmpty());
+    }
+
+    @Test
+    void testCompactLeavesMappedFilesAlone() throws IOException {
+        // Arrange: a file this store has mapped, with its bitmap cleared on disk
+        store.writeDays(location, LocalDate.parse("2024-01-01"), new double[24], 0, 1);
+        Path file = storeDir.resolve("52.52_13.41").resolve("2024.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(1104), 32);
+        }
+
+        // Act
+        StoreVerificationReport compacted = store.compact();
+        store.writeDays(location, LocalDate.parse("2024-01-02"), new double[24], 0, 1);
+
+        // Assert: the empty file was kept, so the later write is still readable from disk
+        assertEquals(1, compacted.getEmptyFiles());
+        assertEquals(0, compacted.getFilesRemoved());
+        assertTrue(Files.exists(file));
+        HourlyTemperatureStore reopened = new HourlyTemperatureStore(properties, clock);
+        boolean[] present = new boolean[1];
+        assertEquals(1, reopened.readDays(location, LocalDate.parse("2024-01-02"), present, new double[24]));
+    }
+
+    @Test
+    void testDisabledStoreDoesNothing() {
+        // Arrange
+        properties.getStore().setEnabled(false);
+        HourlyTemperatureStore disabled = new HourlyTemperatureStore(properties, clock);
+
+        // Act
+        disabled.writeDays(location, LocalDate.parse("2024-01-01"), new double[24], 0, 1);
+
+        // Assert
+        assertEquals(0, disabled.verify().getFilesChecked());
+    }
+}
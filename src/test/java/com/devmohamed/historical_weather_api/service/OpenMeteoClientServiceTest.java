@@ -1,6 +1,9 @@
 package com.devmohamed.historical_weather_api.service;
 
+import com.devmohamed.historical_weather_api.exception.UpstreamCallException;
 import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
 import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,8 +14,12 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
@@ -47,7 +54,7 @@ class OpenMeteoClientServiceTest {
         // This is the expected URL path the service should build
         expectedUrl = "/forecast?latitude=52.52&longitude=13.41" +
                 "&start_date=2024-01-01&end_date=2024-01-07" +
-                "&hourly=temperature_2m";
+                "&hourly=temperature_2m&timezone=GMT";
     }
 
     @Test
@@ -93,4 +100,65 @@ class OpenMeteoClientServiceTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    void testGetHourlyTemperature_TransientErrorIsThrownForRetry() {
+        // Arrange
+        // 1. A 503 may go away on the next attempt, so it is not swallowed
+        when(restTemplate.getForObject(expectedUrl, HourlyForecastResponse.class))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE, "Overloaded"));
+
+        // Act & Assert
+        assertThrows(UpstreamCallException.class,
+                () -> openMeteoClientService.getHourlyTemperature(lat, lon, start, end));
+    }
+
+    @Test
+    void testGetHourly_RequestsOnlyTheColumnsNeeded() {
+        // Arrange: the columns go out in declaration order, whatever order they were asked in
+        String url = expectedUrl.replace("hourly=temperature_2m", "hourly=precipitation,relative_humidity_2m");
+        HourlyForecastResponse fakeResponse = new HourlyForecastResponse();
+        when(restTemplate.getForObject(url, HourlyForecastResponse.class)).thenReturn(fakeResponse);
+
+        // Act
+        HourlyForecastResponse actualResponse = openMeteoClientService.getHourly(lat, lon, start, end,
+                new LinkedHashSet<>(List.of(HourlyVariable.RELATIVE_HUMIDITY_2M, HourlyVariable.PRECIPITATION)));
+
+        // Assert
+        assertSame(fakeResponse, actualResponse);
+    }
+
+    @Test
+    void testGetHourlyTemperatureBatch_JoinsCoordinates() {
+        // Arrange
+        // 1. Several locations go out as comma-separated lists and come back as an array
+        String batchUrl = "/forecast?latitude=52.52,48.85&longitude=13.41,2.35" +
+                "&start_date=2024-01-01&end_date=2024-01-07" +
+                "&hourly=temperature_2m&timezone=GMT";
+        HourlyForecastResponse berlin = new HourlyForecastResponse();
+        HourlyForecastResponse paris = new HourlyForecastResponse();
+        when(restTemplate.getForObject(batchUrl, HourlyForecastResponse[].class))
+                .thenReturn(new HourlyForecastResponse[]{berlin, paris});
+
+        // Act
+        List<HourlyForecastResponse> responses = openMeteoClientService.getHourlyTemperatureBatch(
+                List.of(Location.of(lat, lon), Location.of(48.85, 2.35)), start, end);
+
+        // Assert
+        assertEquals(List.of(berlin, paris), responses);
+    }
+
+    @Test
+    void testGetHourlyTemperatureBatch_WrongResponseCount() {
+        // Arrange
+        // 1. An answer that cannot be matched to the locations is treated as an error
+        String batchUrl = "/forecast?latitude=52.52,48.85&longitude=13.41,2.35" +
+                "&start_date=2024-01-01&end_date=2024-01-07" +
+                "&hourly=temperature_2m&timezone=GMT";
+        when(restTemplate.getForObject(batchUrl, HourlyForecastResponse[].class))
+                .thenReturn(new HourlyForecastResponse[]{new HourlyForecastResponse()});
+
+        // Act & Assert
+        assertNull(openMeteoClientService.getHourlyTemperatureBatch(
+                List.of(Location.of(lat, lon), Location.of(48.85, 2.35)), start, end));
+    }
+}
@@ -0,0 +1,605 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamBusyException;
+import com.devmohamed.historical_weather_api.exception.UpstreamCallException;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.exception.UpstreamUnavailableException;
+import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.model.UpstreamStats;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoGateway;
+import com.devmohamed.historical_weather_api.provider.UpstreamPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the request coalescing, the bulkhead, the retries, the hedging, the
+ * circuit breaker and the quota in OpenMeteoGateway.
+ */
+@ExtendWith(MockitoExtension.class)
+class OpenMeteoGatewayTest {
+
+    private static final int CALLERS = 16;
+
+    @Mock
+    private OpenMeteoClientService openMeteoClientService;
+
+    private OpenMeteoProperties properties;
+    private OpenMeteoGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenMeteoProperties();
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+    }
+
+    @Test
+    void testConcurrentIdenticalCallsShareOneUpstreamCall() throws Exception {
+        // Arrange: the upstream call blocks until every caller has arrived
+        HourlyForecastResponse response = new HourlyForecastResponse();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    upstreamCalls.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return response;
+                });
+
+        // Act: equal coordinates written differently still map to one key
+        List<Future<HourlyForecastResponse>> results = callConcurrently(release,
+                i -> gateway.getHourlyTemperature(Location.of(i % 2 == 0 ? 52.52 : 52.520001, 13.41),
+                        "2024-01-01", "2024-01-31"));
+
+        // Assert
+        for (Future<HourlyForecastResponse> result : results) {
+            assertSame(response, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, upstreamCalls.get());
+        UpstreamStats stats = gateway.getStats();
+        assertEquals(1, stats.getUpstreamCalls());
+        assertEquals(CALLERS - 1, stats.getCoalescedCalls());
+        assertEquals(0, stats.getInFlight());
+    }
+
+    @Test
+    void testLeaderFailureIsPropagatedToEveryWaiter() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    throw new IllegalStateException("upstream failed");
+                });
+
+        // Act
+        List<Future<HourlyForecastResponse>> results = callConcurrently(release,
+                i -> gateway.getHourlyTemperature(Location.of(52.52, 13.41), "2024-01-01", "2024-01-31"));
+
+        // Assert
+        for (Future<HourlyForecastResponse> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertEquals("upstream failed", e.getCause().getMessage());
+        }
+        verify(openMeteoClientService, times(1))
+                .getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        assertEquals(0, gateway.getStats().getInFlight());
+    }
+
+    @Test
+    void testDifferentRangesAreNotCoalesced() {
+        // Arrange
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenReturn(new HourlyForecastResponse());
+
+        // Act
+        gateway.getHourlyTemperature(Location.of(52.52, 13.41), "2024-01-01", "2024-01-31");
+        gateway.getHourlyTemperature(Location.of(52.52, 13.41), "2024-02-01", "2024-02-29");
+        gateway.getHourlyTemperature(Location.of(52.52, 13.41), "2024-01-01", "2024-01-31");
+
+        // Assert: sequential calls are never merged, only overlapping ones
+        verify(openMeteoClientService, times(3))
+                .getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        assertEquals(0, gateway.getStats().getCoalescedCalls());
+    }
+
+    @Test
+    void testCallerNeedingAnotherColumnWidensTheCallInFlight() throws Exception {
+        // Arrange: every upstream call blocks until released, answering with its own response
+        properties.getHedge().setEnabled(false);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Set<HourlyVariable>> upstreamColumns = new CopyOnWriteArrayList<>();
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    upstreamColumns.add(invocation.getArgument(4));
+                    release.await(5, TimeUnit.SECONDS);
+                    return new HourlyForecastResponse();
+                });
+        Location location = Location.of(52.52, 13.41);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // Act: temperature alone, then precipitation, then temperature again
+            Future<HourlyForecastResponse> first = executor.submit(() -> gateway.getHourlyTemperature(
+                    location, "2024-01-01", "2024-01-31"));
+            awaitUntil(() -> upstreamColumns.size() == 1);
+            Future<HourlyForecastResponse> second = executor.submit(() -> gateway.getHourly(location,
+                    "2024-01-01", "2024-01-31", Set.of(HourlyVariable.PRECIPITATION), UpstreamPriority.INTERACTIVE));
+            awaitUntil(() -> upstreamColumns.size() == 2);
+            Future<HourlyForecastResponse> third = executor.submit(() -> gateway.getHourlyTemperature(
+                    location, "2024-01-01", "2024-01-31"));
+            awaitUntil(() -> gateway.getStats().getCoalescedCalls() == 1);
+            release.countDown();
+
+            // Assert: the second call fetched both columns, and the third caller joined it
+            assertEquals(List.of(HourlyVariable.TEMPERATURE,
+                    EnumSet.of(HourlyVariable.TEMPERATURE_2M, HourlyVariable.PRECIPITATION)), upstreamColumns);
+            assertNotSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertSame(second.get(), third.get(5, TimeUnit.SECONDS));
+            assertEquals(0, gateway.getStats().getInFlight());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testBulkheadRejectsCallsBeyondMaxConcurrent() throws Exception {
+        // Arrange: two slots, both held by calls that block until released
+        properties.getBulkhead().setMaxConcurrent(2);
+        properties.getBulkhead().setAcquireTimeoutMs(50);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(2);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    entered.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new HourlyForecastResponse();
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<HourlyForecastResponse> first = executor.submit(
+                    () -> gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-31"));
+            Future<HourlyForecastResponse> second = executor.submit(
+                    () -> gateway.getHourlyTemperature(Location.of(2, 2), "2024-01-01", "2024-01-31"));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            // Act & Assert: a third, different call finds no free slot
+            assertThrows(UpstreamBusyException.class,
+                    () -> gateway.getHourlyTemperature(Location.of(3, 3), "2024-01-01", "2024-01-31"));
+            assertEquals(0, gateway.getStats().getBulkheadAvailable());
+
+            release.countDown();
+            assertNotNull(first.get(5, TimeUnit.SECONDS));
+            assertNotNull(second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        // Slots are given back, so the next call goes through
+        assertNotNull(gateway.getHourlyTemperature(Location.of(3, 3), "2024-01-01", "2024-01-31"));
+        UpstreamStats stats = gateway.getStats();
+        assertEquals(2, stats.getBulkheadAvailable());
+        assertEquals(1, stats.getBulkheadRejected());
+    }
+
+    @Test
+    void testTransientFailureIsRetried() {
+        // Arrange
+        properties.getRetry().setMinBackoffMs(1);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        HourlyForecastResponse response = new HourlyForecastResponse();
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenThrow(new UpstreamCallException("503", null))
+                .thenReturn(response);
+
+        // Act
+        HourlyForecastResponse result = gateway.getHourlyTemperature(Location.of(52.52, 13.41), "2024-01-01", "2024-01-31");
+
+        // Assert
+        assertSame(response, result);
+        UpstreamStats stats = gateway.getStats();
+        assertEquals(1, stats.getRetries());
+        assertEquals(stats.getConcurrencyLimit(), stats.getBulkheadAvailable());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        // Arrange
+        properties.getRetry().setMaxAttempts(3);
+        properties.getRetry().setMinBackoffMs(1);
+        properties.getRetry().setMaxBackoffMs(2);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenThrow(new UpstreamCallException("503", null));
+
+        // Act
+        HourlyForecastResponse result = gateway.getHourlyTemperature(Location.of(52.52, 13.41), "2024-01-01", "2024-01-31");
+
+        // Assert
+        assertNull(result);
+        verify(openMeteoClientService, times(3))
+                .getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        assertEquals(2, gateway.getStats().getRetries());
+    }
+
+    @Test
+    void testNoRetryPastTheDeadline() {
+        // Arrange: the first backoff alone would overrun the deadline
+        properties.getRetry().setMinBackoffMs(500);
+        properties.getRetry().setDeadlineMs(100);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenThrow(new UpstreamCallException("503", null));
+
+        // Act
+        HourlyForecastResponse result = gateway.getHourlyTemperature(Location.of(52.52, 13.41), "2024-01-01", "2024-01-31");
+
+        // Assert
+        assertNull(result);
+        verify(openMeteoClientService, times(1))
+                .getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        assertEquals(0, gateway.getStats().getRetries());
+    }
+
+    @Test
+    void testSlowCallIsHedgedAndTheFasterAnswerWins() {
+        // Arrange: enough fast calls to know the p95, then one call that hangs
+        properties.getHedge().setMinSamples(64);
+        properties.getHedge().setMinDelayMs(20);
+        properties.getHedge().setBudgetPercent(100);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        HourlyForecastResponse fast = new HourlyForecastResponse();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    if (calls.incrementAndGet() == 65) {
+                        release.await(5, TimeUnit.SECONDS);
+                        return new HourlyForecastResponse();
+                    }
+                    return fast;
+                });
+        for (int i = 0; i < 64; i++) {
+            gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-31");
+        }
+
+        // Act
+        long start = System.nanoTime();
+        HourlyForecastResponse result = gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-31");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        // Assert
+        assertSame(fast, result);
+        assertTrue(elapsedMs < 2000, "hedge should answer long before the slow call, took " + elapsedMs + " ms");
+        UpstreamStats stats = gateway.getStats();
+        assertEquals(1, stats.getHedges());
+        assertEquals(1, stats.getHedgesWon());
+    }
+
+    @Test
+    void testCircuitOpensOnFailuresAndClosesAfterTrialCall() throws Exception {
+        // Arrange: four failed calls in a window of four open the breaker
+        properties.getRetry().setMaxAttempts(1);
+        properties.getCircuitBreaker().setWindowSize(4);
+        properties.getCircuitBreaker().setMinCalls(4);
+        properties.getCircuitBreaker().setOpenMs(100);
+        properties.getCircuitBreaker().setHalfOpenCalls(1);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        HourlyForecastResponse response = new HourlyForecastResponse();
+        UpstreamCallException failure = new UpstreamCallException("503", null);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenThrow(failure, failure, failure, failure)
+                .thenReturn(response);
+        for (int i = 0; i < 4; i++) {
+            assertNull(gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-31"));
+        }
+
+        // Act & Assert: refused without reaching the client while open
+        assertThrows(UpstreamUnavailableException.class,
+                () -> gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-31"));
+        verify(openMeteoClientService, times(4))
+                .getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        assertEquals("OPEN", gateway.getStats().getCircuitState());
+
+        // Act & Assert: after open-ms one trial call goes through and closes it
+        Thread.sleep(150);
+        assertSame(response, gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-31"));
+        UpstreamStats stats = gateway.getStats();
+        assertEquals("CLOSED", stats.getCircuitState());
+        assertEquals(1, stats.getCircuitOpened());
+        assertEquals(1, stats.getShortCircuited());
+    }
+
+    @Test
+    void testCallsBeyondTheQuotaAreShedWithRetryAfter() {
+        // Arrange: three single-day calls a minute
+        properties.getQuota().setPerMinute(3);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenReturn(new HourlyForecastResponse());
+        for (int i = 0; i < 3; i++) {
+            gateway.getHourlyTemperature(Location.of(i, i), "2024-01-01", "2024-01-01");
+        }
+
+        // Act
+        UpstreamQuotaExceededException e = assertThrows(UpstreamQuotaExceededException.class,
+                () -> gateway.getHourlyTemperature(Location.of(9, 9), "2024-01-01", "2024-01-01"));
+
+        // Assert: refused without a call, until a token has been refilled
+        assertTrue(e.getRetryAfterSeconds() >= 1 && e.getRetryAfterSeconds() <= 20, "retry after " + e.getRetryAfterSeconds());
+        verify(openMeteoClientService, times(3))
+                .getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        UpstreamStats stats = gateway.getStats();
+        assertEquals(1, stats.getQuota().getShedInteractive());
+        assertEquals(0, stats.getQuota().getRemainingPerMinute());
+        assertEquals(stats.getConcurrencyLimit(), stats.getBulkheadAvailable());
+    }
+
+    @Test
+    void testLongRangesCostSeveralCalls() {
+        // Arrange: Open-Meteo counts 28 days as two calls
+        properties.getQuota().setPerMinute(3);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenReturn(new HourlyForecastResponse());
+
+        // Act
+        gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-28");
+
+        // Assert
+        assertEquals(1, gateway.getStats().getQuota().getRemainingPerMinute());
+        assertThrows(UpstreamQuotaExceededException.class,
+                () -> gateway.getHourlyTemperature(Location.of(2, 2), "2024-01-01", "2024-01-28"));
+    }
+
+    @Test
+    void testBackgroundWorkLeavesTheReserveToUsers() {
+        // Arrange: ten calls a minute, two of them kept for users
+        properties.getQuota().setPerMinute(10);
+        properties.getQuota().setBackgroundReservePercent(20);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenReturn(new HourlyForecastResponse());
+        for (int i = 0; i < 8; i++) {
+            gateway.getHourlyTemperature(Location.of(i, i), "2024-01-01", "2024-01-01", UpstreamPriority.BACKGROUND);
+        }
+
+        // Act & Assert: background work stops at the reserve, users still get through
+        assertThrows(UpstreamQuotaExceededException.class, () -> gateway.getHourlyTemperature(
+                Location.of(20, 20), "2024-01-01", "2024-01-01", UpstreamPriority.BACKGROUND));
+        assertNotNull(gateway.getHourlyTemperature(Location.of(21, 21), "2024-01-01", "2024-01-01"));
+        assertNotNull(gateway.getHourlyTemperature(Location.of(22, 22), "2024-01-01", "2024-01-01"));
+        UpstreamStats stats = gateway.getStats();
+        assertEquals(1, stats.getQuota().getShedBackground());
+        assertEquals(0, stats.getQuota().getShedInteractive());
+    }
+
+    @Test
+    void testUpstream429IsNotRetriedAndHoldsBackTheWindow() {
+        // Arrange: Open-Meteo enforces an hourly quota we did not know was spent
+        properties.getRetry().setMinBackoffMs(1);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenThrow(new UpstreamQuotaExceededException(
+                        "{\"error\":true,\"reason\":\"Hourly API request limit exceeded. Please try again in the next hour.\"}", -1));
+
+        // Act
+        UpstreamQuotaExceededException e = assertThrows(UpstreamQuotaExceededException.class,
+                () -> gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-01"));
+
+        // Assert: held back until the next hour, without another call or a breaker failure
+        assertTrue(e.getRetryAfterSeconds() >= 1 && e.getRetryAfterSeconds() <= 3600);
+        assertThrows(UpstreamQuotaExceededException.class,
+                () -> gateway.getHourlyTemperature(Location.of(2, 2), "2024-01-01", "2024-01-01"));
+        verify(openMeteoClientService, times(1))
+                .getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any());
+        UpstreamStats stats = gateway.getStats();
+        assertEquals(0, stats.getRetries());
+        assertEquals("CLOSED", stats.getCircuitState());
+        assertEquals(1, stats.getQuota().getUpstreamRejections());
+        assertEquals(0, stats.getQuota().getRemainingPerHour());
+        assertTrue(stats.getQuota().getRemainingPerMinute() > 0);
+    }
+
+    @Test
+    void testFreedSlotGoesToUsersBeforeBackgroundWork() throws Exception {
+        // Arrange: one slot, held by a call that blocks until released
+        properties.getBulkhead().setMaxConcurrent(1);
+        properties.getBulkhead().setAcquireTimeoutMs(5000);
+        properties.getHedge().setEnabled(false);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        List<Double> order = new CopyOnWriteArrayList<>();
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    order.add(invocation.getArgument(0));
+                    entered.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new HourlyForecastResponse();
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<HourlyForecastResponse> holder = executor.submit(
+                    () -> gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-01"));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            // Act: background work queues first, a user request after it
+            Future<HourlyForecastResponse> background = executor.submit(() -> gateway.getHourlyTemperature(
+                    Location.of(2, 2), "2024-01-01", "2024-01-01", UpstreamPriority.BACKGROUND));
+            awaitQueued(1);
+            Future<HourlyForecastResponse> user = executor.submit(
+                    () -> gateway.getHourlyTemperature(Location.of(3, 3), "2024-01-01", "2024-01-01"));
+            awaitQueued(2);
+            release.countDown();
+
+            // Assert
+            assertNotNull(holder.get(5, TimeUnit.SECONDS));
+            assertNotNull(user.get(5, TimeUnit.SECONDS));
+            assertNotNull(background.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of(1.0, 3.0, 2.0), order);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testUserWaitsOnlyAFewRoundTripsForASlot() throws Exception {
+        // Arrange: one slot; a 20 ms call teaches the shortest round trip, then a call holds the slot
+        properties.getBulkhead().setMaxConcurrent(1);
+        properties.getBulkhead().setAcquireTimeoutMs(5000);
+        properties.getConcurrencyLimit().setMaxWaitRtts(2);
+        properties.getHedge().setEnabled(false);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    if (invocation.getArgument(0, Double.class) == 1.0) {
+                        Thread.sleep(20);
+                    } else {
+                        entered.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                    }
+                    return new HourlyForecastResponse();
+                });
+        assertNotNull(gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-01"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<HourlyForecastResponse> holder = executor.submit(
+                    () -> gateway.getHourlyTemperature(Location.of(2, 2), "2024-01-01", "2024-01-01"));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            // Act
+            long start = System.nanoTime();
+            assertThrows(UpstreamBusyException.class,
+                    () -> gateway.getHourlyTemperature(Location.of(3, 3), "2024-01-01", "2024-01-01"));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Assert: turned away after about two round trips, not the five-second acquire timeout
+            assertTrue(elapsedMs < 1000, "waited " + elapsedMs + " ms");
+            release.countDown();
+            assertNotNull(holder.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testBackgroundCallFindingItsLineFullIsShedAtOnce() throws Exception {
+        // Arrange: the only slot is held and background work may not wait for it
+        properties.getBulkhead().setMaxConcurrent(1);
+        properties.getBulkhead().setAcquireTimeoutMs(5000);
+        properties.getBulkhead().setBackgroundMaxQueued(0);
+        gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    entered.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new HourlyForecastResponse();
+                });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<HourlyForecastResponse> holder = executor.submit(
+                    () -> gateway.getHourlyTemperature(Location.of(1, 1), "2024-01-01", "2024-01-01"));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            // Act
+            long start = System.nanoTime();
+            assertThrows(UpstreamBusyException.class, () -> gateway.getHourlyTemperature(
+                    Location.of(2, 2), "2024-01-01", "2024-01-01", UpstreamPriority.BACKGROUND));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Assert: turned away without waiting out the acquire timeout, and its quota given back
+            assertTrue(elapsedMs < 2000, "took " + elapsedMs + " ms");
+            release.countDown();
+            assertNotNull(holder.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+        UpstreamStats stats = gateway.getStats();
+        assertEquals(1, stats.getBulkheadRejected());
+        assertEquals(properties.getQuota().getPerMinute() - 1, stats.getQuota().getRemainingPerMinute());
+    }
+
+    // --- Helpers ---
+
+    private void awaitQueued(int callers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gateway.getStats().getBulkheadQueued() < callers && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(callers, gateway.getStats().getBulkheadQueued());
+    }
+
+    /**
+     * Starts CALLERS threads, waits until the first one is inside the upstream call and the
+     * rest are waiting on it, then releases the upstream call.
+     */
+    private List<Future<HourlyForecastResponse>> callConcurrently(
+            CountDownLatch release, IntCall call) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<HourlyForecastResponse>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                int caller = i;
+                results.add(executor.submit(() -> call.apply(caller)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (gateway.getStats().getCoalescedCalls() < CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @FunctionalInterface
+    private interface IntCall {
+        HourlyForecastResponse apply(int caller);
+    }
+}
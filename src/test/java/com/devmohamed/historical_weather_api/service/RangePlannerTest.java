@@ -0,0 +1,114 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.DateRange;
+import com.devmohamed.historical_weather_api.model.RangePlan;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import com.devmohamed.historical_weather_api.provider.RangePlanner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RangePlanner.
+ */
+class RangePlannerTest {
+
+    private OpenMeteoProperties properties;
+    private RangePlanner rangePlanner;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenMeteoProperties();
+        rangePlanner = new RangePlanner(properties);
+    }
+
+    @Test
+    void testShortRangeIsNotSplit() {
+        // Act
+        RangePlan plan = rangePlanner.plan(LocalDate.parse("2024-01-01"), LocalDate.parse("2024-03-31"));
+
+        // Assert
+        assertEquals(RangePlan.Unit.WHOLE, plan.getUnit());
+        assertEquals(List.of(range("2024-01-01", "2024-03-31")), plan.getChunks());
+        assertEquals(1, plan.getParallelism());
+    }
+
+    @Test
+    void testMediumRangeIsSplitOnMonthBoundaries() {
+        // Act
+        RangePlan plan = rangePlanner.plan(LocalDate.parse("2024-01-20"), LocalDate.parse("2024-05-10"));
+
+        // Assert
+        assertEquals(RangePlan.Unit.MONTH, plan.getUnit());
+        assertEquals(List.of(
+                range("2024-01-20", "2024-01-31"),
+                range("2024-02-01", "2024-02-29"),
+                range("2024-03-01", "2024-03-31"),
+                range("2024-04-01", "2024-04-30"),
+                range("2024-05-01", "2024-05-10")), plan.getChunks());
+        assertEquals(4, plan.getParallelism());
+    }
+
+    @Test
+    void testMultiYearRangeIsSplitOnYearBoundaries() {
+        // Act
+        RangePlan plan = rangePlanner.plan(LocalDate.parse("2014-07-01"), LocalDate.parse("2024-06-30"));
+
+        // Assert: the chunks cover every day exactly once
+        assertEquals(RangePlan.Unit.YEAR, plan.getUnit());
+        assertEquals(11, plan.getChunkCount());
+        assertEquals(range("2014-07-01", "2014-12-31"), plan.getChunks().get(0));
+        assertEquals(range("2024-01-01", "2024-06-30"), plan.getChunks().get(10));
+        assertEquals(new DateRange(LocalDate.parse("2014-07-01"), LocalDate.parse("2024-06-30")).days(),
+                plan.getChunks().stream().mapToInt(DateRange::days).sum());
+    }
+
+    @Test
+    void testChunksAreMovedToWeekBoundariesWhenAligned() {
+        // Act
+        RangePlan plan = rangePlanner.plan(LocalDate.parse("2024-01-20"), LocalDate.parse("2024-05-10"),
+                SeriesBuckets.Unit.WEEK);
+
+        // Assert: every chunk after the first starts on a Monday
+        assertEquals(List.of(
+                range("2024-01-20", "2024-02-04"),
+                range("2024-02-05", "2024-03-03"),
+                range("2024-03-04", "2024-03-31"),
+                range("2024-04-01", "2024-05-05"),
+                range("2024-05-06", "2024-05-10")), plan.getChunks());
+        assertEquals(4, plan.getParallelism());
+    }
+
+    @Test
+    void testMonthChunksAlreadyLineUpWithDays() {
+        // Act
+        RangePlan plan = rangePlanner.plan(LocalDate.parse("2024-01-20"), LocalDate.parse("2024-05-10"),
+                SeriesBuckets.Unit.DAY);
+
+        // Assert
+        assertEquals(rangePlanner.plan(LocalDate.parse("2024-01-20"), LocalDate.parse("2024-05-10")).getChunks(),
+                plan.getChunks());
+    }
+
+    @Test
+    void testChunkingCanBeDisabled() {
+        // Arrange
+        properties.getChunking().setEnabled(false);
+
+        // Act
+        RangePlan plan = rangePlanner.plan(LocalDate.parse("2014-01-01"), LocalDate.parse("2024-12-31"));
+
+        // Assert
+        assertEquals(RangePlan.Unit.WHOLE, plan.getUnit());
+        assertEquals(1, plan.getChunkCount());
+    }
+
+    private static DateRange range(String start, String end) {
+        return new DateRange(LocalDate.parse(start), LocalDate.parse(end));
+    }
+}
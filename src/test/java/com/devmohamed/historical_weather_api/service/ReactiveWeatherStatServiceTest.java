@@ -0,0 +1,134 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import com.devmohamed.historical_weather_api.provider.HotLocationTracker;
+import com.devmohamed.historical_weather_api.provider.HourlyDayCache;
+import com.devmohamed.historical_weather_api.provider.HourlyRollupIndex;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesService;
+import com.devmohamed.historical_weather_api.provider.HourlyTemperatureStore;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoGateway;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoReactiveClient;
+import com.devmohamed.historical_weather_api.provider.RangePlanner;
+import com.devmohamed.historical_weather_api.provider.ReactiveWeatherStatService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ReactiveWeatherStatService, with the non-blocking client mocked and
+ * the day cache, rollup index and planner real.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveWeatherStatServiceTest {
+
+    private ReactiveWeatherStatService reactiveStatService;
+    private HourlyRollupIndex rollupIndex;
+    private HourlySeriesService hourlySeriesService;
+
+    @Mock
+    private OpenMeteoReactiveClient reactiveClient;
+
+    // Only reached by the blocking path, which these tests must not take
+    @Mock
+    private OpenMeteoClientService openMeteoClientService;
+
+    private final double lat = 52.52;
+    private final double lon = 13.41;
+
+    @BeforeEach
+    void setUp() {
+        OpenMeteoProperties properties = new OpenMeteoProperties();
+        rollupIndex = new HourlyRollupIndex(properties);
+        hourlySeriesService = new HourlySeriesService(new OpenMeteoGateway(openMeteoClientService, properties),
+                new HourlyDayCache(properties), new HourlyTemperatureStore(properties), properties);
+        reactiveStatService = new ReactiveWeatherStatService(reactiveClient, hourlySeriesService,
+                rollupIndex, new RangePlanner(properties), new HotLocationTracker(properties));
+    }
+
+    @Test
+    void testGetTemperatureSummary_SingleChunk() {
+        // Arrange
+        when(reactiveClient.getHourlyTemperature(lat, lon, "2023-01-01", "2023-01-02"))
+                .thenReturn(Mono.just(HourlyResponses.seasonal(LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-02"))));
+
+        // Act & Assert
+        StepVerifier.create(reactiveStatService.getTemperatureSummary(lat, lon, "2023-01-01", "2023-01-02"))
+                .assertNext(summary -> {
+                    assertTrue(summary.getCount() > 0);
+                    assertFalse(summary.isStale());
+                })
+                .verifyComplete();
+        verifyNoInteractions(openMeteoClientService);
+    }
+
+    @Test
+    void testGetRangeSummary_LongRangeMatchesOnePassAndIsIndexed() {
+        // Arrange
+        when(reactiveClient.getHourlyTemperature(eq(lat), eq(lon), anyString(), anyString()))
+                .thenAnswer(invocation -> Mono.just(HourlyResponses.seasonal(
+                        LocalDate.parse(invocation.getArgument(2, String.class)),
+                        LocalDate.parse(invocation.getArgument(3, String.class)))));
+
+        // Act
+        SeriesAggregate actual = reactiveStatService.getTemperatureSummary(lat, lon, "2023-01-15", "2023-12-31").block();
+        SeriesAggregate again = reactiveStatService.getTemperatureSummary(lat, lon, "2023-01-15", "2023-12-31").block();
+
+        // Assert: the merged chunks equal one pass over the whole range
+        LocalDate first = LocalDate.parse("2023-01-15");
+        SeriesAggregate expected = SeriesAggregate.of(new HourlySeries(first,
+                HourlyResponses.seasonal(first, LocalDate.parse("2023-12-31")).getHourly().getTemperature2m()));
+        assertNotNull(actual);
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getMean(), actual.getMean(), 1e-9);
+        assertEquals(expected.getMaxTime(), actual.getMaxTime());
+        assertEquals(expected.getMinTime(), actual.getMinTime());
+
+        // The repeated range is answered by the rollup index without another call
+        assertNotNull(again);
+        assertEquals(actual.getMean(), again.getMean(), 1e-9);
+        assertEquals(1, rollupIndex.getStats().getHits());
+        verify(reactiveClient, times(12)).getHourlyTemperature(eq(lat), eq(lon), anyString(), anyString());
+    }
+
+    @Test
+    void testGetRangeSummary_MissingChunkFailsTheRange() {
+        // Arrange: June has no data upstream
+        when(reactiveClient.getHourlyTemperature(eq(lat), eq(lon), anyString(), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(2, String.class).equals("2023-06-01") ? Mono.empty()
+                        : Mono.just(HourlyResponses.seasonal(LocalDate.parse(invocation.getArgument(2, String.class)),
+                        LocalDate.parse(invocation.getArgument(3, String.class)))));
+
+        // Act & Assert
+        StepVerifier.create(reactiveStatService.getRangeSummary(lat, lon, "2023-01-01", "2023-12-31"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetRangeSummary_InvalidRangeIsEmptyWithoutCalls() {
+        // Act & Assert
+        StepVerifier.create(reactiveStatService.getRangeSummary(lat, lon, "2023-02-30", "2023-03-01"))
+                .verifyComplete();
+        StepVerifier.create(reactiveStatService.getRangeSummary(lat, lon, "2023-03-02", "2023-03-01"))
+                .verifyComplete();
+        verify(reactiveClient, never()).getHourlyTemperature(anyDouble(), anyDouble(), anyString(), anyString());
+    }
+}
@@ -0,0 +1,224 @@
+package com.devmohamed.historical_weather_api.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process stand-in for a Redis server, speaking just enough RESP2 for the shared day
+ * cache: PING, AUTH, SELECT, GET, MGET, SET with PX, DEL, PUBLISH and SUBSCRIBE.
+ * Keys expire by the wall clock, as on a real server.
+ */
+class RespStandIn implements AutoCloseable {
+
+    private final ServerSocket server;
+    private final Map<String, Value> values = new ConcurrentHashMap<>();
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final List<Socket> clients = new CopyOnWriteArrayList<>();
+
+    RespStandIn() throws IOException {
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(this::accept);
+    }
+
+    int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * @return The raw value of an unexpired key, or null.
+     */
+    byte[] get(String key) {
+        Value value = values.get(key);
+        return value == null || value.expired() ? null : value.bytes;
+    }
+
+    /**
+     * @return The milliseconds the key has left, or -1 without an expiry, -2 if absent.
+     */
+    long ttlMillis(String key) {
+        Value value = values.get(key);
+        if (value == null || value.expired()) {
+            return -2;
+        }
+        return value.expiresAtMillis < 0 ? -1 : value.expiresAtMillis - System.currentTimeMillis();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                clients.add(client);
+                Thread.ofVirtual().start(() -> serve(client));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client) {
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            OutputStream out = new BufferedOutputStream(client.getOutputStream());
+            while (true) {
+                List<byte[]> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                execute(command, out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    private void execute(List<byte[]> command, OutputStream out) throws IOException {
+        String name = text(command.get(0)).toUpperCase();
+        switch (name) {
+            case "PING" -> simple(out, "PONG");
+            case "AUTH", "SELECT" -> simple(out, "OK");
+            case "GET" -> bulk(out, get(text(command.get(1))));
+            case "MGET" -> {
+                array(out, command.size() - 1);
+                for (int i = 1; i < command.size(); i++) {
+                    bulk(out, get(text(command.get(i))));
+                }
+            }
+            case "SET" -> {
+                long expiresAt = -1;
+                if (command.size() == 5 && text(command.get(3)).equalsIgnoreCase("PX")) {
+                    expiresAt = System.currentTimeMillis() + Long.parseLong(text(command.get(4)));
+                }
+                values.put(text(command.get(1)), new Value(command.get(2), expiresAt));
+                simple(out, "OK");
+            }
+            case "DEL" -> {
+                long removed = 0;
+                for (int i = 1; i < command.size(); i++) {
+                    removed += values.remove(text(command.get(i))) != null ? 1 : 0;
+                }
+                integer(out, removed);
+            }
+            case "PUBLISH" -> {
+                List<Subscriber> listeners = subscribers.getOrDefault(text(command.get(1)), List.of());
+                for (Subscriber subscriber : listeners) {
+                    subscriber.send(command.get(1), command.get(2));
+                }
+                integer(out, listeners.size());
+            }
+            case "SUBSCRIBE" -> {
+                String channel = text(command.get(1));
+                subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(new Subscriber(out));
+                synchronized (out) {
+                    array(out, 3);
+                    bulk(out, "subscribe".getBytes(StandardCharsets.US_ASCII));
+                    bulk(out, command.get(1));
+                    integer(out, 1);
+                }
+            }
+            default -> {
+                out.write(("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            return null;
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<byte[]> arguments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            in.read(); // '$'
+            int length = Integer.parseInt(readLine(in));
+            arguments.add(in.readNBytes(length));
+            in.read();
+            in.read();
+        }
+        return arguments;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                throw new IOException("closed");
+            }
+            line.append((char) b);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void simple(OutputStream out, String value) throws IOException {
+        out.write(("+" + value + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void integer(OutputStream out, long value) throws IOException {
+        out.write((":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void array(OutputStream out, int count) throws IOException {
+        out.write(("*" + count + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void bulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(value);
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private record Value(byte[] bytes, long expiresAtMillis) {
+
+        boolean expired() {
+            return expiresAtMillis >= 0 && expiresAtMillis <= System.currentTimeMillis();
+        }
+    }
+
+    private record Subscriber(OutputStream out) {
+
+        void send(byte[] channel, byte[] message) {
+            try {
+                synchronized (out) {
+                    array(out, 3);
+                    bulk(out, "message".getBytes(StandardCharsets.US_ASCII));
+                    bulk(out, channel);
+                    bulk(out, message);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // The subscriber went away
+            }
+        }
+    }
+}
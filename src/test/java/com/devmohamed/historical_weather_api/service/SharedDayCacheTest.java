@@ -0,0 +1,203 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.model.CacheStats;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.Location;
+import com.devmohamed.historical_weather_api.provider.DayValueCodec;
+import com.devmohamed.historical_weather_api.provider.HourlyDayCache;
+import com.devmohamed.historical_weather_api.provider.RespSharedDayCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two replicas' day caches sharing one Redis-protocol stand-in: the binary encoding, reads
+ * through the shared tier, expiries kept in step, invalidation and an unreachable server.
+ */
+class SharedDayCacheTest {
+
+    private static final Location BERLIN = Location.of(52.52, 13.41);
+    private static final LocalDate START = LocalDate.parse("2024-01-01");
+    private static final Instant NOW = Instant.parse("2024-06-01T00:00:00Z");
+
+    private RespStandIn server;
+    private final List<RespSharedDayCache> tiers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new RespStandIn();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        tiers.forEach(RespSharedDayCache::close);
+        server.close();
+    }
+
+    @Test
+    void testDaysAreEncodedCompactlyAndRoundTrip() {
+        // Arrange: one decimal and a missing hour fit the compact format, a third decimal does not
+        double[] values = new double[48];
+        for (int h = 0; h < 48; h++) {
+            values[h] = (h * 7 - 123) / 10.0;
+        }
+        values[5] = Double.NaN;
+        values[30] = 1.234;
+
+        // Act
+        byte[] compact = DayValueCodec.encode(values, 0, 1234L);
+        byte[] raw = DayValueCodec.encode(values, 24, 5678L);
+        double[] decoded = new double[48];
+        DayValueCodec.decode(compact, decoded, 0);
+        DayValueCodec.decode(raw, decoded, 24);
+
+        // Assert
+        assertEquals(57, compact.length);
+        assertEquals(201, raw.length);
+        assertEquals(1234L, DayValueCodec.expiresAt(compact));
+        assertEquals(5678L, DayValueCodec.expiresAt(raw));
+        assertArrayEquals(values, decoded);
+        assertEquals(-1, DayValueCodec.expiresAt(new byte[]{9, 9, 9}));
+    }
+
+    @Test
+    void testDaysFetchedByOneReplicaAreServedToAnother() {
+        // Arrange
+        MutableClock clock = new MutableClock(NOW);
+        HourlyDayCache first = replica(clock);
+        HourlyDayCache second = replica(clock);
+        double[] values = days(3, 7.5);
+
+        // Act: the first replica fetched the days, the second one looks them up
+        first.putDays(BERLIN, START, values, 0, 3);
+        awaitTrue(() -> server.get("hw:t2m:52.52:13.41:2024-01-03") != null);
+        boolean[] present = new boolean[3];
+        double[] target = new double[72];
+        int near = second.getDays(BERLIN, START, present, target);
+        int shared = second.getSharedDays(BERLIN, START, present, target);
+
+        // Assert: found in the shared tier, and kept in the near tier from then on
+        assertEquals(0, near);
+        assertEquals(3, shared);
+        assertArrayEquals(values, target);
+        assertEquals(3, second.getDays(BERLIN, START, new boolean[3], new double[72]));
+        CacheStats stats = second.getStats();
+        assertEquals(3, stats.getShared().getHits());
+        assertEquals(1.0, stats.getShared().getHitRatio());
+        assertEquals(0.5, stats.getHitRatio());
+    }
+
+    @Test
+    void testNearCopyExpiresWithTheSharedOne() {
+        // Arrange: historical days live for a day in both tiers
+        MutableClock clock = new MutableClock(NOW);
+        HourlyDayCache first = replica(clock);
+        HourlyDayCache second = replica(clock);
+        first.putDays(BERLIN, START, days(1, 3.0), 0, 1);
+        awaitTrue(() -> server.get("hw:t2m:52.52:13.41:2024-01-01") != null);
+        long ttl = server.ttlMillis("hw:t2m:52.52:13.41:2024-01-01");
+        assertTrue(ttl > 86_390_000 && ttl <= 86_400_000);
+
+        // Act: the second replica reads the day an hour later
+        clock.advance(3_600_000);
+        assertEquals(1, second.getSharedDays(BERLIN, START, new boolean[1], new double[24]));
+
+        // Assert: its copy expires when the first one does, not a full TTL after the read
+        clock.advance(86_400_000 - 3_600_000);
+        assertEquals(0, second.getDays(BERLIN, START, new boolean[1], new double[24]));
+    }
+
+    @Test
+    void testInvalidationReachesEveryReplica() {
+        // Arrange: both replicas hold the days in their near tier
+        MutableClock clock = new MutableClock(NOW);
+        HourlyDayCache first = replica(clock);
+        HourlyDayCache second = replica(clock);
+        awaitTrue(() -> tiers.stream().allMatch(RespSharedDayCache::isSubscribed));
+        first.putDays(BERLIN, START, days(2, 1.0), 0, 2);
+        second.putDays(BERLIN, START, days(2, 1.0), 0, 2);
+
+        // Act
+        first.invalidate(BERLIN, START, START.plusDays(1));
+
+        // Assert
+        assertEquals(0, first.getDays(BERLIN, START, new boolean[2], new double[48]));
+        awaitTrue(() -> second.getDays(BERLIN, START, new boolean[2], new double[48]) == 0);
+        // The second replica's own write may land after the first delete, and its delete after that
+        awaitTrue(() -> second.getSharedDays(BERLIN, START, new boolean[2], new double[48]) == 0);
+        assertNull(server.get("hw:t2m:52.52:13.41:2024-01-01"));
+        assertNull(server.get("hw:t2m:52.52:13.41:2024-01-02"));
+        assertTrue(second.getStats().getShared().getInvalidations() >= 1);
+    }
+
+    @Test
+    void testUnreachableServerIsAMiss() throws IOException {
+        // Arrange: a port nothing listens on
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        HourlyDayCache cache = replica(new MutableClock(NOW), closedPort);
+
+        // Act
+        int found = cache.getSharedDays(BERLIN, START, new boolean[2], new double[48]);
+        cache.putDays(BERLIN, START, days(2, 1.0), 0, 2);
+
+        // Assert: no exception, the near tier still works, and the error is counted once
+        assertEquals(0, found);
+        assertEquals(2, cache.getDays(BERLIN, START, new boolean[2], new double[48]));
+        assertEquals(1, cache.getStats().getShared().getErrors());
+        assertEquals(2, cache.getStats().getShared().getMisses());
+    }
+
+    // --- Helpers ---
+
+    private HourlyDayCache replica(Clock clock) {
+        return replica(clock, server.getPort());
+    }
+
+    private HourlyDayCache replica(Clock clock, int port) {
+        OpenMeteoProperties properties = new OpenMeteoProperties();
+        properties.getSharedCache().setEnabled(true);
+        properties.getSharedCache().setHost("127.0.0.1");
+        properties.getSharedCache().setPort(port);
+        properties.getSharedCache().setRetryAfterMs(60_000);
+        properties.getSharedCache().setCommandTimeoutMs(1000);
+        RespSharedDayCache tier = new RespSharedDayCache(properties.getSharedCache());
+        tiers.add(tier);
+        return new HourlyDayCache(properties, tier, new SimpleMeterRegistry(), clock);
+    }
+
+    private static double[] days(int days, double value) {
+        double[] values = new double[days * HourlySeries.HOURS_PER_DAY];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met within 5 s");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+}
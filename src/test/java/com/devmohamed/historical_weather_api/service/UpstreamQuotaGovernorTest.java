@@ -0,0 +1,96 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.exception.UpstreamQuotaExceededException;
+import com.devmohamed.historical_weather_api.provider.UpstreamPriority;
+import com.devmohamed.historical_weather_api.provider.UpstreamQuotaGovernor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the UpstreamQuotaGovernor: refills over time, the windows and upstream 429s.
+ */
+class UpstreamQuotaGovernorTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T22:30:00Z");
+
+    @Test
+    void testBucketRefillsAtItsLimitPerWindow() {
+        // Arrange: sixty calls a minute, all spent
+        OpenMeteoProperties properties = new OpenMeteoProperties();
+        properties.getQuota().setPerMinute(60);
+        MutableClock clock = new MutableClock(NOW);
+        UpstreamQuotaGovernor governor = new UpstreamQuotaGovernor(properties, new SimpleMeterRegistry(), clock);
+        for (int i = 0; i < 60; i++) {
+            governor.acquire(1, UpstreamPriority.INTERACTIVE);
+        }
+        UpstreamQuotaExceededException e = assertThrows(UpstreamQuotaExceededException.class,
+                () -> governor.acquire(1, UpstreamPriority.INTERACTIVE));
+        assertEquals(1, e.getRetryAfterSeconds());
+
+        // Act: one call's worth comes back every second
+        clock.advance(3_000);
+
+        // Assert: the hour refills at 5,000 an hour, a little over four calls in those seconds
+        assertEquals(3, governor.getRemaining(UpstreamQuotaGovernor.Window.MINUTE));
+        assertEquals(5_000 - 60 + 4, governor.getRemaining(UpstreamQuotaGovernor.Window.HOUR));
+        assertEquals(1, governor.getStats().getShedInteractive());
+    }
+
+    @Test
+    void testRefundGivesBackWhatWasTaken() {
+        // Arrange: a background call larger than the minute above its 20% reserve takes 8,
+        // then a user call takes the last 2
+        OpenMeteoProperties properties = new OpenMeteoProperties();
+        properties.getQuota().setPerMinute(10);
+        properties.getQuota().setBackgroundReservePercent(20);
+        UpstreamQuotaGovernor governor = new UpstreamQuotaGovernor(properties, new SimpleMeterRegistry(),
+                new MutableClock(NOW));
+        UpstreamQuotaGovernor.Grant grant = governor.acquire(20, UpstreamPriority.BACKGROUND);
+        governor.acquire(2, UpstreamPriority.INTERACTIVE);
+
+        // Act: the background call never went out
+        governor.refund(grant);
+
+        // Assert: the minute gets back 8, not its cost or its limit
+        assertEquals(8, governor.getRemaining(UpstreamQuotaGovernor.Window.MINUTE));
+        assertEquals(5_000 - 2, governor.getRemaining(UpstreamQuotaGovernor.Window.HOUR));
+    }
+
+    @Test
+    void testCostFollowsLocationsAndDays() {
+        // Arrange
+        UpstreamQuotaGovernor governor = new UpstreamQuotaGovernor(new OpenMeteoProperties());
+
+        // Act & Assert
+        assertEquals(1.0, governor.cost(1, "2024-01-01", "2024-01-14"));
+        assertEquals(366 / 14.0, governor.cost(1, "2024-01-01", "2024-12-31"), 1e-9);
+        assertEquals(3.0, governor.cost(3, "2024-01-01", "2024-01-01"));
+        assertEquals(1.0, governor.cost(1, "not-a-date", "2024-01-01"));
+    }
+
+    @Test
+    void testUpstreamDailyLimitHoldsCallsUntilMidnight() {
+        // Arrange
+        MutableClock clock = new MutableClock(NOW);
+        UpstreamQuotaGovernor governor = new UpstreamQuotaGovernor(
+                new OpenMeteoProperties(), new SimpleMeterRegistry(), clock);
+
+        // Act
+        UpstreamQuotaExceededException e = governor.onUpstreamRejected(new UpstreamQuotaExceededException(
+                "Daily API request limit exceeded. Please try again tomorrow.", -1));
+
+        // Assert: ninety minutes to the next UTC day, the other windows untouched
+        assertEquals(5_400, e.getRetryAfterSeconds());
+        assertNull(governor.tryAcquire(1, UpstreamPriority.INTERACTIVE));
+        assertEquals(0, governor.getRemaining(UpstreamQuotaGovernor.Window.DAY));
+        assertEquals(600, governor.getRemaining(UpstreamQuotaGovernor.Window.MINUTE));
+        clock.advance(5_400_000);
+        assertNotNull(governor.tryAcquire(1, UpstreamPriority.INTERACTIVE));
+        assertEquals(1, governor.getStats().getUpstreamRejections());
+    }
+}
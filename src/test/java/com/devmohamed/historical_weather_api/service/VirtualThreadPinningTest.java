@@ -0,0 +1,170 @@
+package com.devmohamed.historical_weather_api.service;
+
+import com.devmohamed.historical_weather_api.config.OpenMeteoMetrics;
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
+import com.devmohamed.historical_weather_api.config.OpenMeteoRestTemplateConfig;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.provider.HourlyDayCache;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesService;
+import com.devmohamed.historical_weather_api.provider.HourlyTemperatureStore;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoGateway;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the whole request hot path (series service, day cache, gateway, bulkhead, pooled
+ * HttpClient, Jackson decoding) on virtual threads against a local HTTP server, with
+ * JFR recording every jdk.VirtualThreadPinned event. A virtual thread that blocks while
+ * holding a monitor keeps its carrier thread busy, so the test fails on any such event.
+ */
+class VirtualThreadPinningTest {
+
+    private static final int REQUESTS = 400;
+
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private HourlySeriesService hourlySeriesService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Stand-in for Open-Meteo that answers after a short delay, so callers really block on I/O
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/forecast", VirtualThreadPinningTest::answer);
+        server.setExecutor(Executors.newFixedThreadPool(32));
+        server.start();
+
+        OpenMeteoProperties properties = new OpenMeteoProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        // Fewer slots and connections than callers, so the bulkhead and the pool both make threads wait
+        properties.getPool().setDefaultMaxPerRoute(8);
+        properties.getBulkhead().setMaxConcurrent(8);
+        properties.getBulkhead().setAcquireTimeoutMs(30_000);
+        properties.getConcurrencyLimit().setMaxWaitRtts(10_000);
+
+        OpenMeteoRestTemplateConfig config = new OpenMeteoRestTemplateConfig();
+        connectionManager = config.openMeteoConnectionManager(properties);
+        OpenMeteoMetrics metrics = config.openMeteoMetrics(new SimpleMeterRegistry());
+        httpClient = config.openMeteoHttpClient(connectionManager, properties, metrics);
+        RestTemplate restTemplate = config.openMeteoRestTemplateConfig(new RestTemplateBuilder(), httpClient,
+                properties, metrics);
+
+        OpenMeteoGateway gateway = new OpenMeteoGateway(new OpenMeteoClientService(restTemplate), properties);
+        hourlySeriesService = new HourlySeriesService(gateway, new HourlyDayCache(properties),
+                new HourlyTemperatureStore(properties), properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testHotPathDoesNotPinCarrierThreads(@TempDir Path tempDir) throws Exception {
+        // Warm up on a platform thread: class loading and static initializers may pin legitimately
+        assertNotNull(hourlySeriesService.getHourlySeries(10, 10, "2023-01-01", "2023-01-02"));
+
+        List<RecordedEvent> pinned;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            // Act: distinct locations, so every request goes upstream; repeats hit the coalescing and the cache
+            List<Future<HourlySeries>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < REQUESTS; i++) {
+                    double latitude = (i % (REQUESTS / 2)) / 10.0;
+                    results.add(executor.submit(
+                            () -> hourlySeriesService.getHourlySeries(latitude, 20, "2023-03-01", "2023-03-07")));
+                }
+            }
+            for (Future<HourlySeries> result : results) {
+                assertEquals(7 * 24, result.get(30, TimeUnit.SECONDS).getValues().length);
+            }
+
+            recording.stop();
+            Path file = tempDir.resolve("pinning.jfr");
+            recording.dump(file);
+            pinned = RecordingFile.readAllEvents(file);
+        }
+
+        // Assert
+        String stacks = pinned.stream()
+                .map(event -> String.valueOf(event.getStackTrace()))
+                .collect(Collectors.joining("\n---\n"));
+        assertTrue(pinned.isEmpty(), pinned.size() + " pinned virtual thread event(s):\n" + stacks);
+    }
+
+    // --- Helpers ---
+
+    private static void answer(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        LocalDate start = LocalDate.parse(param(query, "start_date"));
+        LocalDate end = LocalDate.parse(param(query, "end_date"));
+        int hours = (int) (end.toEpochDay() - start.toEpochDay() + 1) * 24;
+
+        StringBuilder json = new StringBuilder("{\"hourly\":{\"time\":[");
+        LocalDateTime first = start.atStartOfDay();
+        for (int i = 0; i < hours; i++) {
+            json.append(i == 0 ? "\"" : ",\"").append(first.plusHours(i)).append('"');
+        }
+        json.append("],\"temperature_2m\":[");
+        for (int i = 0; i < hours; i++) {
+            json.append(i == 0 ? "" : ",").append((i % 300) / 10.0);
+        }
+        byte[] body = json.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String param(String query, String name) {
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        throw new IllegalArgumentException("Missing query parameter " + name);
+    }
+}
@@ -1,22 +1,55 @@
 package com.devmohamed.historical_weather_api.service;
 
+import com.devmohamed.historical_weather_api.config.OpenMeteoProperties;
 import com.devmohamed.historical_weather_api.model.HourlyData;
 import com.devmohamed.historical_weather_api.model.HourlyForecastResponse;
+import com.devmohamed.historical_weather_api.model.HourlySeries;
+import com.devmohamed.historical_weather_api.model.HourlyVariable;
+import com.devmohamed.historical_weather_api.model.MetricsSummary;
+import com.devmohamed.historical_weather_api.model.RangePlan;
+import com.devmohamed.historical_weather_api.model.RangeSummary;
+import com.devmohamed.historical_weather_api.model.SeriesAggregate;
+import com.devmohamed.historical_weather_api.model.SeriesBuckets;
+import com.devmohamed.historical_weather_api.provider.HotLocationTracker;
+import com.devmohamed.historical_weather_api.provider.HourlyDayCache;
+import com.devmohamed.historical_weather_api.provider.HourlyRollupIndex;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesService;
+import com.devmohamed.historical_weather_api.provider.HourlySeriesStream;
+import com.devmohamed.historical_weather_api.provider.HourlyTemperatureStore;
 import com.devmohamed.historical_weather_api.provider.OpenMeteoClientService;
+import com.devmohamed.historical_weather_api.provider.OpenMeteoGateway;
+import com.devmohamed.historical_weather_api.provider.RangePlanner;
 import com.devmohamed.historical_weather_api.provider.WeatherStatService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -27,9 +60,9 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class WeatherStatServiceTest {
 
-    // The service we are testing
-    @InjectMocks
+    // The service we are testing, wired to a real series service around the mocked client
     private WeatherStatService weatherStatService;
+    private HourlyRollupIndex rollupIndex;
 
     // The dependency to be mocked
     @Mock
@@ -47,6 +80,13 @@ class WeatherStatServiceTest {
 
     @BeforeEach
     void setUp() {
+        OpenMeteoProperties properties = new OpenMeteoProperties();
+        OpenMeteoGateway gateway = new OpenMeteoGateway(openMeteoClientService, properties);
+        rollupIndex = new HourlyRollupIndex(properties);
+        weatherStatService = new WeatherStatService(new HourlySeriesService(gateway,
+                new HourlyDayCache(properties), new HourlyTemperatureStore(properties), properties),
+                rollupIndex, new RangePlanner(properties), new HotLocationTracker(properties));
+
         // We initialize these here for clarity
         mockResponse = new HourlyForecastResponse();
         mockHourlyData = new HourlyData();
@@ -60,7 +100,7 @@ class WeatherStatServiceTest {
         // Arrange
         List<Double> temps = Arrays.asList(10.5, 30.2, 15.0, 29.9);
         mockHourlyData.setTemperature2m(temps);
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(mockResponse);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
 
         // Act
         OptionalDouble result = weatherStatService.getMaximumTemperature(lat, lon, start, end);
@@ -75,7 +115,7 @@ class WeatherStatServiceTest {
         // Arrange
         List<Double> temps = Arrays.asList(10.5, null, 30.2, 15.0, null);
         mockHourlyData.setTemperature2m(temps);
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(mockResponse);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
 
         // Act
         OptionalDouble result = weatherStatService.getMaximumTemperature(lat, lon, start, end);
@@ -89,7 +129,7 @@ class WeatherStatServiceTest {
     void testGetMaximumTemperature_EmptyList() {
         // Arrange
         mockHourlyData.setTemperature2m(Collections.emptyList());
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(mockResponse);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
 
         // Act
         OptionalDouble result = weatherStatService.getMaximumTemperature(lat, lon, start, end);
@@ -101,8 +141,8 @@ class WeatherStatServiceTest {
     @Test
     void testGetMaximumTemperature_NullList() {
         // Arrange
-        mockHourlyData.setTemperature2m(null); // Explicitly set the list to null
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(mockResponse);
+        mockHourlyData.setTemperature2m((List<Double>) null); // Explicitly set the list to null
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
 
         // Act
         OptionalDouble result = weatherStatService.getMaximumTemperature(lat, lon, start, end);
@@ -115,7 +155,7 @@ class WeatherStatServiceTest {
     void testGetMaximumTemperature_NullHourly() {
         // Arrange
         mockResponse.setHourly(null); // Set the entire hourly object to null
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(mockResponse);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
 
         // Act
         OptionalDouble result = weatherStatService.getMaximumTemperature(lat, lon, start, end);
@@ -127,7 +167,7 @@ class WeatherStatServiceTest {
     @Test
     void testGetMaximumTemperature_NullResponse() {
         // Arrange
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(null);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(null);
 
         // Act
         OptionalDouble result = weatherStatService.getMaximumTemperature(lat, lon, start, end);
@@ -143,7 +183,7 @@ class WeatherStatServiceTest {
         // Arrange
         List<Double> temps = Arrays.asList(10.5, 30.2, 5.8, 15.0);
         mockHourlyData.setTemperature2m(temps);
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(mockResponse);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
 
         // Act
         OptionalDouble result = weatherStatService.getMinimumTemperature(lat, lon, start, end);
@@ -157,7 +197,7 @@ class WeatherStatServiceTest {
     void testGetMinimumTemperature_EmptyList() {
         // Arrange
         mockHourlyData.setTemperature2m(Collections.emptyList());
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(mockResponse);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
 
         // Act
         OptionalDouble result = weatherStatService.getMinimumTemperature(lat, lon, start, end);
@@ -169,7 +209,7 @@ class WeatherStatServiceTest {
     @Test
     void testGetMinimumTemperature_NullData() {
         // Arrange
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(null);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(null);
 
         // Act
         OptionalDouble result = weatherStatService.getMinimumTemperature(lat, lon, start, end);
@@ -185,7 +225,7 @@ class WeatherStatServiceTest {
         // Arrange
         List<Double> temps = Arrays.asList(10.0, 20.0, 30.0); // Average is 20.0
         mockHourlyData.setTemperature2m(temps);
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(mockResponse);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
 
         // Act
         OptionalDouble result = weatherStatService.getAverageTemperature(lat, lon, start, end);
@@ -199,7 +239,7 @@ class WeatherStatServiceTest {
     void testGetAverageTemperature_EmptyList() {
         // Arrange
         mockHourlyData.setTemperature2m(Collections.emptyList());
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(mockResponse);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
 
         // Act
         OptionalDouble result = weatherStatService.getAverageTemperature(lat, lon, start, end);
@@ -211,7 +251,7 @@ class WeatherStatServiceTest {
     @Test
     void testGetAverageTemperature_NullData() {
         // Arrange
-        when(openMeteoClientService.getHourlyTemperature(lat, lon, start, end)).thenReturn(null);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(null);
 
         // Act
         OptionalDouble result = weatherStatService.getAverageTemperature(lat, lon, start, end);
@@ -219,4 +259,270 @@ class WeatherStatServiceTest {
         // Assert
         assertFalse(result.isPresent());
     }
-}
\ No newline at end of file
+
+    // --- Test Cases for getTemperatureSummary ---
+
+    @Test
+    void testGetTemperatureSummary_AllStatisticsFromOneFetch() {
+        // Arrange
+        List<Double> temps = Arrays.asList(10.0, null, 30.0, 20.0, null);
+        mockHourlyData.setTemperature2m(temps);
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
+
+        // Act
+        Optional<SeriesAggregate> result = weatherStatService.getTemperatureSummary(lat, lon, start, end);
+
+        // Assert
+        assertTrue(result.isPresent());
+        SeriesAggregate summary = result.get();
+        assertEquals(3, summary.getCount());
+        assertEquals(2, summary.getNullCount());
+        assertEquals(10.0, summary.getMin());
+        assertEquals(30.0, summary.getMax());
+        assertEquals(20.0, summary.getMean());
+        assertEquals(200.0 / 3, summary.getVariance(), 1e-9);
+        assertEquals(Math.sqrt(200.0 / 3), summary.getStdDev(), 1e-9);
+        assertEquals(LocalDateTime.parse("2024-01-01T00:00"), summary.getMinTime());
+        assertEquals(LocalDateTime.parse("2024-01-01T02:00"), summary.getMaxTime());
+        verify(openMeteoClientService, times(1)).getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE);
+    }
+
+    @Test
+    void testGetTemperatureSummary_OnlyNulls() {
+        // Arrange
+        mockHourlyData.setTemperature2m(Arrays.asList(null, null));
+        when(openMeteoClientService.getHourly(lat, lon, start, end, HourlyVariable.TEMPERATURE)).thenReturn(mockResponse);
+
+        // Act
+        Optional<SeriesAggregate> result = weatherStatService.getTemperatureSummary(lat, lon, start, end);
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+
+    // --- Test Cases for chunked ranges ---
+
+    @Test
+    void testGetRangeSummary_LongRangeIsChunkedByMonth() {
+        // Arrange: every month is answered with its own whole days
+        when(openMeteoClientService.getHourly(eq(lat), eq(lon), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> HourlyResponses.seasonal(
+                        LocalDate.parse(invocation.getArgument(2, String.class)),
+                        LocalDate.parse(invocation.getArgument(3, String.class))));
+
+        // Act
+        Optional<RangeSummary> result = weatherStatService.getRangeSummary(lat, lon, "2023-01-15", "2023-12-31");
+
+        // Assert: twelve calendar chunks, the first one partial
+        assertTrue(result.isPresent());
+        RangePlan plan = result.get().getPlan();
+        assertEquals("month", plan.getChunkUnit());
+        assertEquals(12, plan.getChunkCount());
+        verify(openMeteoClientService).getHourly(lat, lon, "2023-01-15", "2023-01-31", HourlyVariable.TEMPERATURE);
+        verify(openMeteoClientService).getHourly(lat, lon, "2023-12-01", "2023-12-31", HourlyVariable.TEMPERATURE);
+
+        // The merged aggregate equals one pass over the whole range
+        LocalDate first = LocalDate.parse("2023-01-15");
+        HourlySeries whole = new HourlySeries(first,
+                HourlyResponses.seasonal(first, LocalDate.parse("2023-12-31")).getHourly().getTemperature2m());
+        SeriesAggregate expected = SeriesAggregate.of(whole);
+        SeriesAggregate actual = result.get().getAggregate();
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getNullCount(), actual.getNullCount());
+        assertEquals(expected.getMean(), actual.getMean(), 1e-9);
+        assertEquals(expected.getVariance(), actual.getVariance(), 1e-9);
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMinTime(), actual.getMinTime());
+        assertEquals(expected.getMax(), actual.getMax());
+        assertEquals(expected.getMaxTime(), actual.getMaxTime());
+    }
+
+    @Test
+    void testGetRangeSummary_RepeatedRangeIsAnsweredFromRollups() {
+        // Arrange
+        when(openMeteoClientService.getHourly(eq(lat), eq(lon), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> HourlyResponses.seasonal(
+                        LocalDate.parse(invocation.getArgument(2, String.class)),
+                        LocalDate.parse(invocation.getArgument(3, String.class))));
+        SeriesAggregate first = weatherStatService.getRangeSummary(lat, lon, "2023-01-01", "2023-12-31")
+                .orElseThrow().getAggregate();
+
+        // Act: the whole year and any sub-range are now answered by the index
+        SeriesAggregate again = weatherStatService.getRangeSummary(lat, lon, "2023-01-01", "2023-12-31")
+                .orElseThrow().getAggregate();
+        SeriesAggregate part = weatherStatService.getRangeSummary(lat, lon, "2023-03-17", "2023-10-02")
+                .orElseThrow().getAggregate();
+
+        // Assert
+        assertEquals(first.getMean(), again.getMean(), 1e-9);
+        assertEquals(first.getMaxTime(), again.getMaxTime());
+        assertEquals(2, rollupIndex.getStats().getHits());
+        assertTrue(part.getCount() > 0 && part.getCount() < first.getCount());
+        verify(openMeteoClientService, times(12)).getHourly(eq(lat), eq(lon), anyString(), anyString(), any());
+    }
+
+    @Test
+    void testGetRangeSummary_MissingChunkFailsTheRange() {
+        // Arrange: one month of the year has no data upstream
+        when(openMeteoClientService.getHourly(eq(lat), eq(lon), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(2, String.class).equals("2023-06-01") ? null
+                        : HourlyResponses.seasonal(LocalDate.parse(invocation.getArgument(2, String.class)),
+                        LocalDate.parse(invocation.getArgument(3, String.class))));
+
+        // Act & Assert: a partial year would silently skew every statistic
+        assertFalse(weatherStatService.getRangeSummary(lat, lon, "2023-01-01", "2023-12-31").isPresent());
+    }
+
+    @Test
+    void testGetRangeSummary_FailingChunkStopsTheOtherWorkers() {
+        // Arrange: January fails while the other workers are still fetching their first month
+        CountDownLatch januaryFailed = new CountDownLatch(1);
+        when(openMeteoClientService.getHourly(eq(lat), eq(lon), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    LocalDate from = LocalDate.parse(invocation.getArgument(2, String.class));
+                    if (from.getMonthValue() == 1) {
+                        januaryFailed.countDown();
+                        throw new IllegalStateException("Unreadable answer");
+                    }
+                    januaryFailed.await(5, TimeUnit.SECONDS);
+                    Thread.sleep(100);
+                    return HourlyResponses.seasonal(from, LocalDate.parse(invocation.getArgument(3, String.class)));
+                });
+
+        // Act & Assert: the range fails with what the chunk threw
+        assertThrows(IllegalStateException.class,
+                () -> weatherStatService.getRangeSummary(lat, lon, "2023-01-01", "2023-12-31"));
+
+        // At most the first month of each of the four workers went upstream
+        verify(openMeteoClientService, atMost(4)).getHourly(eq(lat), eq(lon), anyString(), anyString(), any());
+    }
+
+    @Test
+    void testGetBucketedSeries_ChunkedYearMatchesTheSummaryPerMonth() {
+        // Arrange
+        when(openMeteoClientService.getHourly(eq(lat), eq(lon), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> HourlyResponses.seasonal(
+                        LocalDate.parse(invocation.getArgument(2, String.class)),
+                        LocalDate.parse(invocation.getArgument(3, String.class))));
+
+        // Act
+        SeriesBuckets buckets = weatherStatService.getBucketedSeries(lat, lon,
+                LocalDate.parse("2023-01-01"), LocalDate.parse("2023-12-31"), SeriesBuckets.Unit.MONTH).orElseThrow();
+        SeriesAggregate march = weatherStatService.getRangeSummary(lat, lon, "2023-03-01", "2023-03-31")
+                .orElseThrow().getAggregate();
+
+        // Assert: every month bucket holds the same values as the range summary of that month
+        assertEquals(12, buckets.size());
+        assertEquals(march.getCount(), buckets.countOf(2));
+        assertEquals(march.getMin(), buckets.minOf(2));
+        assertEquals(march.getMax(), buckets.maxOf(2));
+        assertEquals(march.getMean(), buckets.meanOf(2), 1e-9);
+    }
+
+    @Test
+    void testGetBucketedSeries_MissingChunkFailsTheSeries() {
+        // Arrange
+        when(openMeteoClientService.getHourly(eq(lat), eq(lon), anyString(), anyString(), any()))
+                .thenReturn(null);
+
+        // Act & Assert
+        assertFalse(weatherStatService.getBucketedSeries(lat, lon, LocalDate.parse("2023-01-01"),
+                LocalDate.parse("2023-12-31"), SeriesBuckets.Unit.WEEK).isPresent());
+    }
+
+    @Test
+    void testSeriesStreams_MoreThanTheReaderPoolFinish() throws Exception {
+        // Arrange: readers on a small pool, as streamed bodies run on the MVC async executor
+        when(openMeteoClientService.getHourly(anyDouble(), anyDouble(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> HourlyResponses.seasonal(
+                        LocalDate.parse(invocation.getArgument(2, String.class)),
+                        LocalDate.parse(invocation.getArgument(3, String.class))));
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+        List<Future<Integer>> streams = new ArrayList<>();
+
+        // Act: each stream reads a year in month chunks at its own location
+        try {
+            for (int i = 0; i < 6; i++) {
+                double latitude = lat + i;
+                streams.add(readers.submit(() -> {
+                    int chunks = 0;
+                    try (HourlySeriesStream stream = weatherStatService.openSeriesStream(latitude, lon,
+                            LocalDate.parse("2023-01-01"), LocalDate.parse("2023-12-31"), SeriesBuckets.Unit.MONTH)) {
+                        while (stream.next() != null) {
+                            chunks++;
+                        }
+                    }
+                    return chunks;
+                }));
+            }
+
+            // Assert: no stream waits on fetches queued behind the readers
+            for (Future<Integer> stream : streams) {
+                assertEquals(12, stream.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    // --- Test Cases for getMetricsSummary ---
+
+    @Test
+    void testGetMetricsSummary_FetchesEveryMissingColumnWithOneCall() {
+        // Arrange: the upstream answers exactly the columns asked for, 0.5 mm of rain an hour
+        when(openMeteoClientService.getHourly(eq(lat), eq(lon), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    LocalDate from = LocalDate.parse(invocation.getArgument(2, String.class));
+                    HourlyForecastResponse response = HourlyResponses.seasonal(from, LocalDate.parse(invocation.getArgument(3, String.class)));
+                    HourlyData hourly = response.getHourly();
+                    Set<HourlyVariable> columns = invocation.getArgument(4);
+                    if (columns.contains(HourlyVariable.PRECIPITATION)) {
+                        double[] rain = new double[hourly.getTimeCount()];
+                        Arrays.fill(rain, 0.5);
+                        hourly.setColumn(HourlyVariable.PRECIPITATION, rain);
+                    }
+                    if (!columns.contains(HourlyVariable.TEMPERATURE_2M)) {
+                        hourly.setTemperature2m((double[]) null);
+                    }
+                    return response;
+                });
+        LocalDate from = LocalDate.parse("2023-01-01");
+        LocalDate to = LocalDate.parse("2023-01-31");
+        Set<HourlyVariable> variables = EnumSet.of(HourlyVariable.TEMPERATURE_2M, HourlyVariable.PRECIPITATION);
+
+        // Act: the second request finds the temperatures the first one wrote back
+        MetricsSummary first = weatherStatService.getMetricsSummary(lat, lon, from, to, variables).orElseThrow();
+        MetricsSummary second = weatherStatService.getMetricsSummary(lat, lon, from, to, variables).orElseThrow();
+
+        // Assert: one call with both columns, then one with precipitation alone
+        verify(openMeteoClientService).getHourly(lat, lon, "2023-01-01", "2023-01-31", variables);
+        verify(openMeteoClientService).getHourly(lat, lon, "2023-01-01", "2023-01-31", Set.of(HourlyVariable.PRECIPITATION));
+        verify(openMeteoClientService, times(2)).getHourly(eq(lat), eq(lon), anyString(), anyString(), any());
+
+        SeriesAggregate expected = SeriesAggregate.of(new HourlySeries(from,
+                HourlyResponses.seasonal(from, to).getHourly().getTemperature2m()));
+        for (MetricsSummary summary : List.of(first, second)) {
+            SeriesAggregate temperature = summary.getAggregates().get(HourlyVariable.TEMPERATURE_2M);
+            SeriesAggregate rain = summary.getAggregates().get(HourlyVariable.PRECIPITATION);
+            assertEquals(expected.getCount(), temperature.getCount());
+            assertEquals(expected.getMean(), temperature.getMean(), 1e-9);
+            assertEquals(31 * 24, rain.getCount());
+            assertEquals(31 * 24 * 0.5, rain.getSum(), 1e-9);
+        }
+    }
+
+    @Test
+    void testGetMetricsSummary_MissingColumnIsNotFound() {
+        // Arrange: the upstream leaves out the wind column
+        when(openMeteoClientService.getHourly(eq(lat), eq(lon), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> HourlyResponses.seasonal(LocalDate.parse(invocation.getArgument(2, String.class)),
+                        LocalDate.parse(invocation.getArgument(3, String.class))));
+
+        // Act
+        Optional<MetricsSummary> result = weatherStatService.getMetricsSummary(lat, lon, LocalDate.parse("2023-01-01"),
+                LocalDate.parse("2023-01-02"), EnumSet.of(HourlyVariable.TEMPERATURE_2M, HourlyVariable.WIND_SPEED_10M));
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+}